@@ -0,0 +1,48 @@
+package com.interview.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for answer evaluation
+ * Provides the thread pool that runs the OpenAI calls of an evaluation concurrently
+ */
+@Configuration
+public class EvaluationConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvaluationConfig.class);
+
+    @Value("${interview.evaluation.threads:16}")
+    private int threads;
+
+    @Value("${interview.evaluation.queue-capacity:200}")
+    private int queueCapacity;
+
+    /**
+     * Bounded pool for the blocking OpenAI calls of answer evaluations
+     * When the queue is full the submitting thread makes the call itself, so bursts slow down instead of failing
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService evaluationExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "answer-evaluation-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        logger.info("Answer evaluation pool: {} threads, queue capacity {}", threads, queueCapacity);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -14,17 +14,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.interview.entity.ChatMessage;
 import com.interview.entity.InterviewResult;
 import com.interview.repository.ChatRepository;
 import com.interview.repository.InterviewResultRepository;
-import com.interview.service.InterviewOpenAiService;
+import com.interview.service.AnswerEvaluationService;
+import com.interview.service.AnswerEvaluationService.AnswerEvaluation;
 import com.interview.service.NotificationService;
+import com.interview.service.ScoringAgreementService;
 
 /**
  * REST Controller for Q&A chat interactions and interview submissions
@@ -39,17 +43,20 @@ public class ChatController {
     
     private final ChatRepository chatRepository;
     private final InterviewResultRepository interviewResultRepository;
-    private final InterviewOpenAiService openAiService;
+    private final AnswerEvaluationService answerEvaluationService;
+    private final ScoringAgreementService scoringAgreementService;
     private final NotificationService notificationService;
 
     @Autowired
     public ChatController(ChatRepository chatRepository, 
                          InterviewResultRepository interviewResultRepository,
-                         InterviewOpenAiService openAiService,
+                         AnswerEvaluationService answerEvaluationService,
+                         ScoringAgreementService scoringAgreementService,
                          @Autowired(required = false) NotificationService notificationService) {
         this.chatRepository = chatRepository;
         this.interviewResultRepository = interviewResultRepository;
-        this.openAiService = openAiService;
+        this.answerEvaluationService = answerEvaluationService;
+        this.scoringAgreementService = scoringAgreementService;
         this.notificationService = notificationService;
     }
 
@@ -96,36 +103,20 @@ public class ChatController {
                 }
             }
             
-            // Step 1: Generate expected answer using AI
-            String expectedAnswer = openAiService.generateExpectedAnswer(
+            // Expected answer, reference response, similarity and feedback, concurrently where independent
+            AnswerEvaluation evaluation = answerEvaluationService.evaluate(
                 request.getQuestionText(),
-                request.getDomain()
-            );
-            
-            // Step 2: Generate comprehensive response for reference
-            String botResponse = openAiService.getInterviewCompletion(
-                request.getQuestionText(),    // Actual interview question
                 request.getDomain(),
-                expectedAnswer                // AI-generated expected answer
+                request.getUserAnswer()
             );
+            String expectedAnswer = evaluation.getExpectedAnswer();
+            String botResponse = evaluation.getBotResponse();
+            double similarity = evaluation.getSimilarity();
+            String feedback = evaluation.getFeedback();
             
-            // Step 3: Calculate similarity between user answer and expected answer
-            double similarity = openAiService.compareAnswers(
-                expectedAnswer,               // AI-generated expected answer
-                request.getUserAnswer()       // User's actual answer
-            );
-            
-            // Step 4: Determine if answer is correct (threshold: 0.6)
+            // Determine if answer is correct (threshold: 0.6)
             boolean isCorrect = similarity >= 0.6;
             
-            // Step 5: Generate AI-powered contextual feedback
-            String feedback = openAiService.generateAIFeedback(
-                request.getQuestionText(),    // Original question
-                request.getUserAnswer(),      // User's answer
-                expectedAnswer,               // AI-generated expected answer
-                similarity                    // Similarity score
-            );
-            
             // Calculate response time
             long responseTime = System.currentTimeMillis() - startTime;
             
@@ -142,6 +133,8 @@ public class ChatController {
             chatMessage.setFeedback(feedback);
             chatMessage.setResponseTimeMs(responseTime);
             chatMessage.setQuestionType("SUBJECTIVE");
+            // Recorded engine lets the agreement report replay OpenAI-scored answers through the local scorer
+            chatMessage.setMetadata(ScoringAgreementService.ENGINE_METADATA_PREFIX + evaluation.getScoringEngine());
             
             // Calculate score based on similarity
             float score = Math.max(0, (float) (similarity * 100));
@@ -158,6 +151,7 @@ public class ChatController {
             response.setScore(score);
             response.setResponseTimeMs(responseTime);
             response.setMessageId(savedMessage.getId().toString());
+            response.setPartial(evaluation.isPartial());
             
             logger.info("Chat response processed successfully. Similarity: {}, Correct: {}", 
                        similarity, isCorrect);
@@ -178,6 +172,23 @@ public class ChatController {
     }
 
 
+    /**
+     * GET /api/chat/scoring/agreement - Compare local and OpenAI similarity on recorded answers
+     */
+    @GetMapping("/scoring/agreement")
+    public ResponseEntity<Map<String, Object>> getScoringAgreement(@RequestParam(defaultValue = "1000") int limit) {
+        try {
+            return ResponseEntity.ok(scoringAgreementService.measureAgreement(Math.max(1, Math.min(limit, 10000))));
+        } catch (Exception e) {
+            logger.error("Error measuring scoring agreement: {}", e.getMessage(), e);
+
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Error measuring scoring agreement: " + e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
 
     /**
      * POST /api/chat/submitInterview - Submit complete interview results
@@ -369,6 +380,7 @@ public class ChatController {
         private float score;
         private long responseTimeMs;
         private String messageId;
+        private boolean partial;
 
         // Constructors
         public ChatResponse() {}
@@ -429,6 +441,14 @@ public class ChatController {
         public void setMessageId(String messageId) {
             this.messageId = messageId;
         }
+
+        public boolean isPartial() {
+            return partial;
+        }
+
+        public void setPartial(boolean partial) {
+            this.partial = partial;
+        }
     }
 
     /**
@@ -0,0 +1,112 @@
+package com.interview.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing an AI-generated expected answer
+ * Stored once per question text and domain, since the expected answer for them never changes
+ */
+@Entity
+@Table(name = "expected_answers")
+public class ExpectedAnswer {
+
+    // SHA-256 of the normalized question text and domain
+    @Id
+    @Column(name = "question_key", length = 64)
+    private String questionKey;
+
+    // Set when the question text belongs to a stored question
+    @Column(name = "question_id")
+    private UUID questionId;
+
+    @Column(name = "question_text", columnDefinition = "TEXT", nullable = false)
+    private String questionText;
+
+    @Column(name = "domain", length = 100)
+    private String domain;
+
+    @Column(name = "answer", columnDefinition = "TEXT", nullable = false)
+    private String answer;
+
+    // Time the generation took, which every later use saves
+    @Column(name = "generation_ms")
+    private Long generationMs;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public ExpectedAnswer() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public ExpectedAnswer(String questionKey, UUID questionId, String questionText, String domain,
+                          String answer, Long generationMs) {
+        this();
+        this.questionKey = questionKey;
+        this.questionId = questionId;
+        this.questionText = questionText;
+        this.domain = domain;
+        this.answer = answer;
+        this.generationMs = generationMs;
+    }
+
+    // Getter and Setter methods
+    public String getQuestionKey() {
+        return questionKey;
+    }
+
+    public void setQuestionKey(String questionKey) {
+        this.questionKey = questionKey;
+    }
+
+    public UUID getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(UUID questionId) {
+        this.questionId = questionId;
+    }
+
+    public String getQuestionText() {
+        return questionText;
+    }
+
+    public void setQuestionText(String questionText) {
+        this.questionText = questionText;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+
+    public void setAnswer(String answer) {
+        this.answer = answer;
+    }
+
+    public Long getGenerationMs() {
+        return generationMs;
+    }
+
+    public void setGenerationMs(Long generationMs) {
+        this.generationMs = generationMs;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
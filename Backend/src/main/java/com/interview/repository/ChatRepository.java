@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -76,4 +77,8 @@ public interface ChatRepository extends JpaRepository<ChatMessage, UUID> {
             @Param("resumeId") String resumeId,
             @Param("questionText") String questionText,
             @Param("since") LocalDateTime since);
+
+    // Find the most recent scored answers whose metadata records the given scoring engine
+    @Query("SELECT c FROM ChatMessage c WHERE c.metadata LIKE %:engineMarker% AND c.similarity IS NOT NULL AND c.expectedAnswer IS NOT NULL ORDER BY c.timestamp DESC")
+    List<ChatMessage> findScoredByEngine(@Param("engineMarker") String engineMarker, Pageable pageable);
 } 
\ No newline at end of file
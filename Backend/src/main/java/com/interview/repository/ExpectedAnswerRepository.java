@@ -0,0 +1,20 @@
+package com.interview.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.interview.entity.ExpectedAnswer;
+
+/**
+ * Repository interface for ExpectedAnswer entity
+ * Provides lookup of stored expected answers by question key
+ */
+@Repository
+public interface ExpectedAnswerRepository extends JpaRepository<ExpectedAnswer, String> {
+
+    // Find stored answers for a set of question keys
+    List<ExpectedAnswer> findByQuestionKeyIn(Collection<String> questionKeys);
+}
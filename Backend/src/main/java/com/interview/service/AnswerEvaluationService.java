@@ -0,0 +1,214 @@
+package com.interview.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service for evaluating subjective answers
+ * Runs the OpenAI calls of an evaluation concurrently as far as their dependencies allow:
+ * the candidate's answer is embedded while the expected answer is generated, then the reference
+ * response and the expected-answer embedding run side by side, and feedback waits for the similarity.
+ * Embeddings come from {@link EmbeddingStore}, so a stored expected answer is never embedded twice.
+ * With the local scoring engine, without OpenAI or while its circuit is open, similarity comes from
+ * {@link LocalSimilarityScorer} instead.
+ * Whatever is not done by the deadline is replaced by a local fallback and the evaluation is marked partial.
+ */
+@Service
+public class AnswerEvaluationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnswerEvaluationService.class);
+
+    private final InterviewOpenAiService openAiService;
+    private final ExpectedAnswerService expectedAnswerService;
+    private final EmbeddingStore embeddingStore;
+    private final LocalSimilarityScorer localSimilarityScorer;
+    private final ExecutorService evaluationExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${interview.evaluation.deadline-ms:30000}")
+    private long deadlineMs;
+
+    // "openai" scores with embeddings, "local" in-process with no network call
+    @Value("${interview.scoring.engine:openai}")
+    private String scoringEngine;
+
+    public AnswerEvaluationService(InterviewOpenAiService openAiService,
+                                   ExpectedAnswerService expectedAnswerService,
+                                   EmbeddingStore embeddingStore,
+                                   LocalSimilarityScorer localSimilarityScorer,
+                                   @Qualifier("evaluationExecutor") ExecutorService evaluationExecutor,
+                                   MeterRegistry meterRegistry) {
+        this.openAiService = openAiService;
+        this.expectedAnswerService = expectedAnswerService;
+        this.embeddingStore = embeddingStore;
+        this.localSimilarityScorer = localSimilarityScorer;
+        this.evaluationExecutor = evaluationExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Evaluate a candidate's answer to a question within the evaluation deadline
+     */
+    public AnswerEvaluation evaluate(String questionText, String domain, String userAnswer) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        CompletableFuture<String> expectedAnswer = CompletableFuture.supplyAsync(
+                () -> expectedAnswerService.getExpectedAnswer(questionText, domain), evaluationExecutor);
+
+        CompletableFuture<String> botResponse = expectedAnswer.thenApplyAsync(
+                expected -> openAiService.getInterviewCompletion(questionText, domain, expected), evaluationExecutor);
+
+        String engine = openAiService.isAvailable() && !"local".equalsIgnoreCase(scoringEngine) ? "openai" : "local";
+        CompletableFuture<Double> similarity;
+        if ("openai".equals(engine)) {
+            // The candidate's answer does not depend on the expected answer, so it is embedded right away;
+            // the expected answer's embedding is stored after its first use, leaving one call per evaluation
+            CompletableFuture<float[]> answerEmbedding = embeddingStore.embedAsync(userAnswer);
+            CompletableFuture<float[]> expectedEmbedding = expectedAnswer.thenCompose(embeddingStore::embedAsync);
+            similarity = expectedEmbedding.thenCombine(answerEmbedding, openAiService::calculateCosineSimilarity);
+        } else {
+            similarity = expectedAnswer.thenApply(expected -> localSimilarityScorer.score(expected, userAnswer));
+        }
+
+        CompletableFuture<String> feedback = similarity.thenApplyAsync(
+                score -> openAiService.generateAIFeedback(questionText, userAnswer, expectedAnswer.join(), score),
+                evaluationExecutor);
+
+        awaitUntil(CompletableFuture.allOf(botResponse, feedback), deadline);
+
+        // Fall back stage by stage for whatever did not finish in time
+        List<String> degraded = new ArrayList<>();
+        String expected = resultOf(expectedAnswer, "expectedAnswer", degraded);
+        String bot = resultOf(botResponse, "botResponse", degraded);
+        Double score = resultOf(similarity, "similarity", degraded);
+        String feedbackText = resultOf(feedback, "feedback", degraded);
+
+        if (score == null) {
+            // Without an expected answer, overlap with the question is the only reference left
+            score = localSimilarityScorer.score(expected != null ? expected : questionText, userAnswer);
+            engine = "local";
+        }
+        if (bot == null) {
+            bot = expected != null ? expected : "A reference answer could not be generated in time.";
+        }
+        if (feedbackText == null) {
+            feedbackText = openAiService.generateSimpleFeedback(score);
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        boolean partial = !degraded.isEmpty();
+        meterRegistry.timer("chat.evaluation.duration", "outcome", partial ? "partial" : "complete", "engine", engine)
+                .record(elapsedMs, TimeUnit.MILLISECONDS);
+        if (partial) {
+            logger.warn("Answer evaluation used fallbacks for {} after {} ms", degraded, elapsedMs);
+        }
+
+        return new AnswerEvaluation(expected, bot, score, engine, feedbackText, partial, degraded, elapsedMs);
+    }
+
+    /**
+     * Wait for a stage until the deadline; a failure is left for the stages' own checks
+     */
+    private void awaitUntil(CompletableFuture<?> future, long deadline) {
+        try {
+            future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Answer evaluation hit the {} ms deadline", deadlineMs);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LlmUnavailableException) {
+                logger.warn("Answer evaluation stage skipped: {}", e.getCause().getMessage());
+                return;
+            }
+            logger.error("Answer evaluation stage failed: {}", e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Result of a finished stage, or null with the stage recorded as degraded
+     */
+    private <T> T resultOf(CompletableFuture<T> stage, String name, List<String> degraded) {
+        if (stage.isDone() && !stage.isCompletedExceptionally()) {
+            return stage.join();
+        }
+        // Stops dependent stages from starting; calls already in flight run to their own timeout
+        stage.cancel(false);
+        degraded.add(name);
+        return null;
+    }
+
+    /**
+     * Outcome of evaluating one answer
+     */
+    public static class AnswerEvaluation {
+        private final String expectedAnswer;
+        private final String botResponse;
+        private final double similarity;
+        private final String scoringEngine;
+        private final String feedback;
+        private final boolean partial;
+        private final List<String> degradedStages;
+        private final long elapsedMs;
+
+        public AnswerEvaluation(String expectedAnswer, String botResponse, double similarity, String scoringEngine,
+                                String feedback, boolean partial, List<String> degradedStages, long elapsedMs) {
+            this.expectedAnswer = expectedAnswer;
+            this.botResponse = botResponse;
+            this.similarity = similarity;
+            this.scoringEngine = scoringEngine;
+            this.feedback = feedback;
+            this.partial = partial;
+            this.degradedStages = Collections.unmodifiableList(degradedStages);
+            this.elapsedMs = elapsedMs;
+        }
+
+        public String getExpectedAnswer() {
+            return expectedAnswer;
+        }
+
+        public String getBotResponse() {
+            return botResponse;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+
+        // Engine that produced the similarity: "openai" or "local"
+        public String getScoringEngine() {
+            return scoringEngine;
+        }
+
+        public String getFeedback() {
+            return feedback;
+        }
+
+        public boolean isPartial() {
+            return partial;
+        }
+
+        public List<String> getDegradedStages() {
+            return degradedStages;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+    }
+}
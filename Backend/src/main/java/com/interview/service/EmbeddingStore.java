@@ -0,0 +1,377 @@
+package com.interview.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service for text embeddings, stored as float vectors by content hash
+ * Each distinct text is embedded once: vectors are kept in an in-memory LRU and, when a file is
+ * configured, appended to it and read back through a memory mapping after eviction or a restart.
+ * The file is one mapping, so it stops growing at its size limit; later vectors are kept in memory only.
+ * Texts missing from the store are queued, and a dispatcher thread collects everything pending into
+ * batch requests, so concurrent evaluations share calls. Batches are sent on the evaluation pool,
+ * several at a time as far as {@link LlmGateway} allows, and a failed batch is retried text by text
+ * so one bad input does not fail the others.
+ */
+@Service
+public class EmbeddingStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingStore.class);
+
+    // Record layout in the file: SHA-256 of the text, vector length, then the vector
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = HASH_BYTES + Integer.BYTES;
+
+    private final InterviewOpenAiService openAiService;
+    private final ExecutorService evaluationExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${interview.embeddings.cache-size:10000}")
+    private int cacheSize;
+
+    // Empty keeps embeddings in memory only
+    @Value("${interview.embeddings.file:}")
+    private String storeFile;
+
+    // Offsets into the mapping are ints, so the file cannot grow past 2 GB
+    @Value("${interview.embeddings.max-file-bytes:2147483647}")
+    private long maxFileBytes = Integer.MAX_VALUE;
+
+    @Value("${interview.embeddings.max-batch:16}")
+    private int maxBatch;
+
+    // How long the dispatcher waits for more texts once one is pending
+    @Value("${interview.embeddings.linger-ms:5}")
+    private long lingerMs;
+
+    // Access-ordered for LRU eviction; guarded by its own lock
+    private final LinkedHashMap<String, float[]> cache = new LinkedHashMap<>(256, 0.75f, true);
+
+    // File offsets of stored vectors by hash
+    private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+
+    // Texts waiting for the dispatcher, and their results by hash
+    private final BlockingQueue<PendingEmbedding> queue = new LinkedBlockingQueue<>();
+    private final Map<String, CompletableFuture<float[]>> pending = new ConcurrentHashMap<>();
+
+    private FileChannel channel;
+    private volatile MappedByteBuffer mapped;
+    private Thread dispatcher;
+    private boolean fileFull;
+
+    public EmbeddingStore(InterviewOpenAiService openAiService,
+                          @Qualifier("evaluationExecutor") ExecutorService evaluationExecutor,
+                          MeterRegistry meterRegistry) {
+        this.openAiService = openAiService;
+        this.evaluationExecutor = evaluationExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        maxFileBytes = Math.min(maxFileBytes, Integer.MAX_VALUE);
+        if (storeFile != null && !storeFile.isBlank()) {
+            openFile(Paths.get(storeFile));
+        }
+        dispatcher = new Thread(this::dispatch, "embedding-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        dispatcher.interrupt();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Embedding of a text, from the store or a batched request
+     * The future fails if the embedding request fails; failures are not stored
+     */
+    public CompletableFuture<float[]> embedAsync(String text) {
+        String hash = contentHash(text);
+        float[] stored = find(hash);
+        if (stored != null) {
+            meterRegistry.counter("embeddings.lookups", "source", "stored").increment();
+            return CompletableFuture.completedFuture(stored);
+        }
+
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        CompletableFuture<float[]> existing = pending.putIfAbsent(hash, future);
+        if (existing != null) {
+            meterRegistry.counter("embeddings.lookups", "source", "shared").increment();
+            return existing;
+        }
+        meterRegistry.counter("embeddings.lookups", "source", "requested").increment();
+        queue.add(new PendingEmbedding(hash, text, future));
+        return future;
+    }
+
+    /**
+     * Collect pending texts into batches and hand them to the evaluation pool until interrupted
+     */
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PendingEmbedding> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < maxBatch) {
+                    PendingEmbedding next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+        }
+        for (PendingEmbedding left : queue) {
+            left.future.completeExceptionally(new IllegalStateException("Embedding store is shutting down"));
+        }
+    }
+
+    /**
+     * Embed a batch on the evaluation pool; when the pool is saturated the dispatcher sends it itself
+     */
+    private void send(List<PendingEmbedding> batch) {
+        try {
+            evaluationExecutor.execute(() -> embedBatch(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, new IllegalStateException("Embedding store is shutting down", e));
+        }
+    }
+
+    private void embedBatch(List<PendingEmbedding> batch) {
+        try {
+            embed(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1 || e instanceof LlmUnavailableException) {
+                // Alone, or not sent at all: retrying the texts one by one would fail the same way
+                logger.error("Error creating {} embedding(s): {}", batch.size(), e.getMessage(), e);
+                fail(batch, e);
+                return;
+            }
+            logger.warn("Error creating {} embeddings ({}), retrying them one at a time", batch.size(), e.getMessage());
+            meterRegistry.counter("embeddings.batch.split").increment();
+            for (PendingEmbedding item : batch) {
+                try {
+                    embed(List.of(item));
+                } catch (RuntimeException itemFailure) {
+                    logger.error("Error creating embedding {}: {}", item.hash, itemFailure.getMessage(), itemFailure);
+                    fail(List.of(item), itemFailure);
+                }
+            }
+        }
+    }
+
+    private void embed(List<PendingEmbedding> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (PendingEmbedding item : batch) {
+            texts.add(item.text);
+        }
+
+        long startTime = System.nanoTime();
+        List<float[]> vectors = openAiService.createEmbeddings(texts);
+        meterRegistry.timer("embeddings.batch.duration").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        meterRegistry.summary("embeddings.batch.size").record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingEmbedding item = batch.get(i);
+            save(item.hash, vectors.get(i));
+            pending.remove(item.hash, item.future);
+            item.future.complete(vectors.get(i));
+        }
+    }
+
+    private void fail(List<PendingEmbedding> batch, RuntimeException e) {
+        for (PendingEmbedding item : batch) {
+            pending.remove(item.hash, item.future);
+            item.future.completeExceptionally(e);
+        }
+    }
+
+    private float[] find(String hash) {
+        synchronized (cache) {
+            float[] cached = cache.get(hash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Long offset = offsets.get(hash);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            float[] vector = read(offset);
+            remember(hash, vector);
+            return vector;
+        } catch (IOException | RuntimeException e) {
+            // An unreadable record is embedded again rather than failing the caller
+            logger.warn("Could not read stored embedding {}: {}", hash, e.getMessage());
+            offsets.remove(hash, offset);
+            return null;
+        }
+    }
+
+    private void save(String hash, float[] vector) {
+        remember(hash, vector);
+        if (channel == null) {
+            return;
+        }
+        try {
+            append(hash, vector);
+        } catch (IOException e) {
+            logger.warn("Could not persist embedding {}: {}", hash, e.getMessage());
+        }
+    }
+
+    private void remember(String hash, float[] vector) {
+        synchronized (cache) {
+            cache.put(hash, vector);
+            if (cache.size() > cacheSize) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Open the store file and index its records; a record cut short by a crash is truncated away
+     */
+    private void openFile(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), maxFileBytes));
+
+        long position = 0;
+        byte[] hash = new byte[HASH_BYTES];
+        while (position + HEADER_BYTES <= mapped.capacity()) {
+            mapped.get((int) position, hash);
+            int dimensions = mapped.getInt((int) position + HASH_BYTES);
+            long end = position + HEADER_BYTES + (long) dimensions * Float.BYTES;
+            if (dimensions <= 0 || end > mapped.capacity()) {
+                break;
+            }
+            offsets.put(HexFormat.of().formatHex(hash), position);
+            position = end;
+        }
+        if (channel.size() > maxFileBytes) {
+            // Written under a higher limit; what lies past this one is left alone but not read
+            fileFull = true;
+            logger.warn("Embedding store {} is larger than its {}-byte limit; records past it are ignored",
+                       path, maxFileBytes);
+        } else if (position < channel.size()) {
+            logger.warn("Truncating {} bytes of an incomplete embedding record in {}", channel.size() - position, path);
+            channel.truncate(position);
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+        }
+        logger.info("Embedding store {} holds {} vectors", path, offsets.size());
+    }
+
+    private synchronized void append(String hash, float[] vector) throws IOException {
+        long position = channel.size();
+        if (position + HEADER_BYTES + (long) vector.length * Float.BYTES > maxFileBytes) {
+            if (!fileFull) {
+                fileFull = true;
+                logger.warn("Embedding store reached its {}-byte limit; new embeddings are kept in memory only",
+                           maxFileBytes);
+            }
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + vector.length * Float.BYTES);
+        record.put(HexFormat.of().parseHex(hash));
+        record.putInt(vector.length);
+        record.asFloatBuffer().put(vector);
+        record.rewind();
+        while (record.hasRemaining()) {
+            channel.write(record, position + record.position());
+        }
+        offsets.put(hash, position);
+    }
+
+    /**
+     * Read a stored vector, mapping the file again when the record was appended after the last mapping
+     */
+    private float[] read(long offset) throws IOException {
+        MappedByteBuffer buffer = mapped;
+        if (offset + HEADER_BYTES > buffer.capacity()) {
+            buffer = remap();
+        }
+        int dimensions = buffer.getInt((int) offset + HASH_BYTES);
+        if (offset + HEADER_BYTES + (long) dimensions * Float.BYTES > buffer.capacity()) {
+            buffer = remap();
+        }
+        float[] vector = new float[dimensions];
+        buffer.slice((int) offset + HEADER_BYTES, dimensions * Float.BYTES).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    private synchronized MappedByteBuffer remap() throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), maxFileBytes));
+        return mapped;
+    }
+
+    /**
+     * SHA-256 of the embedding model and the exact text
+     */
+    private String contentHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(openAiService.getEmbeddingModel().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class PendingEmbedding {
+        private final String hash;
+        private final String text;
+        private final CompletableFuture<float[]> future;
+
+        PendingEmbedding(String hash, String text, CompletableFuture<float[]> future) {
+            this.hash = hash;
+            this.text = text;
+            this.future = future;
+        }
+    }
+}
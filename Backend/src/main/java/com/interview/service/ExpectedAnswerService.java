@@ -0,0 +1,299 @@
+package com.interview.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.interview.entity.ExpectedAnswer;
+import com.interview.entity.Question;
+import com.interview.entity.Question.QuestionType;
+import com.interview.repository.ExpectedAnswerRepository;
+import com.interview.repository.QuestionRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service for expected answers of subjective questions
+ * An expected answer depends only on the question text and domain, so it is generated once,
+ * stored in the expected_answers table and served from an in-memory LRU in front of it.
+ * Concurrent requests for an answer being generated wait for that generation instead of starting their own.
+ * Every answer loaded is also added to the {@link LocalSimilarityScorer} corpus, so its local vector is ready before scoring.
+ * Answers missing at startup can be generated by a background thread, one at a time at a rate of its own,
+ * so pre-generation neither delays startup nor uses up the gateway's rate limit ahead of live evaluations.
+ */
+@Service
+public class ExpectedAnswerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpectedAnswerService.class);
+
+    private final InterviewOpenAiService openAiService;
+    private final LocalSimilarityScorer localSimilarityScorer;
+    private final ExpectedAnswerRepository expectedAnswerRepository;
+    private final QuestionRepository questionRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${interview.expected-answers.cache-size:1000}")
+    private int cacheSize;
+
+    // Also generate the answers missing for stored questions at startup, at the cost of one call each
+    @Value("${interview.expected-answers.prewarm-generate:false}")
+    private boolean prewarmGenerate;
+
+    // Pre-generation rate, well below the gateway's so live evaluations keep their calls
+    @Value("${interview.expected-answers.prewarm-per-minute:30}")
+    private double prewarmPerMinute = 30;
+
+    // Access-ordered for LRU eviction; guarded by its own lock
+    private final LinkedHashMap<String, ExpectedAnswer> cache = new LinkedHashMap<>(256, 0.75f, true);
+
+    // Generations in progress by question key
+    private final Map<String, CompletableFuture<ExpectedAnswer>> inFlight = new ConcurrentHashMap<>();
+
+    // Reference answers of stored questions by question key, used when OpenAI is not configured
+    private final Map<String, String> referenceAnswers = new ConcurrentHashMap<>();
+
+    private Thread prewarmThread;
+
+    public ExpectedAnswerService(InterviewOpenAiService openAiService,
+                                 LocalSimilarityScorer localSimilarityScorer,
+                                 ExpectedAnswerRepository expectedAnswerRepository,
+                                 QuestionRepository questionRepository,
+                                 MeterRegistry meterRegistry) {
+        this.openAiService = openAiService;
+        this.localSimilarityScorer = localSimilarityScorer;
+        this.expectedAnswerRepository = expectedAnswerRepository;
+        this.questionRepository = questionRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Get the expected answer for a question, generating and storing it on first use
+     * @throws RuntimeException if the answer had to be generated and generation failed,
+     *         unless the gateway rejected the call and the question has a reference answer
+     */
+    public String getExpectedAnswer(String questionText, String domain) {
+        if (!openAiService.isConfigured()) {
+            // A stored question's own reference answer beats the mock, which is not worth storing
+            String reference = referenceAnswers.get(questionKey(questionText, domain));
+            return reference != null ? reference : openAiService.generateExpectedAnswer(questionText, domain);
+        }
+        String key = questionKey(questionText, domain);
+        try {
+            return lookup(key, null, questionText, domain).getAnswer();
+        } catch (LlmUnavailableException e) {
+            // OpenAI is failing fast; a reference answer is better than none, but it is not stored
+            String reference = referenceAnswers.get(key);
+            if (reference == null) {
+                throw e;
+            }
+            meterRegistry.counter("expected.answers.lookups", "source", "reference").increment();
+            return reference;
+        }
+    }
+
+    /**
+     * Load the stored and reference answers of the active subjective questions into memory once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        long startTime = System.currentTimeMillis();
+        List<Question> questions = questionRepository.findByQuestionTypeAndActiveTrue(QuestionType.SUBJECTIVE);
+
+        // Questions may be asked by their description or their title
+        Map<String, Question> questionsByKey = new HashMap<>();
+        for (Question question : questions) {
+            if (question.getDescription() != null && !question.getDescription().isBlank()) {
+                questionsByKey.put(questionKey(question.getDescription(), question.getDomain()), question);
+            }
+            if (question.getTitle() != null && !question.getTitle().isBlank()) {
+                questionsByKey.putIfAbsent(questionKey(question.getTitle(), question.getDomain()), question);
+            }
+        }
+        for (Map.Entry<String, Question> entry : questionsByKey.entrySet()) {
+            String reference = entry.getValue().getCorrectAnswer();
+            if (reference != null && !reference.isBlank()) {
+                referenceAnswers.put(entry.getKey(), reference);
+                localSimilarityScorer.addDocument(reference);
+            }
+        }
+
+        int loaded = 0;
+        for (ExpectedAnswer answer : expectedAnswerRepository.findByQuestionKeyIn(questionsByKey.keySet())) {
+            if (loaded++ < cacheSize) {
+                put(answer);
+            }
+        }
+        logger.info("Loaded {} stored expected answers and {} reference answers for {} subjective questions in {} ms",
+                   loaded, referenceAnswers.size(), questions.size(), System.currentTimeMillis() - startTime);
+
+        if (prewarmGenerate && openAiService.isConfigured()) {
+            List<Question> missing = new ArrayList<>();
+            for (Question question : questions) {
+                if (get(questionKey(promptText(question), question.getDomain())) == null) {
+                    missing.add(question);
+                }
+            }
+            if (!missing.isEmpty()) {
+                prewarmThread = new Thread(() -> generateMissing(missing), "expected-answer-prewarm");
+                prewarmThread.setDaemon(true);
+                prewarmThread.start();
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (prewarmThread != null) {
+            prewarmThread.interrupt();
+        }
+    }
+
+    /**
+     * Generate the missing answers one after another, pausing between calls to keep to the pre-generation rate
+     */
+    private void generateMissing(List<Question> questions) {
+        long intervalMs = (long) (60_000 / prewarmPerMinute);
+        logger.info("Pre-generating {} missing expected answers, one every {} ms", questions.size(), intervalMs);
+        int generated = 0;
+        for (Question question : questions) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            String text = promptText(question);
+            String key = questionKey(text, question.getDomain());
+            if (get(key) != null) {
+                continue;
+            }
+            try {
+                lookup(key, question.getId(), text, question.getDomain());
+                generated++;
+            } catch (RuntimeException e) {
+                logger.warn("Could not pre-generate expected answer for question {}: {}", question.getId(), e.getMessage());
+            }
+            try {
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        logger.info("Pre-generated {} of {} missing expected answers", generated, questions.size());
+    }
+
+    private static String promptText(Question question) {
+        return question.getDescription() != null && !question.getDescription().isBlank()
+                ? question.getDescription() : question.getTitle();
+    }
+
+    /**
+     * Find an answer in memory, then in the database, then generate it, sharing generations in flight
+     */
+    private ExpectedAnswer lookup(String key, UUID questionId, String questionText, String domain) {
+        ExpectedAnswer cached = get(key);
+        if (cached != null) {
+            recordHit("memory", cached);
+            return cached;
+        }
+
+        CompletableFuture<ExpectedAnswer> generation = new CompletableFuture<>();
+        CompletableFuture<ExpectedAnswer> existing = inFlight.putIfAbsent(key, generation);
+        if (existing != null) {
+            meterRegistry.counter("expected.answers.lookups", "source", "shared").increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            Optional<ExpectedAnswer> stored = expectedAnswerRepository.findById(key);
+            ExpectedAnswer answer;
+            if (stored.isPresent()) {
+                answer = stored.get();
+                recordHit("stored", answer);
+            } else {
+                long startTime = System.nanoTime();
+                String text = openAiService.createExpectedAnswer(questionText, domain);
+                long generationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                answer = expectedAnswerRepository.save(
+                        new ExpectedAnswer(key, questionId, questionText, domain, text, generationMs));
+                meterRegistry.counter("expected.answers.lookups", "source", "generated").increment();
+                logger.info("Generated expected answer for question key {} in {} ms", key, generationMs);
+            }
+            put(answer);
+            generation.complete(answer);
+            return answer;
+        } catch (RuntimeException e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, generation);
+        }
+    }
+
+    private void recordHit(String source, ExpectedAnswer answer) {
+        meterRegistry.counter("expected.answers.lookups", "source", source).increment();
+        if (answer.getGenerationMs() != null) {
+            Counter.builder("expected.answers.latency.saved")
+                    .description("Generation time avoided by reusing expected answers")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry)
+                    .increment(answer.getGenerationMs());
+        }
+    }
+
+    private ExpectedAnswer get(String key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void put(ExpectedAnswer answer) {
+        synchronized (cache) {
+            cache.put(answer.getQuestionKey(), answer);
+            if (cache.size() > cacheSize) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+        localSimilarityScorer.addDocument(answer.getAnswer());
+    }
+
+    /**
+     * SHA-256 of the question text and domain, ignoring case and whitespace differences
+     */
+    static String questionKey(String questionText, String domain) {
+        String normalized = normalize(questionText) + "\n" + normalize(domain);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -3,47 +3,71 @@ package com.interview.service;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theokanning.openai.client.OpenAiApi;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.theokanning.openai.completion.chat.ChatMessageRole;
+import com.theokanning.openai.embedding.Embedding;
 import com.theokanning.openai.embedding.EmbeddingRequest;
 import com.theokanning.openai.service.OpenAiService;
 
+import okhttp3.OkHttpClient;
+import retrofit2.Retrofit;
+
 /**
  * Service for OpenAI API integration
- * Handles GPT completions and text similarity comparisons using embeddings
+ * Handles GPT completions and text similarity comparisons using embeddings.
+ * Every call goes through {@link LlmGateway}; failures are thrown, never returned as text, so callers can fall back.
  */
 @Service
 public class InterviewOpenAiService {
 
     private static final Logger logger = LoggerFactory.getLogger(InterviewOpenAiService.class);
+    private static final String EMBEDDING_MODEL = "text-embedding-ada-002";
+    private static final int LOCAL_EMBEDDING_DIMENSIONS = 256;
     
     private final OpenAiService openAiService;
+    private final LocalSimilarityScorer localSimilarityScorer;
+    private final LlmGateway llmGateway;
     private final boolean isConfigured;
 
-    // Constructor with OpenAI API key injection
+    // Constructor with OpenAI API key injection; the base URL can point at a local stub server for testing
     public InterviewOpenAiService(@Value("${openai.api.key:}") String apiKey,
-                                  @Value("${openai.timeout:60}") long timeoutSeconds) {
+                                  @Value("${openai.timeout:60}") long timeoutSeconds,
+                                  @Value("${openai.base-url:https://api.openai.com/}") String baseUrl,
+                                  LocalSimilarityScorer localSimilarityScorer,
+                                  LlmGateway llmGateway) {
+        this.localSimilarityScorer = localSimilarityScorer;
+        this.llmGateway = llmGateway;
         if (apiKey == null || apiKey.trim().isEmpty() || "YOUR_OPENAI_API_KEY_HERE".equals(apiKey)) {
             logger.warn("OpenAI API key not configured. OpenAI features will be disabled.");
             this.openAiService = null;
             this.isConfigured = false;
         } else {
-            this.openAiService = new OpenAiService(apiKey, Duration.ofSeconds(timeoutSeconds));
+            ObjectMapper mapper = OpenAiService.defaultObjectMapper();
+            OkHttpClient client = OpenAiService.defaultClient(apiKey, Duration.ofSeconds(timeoutSeconds));
+            Retrofit retrofit = OpenAiService.defaultRetrofit(client, mapper).newBuilder()
+                    .baseUrl(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/")
+                    .build();
+            this.openAiService = new OpenAiService(retrofit.create(OpenAiApi.class), client.dispatcher().executorService());
             this.isConfigured = true;
-            logger.info("OpenAI service initialized successfully");
+            logger.info("OpenAI service initialized successfully at {}", baseUrl);
         }
     }
 
     /**
-     * Get completion from GPT model
+     * Get completion from GPT model, or a mock response when OpenAI is not configured
+     * @throws RuntimeException if the call failed or was rejected by the gateway
      */
     public String getCompletion(String prompt) {
         if (!isConfigured) {
@@ -51,32 +75,41 @@ public class InterviewOpenAiService {
             return "Mock response: This is a simulated answer since OpenAI is not configured.";
         }
 
-        try {
-            ChatMessage message = new ChatMessage(ChatMessageRole.USER.value(), prompt);
-            
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                    .model("gpt-3.5-turbo")
-                    .messages(Collections.singletonList(message))
-                    .maxTokens(500)
-                    .temperature(0.7)
-                    .build();
+        return requestCompletion(prompt);
+    }
 
-            var completion = openAiService.createChatCompletion(request);
-            
-            if (completion.getChoices() != null && !completion.getChoices().isEmpty()) {
-                return completion.getChoices().get(0).getMessage().getContent().trim();
-            }
-            
-            return "No response generated";
-            
-        } catch (Exception e) {
-            logger.error("Error calling OpenAI API: {}", e.getMessage(), e);
-            return "Error generating response: " + e.getMessage();
+    /**
+     * Get completion from GPT model, throwing instead of returning an error message
+     * @throws IllegalStateException if OpenAI is not configured or returned no choices
+     * @throws LlmUnavailableException if the gateway did not attempt the call
+     */
+    public String requestCompletion(String prompt) {
+        if (!isConfigured) {
+            throw new IllegalStateException("OpenAI is not configured");
         }
+
+        ChatMessage message = new ChatMessage(ChatMessageRole.USER.value(), prompt);
+        
+        ChatCompletionRequest request = ChatCompletionRequest.builder()
+                .model("gpt-3.5-turbo")
+                .messages(Collections.singletonList(message))
+                .maxTokens(500)
+                .temperature(0.7)
+                .build();
+
+        var completion = llmGateway.call("completion", () -> openAiService.createChatCompletion(request));
+        llmGateway.recordUsage("completion", completion.getUsage());
+        
+        if (completion.getChoices() != null && !completion.getChoices().isEmpty()) {
+            return completion.getChoices().get(0).getMessage().getContent().trim();
+        }
+        
+        throw new IllegalStateException("No response generated");
     }
 
     /**
      * Get interview-specific completion with custom prompt
+     * @throws RuntimeException if the call failed or was rejected by the gateway
      */
     public String getInterviewCompletion(String questionText, String domain, String expectedAnswer) {
         String prompt = buildInterviewPrompt(questionText, domain, expectedAnswer);
@@ -86,64 +119,88 @@ public class InterviewOpenAiService {
     /**
      * Create embeddings for text similarity comparison
      */
-    public List<Double> createEmbedding(String text) {
+    public float[] createEmbedding(String text) {
         if (!isConfigured) {
-            logger.warn("OpenAI not configured. Returning mock embedding.");
-            // Return a mock embedding vector for testing
-            return Arrays.asList(0.1, 0.2, 0.3, 0.4, 0.5);
+            logger.warn("OpenAI not configured. Returning local hashed embedding.");
+            return localSimilarityScorer.embed(text, LOCAL_EMBEDDING_DIMENSIONS);
         }
 
         try {
-            EmbeddingRequest request = EmbeddingRequest.builder()
-                    .model("text-embedding-ada-002")
-                    .input(Collections.singletonList(text))
-                    .build();
-
-            var embedding = openAiService.createEmbeddings(request);
-            
-            if (embedding.getData() != null && !embedding.getData().isEmpty()) {
-                return embedding.getData().get(0).getEmbedding();
-            }
-            
-            return Collections.emptyList();
-            
+            return createEmbeddings(Collections.singletonList(text)).get(0);
         } catch (Exception e) {
             logger.error("Error creating embedding: {}", e.getMessage(), e);
-            return Collections.emptyList();
+            return new float[0];
         }
     }
 
+    /**
+     * Create embeddings for several texts in one request, throwing instead of returning empty vectors
+     * @return one vector per text, in the order of the texts
+     * @throws IllegalStateException if OpenAI is not configured or did not embed every text
+     */
+    public List<float[]> createEmbeddings(List<String> texts) {
+        if (!isConfigured) {
+            throw new IllegalStateException("OpenAI is not configured");
+        }
+
+        EmbeddingRequest request = EmbeddingRequest.builder()
+                .model(EMBEDDING_MODEL)
+                .input(texts)
+                .build();
+
+        var result = llmGateway.call("embedding", () -> openAiService.createEmbeddings(request));
+        llmGateway.recordUsage("embedding", result.getUsage());
+
+        float[][] vectors = new float[texts.size()][];
+        if (result.getData() != null) {
+            for (Embedding embedding : result.getData()) {
+                List<Double> values = embedding.getEmbedding();
+                float[] vector = new float[values.size()];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = values.get(i).floatValue();
+                }
+                vectors[embedding.getIndex()] = vector;
+            }
+        }
+        for (float[] vector : vectors) {
+            if (vector == null || vector.length == 0) {
+                throw new IllegalStateException("No embedding returned for " + texts.size() + " text(s)");
+            }
+        }
+        return Arrays.asList(vectors);
+    }
+
+    /**
+     * Name of the embedding model, which identifies the vector space of stored embeddings
+     */
+    public String getEmbeddingModel() {
+        return EMBEDDING_MODEL;
+    }
+
     /**
      * Calculate cosine similarity between two text strings using embeddings
      */
     public double compareAnswers(String expected, String actual) {
         if (!isConfigured) {
-            logger.warn("OpenAI not configured. Using simple text similarity.");
-            return calculateSimpleTextSimilarity(expected, actual);
+            logger.warn("OpenAI not configured. Using local similarity.");
+            return localSimilarityScorer.score(expected, actual);
         }
 
         try {
-            List<Double> expectedEmbedding = createEmbedding(expected);
-            List<Double> actualEmbedding = createEmbedding(actual);
-            
-            if (expectedEmbedding.isEmpty() || actualEmbedding.isEmpty()) {
-                logger.warn("Failed to create embeddings. Falling back to simple similarity.");
-                return calculateSimpleTextSimilarity(expected, actual);
-            }
-            
-            return calculateCosineSimilarity(expectedEmbedding, actualEmbedding);
+            List<float[]> embeddings = createEmbeddings(Arrays.asList(expected, actual));
+            return calculateCosineSimilarity(embeddings.get(0), embeddings.get(1));
             
         } catch (Exception e) {
             logger.error("Error comparing answers: {}", e.getMessage(), e);
-            return calculateSimpleTextSimilarity(expected, actual);
+            return localSimilarityScorer.score(expected, actual);
         }
     }
 
     /**
      * Calculate cosine similarity between two embedding vectors
      */
-    public double calculateCosineSimilarity(List<Double> vectorA, List<Double> vectorB) {
-        if (vectorA.size() != vectorB.size()) {
+    public double calculateCosineSimilarity(float[] vectorA, float[] vectorB) {
+        if (vectorA.length != vectorB.length) {
             throw new IllegalArgumentException("Vectors must have the same dimension");
         }
 
@@ -151,9 +208,9 @@ public class InterviewOpenAiService {
         double normA = 0.0;
         double normB = 0.0;
 
-        for (int i = 0; i < vectorA.size(); i++) {
-            double a = vectorA.get(i);
-            double b = vectorB.get(i);
+        for (int i = 0; i < vectorA.length; i++) {
+            double a = vectorA[i];
+            double b = vectorB[i];
             
             dotProduct += a * b;
             normA += a * a;
@@ -186,15 +243,13 @@ public class InterviewOpenAiService {
         String[] words1 = s1.split("\\s+");
         String[] words2 = s2.split("\\s+");
 
+        Set<String> wordSet2 = new HashSet<>(Arrays.asList(words2));
         int commonWords = 0;
         int totalUniqueWords = 0;
 
         for (String word1 : words1) {
-            for (String word2 : words2) {
-                if (word1.equals(word2)) {
-                    commonWords++;
-                    break;
-                }
+            if (wordSet2.contains(word1)) {
+                commonWords++;
             }
         }
 
@@ -228,7 +283,18 @@ public class InterviewOpenAiService {
                    "Please provide a comprehensive answer covering key concepts and practical applications.";
         }
 
-        String prompt = String.format(
+        return getCompletion(buildExpectedAnswerPrompt(questionText, domain));
+    }
+
+    /**
+     * Generate expected answer, throwing on failure so that error messages are never stored as answers
+     */
+    public String createExpectedAnswer(String questionText, String domain) {
+        return requestCompletion(buildExpectedAnswerPrompt(questionText, domain));
+    }
+
+    private String buildExpectedAnswerPrompt(String questionText, String domain) {
+        return String.format(
             "You are a senior technical expert in %s. " +
             "Generate a comprehensive, accurate answer to this interview question: %s\n\n" +
             "Requirements:\n" +
@@ -240,12 +306,11 @@ public class InterviewOpenAiService {
             "- Length: 2-4 sentences with key points covered",
             domain, questionText
         );
-        
-        return getCompletion(prompt);
     }
 
     /**
      * Generate AI-powered contextual feedback based on question, answers, and similarity
+     * @throws RuntimeException if the call failed or was rejected by the gateway
      */
     public String generateAIFeedback(String questionText, String userAnswer, String expectedAnswer, double similarity) {
         if (!isConfigured) {
@@ -275,7 +340,7 @@ public class InterviewOpenAiService {
     /**
      * Simple fallback feedback when AI is not available
      */
-    private String generateSimpleFeedback(double similarity) {
+    String generateSimpleFeedback(double similarity) {
         if (similarity >= 0.8) {
             return "Excellent answer! Your response demonstrates strong understanding of the concepts.";
         } else if (similarity >= 0.6) {
@@ -294,10 +359,21 @@ public class InterviewOpenAiService {
         return isConfigured;
     }
 
+    /**
+     * Check if OpenAI is configured and its circuit is not open, so a call would be attempted now
+     */
+    public boolean isAvailable() {
+        return isConfigured && llmGateway.isAvailable();
+    }
+
     /**
      * Get service status for health checks
      */
     public String getServiceStatus() {
-        return isConfigured ? "OpenAI service is configured and ready" : "OpenAI service is not configured";
+        if (!isConfigured) {
+            return "OpenAI service is not configured";
+        }
+        return llmGateway.isAvailable() ? "OpenAI service is configured and ready"
+                : "OpenAI service is configured but its circuit is open";
     }
 } 
\ No newline at end of file
@@ -0,0 +1,309 @@
+package com.interview.service;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.theokanning.openai.OpenAiHttpException;
+import com.theokanning.openai.Usage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Gateway every OpenAI call goes through
+ * Bounds concurrent calls with a bulkhead and the request rate with a token bucket, retries rate-limit,
+ * server and network errors with jittered exponential backoff (giving up the bulkhead slot while waiting),
+ * and opens a circuit after repeated failures so callers fall back at once instead of queueing behind timeouts.
+ * Calls not attempted throw {@link LlmUnavailableException}; every attempt is timed and token usage is counted per operation.
+ */
+@Service
+public class LlmGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmGateway.class);
+
+    public enum CircuitState { CLOSED, HALF_OPEN, OPEN }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${openai.gateway.max-concurrent:8}")
+    private int maxConcurrent;
+
+    // How long a call may wait for a bulkhead slot or a rate-limit token before it is rejected
+    @Value("${openai.gateway.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    @Value("${openai.gateway.rate-limit.per-second:5}")
+    private double permitsPerSecond;
+
+    @Value("${openai.gateway.rate-limit.burst:10}")
+    private int burst;
+
+    @Value("${openai.gateway.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${openai.gateway.retry.initial-backoff-ms:250}")
+    private long initialBackoffMs;
+
+    @Value("${openai.gateway.retry.max-backoff-ms:4000}")
+    private long maxBackoffMs;
+
+    // Consecutive failed calls that open the circuit, and how long it stays open before a trial call
+    @Value("${openai.gateway.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${openai.gateway.circuit.open-ms:30000}")
+    private long openMs;
+
+    private Semaphore bulkhead;
+
+    // Token bucket; guarded by its own lock
+    private final Object bucketLock = new Object();
+    private double tokens;
+    private long lastRefillNanos;
+
+    // Circuit breaker; guarded by the instance lock
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    public LlmGateway(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        bulkhead = new Semaphore(maxConcurrent, true);
+        tokens = burst;
+        lastRefillNanos = System.nanoTime();
+        meterRegistry.gauge("llm.bulkhead.active", bulkhead, b -> maxConcurrent - b.availablePermits());
+        meterRegistry.gauge("llm.circuit.state", this, gateway -> gateway.getCircuitState().ordinal());
+        logger.info("LLM gateway: {} concurrent calls, {} calls/s (burst {}), {} attempts, circuit opens after {} failures",
+                   maxConcurrent, permitsPerSecond, burst, maxAttempts, failureThreshold);
+    }
+
+    /**
+     * Run an OpenAI call through the bulkhead, rate limiter, retries and circuit breaker
+     * @throws LlmUnavailableException if the call was not attempted
+     * @throws RuntimeException the last failure if every attempt failed or the failure is not retryable
+     */
+    public <T> T call(String operation, Supplier<T> request) {
+        if (!allowRequest()) {
+            throw rejected(operation, "circuit_open");
+        }
+
+        if (!acquireBulkhead()) {
+            abandonTrial();
+            throw rejected(operation, "bulkhead");
+        }
+
+        boolean holding = true;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                if (!acquireToken()) {
+                    abandonTrial();
+                    throw rejected(operation, "rate_limit");
+                }
+
+                long startTime = System.nanoTime();
+                try {
+                    T result = request.get();
+                    recordAttempt(operation, "success", startTime);
+                    onSuccess();
+                    return result;
+                } catch (RuntimeException e) {
+                    recordAttempt(operation, "failure", startTime);
+                    boolean retryable = isRetryable(e);
+                    if (!retryable || attempt >= maxAttempts) {
+                        if (retryable) {
+                            onFailure(operation);
+                        } else {
+                            // The service answered; the request itself was wrong
+                            onSuccess();
+                        }
+                        throw e;
+                    }
+                    long backoffMs = backoff(attempt);
+                    logger.warn("OpenAI {} attempt {} failed ({}), retrying in {} ms",
+                               operation, attempt, e.getMessage(), backoffMs);
+                    meterRegistry.counter("llm.calls.retries", "operation", operation).increment();
+                    // Give the slot to other calls while backing off, and queue for it again like a new call
+                    bulkhead.release();
+                    holding = false;
+                    if (!sleep(backoffMs)) {
+                        abandonTrial();
+                        throw e;
+                    }
+                    if (!acquireBulkhead()) {
+                        abandonTrial();
+                        throw rejected(operation, "bulkhead");
+                    }
+                    holding = true;
+                }
+            }
+        } finally {
+            if (holding) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    /**
+     * Count the tokens a call used
+     */
+    public void recordUsage(String operation, Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        meterRegistry.counter("llm.tokens", "operation", operation, "type", "prompt").increment(usage.getPromptTokens());
+        meterRegistry.counter("llm.tokens", "operation", operation, "type", "completion").increment(usage.getCompletionTokens());
+    }
+
+    /**
+     * Whether a call would be attempted now, so callers can pick their fallback up front
+     */
+    public synchronized boolean isAvailable() {
+        return state != CircuitState.OPEN || System.nanoTime() - openedAtNanos >= TimeUnit.MILLISECONDS.toNanos(openMs);
+    }
+
+    public synchronized CircuitState getCircuitState() {
+        return state;
+    }
+
+    private synchronized boolean allowRequest() {
+        if (state == CircuitState.OPEN) {
+            if (System.nanoTime() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(openMs)) {
+                return false;
+            }
+            state = CircuitState.HALF_OPEN;
+            trialInFlight = false;
+            logger.info("OpenAI circuit half-open, allowing a trial call");
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            // One trial call at a time decides whether the circuit closes again
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    private synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != CircuitState.CLOSED) {
+            state = CircuitState.CLOSED;
+            logger.info("OpenAI circuit closed");
+        }
+    }
+
+    private synchronized void onFailure(String operation) {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = CircuitState.OPEN;
+            openedAtNanos = System.nanoTime();
+            meterRegistry.counter("llm.circuit.opened", "operation", operation).increment();
+            logger.warn("OpenAI circuit opened after {} consecutive failures; calls fail fast for {} ms",
+                       consecutiveFailures, openMs);
+        }
+    }
+
+    /**
+     * Let another trial call through when this one was given up before reaching OpenAI
+     */
+    private synchronized void abandonTrial() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Take a bulkhead slot, waiting up to the acquire timeout for one to be released
+     */
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Take a token from the bucket, waiting up to the acquire timeout for one to be refilled
+     */
+    private boolean acquireToken() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+        while (true) {
+            long waitNanos;
+            synchronized (bucketLock) {
+                long now = System.nanoTime();
+                tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * permitsPerSecond);
+                lastRefillNanos = now;
+                if (tokens >= 1.0) {
+                    tokens -= 1.0;
+                    return true;
+                }
+                waitNanos = (long) ((1.0 - tokens) / permitsPerSecond * 1e9);
+                if (now + waitNanos > deadline) {
+                    return false;
+                }
+            }
+            if (!sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Exponential backoff with full jitter, so clients that failed together do not retry together
+     */
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Rate limits, server errors and network failures are worth retrying; other client errors are not
+     */
+    private static boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OpenAiHttpException) {
+                int status = ((OpenAiHttpException) cause).statusCode;
+                return status == 408 || status == 429 || status >= 500;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordAttempt(String operation, String outcome, long startTime) {
+        meterRegistry.timer("llm.calls.duration", "operation", operation, "outcome", outcome)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    private LlmUnavailableException rejected(String operation, String reason) {
+        meterRegistry.counter("llm.calls.rejected", "operation", operation, "reason", reason).increment();
+        return new LlmUnavailableException("OpenAI " + operation + " call rejected: " + reason.replace('_', ' '));
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
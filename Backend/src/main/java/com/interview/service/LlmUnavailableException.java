@@ -0,0 +1,12 @@
+package com.interview.service;
+
+/**
+ * Thrown by {@link LlmGateway} when a call is not attempted: the circuit is open,
+ * the concurrency limit or the rate limit could not be acquired in time
+ */
+public class LlmUnavailableException extends RuntimeException {
+
+    public LlmUnavailableException(String message) {
+        super(message);
+    }
+}
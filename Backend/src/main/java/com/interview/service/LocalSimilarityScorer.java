@@ -0,0 +1,253 @@
+package com.interview.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for scoring answers locally, without any network call
+ * Texts become TF-IDF vectors over hashed word unigrams and bigrams; the similarity of two answers
+ * is the cosine of their vectors, mapped onto the embedding similarity scale by a linear calibration.
+ * Document frequencies are learned from the expected and reference answers added with {@link #addDocument},
+ * and the term frequencies of those answers are kept so scoring only has to vectorize the candidate's answer.
+ */
+@Service
+public class LocalSimilarityScorer {
+
+    private static final int DIMENSIONS = 1 << 18;
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9+#]+");
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "can", "do", "for", "from", "has", "have",
+        "how", "i", "if", "in", "into", "is", "it", "its", "of", "on", "or", "so", "such", "that", "the",
+        "their", "then", "there", "these", "they", "this", "to", "was", "we", "were", "what", "when",
+        "which", "while", "will", "with", "you", "your"
+    ));
+
+    // Calibration from cosine to the embedding similarity scale, fitted by the agreement report
+    @Value("${interview.scoring.local.scale:1.0}")
+    private double scale = 1.0;
+
+    @Value("${interview.scoring.local.offset:0.0}")
+    private double offset = 0.0;
+
+    @Value("${interview.scoring.local.cache-size:5000}")
+    private int cacheSize = 5000;
+
+    // Document frequency per hashed feature, and the number of documents; guarded by the instance lock
+    private final int[] documentFrequencies = new int[DIMENSIONS];
+    private int documentCount;
+    private final Set<String> documents = new HashSet<>();
+
+    // Term frequencies of added documents by content hash; access-ordered for LRU eviction
+    private final LinkedHashMap<String, TermVector> termVectors = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * Add a reference text to the corpus the document frequencies come from, once per distinct text
+     */
+    public synchronized void addDocument(String text) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String hash = contentHash(text);
+        TermVector vector = termFrequencies(text);
+        rememberTermVector(hash, vector);
+        if (documents.add(hash)) {
+            for (int index : vector.indices) {
+                documentFrequencies[index]++;
+            }
+            documentCount++;
+        }
+    }
+
+    /**
+     * Similarity of an answer to the expected answer on the embedding similarity scale, between 0 and 1
+     */
+    public double score(String expected, String actual) {
+        double calibrated = scale * rawSimilarity(expected, actual) + offset;
+        return Math.max(0.0, Math.min(1.0, calibrated));
+    }
+
+    /**
+     * Uncalibrated cosine similarity of the TF-IDF vectors of two texts
+     */
+    public double rawSimilarity(String expected, String actual) {
+        if (expected == null || actual == null || expected.isBlank() || actual.isBlank()) {
+            return 0.0;
+        }
+        TermVector expectedTerms = cachedTermFrequencies(expected);
+        TermVector actualTerms = termFrequencies(actual);
+
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        synchronized (this) {
+            for (int i = 0; i < expectedTerms.indices.length; i++) {
+                double weight = expectedTerms.weights[i] * idf(expectedTerms.indices[i]);
+                normA += weight * weight;
+            }
+            for (int i = 0; i < actualTerms.indices.length; i++) {
+                double weight = actualTerms.weights[i] * idf(actualTerms.indices[i]);
+                normB += weight * weight;
+            }
+            // Both index arrays are sorted, so shared features are found in one merge pass
+            int i = 0;
+            int j = 0;
+            while (i < expectedTerms.indices.length && j < actualTerms.indices.length) {
+                int a = expectedTerms.indices[i];
+                int b = actualTerms.indices[j];
+                if (a == b) {
+                    double idf = idf(a);
+                    dotProduct += expectedTerms.weights[i] * actualTerms.weights[j] * idf * idf;
+                    i++;
+                    j++;
+                } else if (a < b) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+        }
+
+        if (normA == 0.0 || normB == 0.0) {
+            return 0.0;
+        }
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    /**
+     * Dense embedding of a text, its TF-IDF vector folded into the given number of dimensions and normalized
+     */
+    public float[] embed(String text, int dimensions) {
+        float[] vector = new float[dimensions];
+        if (text == null) {
+            return vector;
+        }
+        TermVector terms = termFrequencies(text);
+        synchronized (this) {
+            for (int i = 0; i < terms.indices.length; i++) {
+                vector[terms.indices[i] % dimensions] += (float) (terms.weights[i] * idf(terms.indices[i]));
+            }
+        }
+        double norm = 0.0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0.0) {
+            float inverse = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] *= inverse;
+            }
+        }
+        return vector;
+    }
+
+    public synchronized int getDocumentCount() {
+        return documentCount;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public double getOffset() {
+        return offset;
+    }
+
+    /**
+     * Smoothed inverse document frequency; features never seen in the corpus get the highest weight
+     */
+    private double idf(int index) {
+        return Math.log((documentCount + 1.0) / (documentFrequencies[index] + 1.0)) + 1.0;
+    }
+
+    private TermVector cachedTermFrequencies(String text) {
+        String hash = contentHash(text);
+        synchronized (this) {
+            TermVector cached = termVectors.get(hash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        TermVector vector = termFrequencies(text);
+        synchronized (this) {
+            rememberTermVector(hash, vector);
+        }
+        return vector;
+    }
+
+    private void rememberTermVector(String hash, TermVector vector) {
+        termVectors.put(hash, vector);
+        if (termVectors.size() > cacheSize) {
+            termVectors.remove(termVectors.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Sublinear term frequencies (1 + ln tf) of the hashed unigrams and bigrams of a text
+     */
+    static TermVector termFrequencies(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            counts.merge(featureIndex(words.get(i)), 1, Integer::sum);
+            if (i > 0) {
+                counts.merge(featureIndex(words.get(i - 1) + " " + words.get(i)), 1, Integer::sum);
+            }
+        }
+
+        int[] indices = counts.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        float[] weights = new float[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            weights[i] = (float) (1.0 + Math.log(counts.get(indices[i])));
+        }
+        return new TermVector(indices, weights);
+    }
+
+    private static int featureIndex(String feature) {
+        // Spread String.hashCode's low bits before taking the index
+        int hash = feature.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (DIMENSIONS - 1);
+    }
+
+    private static String contentHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Sparse term frequencies, sorted by feature index
+     */
+    static class TermVector {
+        private final int[] indices;
+        private final float[] weights;
+
+        TermVector(int[] indices, float[] weights) {
+            this.indices = indices;
+            this.weights = weights;
+        }
+    }
+}
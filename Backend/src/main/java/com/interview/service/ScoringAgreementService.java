@@ -0,0 +1,134 @@
+package com.interview.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.interview.entity.ChatMessage;
+import com.interview.repository.ChatRepository;
+
+/**
+ * Service for measuring how closely the local scorer agrees with OpenAI scoring
+ * Replays recorded answers that were scored with embeddings through {@link LocalSimilarityScorer}
+ * and compares both similarities, including the calibration that would fit them best.
+ */
+@Service
+public class ScoringAgreementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoringAgreementService.class);
+
+    // Metadata entry written for every answer, naming the engine that scored it
+    public static final String ENGINE_METADATA_PREFIX = "scoring_engine: ";
+
+    // Same threshold the chat endpoint uses to mark an answer correct
+    private static final double CORRECT_THRESHOLD = 0.6;
+
+    private final ChatRepository chatRepository;
+    private final LocalSimilarityScorer localSimilarityScorer;
+
+    public ScoringAgreementService(ChatRepository chatRepository, LocalSimilarityScorer localSimilarityScorer) {
+        this.chatRepository = chatRepository;
+        this.localSimilarityScorer = localSimilarityScorer;
+    }
+
+    /**
+     * Compare local and OpenAI similarities on up to limit of the most recent OpenAI-scored answers
+     */
+    public Map<String, Object> measureAgreement(int limit) {
+        long startTime = System.currentTimeMillis();
+        List<ChatMessage> messages = chatRepository.findScoredByEngine(
+                ENGINE_METADATA_PREFIX + "openai", PageRequest.of(0, limit));
+
+        int count = messages.size();
+        double[] reference = new double[count];
+        double[] raw = new double[count];
+        for (int i = 0; i < count; i++) {
+            ChatMessage message = messages.get(i);
+            reference[i] = message.getSimilarity();
+            raw[i] = localSimilarityScorer.rawSimilarity(message.getExpectedAnswer(), message.getUserQuestion());
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("samples", count);
+        report.put("corpusDocuments", localSimilarityScorer.getDocumentCount());
+        if (count < 2) {
+            report.put("message", "Not enough answers scored with OpenAI to measure agreement");
+            return report;
+        }
+
+        double scale = localSimilarityScorer.getScale();
+        double offset = localSimilarityScorer.getOffset();
+        report.put("pearson", pearson(raw, reference));
+        report.put("current", calibrationReport(raw, reference, scale, offset));
+
+        // Least-squares fit of reference = scale * raw + offset
+        double meanRaw = mean(raw);
+        double meanReference = mean(reference);
+        double covariance = 0.0;
+        double variance = 0.0;
+        for (int i = 0; i < count; i++) {
+            covariance += (raw[i] - meanRaw) * (reference[i] - meanReference);
+            variance += (raw[i] - meanRaw) * (raw[i] - meanRaw);
+        }
+        if (variance > 0.0) {
+            double fittedScale = covariance / variance;
+            double fittedOffset = meanReference - fittedScale * meanRaw;
+            report.put("fitted", calibrationReport(raw, reference, fittedScale, fittedOffset));
+        }
+
+        logger.info("Measured scoring agreement on {} answers in {} ms", count, System.currentTimeMillis() - startTime);
+        return report;
+    }
+
+    /**
+     * Error and correct/incorrect agreement of a calibration against the reference similarities
+     */
+    private Map<String, Object> calibrationReport(double[] raw, double[] reference, double scale, double offset) {
+        double absoluteError = 0.0;
+        int agreeing = 0;
+        for (int i = 0; i < raw.length; i++) {
+            double calibrated = Math.max(0.0, Math.min(1.0, scale * raw[i] + offset));
+            absoluteError += Math.abs(calibrated - reference[i]);
+            if ((calibrated >= CORRECT_THRESHOLD) == (reference[i] >= CORRECT_THRESHOLD)) {
+                agreeing++;
+            }
+        }
+
+        Map<String, Object> calibration = new HashMap<>();
+        calibration.put("scale", scale);
+        calibration.put("offset", offset);
+        calibration.put("meanAbsoluteError", absoluteError / raw.length);
+        calibration.put("decisionAgreement", (double) agreeing / raw.length);
+        return calibration;
+    }
+
+    private static double pearson(double[] x, double[] y) {
+        double meanX = mean(x);
+        double meanY = mean(y);
+        double covariance = 0.0;
+        double varianceX = 0.0;
+        double varianceY = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            covariance += (x[i] - meanX) * (y[i] - meanY);
+            varianceX += (x[i] - meanX) * (x[i] - meanX);
+            varianceY += (y[i] - meanY) * (y[i] - meanY);
+        }
+        if (varianceX == 0.0 || varianceY == 0.0) {
+            return 0.0;
+        }
+        return covariance / Math.sqrt(varianceX * varianceY);
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+}
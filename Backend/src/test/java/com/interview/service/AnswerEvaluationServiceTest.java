@@ -0,0 +1,184 @@
+package com.interview.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.interview.repository.ExpectedAnswerRepository;
+import com.interview.repository.QuestionRepository;
+import com.interview.service.AnswerEvaluationService.AnswerEvaluation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AnswerEvaluationServiceTest {
+
+    private static final String QUESTION = "What is dependency injection?";
+    private static final String DOMAIN = "Java";
+    private static final String ANSWER = "Objects receive their collaborators instead of creating them";
+    private static final String EXPECTED = "Dependency injection supplies an object's collaborators from outside";
+    private static final String REFERENCE = "A reference answer covering dependency injection";
+    private static final String FEEDBACK = "Good answer, mention constructor injection";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService evaluationExecutor = Executors.newFixedThreadPool(8);
+    private final LocalSimilarityScorer localSimilarityScorer = new LocalSimilarityScorer();
+    private StubOpenAiServer stub;
+    private InterviewOpenAiService openAiService;
+    private EmbeddingStore embeddingStore;
+    private AnswerEvaluationService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubOpenAiServer();
+        stub.onCompletion(byPrompt(
+                StubOpenAiServer.completion(EXPECTED),
+                StubOpenAiServer.completion(REFERENCE),
+                StubOpenAiServer.completion(FEEDBACK)));
+
+        LlmGateway gateway = new LlmGateway(meterRegistry);
+        ReflectionTestUtils.setField(gateway, "maxConcurrent", 8);
+        ReflectionTestUtils.setField(gateway, "acquireTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(gateway, "permitsPerSecond", 1000.0);
+        ReflectionTestUtils.setField(gateway, "burst", 1000);
+        ReflectionTestUtils.setField(gateway, "maxAttempts", 1);
+        ReflectionTestUtils.setField(gateway, "failureThreshold", 100);
+        ReflectionTestUtils.setField(gateway, "openMs", 1000L);
+        ReflectionTestUtils.invokeMethod(gateway, "init");
+
+        openAiService = new InterviewOpenAiService("test-key", 5, stub.baseUrl(), localSimilarityScorer, gateway);
+
+        ExpectedAnswerRepository expectedAnswerRepository = mock(ExpectedAnswerRepository.class);
+        when(expectedAnswerRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(expectedAnswerRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ExpectedAnswerService expectedAnswerService = new ExpectedAnswerService(openAiService, localSimilarityScorer,
+                expectedAnswerRepository, mock(QuestionRepository.class), meterRegistry);
+        ReflectionTestUtils.setField(expectedAnswerService, "cacheSize", 100);
+
+        embeddingStore = new EmbeddingStore(openAiService, evaluationExecutor, meterRegistry);
+        ReflectionTestUtils.setField(embeddingStore, "cacheSize", 100);
+        ReflectionTestUtils.setField(embeddingStore, "maxBatch", 16);
+        ReflectionTestUtils.setField(embeddingStore, "lingerMs", 5L);
+        ReflectionTestUtils.invokeMethod(embeddingStore, "init");
+
+        service = new AnswerEvaluationService(openAiService, expectedAnswerService, embeddingStore,
+                localSimilarityScorer, evaluationExecutor, meterRegistry);
+        ReflectionTestUtils.setField(service, "deadlineMs", 2000L);
+        ReflectionTestUtils.setField(service, "scoringEngine", "openai");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(embeddingStore, "shutdown");
+        evaluationExecutor.shutdownNow();
+        stub.close();
+    }
+
+    @Test
+    void everyStageCompletesWithinTheDeadline() {
+        AnswerEvaluation evaluation = service.evaluate(QUESTION, DOMAIN, ANSWER);
+
+        assertFalse(evaluation.isPartial());
+        assertEquals(List.of(), evaluation.getDegradedStages());
+        assertEquals(EXPECTED, evaluation.getExpectedAnswer());
+        assertEquals(REFERENCE, evaluation.getBotResponse());
+        assertEquals(FEEDBACK, evaluation.getFeedback());
+        assertEquals("openai", evaluation.getScoringEngine());
+        assertEquals(1.0, evaluation.getSimilarity(), 1e-6);
+        assertEquals(3, stub.completionRequests());
+    }
+
+    @Test
+    void slowFeedbackIsReplacedAtTheDeadline() {
+        ReflectionTestUtils.setField(service, "deadlineMs", 500L);
+        stub.onCompletion(byPrompt(
+                StubOpenAiServer.completion(EXPECTED),
+                StubOpenAiServer.completion(REFERENCE),
+                StubOpenAiServer.completion(FEEDBACK).delayed(3000)));
+
+        AnswerEvaluation evaluation = service.evaluate(QUESTION, DOMAIN, ANSWER);
+
+        assertTrue(evaluation.isPartial());
+        assertEquals(List.of("feedback"), evaluation.getDegradedStages());
+        assertEquals(REFERENCE, evaluation.getBotResponse());
+        assertEquals("openai", evaluation.getScoringEngine());
+        assertEquals(openAiService.generateSimpleFeedback(evaluation.getSimilarity()), evaluation.getFeedback());
+        assertTrue(evaluation.getElapsedMs() < 2000, "took " + evaluation.getElapsedMs() + " ms");
+        assertEquals(1.0, meterRegistry.get("chat.evaluation.duration").tag("outcome", "partial").timer().count());
+    }
+
+    @Test
+    void failedReferenceResponseFallsBackToTheExpectedAnswer() {
+        stub.onCompletion(byPrompt(
+                StubOpenAiServer.completion(EXPECTED),
+                StubOpenAiServer.error(500),
+                StubOpenAiServer.completion(FEEDBACK)));
+
+        AnswerEvaluation evaluation = service.evaluate(QUESTION, DOMAIN, ANSWER);
+
+        assertTrue(evaluation.isPartial());
+        assertEquals(List.of("botResponse"), evaluation.getDegradedStages());
+        assertEquals(EXPECTED, evaluation.getBotResponse());
+        assertEquals(FEEDBACK, evaluation.getFeedback());
+    }
+
+    @Test
+    void failedEmbeddingsFallBackToLocalScoringAndSimpleFeedback() {
+        stub.onEmbedding(input -> StubOpenAiServer.error(400));
+
+        AnswerEvaluation evaluation = service.evaluate(QUESTION, DOMAIN, ANSWER);
+
+        assertTrue(evaluation.isPartial());
+        assertEquals(List.of("similarity", "feedback"), evaluation.getDegradedStages());
+        assertEquals("local", evaluation.getScoringEngine());
+        assertEquals(localSimilarityScorer.score(EXPECTED, ANSWER), evaluation.getSimilarity(), 1e-9);
+        assertEquals(openAiService.generateSimpleFeedback(evaluation.getSimilarity()), evaluation.getFeedback());
+        assertEquals(REFERENCE, evaluation.getBotResponse());
+    }
+
+    @Test
+    void failedExpectedAnswerDegradesEveryStage() {
+        stub.onCompletion(prompt -> StubOpenAiServer.error(500));
+
+        AnswerEvaluation evaluation = service.evaluate(QUESTION, DOMAIN, ANSWER);
+
+        assertTrue(evaluation.isPartial());
+        assertEquals(List.of("expectedAnswer", "botResponse", "similarity", "feedback"),
+                evaluation.getDegradedStages());
+        assertNull(evaluation.getExpectedAnswer());
+        assertEquals("A reference answer could not be generated in time.", evaluation.getBotResponse());
+        assertEquals("local", evaluation.getScoringEngine());
+        assertEquals(localSimilarityScorer.score(QUESTION, ANSWER), evaluation.getSimilarity(), 1e-9);
+        assertEquals(1, stub.completionRequests());
+    }
+
+    /**
+     * Answer each of the evaluation's prompts: the expected answer, the reference response and the feedback
+     */
+    private static Function<String, StubOpenAiServer.Response> byPrompt(StubOpenAiServer.Response expected,
+                                                                        StubOpenAiServer.Response reference,
+                                                                        StubOpenAiServer.Response feedback) {
+        return prompt -> {
+            if (prompt.contains("senior technical expert")) {
+                return expected;
+            }
+            return prompt.contains("providing feedback") ? feedback : reference;
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package com.interview.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.theokanning.openai.OpenAiHttpException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EmbeddingStoreTest {
+
+    // SHA-256 hash, vector length and a two-dimensional vector
+    private static final int RECORD_BYTES = 32 + 4 + 2 * 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService evaluationExecutor = Executors.newFixedThreadPool(8);
+    private final List<EmbeddingStore> stores = new ArrayList<>();
+    private StubOpenAiServer stub;
+    private InterviewOpenAiService openAiService;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubOpenAiServer();
+        LlmGateway gateway = new LlmGateway(meterRegistry);
+        ReflectionTestUtils.setField(gateway, "maxConcurrent", 8);
+        ReflectionTestUtils.setField(gateway, "acquireTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(gateway, "permitsPerSecond", 1000.0);
+        ReflectionTestUtils.setField(gateway, "burst", 1000);
+        ReflectionTestUtils.setField(gateway, "maxAttempts", 1);
+        ReflectionTestUtils.setField(gateway, "failureThreshold", 100);
+        ReflectionTestUtils.setField(gateway, "openMs", 1000L);
+        ReflectionTestUtils.invokeMethod(gateway, "init");
+        openAiService = new InterviewOpenAiService("test-key", 5, stub.baseUrl(), new LocalSimilarityScorer(), gateway);
+        file = Files.createTempFile("embeddings", ".bin");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        stores.forEach(store -> ReflectionTestUtils.invokeMethod(store, "shutdown"));
+        evaluationExecutor.shutdownNow();
+        stub.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void batchesAreSentConcurrently() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        stub.onEmbedding(input -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(300);
+            inFlight.decrementAndGet();
+            return StubOpenAiServer.embedding(input, 1.0f, 0.0f);
+        });
+        EmbeddingStore store = startStore("", Integer.MAX_VALUE, 1, 0);
+
+        List<CompletableFuture<float[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(store.embedAsync("text " + i));
+        }
+        for (CompletableFuture<float[]> future : futures) {
+            assertArrayEquals(new float[]{1.0f, 0.0f}, future.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(4, stub.embeddingRequests());
+        assertTrue(maxInFlight.get() > 1, "at most " + maxInFlight.get() + " request(s) at a time");
+    }
+
+    @Test
+    void failedBatchIsRetriedOneTextAtATime() throws Exception {
+        stub.onEmbedding(input -> input.toString().contains("bad input")
+                ? StubOpenAiServer.error(400) : StubOpenAiServer.embedding(input, 0.5f, 0.5f));
+        EmbeddingStore store = startStore("", Integer.MAX_VALUE, 16, 200);
+
+        CompletableFuture<float[]> first = store.embedAsync("good input one");
+        CompletableFuture<float[]> bad = store.embedAsync("bad input");
+        CompletableFuture<float[]> second = store.embedAsync("good input two");
+
+        assertArrayEquals(new float[]{0.5f, 0.5f}, first.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new float[]{0.5f, 0.5f}, second.get(5, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OpenAiHttpException.class, failure.getCause());
+        // The batch of three, then each text on its own
+        assertEquals(4, stub.embeddingRequests());
+        assertEquals(1.0, meterRegistry.get("embeddings.batch.split").counter().count());
+    }
+
+    @Test
+    void fileStopsGrowingAtItsLimitAndKeepsWhatFits() throws Exception {
+        EmbeddingStore store = startStore(file.toString(), 2 * RECORD_BYTES + RECORD_BYTES / 2, 1, 0);
+        for (String text : List.of("first", "second", "third")) {
+            assertArrayEquals(new float[]{1.0f, 0.0f}, store.embedAsync(text).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2 * RECORD_BYTES, Files.size(file));
+
+        // After a restart the stored vectors are read from the file, the third is requested again
+        EmbeddingStore restarted = startStore(file.toString(), 2 * RECORD_BYTES + RECORD_BYTES / 2, 1, 0);
+        int requests = stub.embeddingRequests();
+        assertArrayEquals(new float[]{1.0f, 0.0f}, restarted.embedAsync("first").get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new float[]{1.0f, 0.0f}, restarted.embedAsync("second").get(5, TimeUnit.SECONDS));
+        assertEquals(requests, stub.embeddingRequests());
+        restarted.embedAsync("third").get(5, TimeUnit.SECONDS);
+        assertEquals(requests + 1, stub.embeddingRequests());
+    }
+
+    private EmbeddingStore startStore(String storeFile, long maxFileBytes, int maxBatch, long lingerMs) {
+        EmbeddingStore store = new EmbeddingStore(openAiService, evaluationExecutor, meterRegistry);
+        ReflectionTestUtils.setField(store, "cacheSize", 100);
+        ReflectionTestUtils.setField(store, "storeFile", storeFile);
+        ReflectionTestUtils.setField(store, "maxFileBytes", maxFileBytes);
+        ReflectionTestUtils.setField(store, "maxBatch", maxBatch);
+        ReflectionTestUtils.setField(store, "lingerMs", lingerMs);
+        ReflectionTestUtils.invokeMethod(store, "init");
+        stores.add(store);
+        return store;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
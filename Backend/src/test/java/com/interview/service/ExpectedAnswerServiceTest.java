@@ -0,0 +1,139 @@
+package com.interview.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.interview.entity.ExpectedAnswer;
+import com.interview.entity.Question;
+import com.interview.entity.Question.QuestionType;
+import com.interview.repository.ExpectedAnswerRepository;
+import com.interview.repository.QuestionRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExpectedAnswerServiceTest {
+
+    private static final int QUESTIONS = 4;
+    private static final long GENERATION_MS = 100;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExpectedAnswerRepository expectedAnswerRepository = mock(ExpectedAnswerRepository.class);
+    private final QuestionRepository questionRepository = mock(QuestionRepository.class);
+    private final Map<String, ExpectedAnswer> saved = new ConcurrentHashMap<>();
+    private final List<Long> requestTimes = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private StubOpenAiServer stub;
+    private ExpectedAnswerService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubOpenAiServer();
+        stub.onCompletion(prompt -> {
+            requestTimes.add(System.nanoTime());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(GENERATION_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return StubOpenAiServer.completion("generated answer");
+        });
+
+        LlmGateway gateway = new LlmGateway(meterRegistry);
+        ReflectionTestUtils.setField(gateway, "maxConcurrent", 8);
+        ReflectionTestUtils.setField(gateway, "acquireTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(gateway, "permitsPerSecond", 1000.0);
+        ReflectionTestUtils.setField(gateway, "burst", 1000);
+        ReflectionTestUtils.setField(gateway, "maxAttempts", 1);
+        ReflectionTestUtils.setField(gateway, "failureThreshold", 100);
+        ReflectionTestUtils.setField(gateway, "openMs", 1000L);
+        ReflectionTestUtils.invokeMethod(gateway, "init");
+        LocalSimilarityScorer localSimilarityScorer = new LocalSimilarityScorer();
+        InterviewOpenAiService openAiService =
+                new InterviewOpenAiService("test-key", 5, stub.baseUrl(), localSimilarityScorer, gateway);
+
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < QUESTIONS; i++) {
+            Question question = new Question("Question " + i, "Explain concept number " + i,
+                    QuestionType.SUBJECTIVE, "Java", Question.ExperienceLevel.MID);
+            question.setId(UUID.randomUUID());
+            questions.add(question);
+        }
+        when(questionRepository.findByQuestionTypeAndActiveTrue(QuestionType.SUBJECTIVE)).thenReturn(questions);
+        when(expectedAnswerRepository.findByQuestionKeyIn(any())).thenReturn(List.of());
+        when(expectedAnswerRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(expectedAnswerRepository.save(any())).thenAnswer(invocation -> {
+            ExpectedAnswer answer = invocation.getArgument(0);
+            saved.put(answer.getQuestionKey(), answer);
+            return answer;
+        });
+
+        service = new ExpectedAnswerService(openAiService, localSimilarityScorer, expectedAnswerRepository,
+                questionRepository, meterRegistry);
+        ReflectionTestUtils.setField(service, "cacheSize", 100);
+        ReflectionTestUtils.setField(service, "prewarmGenerate", true);
+        // One generation every 200 ms
+        ReflectionTestUtils.setField(service, "prewarmPerMinute", 300.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+        stub.close();
+    }
+
+    @Test
+    void prewarmReturnsAtOnceAndGeneratesOneAnswerAtATimeAtItsOwnRate() throws InterruptedException {
+        long start = System.nanoTime();
+        service.prewarm();
+        long prewarmMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(prewarmMs < GENERATION_MS, "prewarm took " + prewarmMs + " ms");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (saved.size() < QUESTIONS && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(QUESTIONS, saved.size());
+        assertEquals(1, maxInFlight.get());
+        for (int i = 1; i < requestTimes.size(); i++) {
+            long gapMs = TimeUnit.NANOSECONDS.toMillis(requestTimes.get(i) - requestTimes.get(i - 1));
+            assertTrue(gapMs >= GENERATION_MS + 200 - 20, "requests " + gapMs + " ms apart");
+        }
+    }
+
+    @Test
+    void prewarmedAnswersAreServedWithoutAnotherCall() throws InterruptedException {
+        service.prewarm();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (saved.size() < QUESTIONS && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        int requests = stub.completionRequests();
+
+        assertEquals("generated answer", service.getExpectedAnswer("Explain concept number 2", "java"));
+        assertEquals(requests, stub.completionRequests());
+    }
+}
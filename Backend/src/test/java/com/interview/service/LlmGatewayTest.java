@@ -0,0 +1,147 @@
+package com.interview.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.interview.service.LlmGateway.CircuitState;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LlmGatewayTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StubOpenAiServer stub;
+    private LlmGateway gateway;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubOpenAiServer();
+        gateway = new LlmGateway(meterRegistry);
+        ReflectionTestUtils.setField(gateway, "maxConcurrent", 8);
+        ReflectionTestUtils.setField(gateway, "acquireTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(gateway, "permitsPerSecond", 1000.0);
+        ReflectionTestUtils.setField(gateway, "burst", 1000);
+        ReflectionTestUtils.setField(gateway, "maxAttempts", 3);
+        ReflectionTestUtils.setField(gateway, "initialBackoffMs", 10L);
+        ReflectionTestUtils.setField(gateway, "maxBackoffMs", 10L);
+        ReflectionTestUtils.setField(gateway, "failureThreshold", 2);
+        ReflectionTestUtils.setField(gateway, "openMs", 300L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void rateLimitedCallIsRetried() {
+        AtomicInteger requests = new AtomicInteger();
+        stub.onCompletion(prompt -> requests.incrementAndGet() == 1
+                ? StubOpenAiServer.error(429) : StubOpenAiServer.completion("answer"));
+
+        assertEquals("answer", client().requestCompletion("question"));
+        assertEquals(2, stub.completionRequests());
+        assertEquals(1.0, meterRegistry.get("llm.calls.retries").tag("operation", "completion").counter().count());
+        assertEquals(CircuitState.CLOSED, gateway.getCircuitState());
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedFailuresAndClosesOnASuccessfulTrial() throws Exception {
+        ReflectionTestUtils.setField(gateway, "maxAttempts", 1);
+        InterviewOpenAiService client = client();
+        stub.onCompletion(prompt -> StubOpenAiServer.error(500));
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(RuntimeException.class, () -> client.requestCompletion("question"));
+        }
+        assertEquals(CircuitState.OPEN, gateway.getCircuitState());
+        assertThrows(LlmUnavailableException.class, () -> client.requestCompletion("question"));
+        assertEquals(2, stub.completionRequests());
+
+        // Once the circuit has been open long enough a single trial call goes through
+        Thread.sleep(350);
+        stub.onCompletion(prompt -> StubOpenAiServer.completion("answer").delayed(300));
+        CompletableFuture<String> trial = CompletableFuture.supplyAsync(() -> client.requestCompletion("trial"));
+        awaitState(CircuitState.HALF_OPEN);
+        assertThrows(LlmUnavailableException.class, () -> client.requestCompletion("question"));
+
+        assertEquals("answer", trial.get(5, TimeUnit.SECONDS));
+        assertEquals(CircuitState.CLOSED, gateway.getCircuitState());
+        assertEquals(3, stub.completionRequests());
+        assertEquals(2.0, meterRegistry.get("llm.calls.rejected").tag("reason", "circuit_open").counter().count());
+    }
+
+    @Test
+    void callsBeyondTheBulkheadAreRejected() throws Exception {
+        ReflectionTestUtils.setField(gateway, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(gateway, "acquireTimeoutMs", 100L);
+        InterviewOpenAiService client = client();
+        CountDownLatch started = new CountDownLatch(1);
+        stub.onCompletion(prompt -> {
+            started.countDown();
+            return StubOpenAiServer.completion("answer").delayed(500);
+        });
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> client.requestCompletion("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertThrows(LlmUnavailableException.class, () -> client.requestCompletion("second"));
+
+        assertEquals("answer", first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, stub.completionRequests());
+        assertEquals(1.0, meterRegistry.get("llm.calls.rejected").tag("reason", "bulkhead").counter().count());
+        assertEquals(CircuitState.CLOSED, gateway.getCircuitState());
+    }
+
+    @Test
+    void retryBackoffDoesNotHoldTheBulkhead() throws Exception {
+        ReflectionTestUtils.setField(gateway, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(gateway, "acquireTimeoutMs", 300L);
+        ReflectionTestUtils.setField(gateway, "initialBackoffMs", 3000L);
+        ReflectionTestUtils.setField(gateway, "maxBackoffMs", 3000L);
+        InterviewOpenAiService client = client();
+        CountDownLatch rateLimited = new CountDownLatch(1);
+        AtomicInteger firstRequests = new AtomicInteger();
+        stub.onCompletion(prompt -> {
+            if (prompt.equals("first") && firstRequests.incrementAndGet() == 1) {
+                rateLimited.countDown();
+                return StubOpenAiServer.error(429);
+            }
+            return StubOpenAiServer.completion(prompt + " answer");
+        });
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> client.requestCompletion("first"));
+        assertTrue(rateLimited.await(5, TimeUnit.SECONDS));
+        // The only slot is free while the first call waits to retry
+        assertEquals("second answer", client.requestCompletion("second"));
+
+        assertEquals("first answer", first.get(10, TimeUnit.SECONDS));
+        assertEquals(3, stub.completionRequests());
+    }
+
+    private InterviewOpenAiService client() {
+        ReflectionTestUtils.invokeMethod(gateway, "init");
+        return new InterviewOpenAiService("test-key", 5, stub.baseUrl(), new LocalSimilarityScorer(), gateway);
+    }
+
+    private void awaitState(CircuitState expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gateway.getCircuitState() != expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Circuit is " + gateway.getCircuitState() + ", expected " + expected);
+            }
+            Thread.sleep(5);
+        }
+    }
+}
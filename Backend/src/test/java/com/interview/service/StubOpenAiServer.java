@@ -0,0 +1,158 @@
+package com.interview.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the OpenAI chat completion and embedding endpoints, answering each request
+ * with whatever the test's handler returns: a result, an error status or a delayed response
+ */
+class StubOpenAiServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger completionRequests = new AtomicInteger();
+    private final AtomicInteger embeddingRequests = new AtomicInteger();
+
+    private volatile Function<String, Response> completions = prompt -> completion("stub answer");
+    private volatile Function<JsonNode, Response> embeddings = input -> embedding(input, 1.0f, 0.0f);
+
+    StubOpenAiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            completionRequests.incrementAndGet();
+            JsonNode request = readJson(exchange);
+            respond(exchange, completions.apply(request.path("messages").path(0).path("content").asText()));
+        });
+        server.createContext("/v1/embeddings", exchange -> {
+            embeddingRequests.incrementAndGet();
+            respond(exchange, embeddings.apply(readJson(exchange).path("input")));
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Answer chat completions by their prompt
+     */
+    void onCompletion(Function<String, Response> handler) {
+        completions = handler;
+    }
+
+    /**
+     * Answer embedding requests by their input texts
+     */
+    void onEmbedding(Function<JsonNode, Response> handler) {
+        embeddings = handler;
+    }
+
+    int completionRequests() {
+        return completionRequests.get();
+    }
+
+    int embeddingRequests() {
+        return embeddingRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    static Response completion(String content) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("id", "chatcmpl-stub");
+        body.put("object", "chat.completion");
+        body.put("model", "gpt-3.5-turbo");
+        ObjectNode choice = body.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.put("finish_reason", "stop");
+        choice.putObject("message").put("role", "assistant").put("content", content);
+        usage(body);
+        return new Response(200, body.toString(), 0);
+    }
+
+    /**
+     * The same vector for every input text
+     */
+    static Response embedding(JsonNode input, float... vector) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("object", "list");
+        body.put("model", "text-embedding-ada-002");
+        ArrayNode data = body.putArray("data");
+        for (int i = 0; i < Math.max(1, input.size()); i++) {
+            ObjectNode item = data.addObject();
+            item.put("object", "embedding");
+            item.put("index", i);
+            ArrayNode values = item.putArray("embedding");
+            for (float value : vector) {
+                values.add(value);
+            }
+        }
+        usage(body);
+        return new Response(200, body.toString(), 0);
+    }
+
+    /**
+     * An error in the OpenAI format, so the client reports it with its status code
+     */
+    static Response error(int status) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.putObject("error").put("message", "stub error " + status).put("type", "stub").put("code", status);
+        return new Response(status, body.toString(), 0);
+    }
+
+    private static void usage(ObjectNode body) {
+        body.putObject("usage").put("prompt_tokens", 1).put("completion_tokens", 1).put("total_tokens", 2);
+    }
+
+    private static JsonNode readJson(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return MAPPER.readTree(in);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, Response response) throws IOException {
+        if (response.delayMs() > 0) {
+            try {
+                Thread.sleep(response.delayMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    record Response(int status, String body, long delayMs) {
+
+        Response delayed(long millis) {
+            return new Response(status, body, millis);
+        }
+    }
+}
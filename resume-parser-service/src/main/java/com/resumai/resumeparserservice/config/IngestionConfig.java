@@ -0,0 +1,63 @@
+package com.resumai.resumeparserservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@Slf4j
+public class IngestionConfig {
+
+    @Value("${app.ingestion.workers:2}")
+    private int workers;
+
+    @Value("${app.ingestion.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${app.bulk-import.workers:0}")
+    private int bulkImportWorkers;
+
+    /**
+     * Bounded pool that processes asynchronously uploaded resumes.
+     * When the queue is full new uploads are rejected, so clients back off instead of piling up work.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor ingestionExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "resume-ingestion-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        log.info("Resume ingestion pool: {} workers, queue capacity {}", workers, queueCapacity);
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Pool that extracts and matches the files of bulk imports (workers 0 = one per CPU).
+     * Each import bounds the files it has in flight, so the queue only needs room for those.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor bulkImportExecutor() {
+        int threads = bulkImportWorkers > 0 ? bulkImportWorkers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        log.info("Bulk import pool: {} workers", threads);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(threads * 4), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,43 @@
+package com.resumai.resumeparserservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@Slf4j
+public class MatchingConfig {
+
+    @Value("${app.matching.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.matching.queue-capacity:1000}")
+    private int queueCapacity;
+
+    /**
+     * Bounded pool that scores a resume against jobs in parallel.
+     * When the queue is full the request thread scores the job itself, so load sheds into latency, not errors.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService matchingExecutor() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "job-matching-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        log.info("Job matching pool: {} threads, queue capacity {}", threads, queueCapacity);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
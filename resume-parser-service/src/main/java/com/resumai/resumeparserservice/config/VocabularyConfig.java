@@ -0,0 +1,32 @@
+package com.resumai.resumeparserservice.config;
+
+import com.resumai.resumeparserservice.service.TechnicalVocabulary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Configuration
+@Slf4j
+public class VocabularyConfig {
+
+    @Value("${app.skills.vocabulary-location:classpath:skills/technical-vocabulary.txt}")
+    private Resource vocabularyLocation;
+
+    /**
+     * Technical vocabulary compiled once into a single multi-term automaton
+     */
+    @Bean
+    public TechnicalVocabulary technicalVocabulary() throws IOException {
+        try (InputStream inputStream = vocabularyLocation.getInputStream()) {
+            TechnicalVocabulary vocabulary = TechnicalVocabulary.load(inputStream);
+            log.info("Loaded technical vocabulary from {}: {} terms, {} surface forms",
+                    vocabularyLocation, vocabulary.terms().size(), vocabulary.surfaceCount());
+            return vocabulary;
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package com.resumai.resumeparserservice.controller;
 
+import com.resumai.resumeparserservice.service.BulkImportService;
+import com.resumai.resumeparserservice.service.BulkImportService.BulkImportReport;
+import com.resumai.resumeparserservice.service.FileDownloadService;
 import com.resumai.resumeparserservice.service.ParsedResumeService;
 import com.resumai.resumeparserservice.service.ParsedResumeService.ResumeProcessingData;
 import com.resumai.resumeparserservice.service.ParsedResumeService.MatchingResults;
+import com.resumai.resumeparserservice.service.ResumeIngestionService;
+import com.resumai.resumeparserservice.service.ResumeIngestionService.Ingestion;
+import com.resumai.resumeparserservice.service.SpooledUpload;
+import com.resumai.resumeparserservice.service.UploadSpooler;
 import com.resumai.resumeparserservice.entity.ParsedResume;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.exception.TikaException;
@@ -12,16 +23,18 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api")
@@ -31,6 +44,11 @@ import org.springframework.http.MediaType;
 public class FileUploadController {
 
     private final ParsedResumeService parsedResumeService;
+    private final UploadSpooler uploadSpooler;
+    private final ResumeIngestionService resumeIngestionService;
+    private final BulkImportService bulkImportService;
+    private final FileDownloadService fileDownloadService;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Simple health check endpoint to verify all dependencies are working
@@ -76,44 +94,63 @@ public class FileUploadController {
     }
 
     @PostMapping("/uploadResume")
-    public ResponseEntity<Map<String, Object>> uploadResume(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> uploadResume(@RequestParam("file") MultipartFile file,
+                                                            @RequestParam(value = "topK", required = false) Integer topK) {
         Map<String, Object> response = new HashMap<>();
+        Timer.Sample latency = Timer.start(meterRegistry);
+        String outcome = "error";
+        SpooledUpload upload = null;
+        boolean claimed = false;
         
         try {
+            if (topK != null && topK < 1) {
+                throw new IllegalArgumentException("topK must be at least 1");
+            }
+            
             log.info("📄 Starting resume upload process for file: {} (size: {} bytes)", 
                     file.getOriginalFilename(), file.getSize());
             
+            // Step 0: Read the request stream once, hashing and detecting the type on the way
+            upload = uploadSpooler.spool(file);
+
             // Step 1: Validate file
             log.debug("Step 1: Validating uploaded file...");
-            parsedResumeService.validateUploadedFile(file);
+            parsedResumeService.validateUploadedFile(upload);
+            claimed = resumeIngestionService.claim(upload.getContentHash());
+            if (!claimed) {
+                throw new IllegalArgumentException("This resume is already being processed");
+            }
             log.info("✅ File validation successful");
 
             // Step 2: Save file to disk
             log.debug("Step 2: Saving file to disk...");
-            Path filePath = parsedResumeService.saveFileToDisk(file);
+            Path filePath = parsedResumeService.saveFileToDisk(upload);
             log.info("✅ File saved to: {}", filePath);
 
             // Step 3: Extract and parse resume data
             log.debug("Step 3: Extracting and parsing resume data...");
-            ResumeProcessingData resumeData = parsedResumeService.extractAndParseResumeData(file);
+            ResumeProcessingData resumeData = parsedResumeService.extractAndParseResumeData(upload);
             log.info("✅ Resume data extracted successfully");
 
             // Step 4: Score resume against jobs
             log.debug("Step 4: Scoring resume against job descriptions...");
-            MatchingResults matchingResults = parsedResumeService.scoreResumeAgainstJobs(resumeData.extractedText);
+            MatchingResults matchingResults = parsedResumeService.scoreResumeAgainstJobs(
+                    resumeData.features, topK != null ? topK : 1);
             log.info("✅ Resume scoring completed");
 
             // Step 5: Save to database
             log.debug("Step 5: Saving processed resume to database...");
-            ParsedResume savedResume = parsedResumeService.saveProcessedResumeToDatabase(file, resumeData, matchingResults, filePath);
+            ParsedResume savedResume = parsedResumeService.saveProcessedResumeToDatabase(upload, resumeData, matchingResults, filePath);
             log.info("✅ Resume saved to database with ID: {}", savedResume.getId());
 
             // Step 6: Prepare response
             log.debug("Step 6: Building success response...");
-            return buildSuccessResponse(response, savedResume, resumeData, matchingResults, filePath);
+            outcome = "success";
+            return buildSuccessResponse(response, savedResume, resumeData, matchingResults, filePath, topK);
 
         } catch (IllegalArgumentException e) {
             log.error("Validation error: {}", e.getMessage());
+            outcome = "rejected";
             response.put("success", false);
             response.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(response);
@@ -132,9 +169,132 @@ public class FileUploadController {
             response.put("success", false);
             response.put("message", "Failed to process resume: " + e.getMessage());
             return ResponseEntity.internalServerError().body(response);
+        } finally {
+            // A failed upload gives back its reference to the stored content, or deletes the spooled copy
+            if (upload != null) {
+                if (outcome.equals("success")) {
+                    upload.close();
+                } else {
+                    upload.discard();
+                }
+                if (claimed) {
+                    resumeIngestionService.release(upload.getContentHash());
+                }
+            }
+            latency.stop(meterRegistry.timer("resume.upload.latency", "outcome", outcome));
+        }
+    }
+
+    /**
+     * Accept a resume for background processing and return 202 with an ingestion ID.
+     * The file is validated and stored before returning; poll /api/ingestions/{id} or stream
+     * /api/ingestions/{id}/events for the outcome. Returns 503 when the ingestion queue is full.
+     */
+    @PostMapping("/uploadResume/async")
+    public ResponseEntity<Map<String, Object>> uploadResumeAsync(@RequestParam("file") MultipartFile file,
+                                                                 @RequestParam(value = "topK", required = false) Integer topK) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            if (topK != null && topK < 1) {
+                throw new IllegalArgumentException("topK must be at least 1");
+            }
+
+            log.info("📄 Accepting resume for async processing: {} (size: {} bytes)",
+                    file.getOriginalFilename(), file.getSize());
+            Ingestion ingestion = resumeIngestionService.submit(file, topK);
+
+            response.put("success", true);
+            response.put("message", "Resume accepted for processing");
+            response.put("ingestionId", ingestion.id);
+            response.put("status", ingestion.getState());
+            response.put("statusUrl", "/api/ingestions/" + ingestion.id);
+            response.put("eventsUrl", "/api/ingestions/" + ingestion.id + "/events");
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/ingestions/" + ingestion.id)
+                    .body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (RejectedExecutionException e) {
+            response.put("success", false);
+            response.put("message", "Too many resumes are being processed, please retry shortly");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(response);
+        } catch (Exception e) {
+            log.error("Error accepting resume: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to accept resume: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
         }
     }
 
+    /**
+     * Current status of an asynchronous upload, with its result once completed
+     */
+    @GetMapping("/ingestions/{ingestionId}")
+    public ResponseEntity<Map<String, Object>> getIngestionStatus(@PathVariable String ingestionId) {
+        return resumeIngestionService.findIngestion(ingestionId)
+                .map(ingestion -> ResponseEntity.ok(ingestion.toMap()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Server-Sent Events stream of an asynchronous upload's status changes
+     */
+    @GetMapping(value = "/ingestions/{ingestionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamIngestionStatus(@PathVariable String ingestionId) {
+        return resumeIngestionService.subscribe(ingestionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Bulk import of a zip archive sent as the request body, read entry by entry as it arrives.
+     * Use this for archives larger than the multipart size limits.
+     */
+    @PostMapping(value = "/uploadResumes/bulk", consumes = "application/zip")
+    public ResponseEntity<Map<String, Object>> bulkImportZip(InputStream body) {
+        log.info("📦 Starting bulk resume import from zip request body");
+        return buildBulkImportResponse(bulkImportService.importZip(body));
+    }
+
+    /**
+     * Bulk import of a multipart batch: each "files" part is a resume or a zip archive of resumes
+     */
+    @PostMapping(value = "/uploadResumes/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> bulkImportFiles(@RequestParam("files") List<MultipartFile> files) {
+        log.info("📦 Starting bulk resume import of {} uploaded parts", files.size());
+        return buildBulkImportResponse(bulkImportService.importFiles(files));
+    }
+
+    /**
+     * Per-file report and throughput of a bulk import
+     */
+    private ResponseEntity<Map<String, Object>> buildBulkImportResponse(BulkImportReport report) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", report.readError == null);
+        response.put("message", report.readError != null ? report.readError
+                : report.limitReached ? "Import stopped at the maximum number of files"
+                : "Bulk import completed");
+        response.put("totalFiles", report.files.size());
+        response.put("imported", report.imported);
+        response.put("duplicates", report.duplicates);
+        response.put("rejected", report.rejected);
+        response.put("failed", report.failed);
+        response.put("limitReached", report.limitReached);
+        response.put("bytesRead", report.bytesRead);
+        response.put("elapsedMs", report.elapsedMs);
+        response.put("filesPerSecond", report.filesPerSecond);
+        response.put("bytesPerSecond", report.bytesPerSecond);
+        response.put("files", report.files);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Build comprehensive success response
      */
@@ -142,7 +302,8 @@ public class FileUploadController {
                                                                     ParsedResume savedResume, 
                                                                     ResumeProcessingData resumeData, 
                                                                     MatchingResults matchingResults, 
-                                                                    Path filePath) {
+                                                                    Path filePath,
+                                                                    Integer topK) {
         // Use the content type from the saved resume entity
         String detectedType = savedResume.getContentType();
 
@@ -168,7 +329,7 @@ public class FileUploadController {
         
         // Scoring results
         response.put("bestMatchScore", matchingResults.bestScore);
-        response.put("totalJobsMatched", matchingResults.allMatches.size());
+        response.put("totalJobsMatched", matchingResults.jobsScored);
         
         if (matchingResults.bestMatch != null) {
             response.put("bestMatchJob", Map.of(
@@ -179,6 +340,11 @@ public class FileUploadController {
             ));
         }
         
+        // Detailed breakdown of the K best jobs, only when requested
+        if (topK != null) {
+            response.put("topMatches", matchingResults.allMatches);
+        }
+        
         // Database confirmation
         response.put("savedToDatabase", true);
         response.put("databaseId", savedResume.getId());
@@ -242,16 +408,18 @@ public class FileUploadController {
     }
 
     /**
-     * Download original resume file by email
+     * Download original resume file by email, with ETag revalidation and byte ranges
      */
     @GetMapping("/downloadResume/{email}")
-    public ResponseEntity<Resource> downloadResume(@PathVariable String email) {
+    public void downloadResume(@PathVariable String email, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
         try {
             List<ParsedResume> resumes = parsedResumeService.findByEmail(email);
             
             if (resumes.isEmpty()) {
                 log.error("No resume found for email: {}", email);
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
             
             // If multiple resumes exist for the same email, get the most recent one
@@ -263,40 +431,27 @@ public class FileUploadController {
             
             if (filePath == null || filePath.trim().isEmpty()) {
                 log.error("File path is null or empty for email: {}", email);
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
             
             Path file = Paths.get(filePath);
             
-            if (!Files.exists(file)) {
+            if (!Files.isReadable(file)) {
                 log.error("File not found on disk: {}", filePath);
-                return ResponseEntity.notFound().build();
-            }
-            
-            Resource resource = new UrlResource(file.toUri());
-            
-            if (!resource.exists() || !resource.isReadable()) {
-                log.error("File is not readable: {}", filePath);
-                return ResponseEntity.notFound().build();
-            }
-            
-            // Determine content type
-            String contentType = resume.getContentType();
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
             
             log.info("Downloading resume: {} ({})", resume.getOriginalFileName(), filePath);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                           "attachment; filename=\"" + resume.getOriginalFileName() + "\"")
-                    .body(resource);
+            fileDownloadService.sendFile(request, response, file, resume.getContentHash(),
+                    resume.getContentType(), resume.getOriginalFileName());
                     
         } catch (Exception e) {
             log.error("Error downloading resume for email {}: {}", email, e.getMessage(), e);
-            return ResponseEntity.internalServerError().build();
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
@@ -4,8 +4,19 @@ import com.resumai.resumeparserservice.entity.JobDescription;
 import com.resumai.resumeparserservice.entity.PanelMember;
 import com.resumai.resumeparserservice.repository.JobDescriptionRepository;
 import com.resumai.resumeparserservice.repository.PanelMemberRepository;
+import com.resumai.resumeparserservice.service.CandidateRankingService;
+import com.resumai.resumeparserservice.service.ContentStore;
+import com.resumai.resumeparserservice.service.FileDownloadService;
+import com.resumai.resumeparserservice.service.SpooledUpload;
 import com.resumai.resumeparserservice.service.TextExtractionService;
+import com.resumai.resumeparserservice.service.UploadSpooler;
 import com.resumai.resumeparserservice.service.JobDescriptionService;
+import com.resumai.resumeparserservice.service.JobDescriptionService.RenderedJobDescription;
+import com.resumai.resumeparserservice.service.JobRescoringService;
+import com.resumai.resumeparserservice.service.JobSkillIndex;
+import com.resumai.resumeparserservice.service.JobSkillProfileService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.exception.TikaException;
@@ -16,17 +27,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
-import org.springframework.http.HttpHeaders;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,9 +47,16 @@ import java.util.Optional;
 public class JobDescriptionController {
 
     private final TextExtractionService textExtractionService;
+    private final UploadSpooler uploadSpooler;
     private final JobDescriptionRepository jobDescriptionRepository;
     private final JobDescriptionService jobDescriptionService;
     private final PanelMemberRepository panelMemberRepository;
+    private final JobSkillProfileService jobSkillProfileService;
+    private final JobSkillIndex jobSkillIndex;
+    private final CandidateRankingService candidateRankingService;
+    private final FileDownloadService fileDownloadService;
+    private final ContentStore contentStore;
+    private final JobRescoringService jobRescoringService;
 
     /**
      * Upload job description file or text and store it in the database
@@ -69,17 +83,20 @@ public class JobDescriptionController {
             
             // If file is provided, extract text from it
             if (file != null && !file.isEmpty()) {
-                // Validate file type for job descriptions
-                detectedContentType = textExtractionService.detectFileType(file);
-                if (!textExtractionService.isSupportedJobDescriptionFileType(detectedContentType)) {
-                    response.put("success", false);
-                    response.put("message", "Unsupported file type for job descriptions");
-                    response.put("detectedType", detectedContentType);
-                    response.put("supportedTypes", "PDF, DOC, DOCX, RTF, TXT");
-                    return ResponseEntity.badRequest().body(response);
+                // Read the file once; a file seen before reuses its cached text
+                try (SpooledUpload upload = uploadSpooler.spool(file)) {
+                    // Validate file type for job descriptions
+                    detectedContentType = upload.getDetectedType();
+                    if (!textExtractionService.isSupportedJobDescriptionFileType(detectedContentType)) {
+                        response.put("success", false);
+                        response.put("message", "Unsupported file type for job descriptions");
+                        response.put("detectedType", detectedContentType);
+                        response.put("supportedTypes", "PDF, DOC, DOCX, RTF, TXT");
+                        return ResponseEntity.badRequest().body(response);
+                    }
+
+                    extractedText = textExtractionService.extractTextFromFile(upload);
                 }
-                
-                extractedText = textExtractionService.extractTextFromFile(file);
                 log.info("Extracted {} characters from job description file: {}", 
                         extractedText.length(), file.getOriginalFilename());
             } else if (description != null && !description.trim().isEmpty()) {
@@ -97,6 +114,7 @@ public class JobDescriptionController {
             response.put("message", "Job description uploaded and saved successfully");
             response.put("jobId", savedJob.getId());
             response.put("job", savedJob);
+            response.put("rescoringUrl", "/api/matching/jobs/" + savedJob.getId() + "/rescoring");
             
             // Include panel member details in response if available
             if (savedJob.getPanelMember() != null) {
@@ -326,6 +344,69 @@ public class JobDescriptionController {
         }
     }
 
+    /**
+     * Rank stored resumes against a job description, one page of the best candidates at a time
+     */
+    @GetMapping("/jobs/{jobId}/candidates")
+    public ResponseEntity<Map<String, Object>> getTopCandidates(
+            @PathVariable Long jobId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Optional<JobDescription> jobOpt = jobDescriptionRepository.findById(jobId);
+            if (jobOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            CandidateRankingService.CandidateRanking ranking =
+                candidateRankingService.rankCandidates(jobOpt.get(), page, size);
+            int totalPages = (ranking.candidatesScored + size - 1) / size;
+            
+            response.put("success", true);
+            response.put("message", ranking.partial
+                ? "Candidates ranked within the latency budget; some resumes were not scored"
+                : "Candidates ranked successfully");
+            response.put("jobId", jobId);
+            response.put("jobTitle", jobOpt.get().getTitle());
+            response.put("candidates", ranking.candidates);
+            response.put("currentPage", ranking.page);
+            response.put("pageSize", ranking.size);
+            response.put("totalElements", ranking.candidatesScored);
+            response.put("totalPages", totalPages);
+            response.put("hasNext", ranking.page + 1 < totalPages);
+            response.put("hasPrevious", ranking.page > 0);
+            response.put("candidatesConsidered", ranking.candidatesConsidered);
+            response.put("partial", ranking.partial);
+            response.put("elapsedMs", ranking.elapsedMs);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            log.error("Validation error: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Error ranking candidates for job {}: {}", jobId, e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to rank candidates: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    /**
+     * Progress of scoring the stored resumes against a new job description
+     */
+    @GetMapping("/jobs/{jobId}/rescoring")
+    public ResponseEntity<Map<String, Object>> getRescoringStatus(@PathVariable Long jobId) {
+        return jobRescoringService.getStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Get all active panel members for dropdown selection
      */
@@ -352,16 +433,19 @@ public class JobDescriptionController {
     }
 
     /**
-     * Download original job description file
+     * Download original job description file, with ETag revalidation and byte ranges.
+     * Jobs without a stored file are downloaded as text rendered from their fields.
      */
     @GetMapping("/jobs/{jobId}/download")
-    public ResponseEntity<Resource> downloadJobDescription(@PathVariable Long jobId) {
+    public void downloadJobDescription(@PathVariable Long jobId, HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
         try {
             Optional<JobDescription> jobOpt = jobDescriptionRepository.findById(jobId);
             
             if (jobOpt.isEmpty()) {
                 log.error("Job description not found with ID: {}", jobId);
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
             
             JobDescription job = jobOpt.get();
@@ -369,137 +453,59 @@ public class JobDescriptionController {
             
             if (filePath == null || filePath.trim().isEmpty()) {
                 log.error("File path is null or empty for job ID: {}", jobId);
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
             
             // Check if this is a virtual file path (text-only job description)
             if (filePath.startsWith("/virtual/")) {
-                log.info("Creating downloadable file for virtual job description: {}", job.getTitle());
-                
-                // Create a temporary file with the job description content
-                String content = createDownloadableContent(job);
-                byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
-                
-                ByteArrayResource resource = new ByteArrayResource(contentBytes);
-                
                 String filename = job.getOriginalFileName();
                 if (filename == null || filename.trim().isEmpty()) {
                     filename = (job.getTitle() != null ? job.getTitle().replaceAll("[^a-zA-Z0-9]", "_") : "job_description") + ".txt";
                 }
-                
-                return ResponseEntity.ok()
-                        .contentType(MediaType.TEXT_PLAIN)
-                        .header(HttpHeaders.CONTENT_DISPOSITION, 
-                               "attachment; filename=\"" + filename + "\"")
-                        .body(resource);
+                sendRendered(job, filename, request, response);
+                return;
             }
             
             // Handle real file download
             Path file = Paths.get(filePath);
             
-            if (!Files.exists(file)) {
+            if (!Files.isReadable(file)) {
                 log.error("File not found on disk: {}", filePath);
                 
                 // Fallback: create downloadable content even for missing files
-                log.info("File not found, creating downloadable content for job: {}", job.getTitle());
-                String content = createDownloadableContent(job);
-                byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
-                ByteArrayResource resource = new ByteArrayResource(contentBytes);
-                
                 String filename = job.getOriginalFileName();
                 if (filename == null) {
                     filename = "job_description_" + job.getId() + ".txt";
                 }
-                
-                return ResponseEntity.ok()
-                        .contentType(MediaType.TEXT_PLAIN)
-                        .header(HttpHeaders.CONTENT_DISPOSITION, 
-                               "attachment; filename=\"" + filename + "\"")
-                        .body(resource);
-            }
-            
-            Resource resource = new UrlResource(file.toUri());
-            
-            if (!resource.exists() || !resource.isReadable()) {
-                log.error("File is not readable: {}", filePath);
-                return ResponseEntity.notFound().build();
-            }
-            
-            // Determine content type
-            String contentType = job.getContentType();
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+                sendRendered(job, filename, request, response);
+                return;
             }
             
             log.info("Downloading job description file: {} ({})", job.getOriginalFileName(), filePath);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                           "attachment; filename=\"" + job.getOriginalFileName() + "\"")
-                    .body(resource);
+            fileDownloadService.sendFile(request, response, file, contentStore.hashOf(file).orElse(null),
+                    job.getContentType(), job.getOriginalFileName());
                     
         } catch (Exception e) {
             log.error("Error downloading job description with ID {}: {}", jobId, e.getMessage(), e);
-            return ResponseEntity.internalServerError().build();
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
     
     /**
-     * Create downloadable content for job descriptions
+     * Send the text rendering of a job, rendered again only after the job changes
      */
-    private String createDownloadableContent(JobDescription job) {
-        StringBuilder content = new StringBuilder();
-        
-        content.append("JOB DESCRIPTION\n");
-        content.append("===============\n\n");
-        
-        if (job.getTitle() != null) {
-            content.append("TITLE: ").append(job.getTitle()).append("\n");
-        }
-        if (job.getCompany() != null) {
-            content.append("COMPANY: ").append(job.getCompany()).append("\n");
-        }
-        if (job.getLocation() != null) {
-            content.append("LOCATION: ").append(job.getLocation()).append("\n");
-        }
-        if (job.getExperienceLevel() != null) {
-            content.append("EXPERIENCE LEVEL: ").append(job.getExperienceLevel()).append("\n");
-        }
-        
-        content.append("\n");
-        
-        if (job.getDescription() != null && !job.getDescription().trim().isEmpty()) {
-            content.append("DESCRIPTION:\n");
-            content.append("------------\n");
-            content.append(job.getDescription()).append("\n\n");
-        }
-        
-        if (job.getRequirements() != null && !job.getRequirements().trim().isEmpty()) {
-            content.append("REQUIREMENTS:\n");
-            content.append("-------------\n");
-            content.append(job.getRequirements()).append("\n\n");
-        }
-        
-        if (job.getResponsibilities() != null && !job.getResponsibilities().trim().isEmpty()) {
-            content.append("RESPONSIBILITIES:\n");
-            content.append("-----------------\n");
-            content.append(job.getResponsibilities()).append("\n\n");
-        }
-        
-        if (job.getPanelMemberName() != null) {
-            content.append("POSTED BY: ").append(job.getPanelMemberName());
-            if (job.getPanelMemberEmail() != null) {
-                content.append(" (").append(job.getPanelMemberEmail()).append(")");
-            }
-            content.append("\n");
-        }
-        
-        if (job.getCreatedDate() != null) {
-            content.append("CREATED: ").append(job.getCreatedDate().toString()).append("\n");
-        }
-        
-        return content.toString();
+    private void sendRendered(JobDescription job, String filename, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        RenderedJobDescription rendered = jobDescriptionService.renderForDownload(job);
+        long lastModified = job.getUpdatedDate() != null
+                ? job.getUpdatedDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+        log.info("Downloading rendered job description: {}", job.getTitle());
+        fileDownloadService.sendContent(request, response, rendered.content, rendered.contentHash, lastModified,
+                MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8", filename);
     }
 
     /**
@@ -520,23 +526,16 @@ public class JobDescriptionController {
             
             JobDescription job = jobOpt.get();
             
-            // Delete the file from disk if it exists
-            String filePath = job.getFilePath();
-            if (filePath != null && !filePath.trim().isEmpty()) {
-                try {
-                    Path file = Paths.get(filePath);
-                    if (Files.exists(file)) {
-                        Files.delete(file);
-                        log.info("Deleted file from disk: {}", filePath);
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to delete file from disk: {}", e.getMessage());
-                    // Continue with database deletion even if file deletion fails
-                }
+            // Release the stored file, unless a soft delete already did
+            if (Boolean.TRUE.equals(job.getIsActive())) {
+                jobDescriptionService.releaseFile(job);
             }
             
             // Delete from database
             jobDescriptionRepository.delete(job);
+            jobSkillProfileService.invalidate(jobId);
+            jobSkillIndex.remove(jobId);
+            jobDescriptionService.evictRendered(jobId);
             
             response.put("success", true);
             response.put("message", "Job description deleted successfully");
@@ -1,13 +1,17 @@
 package com.resumai.resumeparserservice.controller;
 
 import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.service.FileDownloadService;
 import com.resumai.resumeparserservice.service.ParsedResumeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -16,10 +20,6 @@ import java.util.Optional;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 
 @RestController
 @RequestMapping("/api/resumes")
@@ -28,6 +28,7 @@ import org.springframework.http.MediaType;
 public class ParsedResumeController {
 
     private final ParsedResumeService parsedResumeService;
+    private final FileDownloadService fileDownloadService;
 
     /**
      * Get all parsed resumes
@@ -111,7 +112,7 @@ public class ParsedResumeController {
     }
 
     /**
-     * Search resumes by skill
+     * Search resumes listing a skill (exact skill name, case-insensitive)
      */
     @GetMapping("/search/skill/{skill}")
     public ResponseEntity<Map<String, Object>> searchBySkill(@PathVariable String skill) {
@@ -167,7 +168,7 @@ public class ParsedResumeController {
     }
 
     /**
-     * Search resumes by text content
+     * Search resumes whose text contains every term of the keyword (whole terms only)
      */
     @GetMapping("/search/text/{keyword}")
     public ResponseEntity<Map<String, Object>> searchByText(@PathVariable String keyword) {
@@ -312,55 +313,44 @@ public class ParsedResumeController {
     }
 
     /**
-     * Download original resume file
+     * Download original resume file, with ETag revalidation and byte ranges
      */
     @GetMapping("/{id}/download")
-    public ResponseEntity<Resource> downloadResume(@PathVariable Long id) {
+    public void downloadResume(@PathVariable Long id, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
         try {
             Optional<ParsedResume> resumeOpt = parsedResumeService.findById(id);
             
             if (resumeOpt.isEmpty()) {
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
             
             ParsedResume resume = resumeOpt.get();
             String filePath = resume.getFilePath();
             
             if (filePath == null || filePath.trim().isEmpty()) {
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
             
             Path file = Paths.get(filePath);
             
-            if (!Files.exists(file)) {
+            if (!Files.isReadable(file)) {
                 log.error("File not found on disk: {}", filePath);
-                return ResponseEntity.notFound().build();
-            }
-            
-            Resource resource = new UrlResource(file.toUri());
-            
-            if (!resource.exists() || !resource.isReadable()) {
-                log.error("File is not readable: {}", filePath);
-                return ResponseEntity.notFound().build();
-            }
-            
-            // Determine content type
-            String contentType = resume.getContentType();
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
             
             log.info("Downloading resume: {} ({})", resume.getOriginalFileName(), filePath);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                           "attachment; filename=\"" + resume.getOriginalFileName() + "\"")
-                    .body(resource);
+            fileDownloadService.sendFile(request, response, file, resume.getContentHash(),
+                    resume.getContentType(), resume.getOriginalFileName());
                     
         } catch (Exception e) {
             log.error("Error downloading resume with ID {}: {}", id, e.getMessage(), e);
-            return ResponseEntity.internalServerError().build();
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
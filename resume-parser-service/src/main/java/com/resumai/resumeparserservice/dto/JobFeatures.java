@@ -0,0 +1,25 @@
+package com.resumai.resumeparserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Precomputed similarity features of a job description; a section is null when the job has no such text
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobFeatures {
+
+    private TextFeatures combined;
+    private TextFeatures title;
+    private TextFeatures description;
+    private TextFeatures requirements;
+    private TextFeatures responsibilities;
+
+    // Skills extracted from the combined text
+    private Set<String> jobSkills;
+}
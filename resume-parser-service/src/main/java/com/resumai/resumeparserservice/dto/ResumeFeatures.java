@@ -0,0 +1,41 @@
+package com.resumai.resumeparserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Similarity features of a resume, computed once and reused against every job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeFeatures {
+
+    // Enhanced-preprocessed text and the vocabulary surface forms found in it
+    private String processedText;
+    private Set<String> processedVocabulary;
+
+    // Distinct alphanumeric tokens of the processed text, sorted by length for fuzzy matching
+    private String[] processedTokens;
+
+    // Term frequencies of processed tokens longer than two characters, by dictionary id
+    private SparseVector termVector;
+
+    // Words longer than three characters that are not common words
+    private Set<String> keywords;
+
+    // Lowercase raw text and its vocabulary surface forms, used for direct skill matching
+    private String lowerText;
+    private Set<String> textVocabulary;
+    private String[] textTokens;
+
+    // Skills extracted from the raw text
+    private Set<String> skills;
+
+    // Contact email and years of experience of the saved resume, null until it is saved
+    private String email;
+    private Integer experienceYears;
+}
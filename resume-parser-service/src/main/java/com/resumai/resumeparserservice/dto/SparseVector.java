@@ -0,0 +1,98 @@
+package com.resumai.resumeparserservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Immutable sparse vector over dictionary term ids, stored as ids in ascending order
+ * with a parallel array of weights
+ */
+public final class SparseVector {
+
+    public static final SparseVector EMPTY = new SparseVector(new int[0], new float[0]);
+
+    private final int[] termIds;
+    private final float[] weights;
+
+    // Last weighted unit vector and the generation of the factors it was built from
+    private transient volatile Weighted weighted;
+
+    private record Weighted(long generation, SparseVector vector) {
+    }
+
+    @JsonCreator
+    public SparseVector(@JsonProperty("termIds") int[] termIds, @JsonProperty("weights") float[] weights) {
+        if (termIds.length != weights.length) {
+            throw new IllegalArgumentException("Term ids and weights must have the same length");
+        }
+        this.termIds = termIds;
+        this.weights = weights;
+    }
+
+    public int[] getTermIds() {
+        return termIds;
+    }
+
+    public float[] getWeights() {
+        return weights;
+    }
+
+    @JsonIgnore
+    public int size() {
+        return termIds.length;
+    }
+
+    /**
+     * Dot product by merge-joining the two id lists
+     */
+    public double dot(SparseVector other) {
+        int[] otherIds = other.termIds;
+        float[] otherWeights = other.weights;
+        double sum = 0.0;
+        int i = 0;
+        int j = 0;
+        while (i < termIds.length && j < otherIds.length) {
+            int a = termIds[i];
+            int b = otherIds[j];
+            if (a == b) {
+                sum += (double) weights[i++] * otherWeights[j++];
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * This vector scaled term by term and L2-normalised, memoised per generation of the factors.
+     * Terms without a factor, such as ids added after the factors were computed, use missingFactor.
+     */
+    public SparseVector weightedUnit(float[] factors, float missingFactor, long generation) {
+        Weighted memo = weighted;
+        if (memo != null && memo.generation() == generation) {
+            return memo.vector();
+        }
+
+        float[] scaled = new float[weights.length];
+        double squaredNorm = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            int termId = termIds[i];
+            float factor = termId < factors.length ? factors[termId] : missingFactor;
+            scaled[i] = weights[i] * factor;
+            squaredNorm += (double) scaled[i] * scaled[i];
+        }
+        if (squaredNorm > 0.0) {
+            float inverseNorm = (float) (1.0 / Math.sqrt(squaredNorm));
+            for (int i = 0; i < scaled.length; i++) {
+                scaled[i] *= inverseNorm;
+            }
+        }
+
+        SparseVector unit = new SparseVector(termIds, scaled);
+        weighted = new Weighted(generation, unit);
+        return unit;
+    }
+}
@@ -0,0 +1,31 @@
+package com.resumai.resumeparserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Precomputed similarity features of one piece of job description text
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextFeatures {
+
+    // Enhanced-preprocessed text, used for substring checks against the resume
+    private String processedText;
+
+    // Term frequencies of processed tokens longer than two characters, by dictionary id
+    private SparseVector termVector;
+
+    // Words longer than three characters that are not common words
+    private Set<String> keywords;
+
+    // Requirements extracted from the processed text
+    private Set<String> requirementTerms;
+
+    // Requirements extracted from the raw text, used for direct skill matching
+    private Set<String> directSkillTerms;
+}
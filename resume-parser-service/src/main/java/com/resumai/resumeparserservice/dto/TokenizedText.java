@@ -0,0 +1,33 @@
+package com.resumai.resumeparserservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Token statistics of a document, gathered while its text streams in
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenizedText {
+
+    // Enhanced-preprocessed text: the processed tokens joined by single spaces
+    private String processedText;
+
+    // Counts of processed tokens longer than two characters, and the number of processed tokens
+    private Map<String, Integer> termCounts;
+    private int tokenCount;
+
+    // Distinct processed tokens, sorted by length for fuzzy matching
+    private String[] processedTokens;
+
+    // Processed tokens longer than three characters that are not common words
+    private Set<String> keywords;
+
+    // Distinct alphanumeric tokens of the lowercase raw text, sorted by length for fuzzy matching
+    private String[] textTokens;
+}
@@ -0,0 +1,60 @@
+package com.resumai.resumeparserservice.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of re-scoring the stored resumes against a new job description.
+ * Saved after every round of batches, so a run interrupted by a restart resumes after the last saved resume.
+ */
+@Entity
+@Table(name = "job_rescorings")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRescoring {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    // Same id as the job description being scored
+    @Id
+    private Long jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private State state;
+
+    // Checkpoint: every candidate resume up to this id has been scored and its score updated
+    @Column(nullable = false)
+    private Long lastResumeId;
+
+    // Resumes selected for scoring, including those scored before a restart
+    @Column(nullable = false)
+    private Integer candidates;
+
+    @Column(nullable = false)
+    private Integer scored;
+
+    // Resumes whose best-match score the job raised
+    @Column(nullable = false)
+    private Integer raised;
+
+    @Column(nullable = false)
+    private LocalDateTime queuedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.CANCELLED || state == State.FAILED;
+    }
+}
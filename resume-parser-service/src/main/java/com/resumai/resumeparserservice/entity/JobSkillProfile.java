@@ -0,0 +1,45 @@
+package com.resumai.resumeparserservice.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted similarity features of a job description, so jobs are not re-analysed for every resume
+ */
+@Entity
+@Table(name = "job_skill_profiles")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobSkillProfile {
+
+    // Same id as the job description the profile was built from
+    @Id
+    private Long jobId;
+
+    // Hash of the job text the profile was built from
+    @Column(nullable = false, length = 64)
+    private String sourceHash;
+
+    // Profile format version, bumped whenever extraction changes
+    @Column(nullable = false)
+    private Integer profileVersion;
+
+    // JobFeatures serialized as JSON
+    @Lob
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String profileData;
+
+    @Column(nullable = false)
+    private LocalDateTime builtAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        builtAt = LocalDateTime.now();
+    }
+}
@@ -39,10 +39,6 @@ public class ParsedResume {
     @Column(nullable = false)
     private LocalDateTime uploadTime;
 
-    @Lob
-    @Column(columnDefinition = "TEXT")
-    private String parsedText;
-
     @Lob
     @Column(columnDefinition = "TEXT")
     private String rawText;
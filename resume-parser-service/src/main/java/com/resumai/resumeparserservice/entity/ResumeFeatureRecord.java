@@ -0,0 +1,47 @@
+package com.resumai.resumeparserservice.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted similarity features of a parsed resume, built once at ingest so resumes are not
+ * re-analysed for every job; see {@link com.resumai.resumeparserservice.service.ResumeFeatureCodec}
+ * for the encoding
+ */
+@Entity
+@Table(name = "resume_feature_records")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeFeatureRecord {
+
+    // Same id as the parsed resume the record was built from
+    @Id
+    private Long resumeId;
+
+    // Feature version, bumped whenever extraction changes
+    @Column(nullable = false)
+    private Integer featureVersion;
+
+    // Digest of the skill vocabulary the features were extracted with
+    @Column(length = 64)
+    private String vocabularyDigest;
+
+    // ResumeFeatures in the binary encoding, which carries its own format version
+    @Lob
+    @Column(columnDefinition = "BLOB", nullable = false)
+    private byte[] featureData;
+
+    @Column(nullable = false)
+    private LocalDateTime builtAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        builtAt = LocalDateTime.now();
+    }
+}
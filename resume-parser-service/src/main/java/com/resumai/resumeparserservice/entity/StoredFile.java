@@ -0,0 +1,37 @@
+package com.resumai.resumeparserservice.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A file in the content-addressed store, with the number of resumes and job descriptions referring to it
+ */
+@Entity
+@Table(name = "stored_files")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFile {
+
+    // SHA-256 of the content, which is also its file name in the store
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false)
+    private Integer refCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Last time the content was stored or referenced again; garbage collection leaves recent files alone
+    @Column(nullable = false)
+    private LocalDateTime lastStoredAt;
+}
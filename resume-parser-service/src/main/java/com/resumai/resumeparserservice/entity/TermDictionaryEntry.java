@@ -0,0 +1,25 @@
+package com.resumai.resumeparserservice.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import jakarta.persistence.*;
+
+/**
+ * Persisted term-to-id mapping, so stored term vectors keep their meaning across restarts
+ */
+@Entity
+@Table(name = "term_dictionary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TermDictionaryEntry {
+
+    // Dense id assigned in order of first appearance, used as the vector index
+    @Id
+    private Integer termId;
+
+    @Column(nullable = false, unique = true)
+    private String term;
+}
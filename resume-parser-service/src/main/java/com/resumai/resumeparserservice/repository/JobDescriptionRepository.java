@@ -14,6 +14,12 @@ import java.util.Optional;
 @Repository
 public interface JobDescriptionRepository extends JpaRepository<JobDescription, Long>, JpaSpecificationExecutor<JobDescription> {
 
+    /**
+     * Number of active job descriptions per stored file path
+     */
+    @Query("SELECT jd.filePath, COUNT(jd) FROM JobDescription jd WHERE jd.isActive = true AND jd.filePath IS NOT NULL GROUP BY jd.filePath")
+    List<Object[]> countActiveByFilePath();
+
     /**
      * Find all active job descriptions
      */
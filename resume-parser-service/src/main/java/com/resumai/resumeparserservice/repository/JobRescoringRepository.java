@@ -0,0 +1,14 @@
+package com.resumai.resumeparserservice.repository;
+
+import com.resumai.resumeparserservice.entity.JobRescoring;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JobRescoringRepository extends JpaRepository<JobRescoring, Long> {
+
+    List<JobRescoring> findByStateInOrderByQueuedAt(Collection<JobRescoring.State> states);
+}
@@ -0,0 +1,9 @@
+package com.resumai.resumeparserservice.repository;
+
+import com.resumai.resumeparserservice.entity.JobSkillProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobSkillProfileRepository extends JpaRepository<JobSkillProfile, Long> {
+}
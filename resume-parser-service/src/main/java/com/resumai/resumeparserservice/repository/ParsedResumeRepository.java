@@ -1,10 +1,13 @@
 package com.resumai.resumeparserservice.repository;
 
 import com.resumai.resumeparserservice.entity.ParsedResume;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -38,10 +41,40 @@ public interface ParsedResumeRepository extends JpaRepository<ParsedResume, Long
     @Query("SELECT p FROM ParsedResume p ORDER BY p.score DESC")
     List<ParsedResume> findAllOrderByScoreDesc();
 
+    @Query("SELECT p.filePath, COUNT(p) FROM ParsedResume p WHERE p.filePath IS NOT NULL GROUP BY p.filePath")
+    List<Object[]> countByFilePath();
+
+    @Query("SELECT p.rawText FROM ParsedResume p WHERE p.id = :id")
+    Optional<String> findRawTextById(@Param("id") Long id);
+
+    @Query("SELECT p.id, p.skills FROM ParsedResume p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findIdsAndSkillsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Resume count, average score and the number of resumes with an email and with skills, in one row
+     */
+    @Query("SELECT COUNT(p), AVG(p.score), "
+            + "SUM(CASE WHEN p.email IS NOT NULL AND TRIM(p.email) <> '' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN p.skills IS NOT NULL AND p.skills <> '' THEN 1 ELSE 0 END) "
+            + "FROM ParsedResume p")
+    List<Object[]> summarize();
+
+    @Query("SELECT p.id FROM ParsedResume p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    /**
+     * Set a resume's best-match score if the new score beats it
+     * @return 1 if the score was raised, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ParsedResume p SET p.score = :score WHERE p.id = :id AND (p.score IS NULL OR p.score < :score)")
+    int raiseScore(@Param("id") Long id, @Param("score") Double score);
+
     @Query("SELECT AVG(p.score) FROM ParsedResume p WHERE p.uploadTime >= :date")
     Double getAverageScoreAfter(@Param("date") LocalDateTime date);
 
-    @Query("SELECT p FROM ParsedResume p WHERE p.parsedText LIKE %:keyword% OR p.rawText LIKE %:keyword%")
+    @Query("SELECT p FROM ParsedResume p WHERE p.rawText LIKE %:keyword%")
     List<ParsedResume> findByTextContaining(@Param("keyword") String keyword);
     
     // Duplicate detection methods
@@ -0,0 +1,9 @@
+package com.resumai.resumeparserservice.repository;
+
+import com.resumai.resumeparserservice.entity.ResumeFeatureRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ResumeFeatureRecordRepository extends JpaRepository<ResumeFeatureRecord, Long> {
+}
@@ -0,0 +1,25 @@
+package com.resumai.resumeparserservice.repository;
+
+import com.resumai.resumeparserservice.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount + 1, f.lastStoredAt = :now WHERE f.contentHash = :contentHash")
+    int addReference(@Param("contentHash") String contentHash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount - 1 WHERE f.contentHash = :contentHash AND f.refCount > 0")
+    int removeReference(@Param("contentHash") String contentHash);
+}
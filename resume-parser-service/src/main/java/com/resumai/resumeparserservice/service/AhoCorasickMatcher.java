@@ -0,0 +1,153 @@
+package com.resumai.resumeparserservice.service;
+
+import java.util.*;
+
+/**
+ * Immutable Aho-Corasick automaton over a fixed set of lowercase patterns.
+ * Finds every occurrence of every pattern in a single left-to-right pass,
+ * lowercasing the input on the fly so callers never copy the text.
+ */
+public final class AhoCorasickMatcher {
+
+    /**
+     * Receives every pattern occurrence; end is exclusive
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        void onMatch(int patternIndex, int start, int end);
+    }
+
+    private final String[] patterns;
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final int[] patternAt;
+    private final int[] outputLink;
+
+    public AhoCorasickMatcher(List<String> patterns) {
+        this.patterns = patterns.toArray(new String[0]);
+
+        // 1. Build the trie with growable per-node edge maps
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminal.add(-1);
+        for (int p = 0; p < this.patterns.length; p++) {
+            String pattern = this.patterns[p];
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern at index " + p);
+            }
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = Character.toLowerCase(pattern.charAt(i));
+                Integer next = trie.get(node).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    terminal.add(-1);
+                    trie.get(node).put(c, next);
+                }
+                node = next;
+            }
+            if (terminal.get(node) < 0) {
+                terminal.set(node, p);
+            }
+        }
+
+        // 2. Freeze edges into sorted primitive arrays for binary search
+        int size = trie.size();
+        this.edgeChars = new char[size][];
+        this.edgeTargets = new int[size][];
+        this.patternAt = new int[size];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> edges = trie.get(node);
+            char[] chars = new char[edges.size()];
+            int[] targets = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                chars[i] = edge.getKey();
+                targets[i] = edge.getValue();
+                i++;
+            }
+            edgeChars[node] = chars;
+            edgeTargets[node] = targets;
+            patternAt[node] = terminal.get(node);
+        }
+
+        // 3. Breadth-first failure and output links
+        this.fail = new int[size];
+        this.outputLink = new int[size];
+        Arrays.fill(outputLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int target : edgeTargets[0]) {
+            queue.add(target);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                char c = edgeChars[node][i];
+                int child = edgeTargets[node][i];
+                int f = fail[node];
+                while (f != 0 && child(f, c) < 0) {
+                    f = fail[f];
+                }
+                int candidate = child(f, c);
+                fail[child] = candidate >= 0 && candidate != child ? candidate : 0;
+                outputLink[child] = patternAt[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    public int size() {
+        return patterns.length;
+    }
+
+    public String pattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * Report every occurrence of every pattern in the text
+     * @param wholeWords only report occurrences not surrounded by letters or digits
+     */
+    public void match(CharSequence text, boolean wholeWords, MatchListener listener) {
+        int state = 0;
+        int length = text.length();
+        for (int pos = 0; pos < length; pos++) {
+            char c = Character.toLowerCase(text.charAt(pos));
+            int next;
+            while ((next = child(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(next, 0);
+
+            int end = pos + 1;
+            for (int node = patternAt[state] >= 0 ? state : outputLink[state]; node >= 0; node = outputLink[node]) {
+                int patternIndex = patternAt[node];
+                int start = end - patterns[patternIndex].length();
+                if (!wholeWords || (isBoundary(text, start - 1) && isBoundary(text, end))) {
+                    listener.onMatch(patternIndex, start, end);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indices of the distinct patterns occurring in the text as whole words
+     */
+    public BitSet findWholeWords(CharSequence text) {
+        BitSet found = new BitSet(patterns.length);
+        match(text, true, (patternIndex, start, end) -> found.set(patternIndex));
+        return found;
+    }
+
+    private int child(int node, char c) {
+        int i = Arrays.binarySearch(edgeChars[node], c);
+        return i >= 0 ? edgeTargets[node][i] : -1;
+    }
+
+    private static boolean isBoundary(CharSequence text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+}
@@ -0,0 +1,386 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.service.ParsedResumeService.MatchingResults;
+import com.resumai.resumeparserservice.service.ParsedResumeService.ResumeProcessingData;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports many resumes in one request, from a zip archive or a multipart batch.
+ * Archives are read entry by entry and each file is spooled on its own, so an archive is never
+ * held whole. Files are deduplicated by content hash on the request thread, against the rest of the
+ * import and against uploads other requests are still processing. Extraction and job matching run on
+ * the bulk import pool, and the request thread inserts the results in batches.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkImportService {
+
+    public enum FileStatus { IMPORTED, DUPLICATE, REJECTED, FAILED }
+
+    private final ParsedResumeService parsedResumeService;
+    private final TextExtractionService textExtractionService;
+    private final UploadSpooler uploadSpooler;
+    private final ResumeIngestionService resumeIngestionService;
+    private final ThreadPoolExecutor bulkImportExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.bulk-import.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.bulk-import.max-files:5000}")
+    private int maxFiles;
+
+    @Value("${app.bulk-import.max-file-bytes:10485760}")
+    private long maxFileBytes;
+
+    /**
+     * Import every file of a zip archive read straight from the request body
+     */
+    public BulkImportReport importZip(InputStream zipStream) {
+        Import run = new Import();
+        try {
+            readZip(run, zipStream);
+        } catch (IOException e) {
+            run.readFailed(e);
+        } finally {
+            run.awaitAndFlush();
+        }
+        return run.report();
+    }
+
+    /**
+     * Import a multipart batch; zip parts are expanded, any other part is one resume
+     */
+    public BulkImportReport importFiles(List<MultipartFile> files) {
+        Import run = new Import();
+        try {
+            for (MultipartFile file : files) {
+                if (run.limitReached) {
+                    break;
+                }
+                try (InputStream in = file.getInputStream()) {
+                    if (isZip(file)) {
+                        readZip(run, in);
+                    } else {
+                        run.add(in, file.getOriginalFilename(), file.getContentType());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            run.readFailed(e);
+        } finally {
+            run.awaitAndFlush();
+        }
+        return run.report();
+    }
+
+    private void readZip(Import run, InputStream in) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while (!run.limitReached && (entry = zip.getNextEntry()) != null) {
+            String name = entry.getName();
+            String fileName = name.substring(name.lastIndexOf('/') + 1);
+            // Skip folders and the metadata macOS and Windows add to archives
+            if (entry.isDirectory() || name.startsWith("__MACOSX/") || fileName.startsWith(".")
+                    || fileName.equalsIgnoreCase("Thumbs.db")) {
+                continue;
+            }
+            run.add(zip, fileName, null);
+        }
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        String contentType = file.getContentType();
+        return (name != null && name.toLowerCase().endsWith(".zip"))
+                || "application/zip".equals(contentType)
+                || "application/x-zip-compressed".equals(contentType);
+    }
+
+    /**
+     * State of one import; everything but the results and the ready queue is confined to the request thread
+     */
+    private class Import {
+        private final long start = System.nanoTime();
+        private final int maxInFlight = bulkImportExecutor.getMaximumPoolSize() * 2;
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final Map<Integer, FileResult> results = new ConcurrentSkipListMap<>();
+        private final BlockingQueue<Prepared> ready = new LinkedBlockingQueue<>();
+        private final Set<String> seenHashes = new HashSet<>();
+        // Content claimed from the ingestion service's in-flight set, released when the import ends
+        private final List<String> claimedHashes = new ArrayList<>();
+        private int fileCount;
+        private long bytesRead;
+        private boolean limitReached;
+        private String readError;
+
+        /**
+         * Spool one file and hand it to the pool, then insert any full batches that are ready
+         */
+        void add(InputStream in, String fileName, String contentType) throws IOException {
+            if (fileCount == maxFiles) {
+                limitReached = true;
+                return;
+            }
+            int index = fileCount++;
+
+            SpooledUpload upload;
+            try {
+                upload = uploadSpooler.spool(in, fileName, contentType, maxFileBytes);
+            } catch (IllegalArgumentException e) {
+                record(index, FileResult.of(fileName, FileStatus.REJECTED, e.getMessage()));
+                return;
+            }
+            bytesRead += upload.getSize();
+
+            if (!seenHashes.add(upload.getContentHash())) {
+                upload.close();
+                record(index, FileResult.of(fileName, FileStatus.DUPLICATE, "Same content as an earlier file in this import"));
+                return;
+            }
+            if (!resumeIngestionService.claim(upload.getContentHash())) {
+                upload.close();
+                record(index, FileResult.of(fileName, FileStatus.DUPLICATE, "Same content is being processed by another upload"));
+                return;
+            }
+            claimedHashes.add(upload.getContentHash());
+
+            inFlight.acquireUninterruptibly();
+            bulkImportExecutor.execute(() -> {
+                try {
+                    prepare(index, upload);
+                } finally {
+                    inFlight.release();
+                }
+            });
+            flush(false);
+        }
+
+        /**
+         * Check, extract and match one file on a pool thread, leaving the insert to the request thread
+         */
+        private void prepare(int index, SpooledUpload upload) {
+            String fileName = upload.getOriginalFilename();
+            try {
+                if (upload.isEmpty()) {
+                    upload.close();
+                    record(index, FileResult.of(fileName, FileStatus.REJECTED, "File is empty"));
+                    return;
+                }
+                if (!textExtractionService.isSupportedResumeFileType(upload.getDetectedType())) {
+                    upload.close();
+                    record(index, FileResult.of(fileName, FileStatus.REJECTED,
+                            "Unsupported file type: " + upload.getDetectedType()));
+                    return;
+                }
+                Optional<ParsedResume> existing = parsedResumeService.findByContentHash(upload.getContentHash());
+                if (existing.isPresent()) {
+                    upload.close();
+                    record(index, new FileResult(fileName, FileStatus.DUPLICATE, existing.get().getId(), null,
+                            "Already uploaded as resume " + existing.get().getId()));
+                    return;
+                }
+
+                ResumeProcessingData resumeData = parsedResumeService.extractAndParseResumeData(upload);
+                MatchingResults matchingResults = parsedResumeService.scoreResumeAgainstJobs(resumeData.features, 1);
+                Path filePath = parsedResumeService.saveFileToDisk(upload);
+                ParsedResume parsedResume = parsedResumeService.buildParsedResume(upload, resumeData.extractedText,
+                        resumeData.email, resumeData.skills, resumeData.experience, matchingResults.bestScore,
+                        filePath.toString());
+                ready.add(new Prepared(index, upload, parsedResume, resumeData.features));
+            } catch (Exception e) {
+                log.warn("Bulk import of {} failed: {}", fileName, e.getMessage());
+                upload.discard();
+                record(index, FileResult.of(fileName, FileStatus.FAILED, e.getMessage()));
+            }
+        }
+
+        /**
+         * Insert ready resumes in batches, including a final partial batch when forced
+         */
+        private void flush(boolean force) {
+            List<Prepared> batch = new ArrayList<>(batchSize);
+            while (ready.size() >= batchSize || (force && !ready.isEmpty())) {
+                batch.clear();
+                ready.drainTo(batch, batchSize);
+                insert(batch);
+            }
+        }
+
+        private void insert(List<Prepared> batch) {
+            List<ParsedResume> resumes = new ArrayList<>(batch.size());
+            List<ResumeFeatures> features = new ArrayList<>(batch.size());
+            for (Prepared prepared : batch) {
+                resumes.add(prepared.parsedResume);
+                features.add(prepared.features);
+            }
+
+            try {
+                List<ParsedResume> saved = parsedResumeService.saveParsedResumes(resumes, features);
+                for (int i = 0; i < batch.size(); i++) {
+                    ParsedResume resume = saved.get(i);
+                    record(batch.get(i).index, new FileResult(resume.getOriginalFileName(), FileStatus.IMPORTED,
+                            resume.getId(), resume.getScore(), null));
+                }
+            } catch (DataIntegrityViolationException e) {
+                if (batch.size() > 1) {
+                    // Insert the rows one by one so only the conflicting file is affected
+                    log.warn("Batch of {} resumes hit a constraint, inserting them one at a time: {}",
+                            batch.size(), e.getMessage());
+                    for (Prepared prepared : batch) {
+                        prepared.parsedResume.setId(null);
+                        insert(List.of(prepared));
+                    }
+                    return;
+                }
+                Prepared prepared = batch.get(0);
+                prepared.upload.discard();
+                Optional<ParsedResume> existing = parsedResumeService.findByContentHash(prepared.upload.getContentHash());
+                if (existing.isPresent()) {
+                    record(prepared.index, new FileResult(prepared.upload.getOriginalFilename(), FileStatus.DUPLICATE,
+                            existing.get().getId(), null, "Already uploaded as resume " + existing.get().getId()));
+                } else {
+                    record(prepared.index, FileResult.of(prepared.upload.getOriginalFilename(), FileStatus.FAILED,
+                            "Database insert failed: " + e.getMessage()));
+                }
+            } catch (DataAccessException e) {
+                log.error("Could not insert batch of {} resumes: {}", batch.size(), e.getMessage());
+                for (Prepared prepared : batch) {
+                    prepared.upload.discard();
+                    record(prepared.index, FileResult.of(prepared.upload.getOriginalFilename(), FileStatus.FAILED,
+                            "Database insert failed: " + e.getMessage()));
+                }
+            }
+        }
+
+        /**
+         * Wait for every file still on the pool, then insert what is left and release the claimed content
+         */
+        void awaitAndFlush() {
+            try {
+                inFlight.acquireUninterruptibly(maxInFlight);
+                inFlight.release(maxInFlight);
+                flush(true);
+            } finally {
+                claimedHashes.forEach(resumeIngestionService::release);
+                claimedHashes.clear();
+            }
+        }
+
+        /**
+         * Stop reading after a broken archive or request body, keeping what was read so far
+         */
+        void readFailed(IOException e) {
+            log.error("Bulk import stopped after {} files: {}", fileCount, e.getMessage());
+            readError = "Stopped reading after " + fileCount + " files: " + e.getMessage();
+        }
+
+        private void record(int index, FileResult result) {
+            results.put(index, result);
+            meterRegistry.counter("resume.bulk.import.files", "status", result.status.name().toLowerCase()).increment();
+        }
+
+        BulkImportReport report() {
+            long elapsedNanos = System.nanoTime() - start;
+            meterRegistry.timer("resume.bulk.import").record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+            List<FileResult> files = new ArrayList<>(results.values());
+            BulkImportReport report = new BulkImportReport(files, bytesRead, elapsedNanos / 1_000_000,
+                    limitReached, readError);
+            log.info("Bulk import of {} files finished in {} ms: {} imported, {} duplicates, {} rejected, {} failed",
+                    files.size(), report.elapsedMs, report.imported, report.duplicates, report.rejected, report.failed);
+            return report;
+        }
+    }
+
+    private record Prepared(int index, SpooledUpload upload, ParsedResume parsedResume, ResumeFeatures features) {
+    }
+
+    /**
+     * Outcome of one file of a bulk import
+     */
+    public static class FileResult {
+        public final String fileName;
+        public final FileStatus status;
+        public final Long resumeId;
+        public final Double bestMatchScore;
+        public final String message;
+
+        public FileResult(String fileName, FileStatus status, Long resumeId, Double bestMatchScore, String message) {
+            this.fileName = fileName;
+            this.status = status;
+            this.resumeId = resumeId;
+            this.bestMatchScore = bestMatchScore;
+            this.message = message;
+        }
+
+        static FileResult of(String fileName, FileStatus status, String message) {
+            return new FileResult(fileName, status, null, null, message);
+        }
+    }
+
+    /**
+     * Per-file results of a bulk import, in archive order, with totals and throughput
+     */
+    public static class BulkImportReport {
+        public final List<FileResult> files;
+        public final int imported;
+        public final int duplicates;
+        public final int rejected;
+        public final int failed;
+        public final long bytesRead;
+        public final long elapsedMs;
+        public final double filesPerSecond;
+        public final double bytesPerSecond;
+        public final boolean limitReached;
+        public final String readError;
+
+        public BulkImportReport(List<FileResult> files, long bytesRead, long elapsedMs, boolean limitReached,
+                                String readError) {
+            this.files = files;
+            this.imported = count(files, FileStatus.IMPORTED);
+            this.duplicates = count(files, FileStatus.DUPLICATE);
+            this.rejected = count(files, FileStatus.REJECTED);
+            this.failed = count(files, FileStatus.FAILED);
+            this.bytesRead = bytesRead;
+            this.elapsedMs = elapsedMs;
+            double seconds = Math.max(elapsedMs, 1) / 1000.0;
+            this.filesPerSecond = files.size() / seconds;
+            this.bytesPerSecond = bytesRead / seconds;
+            this.limitReached = limitReached;
+            this.readError = readError;
+        }
+
+        private static int count(List<FileResult> files, FileStatus status) {
+            return (int) files.stream().filter(file -> file.status == status).count();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.JobFeatures;
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.JobDescription;
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reverse matching: ranks stored resumes against one job description.
+ * Resumes are read from their precomputed features, prefiltered by shared skills and scored
+ * in batches on the matching pool; whatever is scored when the latency budget runs out is ranked.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CandidateRankingService {
+
+    private static final int BATCH_SIZE = 64;
+
+    private final ParsedResumeRepository parsedResumeRepository;
+    private final ResumeFeatureService resumeFeatureService;
+    private final ResumeTermIndex resumeTermIndex;
+    private final JobSkillProfileService jobSkillProfileService;
+    private final ResumeMatchingService resumeMatchingService;
+    private final ExecutorService matchingExecutor;
+
+    @Value("${app.matching.parallel-enabled:true}")
+    private boolean parallelEnabled;
+
+    @Value("${app.matching.prefilter-min-shared-skills:1}")
+    private int prefilterMinSharedSkills;
+
+    @Value("${app.matching.candidates.budget-ms:2000}")
+    private long budgetMs;
+
+    @Value("${app.matching.candidates.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Rank stored resumes against a job and return one page of the best candidates
+     */
+    public CandidateRanking rankCandidates(JobDescription job, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxPageSize);
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+
+        JobFeatures profile = jobSkillProfileService.getProfile(job);
+        List<Long> candidateIds = loadCandidateIds(profile);
+
+        Batches batches = parallelEnabled && candidateIds.size() > BATCH_SIZE
+                ? scoreInParallel(profile, candidateIds, deadline)
+                : scoreSequentially(profile, candidateIds, deadline);
+        ResumeMatchingService.JobScore[] scores = batches.scores();
+
+        // Keep only as many as the requested page needs; ties keep id order
+        long needed = Math.min((long) (page + 1) * size, candidateIds.size());
+        int candidatesScored = 0;
+        TopKSelector selector = new TopKSelector((int) Math.max(1, needed));
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] != null) {
+                selector.offer(i, ResumeMatchingService.toPercentage(scores[i].overallScore()));
+                candidatesScored++;
+            }
+        }
+
+        int[] ranked = selector.drainBestFirst();
+        int from = (int) Math.min((long) page * size, ranked.length);
+        List<Long> pageIds = new ArrayList<>(ranked.length - from);
+        for (int i = from; i < ranked.length; i++) {
+            pageIds.add(candidateIds.get(ranked[i]));
+        }
+
+        Map<Long, ParsedResume> resumesById = new HashMap<>();
+        parsedResumeRepository.findAllById(pageIds).forEach(resume -> resumesById.put(resume.getId(), resume));
+
+        List<Map<String, Object>> candidates = new ArrayList<>(pageIds.size());
+        for (int i = from; i < ranked.length; i++) {
+            ParsedResume resume = resumesById.get(candidateIds.get(ranked[i]));
+            if (resume != null) {
+                candidates.add(buildCandidate(resume, profile, scores[ranked[i]], i + 1));
+            }
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (batches.partial()) {
+            log.warn("Ranking candidates for job {} hit the {} ms budget after scoring {} of {} resumes",
+                    job.getId(), budgetMs, candidatesScored, candidateIds.size());
+        } else {
+            log.info("Ranked {} candidate resume(s) for job {} in {} ms", candidatesScored, job.getId(), elapsedMs);
+        }
+
+        return new CandidateRanking(candidates, page, size, candidatesScored, candidateIds.size(),
+                batches.partial(), elapsedMs);
+    }
+
+    /**
+     * Resumes worth scoring in full: those sharing enough skills with the job once the
+     * resume index is built, otherwise every stored resume
+     */
+    private List<Long> loadCandidateIds(JobFeatures profile) {
+        if (prefilterMinSharedSkills < 1 || !resumeTermIndex.isReady()) {
+            return parsedResumeRepository.findAllIds();
+        }
+        return resumeTermIndex.findCandidateResumeIds(profile.getJobSkills(), prefilterMinSharedSkills);
+    }
+
+    private Batches scoreSequentially(JobFeatures profile, List<Long> resumeIds, long deadline) {
+        Batch batch = scoreBatch(profile, resumeIds, 0, resumeIds.size(), deadline);
+        return new Batches(batch.scores(), !batch.complete());
+    }
+
+    /**
+     * Score batches of resumes on the matching pool until every batch is done or the deadline passes.
+     * Batches still running at the deadline are cancelled and left out of the ranking.
+     */
+    private Batches scoreInParallel(JobFeatures profile, List<Long> resumeIds, long deadline) {
+        ResumeMatchingService.JobScore[] scores = new ResumeMatchingService.JobScore[resumeIds.size()];
+        List<Future<Batch>> futures = new ArrayList<>();
+        for (int from = 0; from < resumeIds.size(); from += BATCH_SIZE) {
+            int batchStart = from;
+            int batchEnd = Math.min(from + BATCH_SIZE, resumeIds.size());
+            futures.add(matchingExecutor.submit(() -> scoreBatch(profile, resumeIds, batchStart, batchEnd, deadline)));
+        }
+
+        boolean partial = false;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<Batch> future = futures.get(i);
+            try {
+                long remaining = deadline - System.nanoTime();
+                Batch batch = future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                // Only finished batches are merged; a cancelled one may still be writing its own array
+                System.arraycopy(batch.scores(), 0, scores, i * BATCH_SIZE, batch.scores().length);
+                if (!batch.complete()) {
+                    partial = true;
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                partial = true;
+            } catch (ExecutionException e) {
+                log.error("Error scoring candidate batch {}: {}", i, e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.subList(i, futures.size()).forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Interrupted while ranking candidates", e);
+            }
+        }
+        return new Batches(scores, partial);
+    }
+
+    /**
+     * Score resumes [from, to) into an array of the batch's own, stopping early at the deadline
+     */
+    private Batch scoreBatch(JobFeatures profile, List<Long> resumeIds, int from, int to, long deadline) {
+        ResumeMatchingService.JobScore[] scores = new ResumeMatchingService.JobScore[to - from];
+        for (int i = from; i < to; i++) {
+            if (System.nanoTime() - deadline > 0 || Thread.currentThread().isInterrupted()) {
+                return new Batch(scores, false);
+            }
+            ResumeFeatures resume = resumeFeatureService.getFeatures(resumeIds.get(i));
+            if (resume != null) {
+                scores[i - from] = resumeMatchingService.score(resume, profile);
+            }
+        }
+        return new Batch(scores, true);
+    }
+
+    /**
+     * Build the match breakdown for a ranked candidate
+     */
+    private Map<String, Object> buildCandidate(ParsedResume resume, JobFeatures profile,
+                                               ResumeMatchingService.JobScore score, int rank) {
+        Map<String, Object> result = new HashMap<>();
+
+        // Basic resume information
+        result.put("rank", rank);
+        result.put("resumeId", resume.getId());
+        result.put("originalFileName", resume.getOriginalFileName());
+        result.put("email", resume.getEmail());
+        result.put("experience", resume.getExperience());
+        result.put("uploadTime", resume.getUploadTime());
+
+        // Years of experience and the skills the resume shares with the job, from its stored features
+        ResumeFeatures features = resumeFeatureService.getFeatures(resume.getId());
+        result.put("experienceYears", features != null ? features.getExperienceYears() : null);
+        Set<String> resumeSkills = features != null ? features.getSkills() : new HashSet<>();
+        Set<String> jobSkills = profile.getJobSkills();
+        Set<String> matchingSkills = new HashSet<>(resumeSkills);
+        matchingSkills.retainAll(jobSkills);
+
+        result.put("overallScore", ResumeMatchingService.toPercentage(score.overallScore()));
+        result.put("overallSimilarity", ResumeMatchingService.toPercentage(score.overallSimilarity()));
+        result.put("weightedSimilarity", ResumeMatchingService.toPercentage(score.weightedSimilarity()));
+        result.put("skillMatchPercentage", ResumeMatchingService.toPercentage(score.skillMatch()));
+        result.put("titleMatch", ResumeMatchingService.toPercentage(score.titleMatch()));
+        result.put("requirementsMatch", ResumeMatchingService.toPercentage(score.requirementsMatch()));
+
+        result.put("matchingSkills", matchingSkills);
+        result.put("skillsMatched", matchingSkills.size());
+        result.put("skillsRequired", jobSkills.size());
+        result.put("matchCategory", ResumeMatchingService.getMatchCategory(score.overallScore()));
+
+        return result;
+    }
+
+    /**
+     * Scores of one batch's resumes, and whether every one of them was scored
+     */
+    private record Batch(ResumeMatchingService.JobScore[] scores, boolean complete) {
+    }
+
+    private record Batches(ResumeMatchingService.JobScore[] scores, boolean partial) {
+    }
+
+    /**
+     * One page of ranked candidates for a job, plus how much of the resume pool was scored
+     */
+    public static class CandidateRanking {
+        public final List<Map<String, Object>> candidates;
+        public final int page;
+        public final int size;
+        public final int candidatesScored;
+        public final int candidatesConsidered;
+        public final boolean partial;
+        public final long elapsedMs;
+
+        public CandidateRanking(List<Map<String, Object>> candidates, int page, int size,
+                                int candidatesScored, int candidatesConsidered,
+                                boolean partial, long elapsedMs) {
+            this.candidates = candidates;
+            this.page = page;
+            this.size = size;
+            this.candidatesScored = candidatesScored;
+            this.candidatesConsidered = candidatesConsidered;
+            this.partial = partial;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+}
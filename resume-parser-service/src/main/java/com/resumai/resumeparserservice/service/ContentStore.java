@@ -0,0 +1,216 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.entity.StoredFile;
+import com.resumai.resumeparserservice.repository.StoredFileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Uploaded files stored once per content, named by their SHA-256 under two levels of
+ * directories taken from the hash ({@code ab/cd/abcd...}), so no directory grows past a few
+ * hundred entries. Files only appear under their final name by an atomic rename, and the
+ * stored_files table counts the resumes and job descriptions referring to each one.
+ * Files whose count drops to zero are left for {@link StorageGarbageCollector} to delete.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContentStore {
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMP_DIR = ".tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LOCK_STRIPES = 64;
+
+    private final StoredFileRepository storedFileRepository;
+    private final HashingService hashingService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.storage.dir:content-store}")
+    private String storageDir = "content-store";
+
+    private Path root;
+    private Path tempDirectory;
+
+    // Serialize storing, releasing and collecting the same hash; stripes bound the number of monitors
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private Counter storedNew;
+    private Counter storedDuplicate;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Files.createDirectories(Paths.get(storageDir)).toAbsolutePath().normalize();
+        tempDirectory = Files.createDirectories(root.resolve(TEMP_DIR));
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        storedNew = meterRegistry.counter("storage.files.stored", "outcome", "new");
+        storedDuplicate = meterRegistry.counter("storage.files.stored", "outcome", "duplicate");
+        log.info("Content store at {}", root);
+    }
+
+    /**
+     * Store a spooled upload, moving the spooled copy into place unless the content is already stored.
+     * The upload is read from the stored file from then on; discarding it releases the reference.
+     * @return path of the stored file
+     */
+    public Path store(SpooledUpload upload) throws IOException {
+        String contentHash = upload.getContentHash();
+        Path blob = pathOf(contentHash);
+        synchronized (lockFor(contentHash)) {
+            if (isStored(blob, upload.getSize())) {
+                Files.deleteIfExists(upload.getPath());
+                storedDuplicate.increment();
+                log.debug("Content {} already stored, dropped spooled copy of {}", contentHash,
+                        upload.getOriginalFilename());
+            } else {
+                Files.createDirectories(blob.getParent());
+                moveInto(upload.getPath(), blob);
+                storedNew.increment();
+            }
+            addReference(contentHash, upload.getSize());
+            upload.storedIn(this, blob);
+        }
+        log.info("File stored: {} -> {}", upload.getOriginalFilename(), blob);
+        return blob;
+    }
+
+    /**
+     * Store content read from a stream, hashing it while it is written to a temporary file
+     * @return path of the stored file
+     */
+    public Path store(InputStream in) throws IOException {
+        Path temp = Files.createTempFile(tempDirectory, "store-", ".part");
+        try {
+            MessageDigest digest = hashingService.newFileDigest();
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String contentHash = hashingService.bytesToHex(digest.digest());
+            Path blob = pathOf(contentHash);
+            synchronized (lockFor(contentHash)) {
+                if (isStored(blob, size)) {
+                    storedDuplicate.increment();
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    moveInto(temp, blob);
+                    storedNew.increment();
+                }
+                addReference(contentHash, size);
+            }
+            return blob;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Drop one reference to stored content; the file stays until garbage collection finds it unreferenced
+     */
+    public void release(String contentHash) {
+        synchronized (lockFor(contentHash)) {
+            if (storedFileRepository.removeReference(contentHash) == 0) {
+                log.warn("Released content {} that had no references", contentHash);
+            }
+        }
+    }
+
+    /**
+     * Drop one reference to the stored file at this path
+     * @return false if the path is not in the content store, e.g. a file stored before it existed
+     */
+    public boolean release(Path path) {
+        Optional<String> contentHash = hashOf(path);
+        contentHash.ifPresent(this::release);
+        return contentHash.isPresent();
+    }
+
+    /**
+     * Content hash of a file in the content store, taken from its path
+     */
+    public Optional<String> hashOf(Path path) {
+        if (path == null) {
+            return Optional.empty();
+        }
+        Path absolute = path.toAbsolutePath().normalize();
+        String name = absolute.getFileName() != null ? absolute.getFileName().toString() : "";
+        if (!CONTENT_HASH.matcher(name).matches() || !absolute.equals(pathOf(name))) {
+            return Optional.empty();
+        }
+        return Optional.of(name);
+    }
+
+    public Path pathOf(String contentHash) {
+        return root.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4)).resolve(contentHash);
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    Path getTempDirectory() {
+        return tempDirectory;
+    }
+
+    Object lockFor(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), locks.length)];
+    }
+
+    private boolean isStored(Path blob, long size) throws IOException {
+        // A file of another size is a leftover of a failed write and is replaced
+        return Files.exists(blob) && Files.size(blob) == size;
+    }
+
+    private void addReference(String contentHash, long size) {
+        LocalDateTime now = LocalDateTime.now();
+        if (storedFileRepository.addReference(contentHash, now) == 0) {
+            storedFileRepository.save(new StoredFile(contentHash, size, 1, now, now));
+        }
+    }
+
+    /**
+     * Rename a file to its stored name; across file systems it is copied to the temporary
+     * directory first, so the stored name still only ever appears complete
+     */
+    private void moveInto(Path source, Path blob) throws IOException {
+        try {
+            Files.move(source, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Path temp = Files.createTempFile(tempDirectory, "move-", ".part");
+            try {
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(source);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
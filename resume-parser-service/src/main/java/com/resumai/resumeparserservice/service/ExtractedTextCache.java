@@ -0,0 +1,298 @@
+package com.resumai.resumeparserservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Extracted text of uploaded files keyed by the SHA-256 of their content, so a re-uploaded
+ * attachment is not parsed again. A memory tier keeps recently used texts; a disk tier keeps
+ * gzip-compressed texts under the cache directory, sharded by the first two hash characters.
+ * Both tiers evict least recently used entries once over their size limit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExtractedTextCache {
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final String SUFFIX = ".txt.gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.text-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.text-cache.dir:text-cache}")
+    private String cacheDir = "text-cache";
+
+    @Value("${app.text-cache.memory-max-bytes:67108864}")
+    private long memoryMaxBytes = 64L * 1024 * 1024;
+
+    @Value("${app.text-cache.disk-max-bytes:536870912}")
+    private long diskMaxBytes = 512L * 1024 * 1024;
+
+    private Path cacheDirectory;
+
+    // Both guarded by this; access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, String> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<String, Long> diskSizes = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    private Counter memoryHits;
+    private Counter diskHits;
+    private Counter misses;
+    private Counter bytesSaved;
+
+    @PostConstruct
+    void init() throws IOException {
+        memoryHits = meterRegistry.counter("text.cache.requests", "result", "memory_hit");
+        diskHits = meterRegistry.counter("text.cache.requests", "result", "disk_hit");
+        misses = meterRegistry.counter("text.cache.requests", "result", "miss");
+        bytesSaved = Counter.builder("text.cache.bytes.saved")
+                .description("Bytes of uploaded documents not parsed again thanks to the cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("text.cache.hit.ratio", this, ExtractedTextCache::hitRatio)
+                .description("Share of extractions answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("text.cache.size", this, cache -> cache.memoryBytes())
+                .tag("tier", "memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("text.cache.size", this, cache -> cache.diskBytes())
+                .tag("tier", "disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        if (enabled) {
+            cacheDirectory = Files.createDirectories(Paths.get(cacheDir));
+            loadDiskIndex();
+        }
+    }
+
+    /**
+     * Cached text of a file with this content hash
+     * @param sourceBytes size of the file, counted as saved on a hit
+     */
+    public Optional<String> get(String contentHash, long sourceBytes) {
+        if (!enabled || contentHash == null || !CONTENT_HASH.matcher(contentHash).matches()) {
+            return Optional.empty();
+        }
+
+        String text;
+        synchronized (this) {
+            text = memory.get(contentHash);
+        }
+        if (text != null) {
+            memoryHits.increment();
+            bytesSaved.increment(sourceBytes);
+            return Optional.of(text);
+        }
+
+        text = readFromDisk(contentHash);
+        if (text != null) {
+            diskHits.increment();
+            bytesSaved.increment(sourceBytes);
+            putInMemory(contentHash, text);
+            return Optional.of(text);
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Remember the text extracted from a file with this content hash
+     */
+    public void put(String contentHash, String text) {
+        if (!enabled || contentHash == null || text == null || !CONTENT_HASH.matcher(contentHash).matches()) {
+            return;
+        }
+        putInMemory(contentHash, text);
+        writeToDisk(contentHash, text);
+    }
+
+    private synchronized void putInMemory(String contentHash, String text) {
+        long size = (long) text.length() * Character.BYTES;
+        if (size > memoryMaxBytes) {
+            return;
+        }
+        String previous = memory.put(contentHash, text);
+        if (previous != null) {
+            memoryBytes -= (long) previous.length() * Character.BYTES;
+        }
+        memoryBytes += size;
+
+        Iterator<Map.Entry<String, String>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+            memoryBytes -= (long) eldest.next().getValue().length() * Character.BYTES;
+            eldest.remove();
+        }
+    }
+
+    private String readFromDisk(String contentHash) {
+        synchronized (this) {
+            // Marks the entry as recently used
+            if (diskSizes.get(contentHash) == null) {
+                return null;
+            }
+        }
+
+        Path file = pathOf(contentHash);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return text;
+        } catch (IOException e) {
+            log.warn("Dropping unreadable cached text {}: {}", file, e.getMessage());
+            removeFromDisk(contentHash);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String contentHash, String text) {
+        Path file = pathOf(contentHash);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), contentHash, TEMP_SUFFIX);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            recordOnDisk(contentHash, Files.size(file));
+        } catch (IOException e) {
+            // The memory tier still has it; only a restart loses the entry
+            log.warn("Could not write cached text for {}: {}", contentHash, e.getMessage());
+        }
+    }
+
+    private void recordOnDisk(String contentHash, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = diskSizes.put(contentHash, size);
+            diskBytes += size - (previous != null ? previous : 0L);
+
+            Iterator<Map.Entry<String, Long>> eldest = diskSizes.entrySet().iterator();
+            while (diskBytes > diskMaxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(contentHash)) {
+                    continue;
+                }
+                diskBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String hash : evicted) {
+            deleteQuietly(pathOf(hash));
+        }
+    }
+
+    private void removeFromDisk(String contentHash) {
+        synchronized (this) {
+            Long size = diskSizes.remove(contentHash);
+            if (size != null) {
+                diskBytes -= size;
+            }
+        }
+        deleteQuietly(pathOf(contentHash));
+    }
+
+    /**
+     * Rebuild the disk index from the cache directory, oldest files first so they are evicted first,
+     * and delete the temporary files of writes a crash cut short
+     */
+    private void loadDiskIndex() throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(cacheDirectory, 2)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        }
+        List<Path> stale = files.stream().filter(path -> path.getFileName().toString().endsWith(TEMP_SUFFIX)).toList();
+        stale.forEach(ExtractedTextCache::deleteQuietly);
+        if (!stale.isEmpty()) {
+            log.info("Deleted {} unfinished cached text file(s) from {}", stale.size(), cacheDirectory);
+        }
+
+        List<Path> cached = files.stream()
+                .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                .sorted(Comparator.comparing(ExtractedTextCache::lastModified))
+                .toList();
+        synchronized (this) {
+            for (Path file : cached) {
+                String name = file.getFileName().toString();
+                long size = file.toFile().length();
+                diskSizes.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                diskBytes += size;
+            }
+        }
+        log.info("Extracted text cache: {} entries, {} bytes on disk in {}", diskSizes.size(), diskBytes, cacheDirectory);
+    }
+
+    private Path pathOf(String contentHash) {
+        return cacheDirectory.resolve(contentHash.substring(0, 2)).resolve(contentHash + SUFFIX);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached text {}: {}", file, e.getMessage());
+        }
+    }
+
+    private synchronized long memoryBytes() {
+        return memoryBytes;
+    }
+
+    private synchronized long diskBytes() {
+        return diskBytes;
+    }
+
+    private double hitRatio() {
+        double hits = memoryHits.count() + diskHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+}
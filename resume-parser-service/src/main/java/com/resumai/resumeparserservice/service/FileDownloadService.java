@@ -0,0 +1,261 @@
+package com.resumai.resumeparserservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves stored files and rendered documents with HTTP validators and byte ranges.
+ * The content hash is the ETag, so a client that already has the file gets a 304 instead of the
+ * body; a single Range is answered with 206 and several ranges with the whole file.
+ * File bodies are handed to the connector's sendfile when it offers it, otherwise copied with
+ * FileChannel.transferTo, so they never pass through a buffer of ours.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileDownloadService {
+
+    // Request attributes of Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.download.sendfile:true}")
+    private boolean sendfileEnabled = true;
+
+    /**
+     * Send a stored file
+     * @param contentHash SHA-256 of the file, used as a strong ETag; null falls back to a weak one
+     */
+    public void sendFile(HttpServletRequest request, HttpServletResponse response, Path file,
+                         String contentHash, String contentType, String fileName) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = contentHash != null
+                ? "\"" + contentHash + "\""
+                : "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        long[] range = prepare(request, response, etag, lastModified, length, contentType, fileName);
+        if (range == null || isHead(request)) {
+            return;
+        }
+
+        log.debug("Sending {} bytes from offset {} of {}", range[1], range[0], file);
+        if (sendfileEnabled && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The connector writes the file straight from the page cache once the handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, range[0]);
+            request.setAttribute(SENDFILE_END, range[0] + range[1]);
+        } else {
+            transfer(file, range[0], range[1], response);
+        }
+        meterRegistry.summary("download.bytes.sent").record(range[1]);
+    }
+
+    /**
+     * Send a document rendered in memory
+     * @param contentHash SHA-256 of the content, used as a strong ETag
+     */
+    public void sendContent(HttpServletRequest request, HttpServletResponse response, byte[] content,
+                            String contentHash, long lastModified, String contentType, String fileName)
+            throws IOException {
+        long[] range = prepare(request, response, "\"" + contentHash + "\"", lastModified, content.length,
+                contentType, fileName);
+        if (range == null || isHead(request)) {
+            return;
+        }
+
+        response.getOutputStream().write(content, (int) range[0], (int) range[1]);
+        meterRegistry.summary("download.bytes.sent").record(range[1]);
+    }
+
+    /**
+     * Answer conditional and unsatisfiable requests and set the headers of the body to send
+     * @return offset and length of the body to send, or null when the response is complete
+     */
+    private long[] prepare(HttpServletRequest request, HttpServletResponse response, String etag,
+                           long lastModified, long length, String contentType, String fileName) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Cached copies are revalidated on every use, which costs a 304 while unchanged
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            count(HttpServletResponse.SC_NOT_MODIFIED);
+            return null;
+        }
+
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName != null ? fileName : "download", StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(request, etag, lastModified)) {
+            return whole(response, length);
+        }
+
+        long[] range = parseRange(rangeHeader, length);
+        if (range == null) {
+            return whole(response, length);
+        }
+        if (range.length == 0) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            count(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return null;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(HttpHeaders.CONTENT_RANGE,
+                "bytes " + range[0] + "-" + (range[0] + range[1] - 1) + "/" + length);
+        response.setContentLengthLong(range[1]);
+        count(HttpServletResponse.SC_PARTIAL_CONTENT);
+        return range;
+    }
+
+    private long[] whole(HttpServletResponse response, long length) {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentLengthLong(length);
+        count(HttpServletResponse.SC_OK);
+        return new long[] {0, length};
+    }
+
+    /**
+     * If-None-Match decides when present, otherwise If-Modified-Since; dates compare in whole seconds
+     */
+    static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || weakTag(tag).equals(weakTag(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * A Range only applies while the representation still matches If-Range, which needs a strong ETag or the exact date
+     */
+    static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.trim().startsWith("\"") || ifRange.trim().startsWith("W/")) {
+            return !etag.startsWith("W/") && ifRange.trim().equals(etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && date / 1000 == lastModified / 1000;
+    }
+
+    /**
+     * Parse a single byte range
+     * @return offset and length; an empty array when unsatisfiable; null to send the whole body,
+     *         for malformed headers and for several ranges
+     */
+    static long[] parseRange(String header, long length) {
+        String value = header.trim();
+        if (!value.startsWith("bytes=") || value.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = value.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return new long[0];
+                }
+                long count = Math.min(suffix, length);
+                return new long[] {length - count, count};
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (end < start) {
+                return null;
+            }
+            if (start >= length) {
+                return new long[0];
+            }
+            return new long[] {start, Math.min(end, length - 1) - start + 1};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Copy part of a file to the response with transferTo, leaving the response stream open
+     */
+    private static void transfer(Path file, long start, long length, HttpServletResponse response) throws IOException {
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent == 0 && position >= channel.size()) {
+                    throw new EOFException("File " + file + " shrank while being sent");
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private static String weakTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isHead(HttpServletRequest request) {
+        return "HEAD".equalsIgnoreCase(request.getMethod());
+    }
+
+    private void count(int status) {
+        meterRegistry.counter("download.responses", "status", String.valueOf(status)).increment();
+    }
+}
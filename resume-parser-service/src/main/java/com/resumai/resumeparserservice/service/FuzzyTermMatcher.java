@@ -0,0 +1,190 @@
+package com.resumai.resumeparserservice.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Fuzzy lookup of a requirement term among the distinct tokens of a resume.
+ * Tokens are kept sorted by length so only lengths that can reach the similarity threshold
+ * are compared, and edit distance is bounded: Myers' bit-parallel algorithm for ASCII terms of up to
+ * 64 characters, a two-row dynamic programme otherwise, both giving up once the bound is exceeded.
+ */
+public final class FuzzyTermMatcher {
+
+    // A token matches when 1 - distance / max(length) is above this
+    public static final double SIMILARITY_THRESHOLD = 0.75;
+
+    // Tokens this short never match fuzzily
+    private static final int MIN_FUZZY_TOKEN_LENGTH = 3;
+
+    private static final Comparator<String> BY_LENGTH =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private FuzzyTermMatcher() {
+    }
+
+    /**
+     * Distinct non-empty tokens sorted by length, the layout {@link #matchesAny} expects
+     */
+    public static String[] tokensByLength(Collection<String> tokens) {
+        return tokens.stream()
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .sorted(BY_LENGTH)
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Whether any token is similar enough to the term, or is a longer token containing it
+     */
+    public static boolean matchesAny(String term, String[] tokensByLength) {
+        int m = term.length();
+        if (m == 0 || tokensByLength.length == 0) {
+            return false;
+        }
+
+        // Tokens longer than the term may contain it verbatim
+        int longer = firstWithLengthAtLeast(tokensByLength, m + 1);
+        for (int i = longer; i < tokensByLength.length; i++) {
+            if (tokensByLength[i].contains(term)) {
+                return true;
+            }
+        }
+
+        // Length difference is a lower bound on edit distance, so most lengths can be skipped
+        int minLength = Math.max(MIN_FUZZY_TOKEN_LENGTH, m - maxDistance(m));
+        int first = firstWithLengthAtLeast(tokensByLength, minLength);
+        if (first == tokensByLength.length) {
+            return false;
+        }
+
+        long[] peq = m <= Long.SIZE ? patternMasks(term) : null;
+        int[] previousRow = peq == null ? new int[tokensByLength[tokensByLength.length - 1].length() + 1] : null;
+        int[] currentRow = peq == null ? new int[previousRow.length] : null;
+
+        for (int i = first; i < tokensByLength.length; i++) {
+            String token = tokensByLength[i];
+            int n = token.length();
+            int bound = maxDistance(Math.max(m, n));
+            if (n - m > bound) {
+                break; // Sorted by length: every later token is even longer
+            }
+            if (m - n > bound) {
+                continue;
+            }
+            int distance = peq != null
+                    ? boundedMyersDistance(peq, m, token, bound)
+                    : boundedTwoRowDistance(term, token, bound, previousRow, currentRow);
+            if (distance <= bound) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Largest edit distance that still keeps two strings of this maximum length above the threshold
+     */
+    static int maxDistance(int maxLength) {
+        int distance = maxLength / 4 + 1;
+        while (distance >= 0 && 1.0 - (double) distance / maxLength <= SIMILARITY_THRESHOLD) {
+            distance--;
+        }
+        return distance;
+    }
+
+    /**
+     * Levenshtein distance between a pattern of at most 64 characters and a text, or bound + 1
+     * once it is certain to exceed bound. Global-distance variant of Myers (1999) as given by Hyyrö.
+     */
+    static int boundedMyersDistance(long[] peq, int m, String text, int bound) {
+        long highBit = 1L << (m - 1);
+        long pv = m == Long.SIZE ? -1L : (1L << m) - 1;
+        long mv = 0L;
+        int score = m;
+        int n = text.length();
+
+        for (int j = 0; j < n; j++) {
+            char c = text.charAt(j);
+            long eq = c < peq.length ? peq[c] : 0L;
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & highBit) != 0) {
+                score++;
+            } else if ((mh & highBit) != 0) {
+                score--;
+            }
+            // Each remaining text character can lower the distance by at most one
+            if (score - (n - j - 1) > bound) {
+                return bound + 1;
+            }
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        return score;
+    }
+
+    /**
+     * Levenshtein distance over two reusable rows, or bound + 1 once every cell of a row exceeds bound
+     */
+    static int boundedTwoRowDistance(String pattern, String text, int bound, int[] previousRow, int[] currentRow) {
+        int n = text.length();
+        for (int j = 0; j <= n; j++) {
+            previousRow[j] = j;
+        }
+
+        for (int i = 1; i <= pattern.length(); i++) {
+            char p = pattern.charAt(i - 1);
+            currentRow[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= n; j++) {
+                int substitution = previousRow[j - 1] + (p == text.charAt(j - 1) ? 0 : 1);
+                int cell = Math.min(substitution, Math.min(previousRow[j], currentRow[j - 1]) + 1);
+                currentRow[j] = cell;
+                rowMin = Math.min(rowMin, cell);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+        return previousRow[n];
+    }
+
+    /**
+     * Bit mask of the positions of each character in an ASCII pattern
+     * @return null if the pattern has other characters, which the masks cannot represent
+     */
+    static long[] patternMasks(String pattern) {
+        long[] peq = new long[128];
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c >= peq.length) {
+                return null;
+            }
+            peq[c] |= 1L << i;
+        }
+        return peq;
+    }
+
+    private static int firstWithLengthAtLeast(String[] tokensByLength, int length) {
+        int low = 0;
+        int high = tokensByLength.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokensByLength[mid].length() < length) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
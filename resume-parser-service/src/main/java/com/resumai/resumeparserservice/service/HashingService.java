@@ -34,6 +34,18 @@ public class HashingService {
         }
     }
 
+    /**
+     * Fresh SHA-256 digest for hashing file content while it is copied, as generateFileHash would
+     */
+    public MessageDigest newFileDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            log.error("SHA-256 algorithm not available", e);
+            throw new RuntimeException("Unable to generate file hash", e);
+        }
+    }
+
     /**
      * Generate SHA-256 hash for text content
      */
@@ -92,7 +104,7 @@ public class HashingService {
     /**
      * Convert byte array to hexadecimal string
      */
-    private String bytesToHex(byte[] bytes) {
+    public String bytesToHex(byte[] bytes) {
         StringBuilder result = new StringBuilder();
         for (byte b : bytes) {
             result.append(String.format("%02x", b));
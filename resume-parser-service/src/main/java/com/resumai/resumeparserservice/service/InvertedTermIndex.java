@@ -0,0 +1,268 @@
+package com.resumai.resumeparserservice.service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe in-memory inverted index from term to document ids.
+ * Posting lists are sorted primitive int arrays, so lookups never box ids.
+ */
+public final class InvertedTermIndex {
+
+    private static final int[] NO_DOCS = new int[0];
+
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private final Map<Integer, String[]> termsByDoc = new HashMap<>();
+    private final Postings docsWithoutTerms = new Postings();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long postingCount;
+
+    /**
+     * Index a document under the given terms, replacing whatever it was indexed under before
+     */
+    public void put(int docId, Collection<String> terms) {
+        String[] distinctTerms = new LinkedHashSet<>(terms).toArray(new String[0]);
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(docId);
+            termsByDoc.put(docId, distinctTerms);
+            if (distinctTerms.length == 0) {
+                docsWithoutTerms.add(docId);
+            }
+            for (String term : distinctTerms) {
+                postingsByTerm.computeIfAbsent(term, t -> new Postings()).add(docId);
+            }
+            postingCount += distinctTerms.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a document from the index
+     */
+    public void remove(int docId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop every document from the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postingsByTerm.clear();
+            termsByDoc.clear();
+            docsWithoutTerms.clear();
+            postingCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Documents indexed under every one of the given terms, in ascending id order
+     */
+    public int[] docsWithAll(Collection<String> terms) {
+        Set<String> distinctTerms = new HashSet<>(terms);
+        if (distinctTerms.isEmpty()) {
+            return NO_DOCS;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(distinctTerms.size());
+            for (String term : distinctTerms) {
+                Postings postings = postingsByTerm.get(term);
+                if (postings == null) {
+                    return NO_DOCS;
+                }
+                lists.add(postings);
+            }
+
+            // Intersect starting from the shortest list
+            lists.sort(Comparator.comparingInt(postings -> postings.size));
+            int[] result = lists.get(0).toArray();
+            int size = result.length;
+            for (int l = 1; l < lists.size() && size > 0; l++) {
+                Postings other = lists.get(l);
+                int kept = 0;
+                for (int i = 0; i < size; i++) {
+                    if (other.indexOf(result[i]) >= 0) {
+                        result[kept++] = result[i];
+                    }
+                }
+                size = kept;
+            }
+            return Arrays.copyOf(result, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents indexed under at least minShared of the given terms, in ascending id order
+     */
+    public int[] docsWithAtLeast(Collection<String> terms, int minShared) {
+        Set<String> distinctTerms = new HashSet<>(terms);
+        int required = Math.max(1, minShared);
+        if (distinctTerms.size() < required) {
+            return NO_DOCS;
+        }
+
+        int[] all;
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            List<Postings> lists = new ArrayList<>(distinctTerms.size());
+            for (String term : distinctTerms) {
+                Postings postings = postingsByTerm.get(term);
+                if (postings != null) {
+                    lists.add(postings);
+                    total += postings.size;
+                }
+            }
+            all = new int[total];
+            int offset = 0;
+            for (Postings postings : lists) {
+                System.arraycopy(postings.ids, 0, all, offset, postings.size);
+                offset += postings.size;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Each doc appears once per shared term, so run lengths are overlap counts
+        Arrays.sort(all);
+        int matches = 0;
+        for (int i = 0; i < all.length; ) {
+            int run = i;
+            while (run < all.length && all[run] == all[i]) {
+                run++;
+            }
+            if (run - i >= required) {
+                all[matches++] = all[i];
+            }
+            i = run;
+        }
+        return Arrays.copyOf(all, matches);
+    }
+
+    /**
+     * Documents indexed with an empty term set, in ascending id order
+     */
+    public int[] docsWithoutTerms() {
+        lock.readLock().lock();
+        try {
+            return docsWithoutTerms.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int docId) {
+        lock.readLock().lock();
+        try {
+            return termsByDoc.containsKey(docId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postingsByTerm.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int docCount() {
+        lock.readLock().lock();
+        try {
+            return termsByDoc.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long postingCount() {
+        lock.readLock().lock();
+        try {
+            return postingCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(int docId) {
+        String[] terms = termsByDoc.remove(docId);
+        if (terms == null) {
+            return;
+        }
+        if (terms.length == 0) {
+            docsWithoutTerms.remove(docId);
+        }
+        for (String term : terms) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings != null) {
+                postings.remove(docId);
+                if (postings.size == 0) {
+                    postingsByTerm.remove(term);
+                }
+            }
+        }
+        postingCount -= terms.length;
+    }
+
+    /**
+     * Growable sorted array of distinct document ids
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = indexOf(id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        int indexOf(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            return index >= 0 ? index : -1;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        void clear() {
+            ids = new int[4];
+            size = 0;
+        }
+    }
+}
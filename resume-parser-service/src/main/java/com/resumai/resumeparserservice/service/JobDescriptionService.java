@@ -15,16 +15,19 @@ import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.persistence.criteria.Predicate;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @Slf4j
@@ -34,9 +37,17 @@ public class JobDescriptionService {
     private final JobDescriptionRepository jobDescriptionRepository;
     private final PanelMemberRepository panelMemberRepository;
     private final JobDescriptionParsingService parsingService;
+    private final JobSkillProfileService jobSkillProfileService;
+    private final JobSkillIndex jobSkillIndex;
+    private final HashingService hashingService;
+    private final ContentStore contentStore;
+    private final JobRescoringService jobRescoringService;
 
-    @Value("${app.upload.dir:uploaded-job-descriptions}")
-    private String uploadDir;
+    @Value("${app.download.rendered-cache-entries:500}")
+    private int renderedCacheEntries;
+
+    // Text downloads of jobs without a stored file, by job id; access-ordered for LRU eviction
+    private final LinkedHashMap<Long, RenderedJobDescription> renderedCache = new LinkedHashMap<>(64, 0.75f, true);
 
     /**
      * Save job description with file upload
@@ -44,25 +55,16 @@ public class JobDescriptionService {
     public JobDescription saveJobDescription(MultipartFile file, Long panelMemberId, 
                                            String panelMemberName, String panelMemberEmail) throws IOException {
         
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        // Generate unique file name
+        // Store the file once per content
         String originalFileName = file.getOriginalFilename();
-        String fileExtension = getFileExtension(originalFileName);
-        String uniqueFileName = UUID.randomUUID().toString() + "_" + 
-                              System.currentTimeMillis() + fileExtension;
-        
-        // Save file to disk
-        Path filePath = uploadPath.resolve(uniqueFileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        Path filePath;
+        try (InputStream in = file.getInputStream()) {
+            filePath = contentStore.store(in);
+        }
 
         // Create job description entity
         JobDescription jobDescription = new JobDescription();
-        jobDescription.setFileName(uniqueFileName);
+        jobDescription.setFileName(filePath.getFileName().toString());
         jobDescription.setOriginalFileName(originalFileName);
         jobDescription.setFilePath(filePath.toString());
         jobDescription.setFileSize(file.getSize());
@@ -99,7 +101,10 @@ public class JobDescriptionService {
         }
 
         // Save to database
-        return jobDescriptionRepository.save(jobDescription);
+        JobDescription saved = jobDescriptionRepository.save(jobDescription);
+        jobSkillIndex.index(saved);
+        jobRescoringService.submit(saved);
+        return saved;
     }
 
     /**
@@ -204,6 +209,13 @@ public class JobDescriptionService {
         JobDescription saved = jobDescriptionRepository.save(jobDescription);
         log.info("Saved job description with ID: {} and title: '{}'", saved.getId(), saved.getTitle());
         
+        // Analyse the job once now so resume matching can read the stored profile
+        jobSkillProfileService.buildProfile(saved);
+        jobSkillIndex.index(saved);
+
+        // Raise the scores of stored resumes that match the new job better than their current best
+        jobRescoringService.submit(saved);
+        
         return saved;
     }
     
@@ -269,23 +281,41 @@ public class JobDescriptionService {
         Optional<JobDescription> jobDescriptionOpt = jobDescriptionRepository.findById(id);
         if (jobDescriptionOpt.isPresent()) {
             JobDescription jobDescription = jobDescriptionOpt.get();
+            boolean wasActive = Boolean.TRUE.equals(jobDescription.getIsActive());
             jobDescription.setIsActive(false);
             jobDescriptionRepository.save(jobDescription);
+            jobSkillProfileService.invalidate(id);
+            jobSkillIndex.remove(id);
+            jobRescoringService.cancel(id);
+            evictRendered(id);
             
-            // Optionally delete the physical file
-            try {
-                Path filePath = Paths.get(jobDescription.getFilePath());
-                if (Files.exists(filePath)) {
-                    Files.delete(filePath);
-                }
-            } catch (IOException e) {
-                log.error("Could not delete file: {}", e.getMessage());
+            // An inactive job already gave up its file
+            if (wasActive) {
+                releaseFile(jobDescription);
             }
         } else {
             throw new RuntimeException("Job description not found with id: " + id);
         }
     }
 
+    /**
+     * Release the stored file of a job that is no longer active, or delete it if it predates the content store
+     */
+    public void releaseFile(JobDescription jobDescription) {
+        String filePath = jobDescription.getFilePath();
+        if (filePath == null || filePath.trim().isEmpty() || filePath.startsWith("/virtual/")) {
+            return;
+        }
+        try {
+            Path path = Paths.get(filePath);
+            if (!contentStore.release(path) && Files.exists(path)) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            log.error("Could not delete file: {}", e.getMessage());
+        }
+    }
+
     /**
      * Get recent job descriptions (last N days)
      */
@@ -301,16 +331,6 @@ public class JobDescriptionService {
         return jobDescriptionRepository.countByIsActiveTrue();
     }
 
-    /**
-     * Get file extension from filename
-     */
-    private String getFileExtension(String fileName) {
-        if (fileName == null || fileName.lastIndexOf(".") == -1) {
-            return "";
-        }
-        return fileName.substring(fileName.lastIndexOf("."));
-    }
-
     /**
      * Basic text extraction from file (can be enhanced with Apache Tika)
      */
@@ -354,7 +374,15 @@ public class JobDescriptionService {
                 existing.setPanelMemberEmail(updatedJobDescription.getPanelMemberEmail());
             }
             
-            return jobDescriptionRepository.save(existing);
+            JobDescription saved = jobDescriptionRepository.save(existing);
+            jobSkillProfileService.invalidate(id);
+            jobSkillIndex.index(saved);
+
+            // The edited text may match stored resumes better than their current best
+            if (Boolean.TRUE.equals(saved.getIsActive())) {
+                jobRescoringService.submit(saved);
+            }
+            return saved;
         } else {
             throw new RuntimeException("Job description not found with id: " + id);
         }
@@ -417,4 +445,111 @@ public class JobDescriptionService {
         
         return jobDescriptionRepository.findAll(spec, pageable);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Text download of a job description without a stored file, rendered once per version of the job
+     */
+    public RenderedJobDescription renderForDownload(JobDescription job) {
+        synchronized (renderedCache) {
+            RenderedJobDescription cached = renderedCache.get(job.getId());
+            if (cached != null && Objects.equals(cached.updatedDate, job.getUpdatedDate())) {
+                return cached;
+            }
+        }
+
+        String text = createDownloadableContent(job);
+        RenderedJobDescription rendered = new RenderedJobDescription(text.getBytes(StandardCharsets.UTF_8),
+                hashingService.generateTextHash(text), job.getUpdatedDate());
+
+        synchronized (renderedCache) {
+            renderedCache.put(job.getId(), rendered);
+            Iterator<Long> eldest = renderedCache.keySet().iterator();
+            while (renderedCache.size() > renderedCacheEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return rendered;
+    }
+
+    /**
+     * Forget the rendered download of a deleted job
+     */
+    public void evictRendered(Long jobId) {
+        synchronized (renderedCache) {
+            renderedCache.remove(jobId);
+        }
+    }
+
+    /**
+     * Create downloadable content for job descriptions
+     */
+    private String createDownloadableContent(JobDescription job) {
+        StringBuilder content = new StringBuilder();
+        
+        content.append("JOB DESCRIPTION\n");
+        content.append("===============\n\n");
+        
+        if (job.getTitle() != null) {
+            content.append("TITLE: ").append(job.getTitle()).append("\n");
+        }
+        if (job.getCompany() != null) {
+            content.append("COMPANY: ").append(job.getCompany()).append("\n");
+        }
+        if (job.getLocation() != null) {
+            content.append("LOCATION: ").append(job.getLocation()).append("\n");
+        }
+        if (job.getExperienceLevel() != null) {
+            content.append("EXPERIENCE LEVEL: ").append(job.getExperienceLevel()).append("\n");
+        }
+        
+        content.append("\n");
+        
+        if (job.getDescription() != null && !job.getDescription().trim().isEmpty()) {
+            content.append("DESCRIPTION:\n");
+            content.append("------------\n");
+            content.append(job.getDescription()).append("\n\n");
+        }
+        
+        if (job.getRequirements() != null && !job.getRequirements().trim().isEmpty()) {
+            content.append("REQUIREMENTS:\n");
+            content.append("-------------\n");
+            content.append(job.getRequirements()).append("\n\n");
+        }
+        
+        if (job.getResponsibilities() != null && !job.getResponsibilities().trim().isEmpty()) {
+            content.append("RESPONSIBILITIES:\n");
+            content.append("-----------------\n");
+            content.append(job.getResponsibilities()).append("\n\n");
+        }
+        
+        if (job.getPanelMemberName() != null) {
+            content.append("POSTED BY: ").append(job.getPanelMemberName());
+            if (job.getPanelMemberEmail() != null) {
+                content.append(" (").append(job.getPanelMemberEmail()).append(")");
+            }
+            content.append("\n");
+        }
+        
+        if (job.getCreatedDate() != null) {
+            content.append("CREATED: ").append(job.getCreatedDate().toString()).append("\n");
+        }
+        
+        return content.toString();
+    }
+
+    /**
+     * Rendered text of a job description with its SHA-256, valid while the job is not updated
+     */
+    public static class RenderedJobDescription {
+        public final byte[] content;
+        public final String contentHash;
+        public final LocalDateTime updatedDate;
+
+        public RenderedJobDescription(byte[] content, String contentHash, LocalDateTime updatedDate) {
+            this.content = content;
+            this.contentHash = contentHash;
+            this.updatedDate = updatedDate;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.JobFeatures;
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.JobDescription;
+import com.resumai.resumeparserservice.entity.JobRescoring;
+import com.resumai.resumeparserservice.repository.JobDescriptionRepository;
+import com.resumai.resumeparserservice.repository.JobRescoringRepository;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Incremental re-scoring: a resume's score is its best match over the jobs that existed when it was
+ * uploaded, so each new job description is scored once against the stored resume features and
+ * raises the scores it beats. Runs go one job at a time on a background thread; candidates are
+ * scored in batches on a low-priority pool of their own, so uploads and ranking on the matching
+ * pool are not starved, and after every round of batches the raised scores are written in one
+ * transaction and the last scored resume id is saved as a checkpoint, which a run interrupted by
+ * a restart resumes from.
+ * <p>
+ * Editing a job queues a new run from the start, which replaces the unfinished one; deleting a job
+ * cancels its run. Scores only ever go up: those a deleted job, or an edited job's earlier text,
+ * already raised are kept, as the best score is stored without the job it came from.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobRescoringService {
+
+    private static final EnumSet<JobRescoring.State> UNFINISHED =
+            EnumSet.of(JobRescoring.State.QUEUED, JobRescoring.State.RUNNING);
+
+    private final JobRescoringRepository rescoringRepository;
+    private final JobDescriptionRepository jobDescriptionRepository;
+    private final ParsedResumeRepository parsedResumeRepository;
+    private final ResumeFeatureService resumeFeatureService;
+    private final ResumeTermIndex resumeTermIndex;
+    private final JobSkillProfileService jobSkillProfileService;
+    private final ResumeMatchingService resumeMatchingService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.rescoring.enabled:true}")
+    private boolean enabled = true;
+
+    // Threads scoring batches (0 = half the CPUs)
+    @Value("${app.rescoring.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.rescoring.batch-size:256}")
+    private int batchSize = 256;
+
+    // Batches scored in parallel between checkpoints (0 = one per scoring thread)
+    @Value("${app.rescoring.batches-per-checkpoint:0}")
+    private int batchesPerCheckpoint;
+
+    @Value("${app.matching.prefilter-min-shared-skills:1}")
+    private int prefilterMinSharedSkills;
+
+    private ThreadPoolExecutor rescoringExecutor;
+    private ExecutorService scoringExecutor;
+
+    // Orders saving a run's progress against queueing or cancelling its job, so a replaced run stops writing
+    private final Object runLock = new Object();
+
+    @PostConstruct
+    void init() {
+        if (parallelism <= 0) {
+            parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        if (batchesPerCheckpoint <= 0) {
+            batchesPerCheckpoint = parallelism;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        scoringExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "job-rescoring-scorer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        rescoringExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "job-rescoring");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("rescoring.queue.depth", rescoringExecutor, executor -> executor.getQueue().size())
+                .description("Job descriptions waiting to be scored against stored resumes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Runs stop at their next round and resume from the checkpoint on the next start
+        rescoringExecutor.shutdownNow();
+        scoringExecutor.shutdownNow();
+    }
+
+    /**
+     * Resume the runs a shutdown interrupted once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!enabled) {
+            return;
+        }
+        List<JobRescoring> interrupted = rescoringRepository.findByStateInOrderByQueuedAt(UNFINISHED);
+        for (JobRescoring rescoring : interrupted) {
+            log.info("Resuming re-scoring of job {} after resume {}", rescoring.getJobId(), rescoring.getLastResumeId());
+            rescoringExecutor.execute(() -> run(rescoring.getJobId()));
+        }
+    }
+
+    /**
+     * Queue scoring a newly saved or edited job against the stored resumes, from the first resume.
+     * An unfinished run of the job stops at its next checkpoint.
+     */
+    public void submit(JobDescription job) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (runLock) {
+            // Runs are told apart by when they were queued, as stored
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            Optional<JobRescoring> previous = rescoringRepository.findById(job.getId());
+            if (previous.isPresent() && !now.isAfter(previous.get().getQueuedAt())) {
+                now = previous.get().getQueuedAt().plus(1, ChronoUnit.MILLIS);
+            }
+            rescoringRepository.save(new JobRescoring(job.getId(), JobRescoring.State.QUEUED, 0L, 0, 0, 0,
+                    now, now, null, null));
+        }
+        rescoringExecutor.execute(() -> run(job.getId()));
+        log.info("Queued re-scoring of stored resumes against job {}", job.getId());
+    }
+
+    /**
+     * Cancel the unfinished run of a deleted job; it stops at its next checkpoint
+     */
+    public void cancel(Long jobId) {
+        synchronized (runLock) {
+            Optional<JobRescoring> found = rescoringRepository.findById(jobId);
+            if (found.isPresent() && !found.get().isFinished()) {
+                JobRescoring rescoring = found.get();
+                rescoring.setState(JobRescoring.State.CANCELLED);
+                rescoring.setError("Job description was deleted");
+                rescoring.setFinishedAt(LocalDateTime.now());
+                rescoring.setUpdatedAt(rescoring.getFinishedAt());
+                rescoringRepository.save(rescoring);
+                log.info("Cancelled re-scoring of job {} after resume {}", jobId, rescoring.getLastResumeId());
+            }
+        }
+    }
+
+    /**
+     * Progress of a job's re-scoring run
+     */
+    public Optional<Map<String, Object>> getStatus(Long jobId) {
+        return rescoringRepository.findById(jobId).map(JobRescoringService::toMap);
+    }
+
+    private void run(Long jobId) {
+        Optional<JobRescoring> found = rescoringRepository.findById(jobId);
+        if (found.isEmpty() || found.get().isFinished()) {
+            return;
+        }
+        JobRescoring rescoring = found.get();
+        long start = System.nanoTime();
+        try {
+            Optional<JobDescription> job = jobDescriptionRepository.findById(jobId);
+            if (job.isEmpty() || !Boolean.TRUE.equals(job.get().getIsActive())) {
+                finish(rescoring, JobRescoring.State.CANCELLED, "Job description was deleted");
+                return;
+            }
+
+            JobFeatures profile = jobSkillProfileService.getProfile(job.get());
+            List<Long> resumeIds = loadCandidateIds(profile, rescoring.getLastResumeId());
+            rescoring.setState(JobRescoring.State.RUNNING);
+            rescoring.setCandidates(rescoring.getScored() + resumeIds.size());
+            if (!checkpoint(rescoring)) {
+                return;
+            }
+
+            int roundSize = batchSize * batchesPerCheckpoint;
+            for (int from = 0; from < resumeIds.size(); from += roundSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("Re-scoring of job {} interrupted after resume {}", jobId, rescoring.getLastResumeId());
+                    return;
+                }
+                List<Long> round = resumeIds.subList(from, Math.min(from + roundSize, resumeIds.size()));
+                Map<Long, Double> scores = scoreRound(profile, round);
+                int raised = raiseScores(scores);
+
+                rescoring.setLastResumeId(round.get(round.size() - 1));
+                rescoring.setScored(rescoring.getScored() + scores.size());
+                rescoring.setRaised(rescoring.getRaised() + raised);
+                meterRegistry.counter("rescoring.resumes.scored").increment(scores.size());
+                meterRegistry.counter("rescoring.scores.raised").increment(raised);
+                if (!checkpoint(rescoring)) {
+                    return;
+                }
+            }
+
+            finish(rescoring, JobRescoring.State.COMPLETED, null);
+            log.info("Re-scored {} resume(s) against job {}, raised {} score(s) in {} ms", rescoring.getScored(),
+                    jobId, rescoring.getRaised(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Re-scoring of job {} interrupted after resume {}", jobId, rescoring.getLastResumeId());
+        } catch (Exception e) {
+            log.error("Re-scoring of job {} failed: {}", jobId, e.getMessage(), e);
+            finish(rescoring, JobRescoring.State.FAILED, e.getMessage());
+        } finally {
+            meterRegistry.timer("rescoring.duration", "outcome", rescoring.getState().name().toLowerCase())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Resumes after the checkpoint worth scoring, in ascending id order: those sharing enough
+     * skills with the job once the resume index is built, otherwise every stored resume
+     */
+    private List<Long> loadCandidateIds(JobFeatures profile, long afterResumeId) {
+        List<Long> resumeIds = prefilterMinSharedSkills < 1 || !resumeTermIndex.isReady()
+                ? parsedResumeRepository.findAllIds()
+                : resumeTermIndex.findCandidateResumeIds(profile.getJobSkills(), prefilterMinSharedSkills);
+        return resumeIds.stream()
+                .filter(id -> id > afterResumeId)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Score one round of resumes in batches on the rescoring pool
+     * @return score percentage by resume id, without resumes deleted since they were listed
+     */
+    private Map<Long, Double> scoreRound(JobFeatures profile, List<Long> resumeIds)
+            throws InterruptedException, ExecutionException {
+        List<Future<Map<Long, Double>>> futures = new ArrayList<>();
+        for (int from = 0; from < resumeIds.size(); from += batchSize) {
+            List<Long> batch = resumeIds.subList(from, Math.min(from + batchSize, resumeIds.size()));
+            futures.add(scoringExecutor.submit(() -> scoreBatch(profile, batch)));
+        }
+
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        try {
+            for (Future<Map<Long, Double>> future : futures) {
+                scores.putAll(future.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            futures.forEach(pending -> pending.cancel(true));
+            throw e;
+        }
+        return scores;
+    }
+
+    private Map<Long, Double> scoreBatch(JobFeatures profile, List<Long> resumeIds) {
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        for (Long resumeId : resumeIds) {
+            ResumeFeatures resume = resumeFeatureService.getFeatures(resumeId);
+            if (resume != null) {
+                double score = resumeMatchingService.score(resume, profile).overallScore();
+                scores.put(resumeId, ResumeMatchingService.toPercentage(score));
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Raise the stored scores the job beats, in one transaction per round
+     * @return number of scores raised
+     */
+    private int raiseScores(Map<Long, Double> scores) {
+        Integer raised = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (Map.Entry<Long, Double> score : scores.entrySet()) {
+                count += parsedResumeRepository.raiseScore(score.getKey(), score.getValue());
+            }
+            return count;
+        });
+        return raised != null ? raised : 0;
+    }
+
+    /**
+     * Save a run's progress, unless its job was edited or deleted since the run was queued
+     * @return false when the run was replaced or cancelled and should stop
+     */
+    private boolean checkpoint(JobRescoring rescoring) {
+        synchronized (runLock) {
+            Optional<JobRescoring> current = rescoringRepository.findById(rescoring.getJobId());
+            if (current.isPresent() && (!current.get().getQueuedAt().equals(rescoring.getQueuedAt())
+                    || current.get().getState() == JobRescoring.State.CANCELLED)) {
+                log.info("Re-scoring of job {} stopped after resume {}: the job was edited or deleted",
+                        rescoring.getJobId(), rescoring.getLastResumeId());
+                return false;
+            }
+            rescoring.setUpdatedAt(LocalDateTime.now());
+            rescoringRepository.save(rescoring);
+            return true;
+        }
+    }
+
+    private void finish(JobRescoring rescoring, JobRescoring.State state, String error) {
+        rescoring.setState(state);
+        rescoring.setError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        rescoring.setFinishedAt(LocalDateTime.now());
+        checkpoint(rescoring);
+    }
+
+    private static Map<String, Object> toMap(JobRescoring rescoring) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", rescoring.getJobId());
+        status.put("status", rescoring.getState());
+        status.put("candidates", rescoring.getCandidates());
+        status.put("scored", rescoring.getScored());
+        status.put("scoresRaised", rescoring.getRaised());
+        status.put("lastResumeId", rescoring.getLastResumeId());
+        status.put("queuedAt", rescoring.getQueuedAt());
+        status.put("updatedAt", rescoring.getUpdatedAt());
+        if (rescoring.getFinishedAt() != null) {
+            status.put("finishedAt", rescoring.getFinishedAt());
+        }
+        if (rescoring.getError() != null) {
+            status.put("error", rescoring.getError());
+        }
+        return status;
+    }
+}
@@ -0,0 +1,125 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.entity.JobDescription;
+import com.resumai.resumeparserservice.repository.JobDescriptionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inverted index from skill term to active job ids, built from the stored job skill profiles.
+ * Lets resume matching score only the jobs that share enough skills with the resume.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobSkillIndex {
+
+    private final JobDescriptionRepository jobDescriptionRepository;
+    private final JobSkillProfileService jobSkillProfileService;
+    private final MeterRegistry meterRegistry;
+
+    private final InvertedTermIndex index = new InvertedTermIndex();
+    private volatile boolean ready;
+
+    private Counter lookups;
+    private Counter jobsConsidered;
+    private Counter jobsSelected;
+
+    @PostConstruct
+    void registerMetrics() {
+        lookups = meterRegistry.counter("job.skill.index.lookups");
+        jobsConsidered = meterRegistry.counter("job.skill.index.jobs.considered");
+        jobsSelected = meterRegistry.counter("job.skill.index.jobs.selected");
+
+        Gauge.builder("job.skill.index.terms", index, InvertedTermIndex::termCount)
+                .description("Distinct skill terms in the job index")
+                .register(meterRegistry);
+        Gauge.builder("job.skill.index.jobs", index, InvertedTermIndex::docCount)
+                .description("Active jobs in the job index")
+                .register(meterRegistry);
+        Gauge.builder("job.skill.index.postings", index, InvertedTermIndex::postingCount)
+                .description("Skill-to-job postings in the job index")
+                .register(meterRegistry);
+        Gauge.builder("job.skill.index.hit.ratio", this, JobSkillIndex::hitRatio)
+                .description("Share of indexed jobs selected for full scoring by the prefilter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the index from every active job once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        index.clear();
+        for (JobDescription job : jobDescriptionRepository.findByIsActiveTrue()) {
+            index(job);
+        }
+        ready = true;
+        log.info("Built job skill index: {} jobs, {} terms in {} ms",
+                index.docCount(), index.termCount(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Index a created or updated job under its profile skills; inactive jobs are dropped
+     */
+    public void index(JobDescription job) {
+        int docId = Math.toIntExact(job.getId());
+        if (!Boolean.TRUE.equals(job.getIsActive())) {
+            index.remove(docId);
+            return;
+        }
+        index.put(docId, jobSkillProfileService.getProfile(job).getJobSkills());
+    }
+
+    /**
+     * Drop a deleted job from the index
+     */
+    public void remove(Long jobId) {
+        index.remove(Math.toIntExact(jobId));
+    }
+
+    /**
+     * Ids of the active jobs sharing at least minShared skills with the resume, in ascending order.
+     * Jobs without any indexed skill are always included, since the index cannot rule them out.
+     */
+    public List<Long> findCandidateJobIds(Set<String> resumeSkills, int minShared) {
+        int[] matching = index.docsWithAtLeast(resumeSkills, minShared);
+        int[] withoutSkills = index.docsWithoutTerms();
+
+        int[] candidates = Arrays.copyOf(matching, matching.length + withoutSkills.length);
+        System.arraycopy(withoutSkills, 0, candidates, matching.length, withoutSkills.length);
+        Arrays.sort(candidates);
+
+        lookups.increment();
+        jobsConsidered.increment(index.docCount());
+        jobsSelected.increment(candidates.length);
+
+        List<Long> jobIds = new ArrayList<>(candidates.length);
+        for (int candidate : candidates) {
+            jobIds.add((long) candidate);
+        }
+        return jobIds;
+    }
+
+    private double hitRatio() {
+        double considered = jobsConsidered.count();
+        return considered > 0 ? jobsSelected.count() / considered : 0.0;
+    }
+}
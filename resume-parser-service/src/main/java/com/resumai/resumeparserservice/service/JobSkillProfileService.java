@@ -0,0 +1,154 @@
+package com.resumai.resumeparserservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resumai.resumeparserservice.dto.JobFeatures;
+import com.resumai.resumeparserservice.entity.JobDescription;
+import com.resumai.resumeparserservice.entity.JobSkillProfile;
+import com.resumai.resumeparserservice.repository.JobSkillProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds, stores and caches the per-job skill profile used by resume matching,
+ * so a job description is analysed once instead of once per uploaded resume
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobSkillProfileService {
+
+    // Bump whenever extraction or the JobFeatures layout changes, so stored profiles are rebuilt
+    static final int PROFILE_VERSION = 2;
+
+    private final JobSkillProfileRepository profileRepository;
+    private final SimilarityService similarityService;
+    private final HashingService hashingService;
+    private final ObjectMapper objectMapper;
+    private final VectorSpaceModel vectorSpaceModel;
+
+    private final Map<Long, CachedProfile> cache = new ConcurrentHashMap<>();
+
+    private record CachedProfile(String sourceHash, JobFeatures features) {
+    }
+
+    /**
+     * Get the skill profile of a job, building and storing it if missing or stale
+     */
+    public JobFeatures getProfile(JobDescription job) {
+        String sourceHash = computeSourceHash(job);
+
+        CachedProfile cached = cache.get(job.getId());
+        if (cached != null && cached.sourceHash().equals(sourceHash)) {
+            return cached.features();
+        }
+
+        JobFeatures features = loadStoredProfile(job.getId(), sourceHash)
+                .orElseGet(() -> buildAndStore(job, sourceHash));
+        cache.put(job.getId(), new CachedProfile(sourceHash, features));
+        addToCorpus(job.getId(), features);
+        return features;
+    }
+
+    /**
+     * Build and store the skill profile of a freshly saved job
+     */
+    public JobFeatures buildProfile(JobDescription job) {
+        String sourceHash = computeSourceHash(job);
+        JobFeatures features = buildAndStore(job, sourceHash);
+        cache.put(job.getId(), new CachedProfile(sourceHash, features));
+        addToCorpus(job.getId(), features);
+        return features;
+    }
+
+    /**
+     * Drop the skill profile of a job that was updated or deleted
+     */
+    public void invalidate(Long jobId) {
+        cache.remove(jobId);
+        vectorSpaceModel.removeDocument(corpusKey(jobId));
+        if (profileRepository.existsById(jobId)) {
+            profileRepository.deleteById(jobId);
+            log.debug("Invalidated skill profile for job {}", jobId);
+        }
+    }
+
+    private Optional<JobFeatures> loadStoredProfile(Long jobId, String sourceHash) {
+        Optional<JobSkillProfile> stored = profileRepository.findById(jobId);
+        if (stored.isEmpty()
+                || stored.get().getProfileVersion() != PROFILE_VERSION
+                || !sourceHash.equals(stored.get().getSourceHash())) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(objectMapper.readValue(stored.get().getProfileData(), JobFeatures.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable skill profile for job {}: {}", jobId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private JobFeatures buildAndStore(JobDescription job, String sourceHash) {
+        String combinedText = job.getCombinedText();
+        JobFeatures features = new JobFeatures(
+            similarityService.prepareJobText(combinedText),
+            similarityService.prepareJobText(job.getTitle()),
+            similarityService.prepareJobText(job.getDescription()),
+            similarityService.prepareJobText(job.getRequirements()),
+            similarityService.prepareJobText(job.getResponsibilities()),
+            similarityService.extractSkills(combinedText)
+        );
+
+        try {
+            JobSkillProfile profile = new JobSkillProfile();
+            profile.setJobId(job.getId());
+            profile.setSourceHash(sourceHash);
+            profile.setProfileVersion(PROFILE_VERSION);
+            profile.setProfileData(objectMapper.writeValueAsString(features));
+            profileRepository.save(profile);
+            log.info("Built skill profile for job {} ('{}')", job.getId(), job.getTitle());
+        } catch (JsonProcessingException | DataAccessException e) {
+            // Matching still works from the in-memory copy; the profile is rebuilt after a restart
+            log.error("Could not store skill profile for job {}: {}", job.getId(), e.getMessage());
+        }
+
+        return features;
+    }
+
+    /**
+     * Count the job's combined text in the corpus-wide document frequencies
+     */
+    private void addToCorpus(Long jobId, JobFeatures features) {
+        if (features.getCombined() != null) {
+            vectorSpaceModel.addDocument(corpusKey(jobId), features.getCombined().getTermVector());
+        } else {
+            vectorSpaceModel.removeDocument(corpusKey(jobId));
+        }
+    }
+
+    private static String corpusKey(Long jobId) {
+        return "job:" + jobId;
+    }
+
+    /**
+     * Hash of every job field the profile is derived from and of the vocabulary it is extracted with
+     */
+    private String computeSourceHash(JobDescription job) {
+        return hashingService.generateTextHash(String.join("\u0000",
+            similarityService.vocabularyDigest(),
+            Objects.toString(job.getTitle(), ""),
+            Objects.toString(job.getCompany(), ""),
+            Objects.toString(job.getDescription(), ""),
+            Objects.toString(job.getRequirements(), ""),
+            Objects.toString(job.getResponsibilities(), "")
+        ));
+    }
+}
@@ -1,22 +1,21 @@
 package com.resumai.resumeparserservice.service;
 
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
 import com.resumai.resumeparserservice.entity.ParsedResume;
 import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Map;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
 import java.io.IOException;
 import org.apache.tika.exception.TikaException;
 
@@ -29,26 +28,88 @@ public class ParsedResumeService {
     private final SimilarityService similarityService;
     private final TextExtractionService textExtractionService;
     private final ResumeMatchingService resumeMatchingService;
-    private final HashingService hashingService;
-    
-    private static final String UPLOAD_DIR = "uploaded-resumes/";
+    private final ResumeTermIndex resumeTermIndex;
+    private final ResumeFeatureService resumeFeatureService;
+    private final ContentStore contentStore;
+
+    private static final java.util.regex.Pattern EMAIL_PATTERN = java.util.regex.Pattern.compile(
+        "\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b"
+    );
+
+    private static final java.util.regex.Pattern EXPERIENCE_PATTERN = java.util.regex.Pattern.compile(
+        "(?i)(\\d+)\\s*(?:years?|yrs?)\\s*(?:of\\s*)?(?:experience|exp)",
+        java.util.regex.Pattern.CASE_INSENSITIVE
+    );
 
     /**
      * Save a parsed resume with all extracted information
      */
-    public ParsedResume saveParsedResume(MultipartFile file, String extractedText, 
+    public ParsedResume saveParsedResume(SpooledUpload file, String extractedText, 
                                        String email, Set<String> skills, 
                                        String experience, Double score, String filePath) {
+        return saveParsedResume(file, extractedText, email, skills, experience, score, filePath, null);
+    }
+
+    /**
+     * Save a parsed resume, storing similarity features already computed from its text
+     * @param features features of the extracted text, or null to compute them from the saved text
+     */
+    public ParsedResume saveParsedResume(SpooledUpload file, String extractedText,
+                                       String email, Set<String> skills,
+                                       String experience, Double score, String filePath,
+                                       ResumeFeatures features) {
+        ParsedResume parsedResume = buildParsedResume(file, extractedText, email, skills, experience, score, filePath);
+        ParsedResume saved = parsedResumeRepository.save(parsedResume);
+        ResumeFeatures savedFeatures = features != null
+                ? resumeFeatureService.buildFeatures(saved, features)
+                : resumeFeatureService.buildFeatures(saved);
+        resumeTermIndex.index(saved, savedFeatures);
+        log.info("Saved parsed resume with ID: {} for file: {}", saved.getId(), saved.getOriginalFileName());
+        
+        return saved;
+    }
+
+    /**
+     * Save several parsed resumes in one transaction, then index them
+     */
+    public List<ParsedResume> saveParsedResumes(List<ParsedResume> parsedResumes) {
+        return saveParsedResumes(parsedResumes, null);
+    }
+
+    /**
+     * Save several parsed resumes in one transaction, then index them with features already
+     * computed from their text
+     * @param features features of each resume in the same order, or null to compute them from the saved text
+     */
+    public List<ParsedResume> saveParsedResumes(List<ParsedResume> parsedResumes, List<ResumeFeatures> features) {
+        List<ParsedResume> saved = parsedResumeRepository.saveAll(parsedResumes);
+        for (int i = 0; i < saved.size(); i++) {
+            ParsedResume resume = saved.get(i);
+            ResumeFeatures savedFeatures = features != null && features.get(i) != null
+                    ? resumeFeatureService.buildFeatures(resume, features.get(i))
+                    : resumeFeatureService.buildFeatures(resume);
+            resumeTermIndex.index(resume, savedFeatures);
+        }
+        log.info("Saved batch of {} parsed resumes", saved.size());
+        
+        return saved;
+    }
+
+    /**
+     * Build an unsaved parsed resume with all extracted information
+     */
+    public ParsedResume buildParsedResume(SpooledUpload file, String extractedText,
+                                          String email, Set<String> skills,
+                                          String experience, Double score, String filePath) {
         ParsedResume parsedResume = new ParsedResume();
         
         // Basic file information
         parsedResume.setOriginalFileName(file.getOriginalFilename());
         parsedResume.setFileSize(file.getSize());
-        parsedResume.setContentType(file.getContentType());
+        parsedResume.setContentType(file.getContentType() != null ? file.getContentType() : file.getDetectedType());
         
         // Extracted content
         parsedResume.setRawText(extractedText);
-        parsedResume.setParsedText(extractedText); // Can be processed differently if needed
         parsedResume.setEmail(email);
         parsedResume.setSkills(String.join(", ", skills));
         parsedResume.setExperience(experience);
@@ -57,22 +118,13 @@ public class ParsedResumeService {
         // File storage path
         parsedResume.setFilePath(filePath);
         
-        // Generate and set content hash
-        try {
-            String contentHash = hashingService.generateFileHash(file);
-            parsedResume.setContentHash(contentHash);
-        } catch (IOException e) {
-            log.error("Failed to generate content hash for file: {}", file.getOriginalFilename(), e);
-            throw new RuntimeException("Failed to generate content hash", e);
-        }
+        // Content hash computed while the upload was spooled
+        parsedResume.setContentHash(file.getContentHash());
         
         // Timestamp
         parsedResume.setUploadTime(LocalDateTime.now());
         
-        ParsedResume saved = parsedResumeRepository.save(parsedResume);
-        log.info("Saved parsed resume with ID: {} for file: {}", saved.getId(), saved.getOriginalFileName());
-        
-        return saved;
+        return parsedResume;
     }
 
 
@@ -97,6 +149,13 @@ public class ParsedResumeService {
         return parsedResumeRepository.findById(id);
     }
 
+    /**
+     * Find an already uploaded resume with the same file content
+     */
+    public Optional<ParsedResume> findByContentHash(String contentHash) {
+        return parsedResumeRepository.findByContentHash(contentHash);
+    }
+
     /**
      * Find resumes by email
      */
@@ -108,7 +167,10 @@ public class ParsedResumeService {
      * Find resumes by skill
      */
     public List<ParsedResume> findBySkill(String skill) {
-        return parsedResumeRepository.findBySkillsContaining(skill);
+        if (!resumeTermIndex.isReady()) {
+            return parsedResumeRepository.findBySkillsContaining(skill);
+        }
+        return findAllByIdInOrder(resumeTermIndex.findBySkill(skill));
     }
 
     /**
@@ -138,29 +200,34 @@ public class ParsedResumeService {
      * Search resumes by text content
      */
     public List<ParsedResume> searchByText(String keyword) {
-        return parsedResumeRepository.findByTextContaining(keyword);
+        if (!resumeTermIndex.isReady()) {
+            return parsedResumeRepository.findByTextContaining(keyword);
+        }
+        return findAllByIdInOrder(resumeTermIndex.findByText(keyword));
+    }
+
+    /**
+     * Load resumes by id, in ascending id order
+     */
+    private List<ParsedResume> findAllByIdInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<ParsedResume> resumes = new ArrayList<>(parsedResumeRepository.findAllById(ids));
+        resumes.sort(Comparator.comparingLong(ParsedResume::getId));
+        return resumes;
     }
 
     /**
      * Get statistics about parsed resumes
      */
     public ResumeStatistics getStatistics() {
-        List<ParsedResume> allResumes = parsedResumeRepository.findAll();
-        long totalCount = allResumes.size();
-        
-        double averageScore = allResumes.stream()
-                .filter(r -> r.getScore() != null)
-                .mapToDouble(ParsedResume::getScore)
-                .average()
-                .orElse(0.0);
-        
-        long resumesWithEmail = allResumes.stream()
-                .filter(r -> r.getEmail() != null && !r.getEmail().trim().isEmpty())
-                .count();
-        
-        long resumesWithSkills = allResumes.stream()
-                .filter(r -> r.getSkills() != null && !r.getSkills().trim().isEmpty())
-                .count();
+        // Aggregated in the database instead of loading every resume with its text
+        Object[] summary = parsedResumeRepository.summarize().get(0);
+        long totalCount = ((Number) summary[0]).longValue();
+        double averageScore = summary[1] != null ? ((Number) summary[1]).doubleValue() : 0.0;
+        long resumesWithEmail = summary[2] != null ? ((Number) summary[2]).longValue() : 0L;
+        long resumesWithSkills = summary[3] != null ? ((Number) summary[3]).longValue() : 0L;
         
         return new ResumeStatistics(totalCount, averageScore, resumesWithEmail, resumesWithSkills);
     }
@@ -169,7 +236,12 @@ public class ParsedResumeService {
      * Delete a parsed resume
      */
     public void deleteById(Long id) {
+        Optional<String> filePath = parsedResumeRepository.findById(id).map(ParsedResume::getFilePath);
         parsedResumeRepository.deleteById(id);
+        // Files stored before the content store existed are left in place, as before
+        filePath.filter(path -> !path.isBlank()).ifPresent(path -> contentStore.release(Paths.get(path)));
+        resumeTermIndex.remove(id);
+        resumeFeatureService.invalidate(id);
         log.info("Deleted ParsedResume with ID: {}", id);
     }
 
@@ -179,10 +251,7 @@ public class ParsedResumeService {
     private String extractEmail(String text) {
         if (text == null) return null;
         
-        java.util.regex.Pattern emailPattern = java.util.regex.Pattern.compile(
-            "\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b"
-        );
-        java.util.regex.Matcher matcher = emailPattern.matcher(text);
+        java.util.regex.Matcher matcher = EMAIL_PATTERN.matcher(text);
         return matcher.find() ? matcher.group() : null;
     }
 
@@ -193,11 +262,7 @@ public class ParsedResumeService {
         if (text == null) return null;
         
         // Simple experience extraction - look for patterns with "years" or "experience"
-        java.util.regex.Pattern expPattern = java.util.regex.Pattern.compile(
-            "(?i)(\\d+)\\s*(?:years?|yrs?)\\s*(?:of\\s*)?(?:experience|exp)", 
-            java.util.regex.Pattern.CASE_INSENSITIVE
-        );
-        java.util.regex.Matcher matcher = expPattern.matcher(text);
+        java.util.regex.Matcher matcher = EXPERIENCE_PATTERN.matcher(text);
         
         if (matcher.find()) {
             return matcher.group() + " years of experience";
@@ -239,20 +304,20 @@ public class ParsedResumeService {
     /**
      * Validate the uploaded file and check for duplicates
      */
-    public void validateUploadedFile(MultipartFile file) throws IOException, TikaException {
+    public void validateUploadedFile(SpooledUpload file) {
         // Check if file is empty
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Please select a file to upload");
         }
 
         // Validate file type (Resume uploads support PDF, DOC, DOCX, RTF, and TXT)
-        String detectedType = textExtractionService.detectFileType(file);
+        String detectedType = file.getDetectedType();
         if (!textExtractionService.isSupportedResumeFileType(detectedType)) {
             throw new IllegalArgumentException("Invalid file type. Resume uploads support PDF, DOC, DOCX, RTF, and TXT files. Detected: " + detectedType);
         }
         
         // Check for duplicate content
-        String contentHash = hashingService.generateFileHash(file);
+        String contentHash = file.getContentHash();
         Optional<ParsedResume> existingResume = parsedResumeRepository.findByContentHash(contentHash);
         
         if (existingResume.isPresent()) {
@@ -272,68 +337,71 @@ public class ParsedResumeService {
     }
 
     /**
-     * Save uploaded file to disk with unique filename
+     * Save uploaded file to the content store, moving the spooled copy into place unless the same content is stored
      */
-    public Path saveFileToDisk(MultipartFile file) throws IOException {
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(UPLOAD_DIR);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        // Generate unique filename and save file to disk
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-        log.info("File saved to: {} -> {}", originalFilename, filePath.toString());
-        
-        return filePath;
+    public Path saveFileToDisk(SpooledUpload file) throws IOException {
+        return contentStore.store(file);
     }
 
     /**
      * Extract text and parse resume data (email, skills, experience)
      */
-    public ResumeProcessingData extractAndParseResumeData(MultipartFile file) throws IOException, TikaException {
-        // Extract text from resume
-        String extractedText = textExtractionService.extractTextFromFile(file);
+    public ResumeProcessingData extractAndParseResumeData(SpooledUpload file) throws IOException, TikaException {
+        // Extract text from resume, tokenizing it as the parser emits it
+        StreamingTokenizer tokenizer = similarityService.newTokenizer();
+        String extractedText = textExtractionService.extractTextFromFile(file, tokenizer);
         log.info("Extracted {} characters from resume: {}", extractedText.length(), file.getOriginalFilename());
 
+        // Similarity features, computed once for matching and for the stored profile
+        ResumeFeatures features = similarityService.prepareResume(extractedText, tokenizer.result());
+
         // Parse resume data (extract email, skills, experience)
         String email = extractEmail(extractedText);
-        Set<String> skills = similarityService.extractSkills(extractedText);
+        Set<String> skills = features != null ? features.getSkills() : similarityService.extractSkills(extractedText);
         String experience = extractExperience(extractedText);
 
-        return new ResumeProcessingData(extractedText, email, skills, experience);
+        return new ResumeProcessingData(extractedText, email, skills, experience, features);
     }
 
     /**
      * Score resume against all job descriptions
      */
     public MatchingResults scoreResumeAgainstJobs(String extractedText) {
-        // Match resume against ALL job descriptions and get best score
-        List<Map<String, Object>> allMatches = resumeMatchingService.matchResumeWithAllJobs(extractedText);
+        return scoreResumeAgainstJobs(extractedText, 1);
+    }
+
+    /**
+     * Score resume against all job descriptions, keeping the top K matches
+     */
+    public MatchingResults scoreResumeAgainstJobs(String extractedText, int topK) {
+        return scoreResumeAgainstJobs(similarityService.prepareResume(extractedText), topK);
+    }
+
+    /**
+     * Score resume features computed during extraction against all job descriptions, keeping the top K matches
+     */
+    public MatchingResults scoreResumeAgainstJobs(ResumeFeatures features, int topK) {
+        // Match resume against ALL job descriptions, building the breakdown only for the best K
+        ResumeMatchingService.TopMatches topMatches = resumeMatchingService.matchResumeWithTopJobs(features, topK);
         Double bestScore = 0.0;
         Map<String, Object> bestMatch = null;
         
-        if (!allMatches.isEmpty()) {
-            bestMatch = allMatches.get(0); // First one is highest score
+        if (!topMatches.matches.isEmpty()) {
+            bestMatch = topMatches.matches.get(0); // First one is highest score
             bestScore = (Double) bestMatch.get("overallScore");
         }
 
-        return new MatchingResults(allMatches, bestScore, bestMatch);
+        return new MatchingResults(topMatches.matches, bestScore, bestMatch, topMatches.jobsScored);
     }
 
     /**
      * Save parsed resume data to database - enhanced version with file path
      */
-    public ParsedResume saveProcessedResumeToDatabase(MultipartFile file, ResumeProcessingData resumeData, 
+    public ParsedResume saveProcessedResumeToDatabase(SpooledUpload file, ResumeProcessingData resumeData, 
                                                      MatchingResults matchingResults, Path filePath) {
         ParsedResume savedResume = saveParsedResume(
             file, resumeData.extractedText, resumeData.email, resumeData.skills, 
-            resumeData.experience, matchingResults.bestScore, filePath.toString()
+            resumeData.experience, matchingResults.bestScore, filePath.toString(), resumeData.features
         );
 
         log.info("Resume processed and saved with ID: {} for file: {}", 
@@ -354,12 +422,19 @@ public class ParsedResumeService {
         public final String email;
         public final Set<String> skills;
         public final String experience;
+        public final ResumeFeatures features;
 
         public ResumeProcessingData(String extractedText, String email, Set<String> skills, String experience) {
+            this(extractedText, email, skills, experience, null);
+        }
+
+        public ResumeProcessingData(String extractedText, String email, Set<String> skills, String experience,
+                                    ResumeFeatures features) {
             this.extractedText = extractedText;
             this.email = email;
             this.skills = skills;
             this.experience = experience;
+            this.features = features;
         }
     }
 
@@ -370,11 +445,14 @@ public class ParsedResumeService {
         public final List<Map<String, Object>> allMatches;
         public final Double bestScore;
         public final Map<String, Object> bestMatch;
+        public final int jobsScored;
 
-        public MatchingResults(List<Map<String, Object>> allMatches, Double bestScore, Map<String, Object> bestMatch) {
+        public MatchingResults(List<Map<String, Object>> allMatches, Double bestScore, Map<String, Object> bestMatch,
+                               int jobsScored) {
             this.allMatches = allMatches;
             this.bestScore = bestScore;
             this.bestMatch = bestMatch;
+            this.jobsScored = jobsScored;
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,264 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.dto.SparseVector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary encoding of resume features. Terms are stored as term dictionary ids:
+ * <ol>
+ *   <li>format version byte</li>
+ *   <li>processed token ids in text order</li>
+ *   <li>distinct raw-text token ids, ascending and delta-encoded</li>
+ *   <li>skill ids, ascending and delta-encoded</li>
+ *   <li>term vector ids, ascending and delta-encoded, then their float weights</li>
+ *   <li>a flags byte, then the email as UTF-8 and the experience years when present</li>
+ * </ol>
+ * Counts, ids and lengths are unsigned varints. Everything else in {@link ResumeFeatures} is
+ * derived on decoding: the processed text is its tokens joined by spaces, and the lowercase text
+ * and its vocabulary come from the resume text, which is stored with the resume anyway.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResumeFeatureCodec {
+
+    // Bump when the layout changes; records of another version are rebuilt from the resume text
+    static final int FORMAT_VERSION = 1;
+
+    private static final int HAS_EMAIL = 1;
+    private static final int HAS_EXPERIENCE = 2;
+
+    private final TermDictionary termDictionary;
+    private final SkillExtractionEngine extractionEngine;
+
+    /**
+     * Encode features, assigning dictionary ids to terms seen for the first time
+     */
+    public byte[] encode(ResumeFeatures features) {
+        String processedText = features.getProcessedText();
+        String[] tokens = processedText == null || processedText.isEmpty() ? new String[0] : processedText.split(" ");
+        List<String> distinctTokens = new ArrayList<>(new LinkedHashSet<>(Arrays.asList(tokens)));
+        int[] distinctIds = termDictionary.idsOf(distinctTokens);
+        Map<String, Integer> idsByToken = new HashMap<>(distinctIds.length * 2);
+        for (int i = 0; i < distinctIds.length; i++) {
+            idsByToken.put(distinctTokens.get(i), distinctIds[i]);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(tokens.length * 2 + 256);
+        out.write(FORMAT_VERSION);
+
+        writeVarint(out, tokens.length);
+        for (String token : tokens) {
+            writeVarint(out, idsByToken.get(token));
+        }
+
+        writeIdSet(out, termDictionary.idsOf(Arrays.asList(features.getTextTokens())));
+        writeIdSet(out, termDictionary.idsOf(new ArrayList<>(features.getSkills())));
+
+        SparseVector termVector = features.getTermVector();
+        writeIdSet(out, termVector.getTermIds());
+        for (float weight : termVector.getWeights()) {
+            int bits = Float.floatToIntBits(weight);
+            out.write(bits >>> 24);
+            out.write(bits >>> 16);
+            out.write(bits >>> 8);
+            out.write(bits);
+        }
+
+        String email = features.getEmail();
+        Integer experienceYears = features.getExperienceYears();
+        out.write((email != null ? HAS_EMAIL : 0) | (experienceYears != null ? HAS_EXPERIENCE : 0));
+        if (email != null) {
+            byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, emailBytes.length);
+            out.write(emailBytes, 0, emailBytes.length);
+        }
+        if (experienceYears != null) {
+            writeVarint(out, experienceYears);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode features encoded by {@link #encode}
+     * @param resumeText text of the resume the features were computed from
+     * @throws IllegalArgumentException if the data is of another format version, truncated or
+     *         refers to terms missing from the dictionary
+     */
+    public ResumeFeatures decode(byte[] data, String resumeText) {
+        ByteBuffer in = open(data);
+        try {
+            int[] tokenIds = new int[readCount(in)];
+            for (int i = 0; i < tokenIds.length; i++) {
+                tokenIds[i] = readVarint(in);
+            }
+            String[] tokens = termDictionary.termsOf(tokenIds);
+            String[] textTokens = termDictionary.termsOf(readIdSet(in));
+            String[] skills = termDictionary.termsOf(readIdSet(in));
+
+            SparseVector termVector = readTermVector(in);
+
+            int flags = in.get();
+            String email = null;
+            Integer experienceYears = null;
+            if ((flags & HAS_EMAIL) != 0) {
+                byte[] emailBytes = new byte[readCount(in)];
+                in.get(emailBytes);
+                email = new String(emailBytes, StandardCharsets.UTF_8);
+            }
+            if ((flags & HAS_EXPERIENCE) != 0) {
+                experienceYears = readVarint(in);
+            }
+
+            String processedText = String.join(" ", tokens);
+            Set<String> distinctTokens = new HashSet<>(Arrays.asList(tokens));
+            Set<String> keywords = new HashSet<>();
+            for (String token : distinctTokens) {
+                if (token.length() > 3 && !extractionEngine.isCommonWord(token)) {
+                    keywords.add(token);
+                }
+            }
+
+            return new ResumeFeatures(
+                    processedText,
+                    extractionEngine.findVocabularySurfaces(processedText),
+                    FuzzyTermMatcher.tokensByLength(distinctTokens),
+                    termVector,
+                    keywords,
+                    resumeText.toLowerCase(),
+                    extractionEngine.findVocabularySurfaces(resumeText),
+                    FuzzyTermMatcher.tokensByLength(Arrays.asList(textTokens)),
+                    new HashSet<>(Arrays.asList(skills)),
+                    email,
+                    experienceYears);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated feature data", e);
+        }
+    }
+
+    /**
+     * Term vector of encoded features, read without resolving any term or needing the resume text
+     * @throws IllegalArgumentException if the data is of another format version or truncated
+     */
+    public SparseVector decodeTermVector(byte[] data) {
+        ByteBuffer in = open(data);
+        try {
+            int tokenCount = readCount(in);
+            for (int i = 0; i < tokenCount; i++) {
+                readVarint(in);
+            }
+            readIdSet(in);
+            readIdSet(in);
+            return readTermVector(in);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated feature data", e);
+        }
+    }
+
+    /**
+     * Distinct processed tokens of encoded features, read without needing the resume text
+     * @throws IllegalArgumentException if the data is of another format version, truncated or
+     *         refers to terms missing from the dictionary
+     */
+    public Set<String> decodeProcessedTokens(byte[] data) {
+        ByteBuffer in = open(data);
+        try {
+            int[] tokenIds = new int[readCount(in)];
+            for (int i = 0; i < tokenIds.length; i++) {
+                tokenIds[i] = readVarint(in);
+            }
+            return new LinkedHashSet<>(Arrays.asList(termDictionary.termsOf(tokenIds)));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated feature data", e);
+        }
+    }
+
+    private static ByteBuffer open(byte[] data) {
+        if (data.length == 0) {
+            throw new IllegalArgumentException("Empty feature data");
+        }
+        ByteBuffer in = ByteBuffer.wrap(data);
+        int version = in.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported feature format version " + version);
+        }
+        return in;
+    }
+
+    private static SparseVector readTermVector(ByteBuffer in) {
+        int[] termIds = readIdSet(in);
+        float[] weights = new float[termIds.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = in.getFloat();
+        }
+        return termIds.length == 0 ? SparseVector.EMPTY : new SparseVector(termIds, weights);
+    }
+
+    /**
+     * Distinct ids in ascending order, as differences from the previous id
+     */
+    private static void writeIdSet(ByteArrayOutputStream out, int[] ids) {
+        int[] sorted = Arrays.stream(ids).distinct().sorted().toArray();
+        writeVarint(out, sorted.length);
+        int previous = 0;
+        for (int id : sorted) {
+            writeVarint(out, id - previous);
+            previous = id;
+        }
+    }
+
+    private static int[] readIdSet(ByteBuffer in) {
+        int[] ids = new int[readCount(in)];
+        int previous = 0;
+        for (int i = 0; i < ids.length; i++) {
+            previous += readVarint(in);
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    /**
+     * A count of items that take at least a byte each, checked against the bytes left
+     */
+    private static int readCount(ByteBuffer in) {
+        int count = readVarint(in);
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Corrupt item count in feature data");
+        }
+        return count;
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in feature data");
+    }
+}
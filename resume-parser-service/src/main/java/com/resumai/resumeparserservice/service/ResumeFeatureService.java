@@ -0,0 +1,291 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.entity.ResumeFeatureRecord;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import com.resumai.resumeparserservice.repository.ResumeFeatureRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds, stores and caches the similarity features of each parsed resume, so ranking
+ * candidates for a job reads features instead of re-analysing every resume text.
+ * Features are stored once at ingest as a binary record of term ids ({@link ResumeFeatureCodec}).
+ * A resume's text never changes after upload, so features stay valid until it is deleted or
+ * extraction or the skill vocabulary changes.
+ * Recently used features are kept in memory up to a size limit; the rest are decoded from
+ * their record again when needed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumeFeatureService {
+
+    // Bump whenever extraction changes, so stored records are rebuilt; vocabulary changes are caught by its digest
+    static final int FEATURE_VERSION = 4;
+
+    // Stored records read per query when warming up
+    private static final int WARM_UP_BATCH_SIZE = 500;
+
+    // Leading number of the experience string extracted from the resume, e.g. "5 years of experience"
+    private static final Pattern EXPERIENCE_YEARS = Pattern.compile("(?i)(\\d{1,2})\\s*(?:years?|yrs?)");
+
+    private final ResumeFeatureRecordRepository recordRepository;
+    private final ParsedResumeRepository parsedResumeRepository;
+    private final SimilarityService similarityService;
+    private final ResumeFeatureCodec codec;
+    private final VectorSpaceModel vectorSpaceModel;
+
+    @Value("${app.resume-features.cache-max-bytes:67108864}")
+    private long cacheMaxBytes = 64L * 1024 * 1024;
+
+    // Guarded by this; access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, ResumeFeatures> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cacheBytes;
+
+    /**
+     * Get the features of a stored resume, building and storing them if missing
+     * @return null when the resume no longer exists or has no text to match
+     */
+    public ResumeFeatures getFeatures(Long resumeId) {
+        ResumeFeatures cached = cached(resumeId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // The corpus statistics already count stored records, from the warm-up or when they were built
+        Optional<ResumeFeatures> stored = loadStoredRecord(resumeId);
+        if (stored.isPresent()) {
+            cache(resumeId, stored.get());
+            return stored.get();
+        }
+
+        return parsedResumeRepository.findById(resumeId)
+                .map(this::buildFeatures)
+                .orElse(null);
+    }
+
+    /**
+     * Build and store the features of a freshly saved resume
+     * @return null when the resume has no text to match
+     */
+    public ResumeFeatures buildFeatures(ParsedResume resume) {
+        return buildFeatures(resume, similarityService.prepareResume(resume.getRawText()));
+    }
+
+    /**
+     * Store features of a freshly saved resume that were computed while it was uploaded
+     * @return null when the resume has no text to match
+     */
+    public ResumeFeatures buildFeatures(ParsedResume resume, ResumeFeatures features) {
+        if (features == null) {
+            return null;
+        }
+
+        features.setEmail(resume.getEmail());
+        features.setExperienceYears(experienceYears(resume.getExperience()));
+        try {
+            ResumeFeatureRecord record = new ResumeFeatureRecord();
+            record.setResumeId(resume.getId());
+            record.setFeatureVersion(FEATURE_VERSION);
+            record.setVocabularyDigest(similarityService.vocabularyDigest());
+            record.setFeatureData(codec.encode(features));
+            recordRepository.save(record);
+            log.debug("Stored {}-byte feature record for resume {}", record.getFeatureData().length, resume.getId());
+        } catch (DataAccessException e) {
+            // Ranking still works from the in-memory copy; the record is rebuilt after a restart
+            log.error("Could not store feature record for resume {}: {}", resume.getId(), e.getMessage());
+        }
+
+        cache(resume.getId(), features);
+        vectorSpaceModel.addDocument(corpusKey(resume.getId()), features.getTermVector());
+        return features;
+    }
+
+    /**
+     * Distinct processed tokens of stored resumes, read from their records without the resume texts
+     * @return tokens by resume id, without resumes that no longer exist or have no text to match
+     */
+    public Map<Long, Set<String>> getProcessedTokens(List<Long> resumeIds) {
+        Map<Long, Set<String>> tokens = new HashMap<>(resumeIds.size() * 2);
+        Map<Long, ResumeFeatureRecord> records = new HashMap<>(resumeIds.size() * 2);
+        recordRepository.findAllById(resumeIds).forEach(record -> records.put(record.getResumeId(), record));
+
+        for (Long resumeId : resumeIds) {
+            ResumeFeatures cached = cached(resumeId);
+            if (cached != null) {
+                tokens.put(resumeId, new LinkedHashSet<>(Arrays.asList(cached.getProcessedTokens())));
+                continue;
+            }
+            ResumeFeatureRecord record = records.get(resumeId);
+            if (isCurrent(record)) {
+                try {
+                    tokens.put(resumeId, codec.decodeProcessedTokens(record.getFeatureData()));
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    log.warn("Discarding unreadable feature record for resume {}: {}", resumeId, e.getMessage());
+                }
+            }
+            ResumeFeatures features = getFeatures(resumeId);
+            if (features != null) {
+                tokens.put(resumeId, new LinkedHashSet<>(Arrays.asList(features.getProcessedTokens())));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Drop the features of a deleted resume
+     */
+    public void invalidate(Long resumeId) {
+        synchronized (this) {
+            ResumeFeatures removed = cache.remove(resumeId);
+            if (removed != null) {
+                cacheBytes -= weightOf(removed);
+            }
+        }
+        vectorSpaceModel.removeDocument(corpusKey(resumeId));
+        if (recordRepository.existsById(resumeId)) {
+            recordRepository.deleteById(resumeId);
+            log.debug("Invalidated feature record for resume {}", resumeId);
+        }
+    }
+
+    /**
+     * Count every stored resume in the corpus statistics once the application has started.
+     * Only the term vectors are read from the records; resumes without a current record are rebuilt.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        List<Long> resumeIds = parsedResumeRepository.findAllIds();
+        int rebuilt = 0;
+        for (int from = 0; from < resumeIds.size(); from += WARM_UP_BATCH_SIZE) {
+            List<Long> batch = resumeIds.subList(from, Math.min(from + WARM_UP_BATCH_SIZE, resumeIds.size()));
+            Map<Long, ResumeFeatureRecord> records = new HashMap<>(batch.size() * 2);
+            recordRepository.findAllById(batch).forEach(record -> records.put(record.getResumeId(), record));
+
+            for (Long resumeId : batch) {
+                ResumeFeatureRecord record = records.get(resumeId);
+                if (isCurrent(record)) {
+                    try {
+                        vectorSpaceModel.addDocument(corpusKey(resumeId), codec.decodeTermVector(record.getFeatureData()));
+                        continue;
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Discarding unreadable feature record for resume {}: {}", resumeId, e.getMessage());
+                    }
+                }
+                // Building the features stores a current record and counts them
+                Optional<ParsedResume> resume = parsedResumeRepository.findById(resumeId);
+                if (resume.isPresent()) {
+                    buildFeatures(resume.get());
+                    rebuilt++;
+                }
+            }
+        }
+        log.info("Counted {} resumes in the corpus statistics ({} rebuilt) in {} ms",
+                resumeIds.size(), rebuilt, System.currentTimeMillis() - start);
+    }
+
+    private synchronized ResumeFeatures cached(Long resumeId) {
+        return cache.get(resumeId);
+    }
+
+    private synchronized void cache(Long resumeId, ResumeFeatures features) {
+        long weight = weightOf(features);
+        if (weight > cacheMaxBytes) {
+            return;
+        }
+        ResumeFeatures previous = cache.put(resumeId, features);
+        if (previous != null) {
+            cacheBytes -= weightOf(previous);
+        }
+        cacheBytes += weight;
+
+        Iterator<ResumeFeatures> eldest = cache.values().iterator();
+        while (cacheBytes > cacheMaxBytes && eldest.hasNext()) {
+            cacheBytes -= weightOf(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Approximate heap size of features: their texts, tokens and term sets as chars, and the term vector
+     */
+    static long weightOf(ResumeFeatures features) {
+        long chars = length(features.getProcessedText()) + length(features.getLowerText())
+                + length(features.getProcessedTokens()) + length(features.getTextTokens())
+                + length(features.getProcessedVocabulary()) + length(features.getTextVocabulary())
+                + length(features.getKeywords()) + length(features.getSkills());
+        long vector = features.getTermVector() != null ? features.getTermVector().getTermIds().length * 8L : 0L;
+        return chars * Character.BYTES + vector;
+    }
+
+    private static long length(String text) {
+        return text != null ? text.length() : 0;
+    }
+
+    private static long length(String[] terms) {
+        return terms != null ? Arrays.stream(terms).mapToLong(String::length).sum() : 0;
+    }
+
+    private static long length(Set<String> terms) {
+        return terms != null ? terms.stream().mapToLong(String::length).sum() : 0;
+    }
+
+    /**
+     * Whether a record was built by this extraction version with the loaded vocabulary
+     */
+    private boolean isCurrent(ResumeFeatureRecord record) {
+        return record != null && record.getFeatureVersion() == FEATURE_VERSION
+                && similarityService.vocabularyDigest().equals(record.getVocabularyDigest());
+    }
+
+    private static String corpusKey(Long resumeId) {
+        return "resume:" + resumeId;
+    }
+
+    private Optional<ResumeFeatures> loadStoredRecord(Long resumeId) {
+        Optional<ResumeFeatureRecord> stored = recordRepository.findById(resumeId);
+        if (stored.isEmpty() || !isCurrent(stored.get())) {
+            return Optional.empty();
+        }
+        Optional<String> resumeText = parsedResumeRepository.findRawTextById(resumeId);
+        if (resumeText.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(codec.decode(stored.get().getFeatureData(), resumeText.get()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Discarding unreadable feature record for resume {}: {}", resumeId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    static Integer experienceYears(String experience) {
+        if (experience == null) {
+            return null;
+        }
+        Matcher matcher = EXPERIENCE_YEARS.matcher(experience);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+}
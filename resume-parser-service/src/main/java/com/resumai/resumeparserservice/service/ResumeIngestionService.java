@@ -0,0 +1,290 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.service.ParsedResumeService.MatchingResults;
+import com.resumai.resumeparserservice.service.ParsedResumeService.ResumeProcessingData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous resume uploads: the file is validated and stored on the request thread, and
+ * text extraction, job matching and the database insert run on the bounded ingestion pool.
+ * Status is kept in memory for polling or streaming until the retention period after it finishes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumeIngestionService {
+
+    public enum State { QUEUED, PROCESSING, COMPLETED, FAILED }
+
+    private final ParsedResumeService parsedResumeService;
+    private final UploadSpooler uploadSpooler;
+    private final ThreadPoolExecutor ingestionExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.ingestion.status-retention-minutes:60}")
+    private long statusRetentionMinutes;
+
+    @Value("${app.ingestion.events-timeout-ms:300000}")
+    private long eventsTimeoutMs;
+
+    private final Map<String, Ingestion> ingestions = new ConcurrentHashMap<>();
+
+    // Content hashes of uploads still being processed by any upload path, so a resubmitted file is not ingested twice
+    private final Set<String> inFlightHashes = ConcurrentHashMap.newKeySet();
+
+    private Counter rejected;
+
+    @PostConstruct
+    void registerMetrics() {
+        rejected = meterRegistry.counter("resume.ingestion.rejected");
+        Gauge.builder("resume.ingestion.queue.depth", ingestionExecutor, executor -> executor.getQueue().size())
+                .description("Uploads waiting for an ingestion worker")
+                .register(meterRegistry);
+        Gauge.builder("resume.ingestion.active", ingestionExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Uploads being processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validate and store an upload, then queue the rest of its processing
+     * @throws IllegalArgumentException if the file is invalid, a duplicate or already being processed
+     * @throws RejectedExecutionException if the ingestion queue is full
+     */
+    public Ingestion submit(MultipartFile file, Integer topK) throws IOException {
+        pruneFinished();
+
+        SpooledUpload upload = uploadSpooler.spool(file);
+        String contentHash = upload.getContentHash();
+        try {
+            parsedResumeService.validateUploadedFile(upload);
+            if (!claim(contentHash)) {
+                throw new IllegalArgumentException("This resume is already being processed");
+            }
+        } catch (RuntimeException e) {
+            upload.close();
+            throw e;
+        }
+
+        Ingestion ingestion = new Ingestion(UUID.randomUUID().toString(), upload.getOriginalFilename());
+        try {
+            Path filePath = parsedResumeService.saveFileToDisk(upload);
+            ingestions.put(ingestion.id, ingestion);
+            ingestionExecutor.execute(() -> process(ingestion, upload, filePath, topK));
+        } catch (IOException | RuntimeException e) {
+            ingestions.remove(ingestion.id);
+            release(contentHash);
+            upload.discard();
+            if (e instanceof RejectedExecutionException) {
+                rejected.increment();
+                log.warn("Ingestion queue full, rejected upload of {}", upload.getOriginalFilename());
+            }
+            throw e;
+        }
+
+        log.info("Queued ingestion {} for file: {}", ingestion.id, upload.getOriginalFilename());
+        return ingestion;
+    }
+
+    /**
+     * Mark content as being processed until it is released, so another upload of it is turned away
+     * instead of failing on the unique content hash at insert time
+     * @return false if another upload is already processing the same content
+     */
+    public boolean claim(String contentHash) {
+        return inFlightHashes.add(contentHash);
+    }
+
+    public void release(String contentHash) {
+        inFlightHashes.remove(contentHash);
+    }
+
+    public Optional<Ingestion> findIngestion(String ingestionId) {
+        return Optional.ofNullable(ingestions.get(ingestionId));
+    }
+
+    /**
+     * Stream status changes of an ingestion, starting with its current status.
+     * The stream completes once the ingestion has completed or failed.
+     */
+    public Optional<SseEmitter> subscribe(String ingestionId) {
+        Ingestion ingestion = ingestions.get(ingestionId);
+        if (ingestion == null) {
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(eventsTimeoutMs);
+        emitter.onCompletion(() -> ingestion.subscribers.remove(emitter));
+        emitter.onTimeout(() -> ingestion.subscribers.remove(emitter));
+        emitter.onError(error -> ingestion.subscribers.remove(emitter));
+
+        synchronized (ingestion) {
+            if (send(emitter, ingestion) && !ingestion.isFinished()) {
+                ingestion.subscribers.add(emitter);
+            }
+        }
+        return Optional.of(emitter);
+    }
+
+    private void process(Ingestion ingestion, SpooledUpload upload, Path filePath, Integer topK) {
+        long start = System.nanoTime();
+        try {
+            update(ingestion, State.PROCESSING, "Extracting text", null, null);
+            ResumeProcessingData resumeData = parsedResumeService.extractAndParseResumeData(upload);
+
+            update(ingestion, State.PROCESSING, "Scoring against job descriptions", null, null);
+            MatchingResults matchingResults = parsedResumeService.scoreResumeAgainstJobs(
+                    resumeData.features, topK != null ? topK : 1);
+
+            update(ingestion, State.PROCESSING, "Saving to database", null, null);
+            ParsedResume savedResume = parsedResumeService.saveProcessedResumeToDatabase(
+                    upload, resumeData, matchingResults, filePath);
+
+            update(ingestion, State.COMPLETED, "Done", buildResult(savedResume, resumeData, matchingResults, topK), null);
+            log.info("Ingestion {} completed with resume ID: {}", ingestion.id, savedResume.getId());
+        } catch (Exception e) {
+            log.error("Ingestion {} failed: {}", ingestion.id, e.getMessage(), e);
+            upload.discard();
+            update(ingestion, State.FAILED, "Failed", null, e.getMessage());
+        } finally {
+            release(upload.getContentHash());
+            meterRegistry.timer("resume.ingestion.duration", "outcome", ingestion.state.name().toLowerCase())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Map<String, Object> buildResult(ParsedResume savedResume, ResumeProcessingData resumeData,
+                                            MatchingResults matchingResults, Integer topK) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("resumeId", savedResume.getId());
+        result.put("email", resumeData.email);
+        result.put("skillsCount", resumeData.skills.size());
+        result.put("experience", resumeData.experience);
+        result.put("bestMatchScore", matchingResults.bestScore);
+        result.put("totalJobsMatched", matchingResults.jobsScored);
+        if (matchingResults.bestMatch != null) {
+            result.put("bestMatchJob", Map.of(
+                "jobId", matchingResults.bestMatch.get("jobId"),
+                "jobTitle", matchingResults.bestMatch.get("jobTitle"),
+                "company", matchingResults.bestMatch.get("company"),
+                "matchCategory", matchingResults.bestMatch.get("matchCategory")
+            ));
+        }
+        if (topK != null) {
+            result.put("topMatches", matchingResults.allMatches);
+        }
+        return result;
+    }
+
+    private void update(Ingestion ingestion, State state, String stage, Map<String, Object> result, String error) {
+        synchronized (ingestion) {
+            ingestion.state = state;
+            ingestion.stage = stage;
+            ingestion.result = result;
+            ingestion.error = error;
+            ingestion.updatedAt = LocalDateTime.now();
+
+            for (SseEmitter emitter : ingestion.subscribers) {
+                if (!send(emitter, ingestion) || ingestion.isFinished()) {
+                    ingestion.subscribers.remove(emitter);
+                }
+            }
+        }
+    }
+
+    /**
+     * Send the current status, completing the stream if the ingestion is finished
+     * @return false if the client has gone away
+     */
+    private boolean send(SseEmitter emitter, Ingestion ingestion) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(ingestion.state.name().toLowerCase())
+                    .data(ingestion.toMap()));
+            if (ingestion.isFinished()) {
+                emitter.complete();
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping status subscriber of ingestion {}: {}", ingestion.id, e.getMessage());
+            return false;
+        }
+    }
+
+    private void pruneFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(statusRetentionMinutes);
+        ingestions.values().removeIf(ingestion -> ingestion.isFinished() && ingestion.updatedAt.isBefore(cutoff));
+    }
+
+    /**
+     * Status of one asynchronous upload
+     */
+    public static class Ingestion {
+        public final String id;
+        public final String fileName;
+        public final LocalDateTime submittedAt = LocalDateTime.now();
+
+        // Written under the instance lock
+        private volatile State state = State.QUEUED;
+        private volatile String stage = "Waiting for a worker";
+        private volatile Map<String, Object> result;
+        private volatile String error;
+        private volatile LocalDateTime updatedAt = submittedAt;
+
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+        Ingestion(String id, String fileName) {
+            this.id = id;
+            this.fileName = fileName;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public boolean isFinished() {
+            return state == State.COMPLETED || state == State.FAILED;
+        }
+
+        public synchronized Map<String, Object> toMap() {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("ingestionId", id);
+            status.put("fileName", fileName);
+            status.put("status", state);
+            status.put("stage", stage);
+            status.put("submittedAt", submittedAt);
+            status.put("updatedAt", updatedAt);
+            if (result != null) {
+                status.put("result", result);
+            }
+            if (error != null) {
+                status.put("error", error);
+            }
+            return status;
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.resumai.resumeparserservice.service;
 
+import com.resumai.resumeparserservice.dto.JobFeatures;
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
 import com.resumai.resumeparserservice.entity.JobDescription;
 import com.resumai.resumeparserservice.repository.JobDescriptionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 @Service
 @RequiredArgsConstructor
@@ -16,77 +24,242 @@ public class ResumeMatchingService {
 
     private final JobDescriptionRepository jobDescriptionRepository;
     private final SimilarityService similarityService;
+    private final JobSkillProfileService jobSkillProfileService;
+    private final ExecutorService matchingExecutor;
+    private final JobSkillIndex jobSkillIndex;
 
+    @Value("${app.matching.parallel-enabled:true}")
+    private boolean parallelEnabled;
 
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    // Budget of one job, counted from when it starts running, not from when it is queued
+    @Value("${app.matching.job-timeout-ms:10000}")
+    private long jobTimeoutMs;
+
+    // Budget of the whole fan-out; jobs not scored by then are left out of the results
+    @Value("${app.matching.request-timeout-ms:15000}")
+    private long requestTimeoutMs;
+
+    @Value("${app.matching.prefilter-min-shared-skills:1}")
+    private int prefilterMinSharedSkills;
 
     /**
      * Match a resume against all job descriptions in the database
      */
     public List<Map<String, Object>> matchResumeWithAllJobs(String resumeText) {
-        List<JobDescription> allJobs = jobDescriptionRepository.findAll();
+        return matchResumeWithTopJobs(resumeText, Integer.MAX_VALUE).matches;
+    }
+
+    /**
+     * Match a resume against all job descriptions, keeping only the K best matches.
+     * Every job is scored into primitives; the detailed breakdown is built for the survivors only.
+     */
+    public TopMatches matchResumeWithTopJobs(String resumeText, int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be at least 1");
+        }
+
+        // Analyse the resume once; each job is read from its stored skill profile
+        return matchResumeWithTopJobs(similarityService.prepareResume(resumeText), topK);
+    }
+
+    /**
+     * Match resume features computed elsewhere, such as during extraction, keeping only the K best matches
+     */
+    public TopMatches matchResumeWithTopJobs(ResumeFeatures resume, int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be at least 1");
+        }
+
+        List<JobDescription> allJobs = loadCandidateJobs(resume);
         
-        return allJobs.stream()
-                .map(job -> calculateJobMatch(resumeText, job))
-                .sorted((a, b) -> Double.compare((Double) b.get("overallScore"), (Double) a.get("overallScore")))
-                .collect(Collectors.toList());
+        JobScore[] scores = parallelEnabled && allJobs.size() > 1
+                ? scoreJobsInParallel(resume, allJobs)
+                : scoreJobsSequentially(resume, allJobs);
+        
+        // Bounded heap over the rounded percentage, ties keep repository order
+        int jobsScored = 0;
+        TopKSelector selector = new TopKSelector(Math.max(1, Math.min(topK, allJobs.size())));
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] != null) {
+                selector.offer(i, toPercentage(scores[i].overallScore()));
+                jobsScored++;
+            }
+        }
+        
+        List<Map<String, Object>> matches = new ArrayList<>(selector.size());
+        for (int index : selector.drainBestFirst()) {
+            matches.add(buildJobMatch(resume, allJobs.get(index), scores[index]));
+        }
+        return new TopMatches(matches, jobsScored);
     }
 
+    /**
+     * Jobs worth scoring in full: those sharing enough skills with the resume once the
+     * skill index is built, otherwise every active job, the same set the index covers
+     */
+    private List<JobDescription> loadCandidateJobs(ResumeFeatures resume) {
+        if (prefilterMinSharedSkills < 1 || resume == null || !jobSkillIndex.isReady()) {
+            return jobDescriptionRepository.findByIsActiveTrue();
+        }
 
+        List<Long> candidateIds = jobSkillIndex.findCandidateJobIds(resume.getSkills(), prefilterMinSharedSkills);
+        if (candidateIds.isEmpty()) {
+            log.info("Skill prefilter found no job sharing {} skill(s) with the resume", prefilterMinSharedSkills);
+            return new ArrayList<>();
+        }
 
+        // Keep repository (id) order so ties rank the same as a full scan
+        List<JobDescription> candidates = new ArrayList<>(jobDescriptionRepository.findAllById(candidateIds));
+        candidates.sort(Comparator.comparing(JobDescription::getId));
+        log.info("Skill prefilter selected {} job(s) sharing at least {} skill(s) with the resume",
+                candidates.size(), prefilterMinSharedSkills);
+        return candidates;
+    }
 
+    private JobScore[] scoreJobsSequentially(ResumeFeatures resume, List<JobDescription> jobs) {
+        JobScore[] scores = new JobScore[jobs.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = scoreJob(resume, jobs.get(i));
+        }
+        return scores;
+    }
 
+    /**
+     * Score the resume against every job on the matching pool, keeping repository order.
+     * A job still running after its per-job timeout, or not scored by the request deadline,
+     * is left out of the results.
+     */
+    private JobScore[] scoreJobsInParallel(ResumeFeatures resume, List<JobDescription> jobs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMs);
+        long jobTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(jobTimeoutMs);
 
+        AtomicLongArray startedAt = new AtomicLongArray(jobs.size());
+        List<Future<JobScore>> futures = new ArrayList<>(jobs.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            int index = i;
+            JobDescription job = jobs.get(i);
+            startedAt.set(index, NOT_STARTED);
+            futures.add(matchingExecutor.submit(() -> {
+                startedAt.set(index, System.nanoTime());
+                return scoreJob(resume, job);
+            }));
+        }
+
+        JobScore[] scores = new JobScore[jobs.size()];
+        for (int i = 0; i < futures.size(); i++) {
+            Future<JobScore> future = futures.get(i);
+            JobDescription job = jobs.get(i);
+            try {
+                scores[i] = awaitJob(future, startedAt, i, deadline, jobTimeoutNanos);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                if (startedAt.get(i) == NOT_STARTED || System.nanoTime() - deadline >= 0) {
+                    log.warn("Job {} was not scored within the {} ms request deadline, leaving it out of the results",
+                            job.getId(), requestTimeoutMs);
+                } else {
+                    log.warn("Scoring job {} timed out after {} ms, leaving it out of the results", job.getId(), jobTimeoutMs);
+                }
+            } catch (ExecutionException e) {
+                log.error("Error scoring job {}: {}", job.getId(), e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.subList(i, futures.size()).forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Interrupted while matching resume against jobs", e);
+            }
+        }
+        return scores;
+    }
 
     /**
-     * Calculate comprehensive matching score for a job
+     * Wait for one job until the request deadline or, once it has started, until its own timeout
      */
-    private Map<String, Object> calculateJobMatch(String resumeText, JobDescription job) {
-        Map<String, Object> result = new HashMap<>();
+    private JobScore awaitJob(Future<JobScore> future, AtomicLongArray startedAt, int index,
+                              long deadline, long jobTimeoutNanos)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        while (true) {
+            long now = System.nanoTime();
+            long started = startedAt.get(index);
+            // A queued job is rechecked at least once per job budget, so its own timeout applies once it starts
+            long until = started == NOT_STARTED ? now + jobTimeoutNanos : started + jobTimeoutNanos;
+            if (until - deadline > 0) {
+                until = deadline;
+            }
+            try {
+                return future.get(Math.max(0, until - now), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                long after = System.nanoTime();
+                boolean pastDeadline = after - deadline >= 0;
+                boolean overran = startedAt.get(index) != NOT_STARTED && after - startedAt.get(index) >= jobTimeoutNanos;
+                if (pastDeadline || overran) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculate the component scores of a job without building its breakdown
+     */
+    private JobScore scoreJob(ResumeFeatures resume, JobDescription job) {
+        JobScore score = score(resume, jobSkillProfileService.getProfile(job));
         
-        // Basic job information
-        result.put("jobId", job.getId());
-        result.put("jobTitle", job.getTitle());
-        result.put("company", job.getCompany());
-        result.put("location", job.getLocation());
-        result.put("experienceLevel", job.getExperienceLevel());
+        log.info("Calculated match score {} for job '{}' at '{}'", 
+                score.overallScore(), job.getTitle(), job.getCompany());
         
+        return score;
+    }
+
+    /**
+     * Calculate the component scores of a resume against a job profile, in either matching direction
+     */
+    JobScore score(ResumeFeatures resume, JobFeatures profile) {
         // Calculate different similarity scores
-        double overallSimilarity = similarityService.calculateSimilarity(resumeText, job.getCombinedText());
-        double weightedSimilarity = similarityService.calculateWeightedSimilarity(
-            resumeText, 
-            job.getTitle(), 
-            job.getDescription(), 
-            job.getRequirements(), 
-            job.getResponsibilities()
-        );
+        double overallSimilarity = similarityService.calculateSimilarity(resume, profile.getCombined());
+        double weightedSimilarity = similarityService.calculateWeightedSimilarity(resume, profile);
         // Use direct skill matching for better JD to Resume comparison
-        double skillMatch = similarityService.calculateDirectSkillMatch(resumeText, job.getCombinedText());
+        double skillMatch = similarityService.calculateDirectSkillMatch(resume, profile.getCombined());
         
         // Calculate title-specific match
-        double titleMatch = similarityService.calculateSimilarity(resumeText, job.getTitle());
+        double titleMatch = similarityService.calculateSimilarity(resume, profile.getTitle());
         
         // Calculate requirements match if available - using direct skill matching
-        double requirementsMatch = 0.0;
-        if (job.getRequirements() != null && !job.getRequirements().trim().isEmpty()) {
-            requirementsMatch = similarityService.calculateDirectSkillMatch(resumeText, job.getRequirements());
-        }
+        double requirementsMatch = similarityService.calculateDirectSkillMatch(resume, profile.getRequirements());
         
         // Calculate final overall score (weighted combination)
         double overallScore = calculateOverallScore(overallSimilarity, weightedSimilarity, skillMatch, titleMatch, requirementsMatch);
         
+        return new JobScore(profile, overallScore, overallSimilarity, weightedSimilarity,
+                skillMatch, titleMatch, requirementsMatch);
+    }
+
+    /**
+     * Build the comprehensive match breakdown for a scored job
+     */
+    private Map<String, Object> buildJobMatch(ResumeFeatures resume, JobDescription job, JobScore score) {
+        Map<String, Object> result = new HashMap<>();
+        
+        // Basic job information
+        result.put("jobId", job.getId());
+        result.put("jobTitle", job.getTitle());
+        result.put("company", job.getCompany());
+        result.put("location", job.getLocation());
+        result.put("experienceLevel", job.getExperienceLevel());
+        
         // Extract matching skills
-        Set<String> resumeSkills = similarityService.extractSkills(resumeText);
-        Set<String> jobSkills = similarityService.extractSkills(job.getCombinedText());
+        Set<String> resumeSkills = resume != null ? resume.getSkills() : new HashSet<>();
+        Set<String> jobSkills = score.profile().getJobSkills();
         Set<String> matchingSkills = new HashSet<>(resumeSkills);
         matchingSkills.retainAll(jobSkills);
         
         // Add scores to result
-        result.put("overallScore", Math.round(overallScore * 10000.0) / 100.0); // Convert to percentage
-        result.put("overallSimilarity", Math.round(overallSimilarity * 10000.0) / 100.0);
-        result.put("weightedSimilarity", Math.round(weightedSimilarity * 10000.0) / 100.0);
-        result.put("skillMatchPercentage", Math.round(skillMatch * 10000.0) / 100.0);
-        result.put("titleMatch", Math.round(titleMatch * 10000.0) / 100.0);
-        result.put("requirementsMatch", Math.round(requirementsMatch * 10000.0) / 100.0);
+        result.put("overallScore", toPercentage(score.overallScore()));
+        result.put("overallSimilarity", toPercentage(score.overallSimilarity()));
+        result.put("weightedSimilarity", toPercentage(score.weightedSimilarity()));
+        result.put("skillMatchPercentage", toPercentage(score.skillMatch()));
+        result.put("titleMatch", toPercentage(score.titleMatch()));
+        result.put("requirementsMatch", toPercentage(score.requirementsMatch()));
         
         // Add skill information
         result.put("resumeSkills", resumeSkills);
@@ -97,14 +270,18 @@ public class ResumeMatchingService {
         result.put("skillsMatched", matchingSkills.size());
         
         // Add match category
-        result.put("matchCategory", getMatchCategory(overallScore));
-        
-        log.info("Calculated match score {} for job '{}' at '{}'", 
-                overallScore, job.getTitle(), job.getCompany());
+        result.put("matchCategory", getMatchCategory(score.overallScore()));
         
         return result;
     }
 
+    /**
+     * Convert a 0-1 score to a percentage rounded to two decimals
+     */
+    static double toPercentage(double score) {
+        return Math.round(score * 10000.0) / 100.0;
+    }
+
     /**
      * Calculate overall score using weighted combination of different similarity measures
      */
@@ -127,7 +304,7 @@ public class ResumeMatchingService {
     /**
      * Categorize match quality based on score
      */
-    private String getMatchCategory(double score) {
+    static String getMatchCategory(double score) {
         if (score >= 0.8) return "Excellent Match";
         if (score >= 0.6) return "Good Match";
         if (score >= 0.4) return "Fair Match";
@@ -135,5 +312,24 @@ public class ResumeMatchingService {
         return "No Match";
     }
 
+    /**
+     * Component scores of one resume-job pair, kept as primitives until it survives top-K selection
+     */
+    record JobScore(JobFeatures profile, double overallScore, double overallSimilarity,
+                    double weightedSimilarity, double skillMatch, double titleMatch,
+                    double requirementsMatch) {
+    }
 
+    /**
+     * Best matches, best first, and how many jobs were scored to find them
+     */
+    public static class TopMatches {
+        public final List<Map<String, Object>> matches;
+        public final int jobsScored;
+
+        public TopMatches(List<Map<String, Object>> matches, int jobsScored) {
+            this.matches = matches;
+            this.jobsScored = jobsScored;
+        }
+    }
 } 
\ No newline at end of file
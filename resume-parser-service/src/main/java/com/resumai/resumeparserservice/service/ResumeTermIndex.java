@@ -0,0 +1,211 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inverted indexes from skill and text term to parsed resume ids, used by recruiter search.
+ * Terms are whole tokens, so a search for "java" no longer matches "javascript".
+ * Text terms are the processed tokens of the stored resume features, so indexing never re-parses text.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ResumeTermIndex {
+
+    private static final int REBUILD_BATCH_SIZE = 200;
+
+    private final ParsedResumeRepository parsedResumeRepository;
+    private final SkillExtractionEngine engine;
+    private final ResumeFeatureService resumeFeatureService;
+    private final MeterRegistry meterRegistry;
+
+    private final InvertedTermIndex skillIndex = new InvertedTermIndex();
+    private final InvertedTermIndex textIndex = new InvertedTermIndex();
+    private volatile boolean ready;
+
+    private Timer skillLookups;
+    private Timer textLookups;
+
+    @PostConstruct
+    void registerMetrics() {
+        skillLookups = meterRegistry.timer("resume.term.index.lookups", "field", "skills");
+        textLookups = meterRegistry.timer("resume.term.index.lookups", "field", "text");
+
+        Gauge.builder("resume.term.index.resumes", textIndex, InvertedTermIndex::docCount)
+                .description("Resumes in the resume term index")
+                .register(meterRegistry);
+        Gauge.builder("resume.term.index.terms", skillIndex, InvertedTermIndex::termCount)
+                .tag("field", "skills")
+                .description("Distinct skills in the resume term index")
+                .register(meterRegistry);
+        Gauge.builder("resume.term.index.terms", textIndex, InvertedTermIndex::termCount)
+                .tag("field", "text")
+                .description("Distinct text terms in the resume term index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the index from every stored resume once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        skillIndex.clear();
+        textIndex.clear();
+
+        // Page through ids and skills only; the text terms come from the stored feature records
+        Long afterId = 0L;
+        List<Object[]> page;
+        do {
+            page = parsedResumeRepository.findIdsAndSkillsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            List<Long> pageIds = new ArrayList<>(page.size());
+            for (Object[] row : page) {
+                pageIds.add((Long) row[0]);
+            }
+            Map<Long, Set<String>> tokens = resumeFeatureService.getProcessedTokens(pageIds);
+            for (Object[] row : page) {
+                afterId = (Long) row[0];
+                index(afterId, (String) row[1], tokens.getOrDefault(afterId, Set.of()));
+            }
+        } while (page.size() == REBUILD_BATCH_SIZE);
+
+        ready = true;
+        log.info("Built resume term index: {} resumes, {} skills, {} text terms in {} ms",
+                textIndex.docCount(), skillIndex.termCount(), textIndex.termCount(),
+                System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Index a saved resume under its skills and the terms of its text
+     * @param features features of the resume's text, or null when it has no text
+     */
+    public void index(ParsedResume resume, ResumeFeatures features) {
+        index(resume.getId(), resume.getSkills(),
+                features != null ? new LinkedHashSet<>(Arrays.asList(features.getProcessedTokens())) : Set.of());
+    }
+
+    private void index(Long resumeId, String skills, Set<String> textTerms) {
+        int docId = Math.toIntExact(resumeId);
+        skillIndex.put(docId, skillTerms(skills));
+        textIndex.put(docId, textTerms);
+    }
+
+    /**
+     * Drop a deleted resume from the index
+     */
+    public void remove(Long resumeId) {
+        int docId = Math.toIntExact(resumeId);
+        skillIndex.remove(docId);
+        textIndex.remove(docId);
+    }
+
+    /**
+     * Ids of the resumes listing the given skill, compared case-insensitively, in ascending order
+     */
+    public List<Long> findBySkill(String skill) {
+        long start = System.nanoTime();
+        int[] matches = skillIndex.docsWithAll(skillTerms(skill));
+        skillLookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return toIds(matches);
+    }
+
+    /**
+     * Ids of the resumes whose text contains every term of the keyword, in ascending order
+     */
+    public List<Long> findByText(String keyword) {
+        long start = System.nanoTime();
+        int[] matches = textIndex.docsWithAll(textTerms(keyword));
+        textLookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return toIds(matches);
+    }
+
+    /**
+     * Ids of the resumes listing at least minShared of the given skills, in ascending order.
+     * Resumes without any listed skill are always included, since the index cannot rule them out.
+     */
+    public List<Long> findCandidateResumeIds(Collection<String> skills, int minShared) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String skill : skills) {
+            addSkillTerm(terms, skill);
+        }
+
+        long start = System.nanoTime();
+        int[] matching = skillIndex.docsWithAtLeast(terms, minShared);
+        int[] withoutSkills = skillIndex.docsWithoutTerms();
+        skillLookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        int[] candidates = Arrays.copyOf(matching, matching.length + withoutSkills.length);
+        System.arraycopy(withoutSkills, 0, candidates, matching.length, withoutSkills.length);
+        Arrays.sort(candidates);
+        return toIds(candidates);
+    }
+
+    /**
+     * Split the stored comma-separated skill list into normalised skill names
+     */
+    private Set<String> skillTerms(String skills) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (skills == null) {
+            return terms;
+        }
+        for (String skill : skills.split(",")) {
+            addSkillTerm(terms, skill);
+        }
+        return terms;
+    }
+
+    private void addSkillTerm(Set<String> terms, String skill) {
+        String term = String.join(" ", engine.splitWords(skill.trim().toLowerCase()));
+        if (!term.isEmpty()) {
+            terms.add(term);
+        }
+    }
+
+    /**
+     * Tokenise text the way matching does, so "C++" and "Spring Boot" stay single terms
+     */
+    private Set<String> textTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String processed = engine.enhancedPreprocess(text);
+        if (!processed.isEmpty()) {
+            terms.addAll(Arrays.asList(engine.splitWords(processed)));
+        }
+        return terms;
+    }
+
+    private static List<Long> toIds(int[] docIds) {
+        List<Long> ids = new ArrayList<>(docIds.length);
+        for (int docId : docIds) {
+            ids.add((long) docId);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,398 @@
+package com.resumai.resumeparserservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable skill extraction engine shared by the similarity pipeline.
+ * Every regex, lookup table and alias used while extracting skills is compiled
+ * once when the bean is created, so extraction calls never touch Pattern.compile.
+ * Explicit terms and their aliases come from the {@link TechnicalVocabulary},
+ * which finds all of them in a single pass over the text.
+ */
+@Component
+public class SkillExtractionEngine {
+
+    // Text normalization
+    private static final Pattern SPRING_BOOT = Pattern.compile("\\bspring\\s+boot\\b");
+    private static final Pattern REST_API = Pattern.compile("\\brest\\s+api\\b");
+    private static final Pattern MACHINE_LEARNING = Pattern.compile("\\bmachine\\s+learning\\b");
+    private static final Pattern CI_CD = Pattern.compile("\\bci/cd\\b");
+    private static final Pattern C_PLUS_PLUS = Pattern.compile("\\bc\\+\\+");
+    private static final Pattern C_SHARP = Pattern.compile("\\bc#");
+    private static final Pattern NODE_JS = Pattern.compile("\\bnode\\.js\\b");
+    private static final Pattern REACT_JS = Pattern.compile("\\breact\\.js\\b");
+    private static final Pattern NON_ALPHANUMERIC_OR_SPACE = Pattern.compile("[^a-zA-Z0-9\\s]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Term extraction
+    private static final Pattern VERSIONED_CORE_LANGUAGE = Pattern.compile("\\b(java|python|node)\\s*(\\d+[+]?)\\b");
+    private static final Pattern ABBREVIATION = Pattern.compile("\\b[A-Z]{2,}\\b");
+    private static final Pattern BULLET_SEPARATOR = Pattern.compile("[\n\r•\\-\\*]");
+    private static final Pattern CAPITALIZED_TERM = Pattern.compile("\\b[A-Z][a-zA-Z0-9]*\\b");
+    private static final Pattern VERSIONED_TERM = Pattern.compile(
+        "\\b([a-zA-Z]+)\\s*(\\d+(?:\\.\\d+)?)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern REQUIREMENT_SEPARATOR = Pattern.compile("[,/\\-]|\\sand\\b|\\bor\\b");
+
+    private static final List<Pattern> TECHNICAL_PHRASES = List.of(
+        Pattern.compile("\\b[A-Z][a-z]+\\s+[A-Z][a-z]+\\b"), // Spring Boot, Machine Learning
+        Pattern.compile("\\b[a-zA-Z]+\\s*\\d+(\\.\\d+)?\\b"), // Java 8, Python 3.9
+        Pattern.compile("\\b[A-Z]{2,}\\b"), // AWS, SQL, API, REST
+        Pattern.compile("\\b[a-z]+\\.js\\b"), // React.js, Node.js
+        Pattern.compile("\\b[a-z]+\\.net\\b"), // .NET
+        Pattern.compile("\\b[A-Z][a-z]+[A-Z][a-z]+\\b") // CamelCase terms like JavaScript
+    );
+
+    /**
+     * Single alternation equivalent to the individual "contains pattern" checks,
+     * evaluated with find() against a lowercase alphanumeric word
+     */
+    private static final Pattern POTENTIAL_TECHNICAL_TERM = Pattern.compile(
+        "[a-z](?:script|lang|sql|ql)" +
+        "|framework|lib|api|sdk|orm|mvc|boot|spring|react|angular" +
+        "|tool|engine|server|client|kit|hub|lab" +
+        "|tech|dev|ops|ci|cd|ml|ai|db|nosql" +
+        "|cloud|aws|azure|docker|kubernetes|jenkins" +
+        "|\\.(?:js|py|java|cpp|rb|go|rs|php)$" +
+        "|\\d" +
+        "|xml|json|http|tcp|ssl|tls|jwt|oauth"
+    );
+
+    private static final Pattern PROGRAMMING_LANGUAGE = Pattern.compile(String.join("|",
+        "\\bjava\\b", "\\bpython\\b", "\\bjavascript\\b", "\\btypescript\\b", "\\bc\\+\\+\\b", "\\bc#\\b",
+        "\\bruby\\b", "\\bphp\\b", "\\bgo\\b", "\\brust\\b", "\\bkotlin\\b", "\\bscala\\b", "\\bswift\\b",
+        "\\bhtml\\b", "\\bcss\\b", "\\bsql\\b", "\\br\\b", "\\bmatlab\\b", "\\bperl\\b", "\\bshell\\b"
+    ), Pattern.CASE_INSENSITIVE);
+
+    // Term validation
+    private static final Pattern LONG_NUMBER = Pattern.compile("\\d{2}");
+    private static final Pattern MIXED_CASE = Pattern.compile("[a-z][A-Z]");
+    private static final Pattern LONG_WORD = Pattern.compile("\\w{15}");
+
+    // Keywords that typically precede requirements
+    private static final List<String> REQUIREMENT_KEYWORDS = List.of(
+        "experience with", "knowledge of", "proficient in", "familiar with",
+        "expertise in", "understanding of", "skills in", "background in",
+        "working with", "using", "developing with", "building with"
+    );
+
+    private static final Set<String> GENERIC_TERMS = Set.of(
+        "development", "programming", "software", "application", "system", "technology",
+        "solution", "platform", "framework", "language", "database", "server", "client",
+        "tools", "years", "experience", "skills", "knowledge", "understanding", "ability",
+        "required", "preferred", "must", "should", "strong", "excellent", "good", "solid"
+    );
+
+    private static final Set<String> COMMON_WORDS = Set.of(
+        "the", "and", "for", "are", "but", "not", "you", "all", "can", "had", "her", "was", "one", "our", "out", "day", "get", "has", "him", "his", "how", "man", "new", "now", "old", "see", "two", "way", "who", "boy", "did", "its", "let", "put", "say", "she", "too", "use",
+        "work", "experience", "years", "responsibilities", "requirements", "skills", "knowledge", "ability", "opportunity", "position", "role", "job", "company", "team", "business", "will", "must", "should", "good", "excellent", "strong", "proven", "successful"
+    );
+
+    private final TechnicalVocabulary vocabulary;
+    private final List<Pattern> requirementPatterns;
+
+    public SkillExtractionEngine(TechnicalVocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+        List<Pattern> patterns = new ArrayList<>(REQUIREMENT_KEYWORDS.size());
+        for (String keyword : REQUIREMENT_KEYWORDS) {
+            patterns.add(Pattern.compile(
+                keyword + "\\s+([a-zA-Z0-9\\s,/\\-\\.]+?)(?:\\.|,|;|\\band\\b|\\bor\\b|$)",
+                Pattern.CASE_INSENSITIVE
+            ));
+        }
+        this.requirementPatterns = List.copyOf(patterns);
+    }
+
+    /**
+     * Enhanced preprocessing that preserves technical terms better
+     */
+    public String enhancedPreprocess(String text) {
+        String processed = text.toLowerCase();
+        // Preserve specific technical patterns only
+        processed = SPRING_BOOT.matcher(processed).replaceAll("springboot");
+        processed = REST_API.matcher(processed).replaceAll("restapi");
+        processed = MACHINE_LEARNING.matcher(processed).replaceAll("machinelearning");
+        processed = CI_CD.matcher(processed).replaceAll("cicd");
+        processed = C_PLUS_PLUS.matcher(processed).replaceAll("cplusplus");
+        processed = C_SHARP.matcher(processed).replaceAll("csharp");
+        processed = NODE_JS.matcher(processed).replaceAll("nodejs");
+        processed = REACT_JS.matcher(processed).replaceAll("reactjs");
+        // Remove special characters but preserve alphanumeric and spaces
+        return collapseWhitespace(NON_ALPHANUMERIC_OR_SPACE.matcher(processed).replaceAll(" "));
+    }
+
+    /**
+     * Preprocess text by converting to lowercase and removing special characters
+     */
+    public String preprocess(String text) {
+        return collapseWhitespace(NON_ALPHANUMERIC_OR_SPACE.matcher(text.toLowerCase()).replaceAll(" "));
+    }
+
+    /**
+     * Split text on runs of whitespace
+     */
+    public String[] splitWords(String text) {
+        return WHITESPACE.split(text);
+    }
+
+    /**
+     * Remove every character that is not an ASCII letter or digit.
+     * Runs once per token, so it scans the characters instead of allocating a regex matcher.
+     */
+    public String stripNonAlphanumeric(String text) {
+        StringBuilder stripped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean alphanumeric = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+            if (!alphanumeric && stripped == null) {
+                stripped = new StringBuilder(text.length()).append(text, 0, i);
+            } else if (alphanumeric && stripped != null) {
+                stripped.append(c);
+            }
+        }
+        return stripped == null ? text : stripped.toString();
+    }
+
+    /**
+     * Extract explicit technical terms from text
+     */
+    public Set<String> extractExplicitTechnicalTerms(String text) {
+        // Vocabulary terms and aliases, whole words only, in one pass
+        Set<String> terms = vocabulary.findTerms(text);
+        String lowerText = text.toLowerCase();
+
+        // Check for versioned terms like "Java 11+", "Java 8"
+        Matcher versionMatcher = VERSIONED_CORE_LANGUAGE.matcher(lowerText);
+        while (versionMatcher.find()) {
+            String base = versionMatcher.group(1);
+            String version = versionMatcher.group(2);
+            terms.add(base);
+            terms.add(base + stripNonAlphanumeric(version));
+        }
+
+        // Check for compound terms that were preprocessed
+        if (terms.contains("springboot")) {
+            terms.add("spring");
+            terms.add("springboot");
+            terms.add("boot");
+        }
+
+        return terms;
+    }
+
+    /**
+     * Extract technical abbreviations and acronyms
+     */
+    public Set<String> extractTechnicalAbbreviations(String text) {
+        Set<String> abbreviations = new HashSet<>();
+
+        // Pattern for all-caps abbreviations (likely technical)
+        Matcher matcher = ABBREVIATION.matcher(text);
+        while (matcher.find()) {
+            String abbrev = matcher.group().toLowerCase();
+            if (abbrev.length() >= 2 && abbrev.length() <= 6) {
+                abbreviations.add(abbrev);
+            }
+        }
+
+        return abbreviations;
+    }
+
+    /**
+     * Extract skills from bullet points and lists
+     */
+    public Set<String> extractBulletPointSkills(String text) {
+        Set<String> skills = new HashSet<>();
+
+        // Split by common bullet point indicators
+        for (String line : BULLET_SEPARATOR.split(text)) {
+            line = line.trim();
+            if (line.length() > 5) { // Skip very short lines
+                for (String rawWord : splitWords(line.toLowerCase())) {
+                    String word = stripNonAlphanumeric(rawWord);
+                    if (word.length() > 2 && !isCommonWord(word) && !isGenericTerm(word)
+                            && isPotentialTechnicalTerm(word)) {
+                        skills.add(word);
+                    }
+                }
+            }
+        }
+
+        return skills;
+    }
+
+    /**
+     * Check if a word is likely a technical term based on patterns
+     */
+    public boolean isPotentialTechnicalTerm(String word) {
+        String cleanWord = stripNonAlphanumeric(word.toLowerCase());
+        return cleanWord.length() > 2 && POTENTIAL_TECHNICAL_TERM.matcher(cleanWord).find();
+    }
+
+    /**
+     * Extract technical phrases from job description
+     */
+    public Set<String> extractTechnicalPhrases(String text) {
+        Set<String> phrases = new HashSet<>();
+
+        for (Pattern pattern : TECHNICAL_PHRASES) {
+            Matcher m = pattern.matcher(text);
+            while (m.find()) {
+                String phrase = stripNonAlphanumeric(m.group().toLowerCase());
+                if (phrase.length() > 2) {
+                    phrases.add(phrase);
+                }
+            }
+        }
+
+        return phrases;
+    }
+
+    /**
+     * Extract terms that appear after requirement keywords
+     */
+    public Set<String> extractRequirementTerms(String text) {
+        Set<String> terms = new HashSet<>();
+
+        for (Pattern pattern : requirementPatterns) {
+            Matcher matcher = pattern.matcher(text);
+            while (matcher.find()) {
+                // Split by common separators and extract individual terms
+                for (String part : REQUIREMENT_SEPARATOR.split(matcher.group(1))) {
+                    String cleaned = NON_ALPHANUMERIC_OR_SPACE.matcher(part.trim().toLowerCase()).replaceAll("");
+                    if (cleaned.length() > 2 && !isCommonWord(cleaned)) {
+                        terms.add(WHITESPACE.matcher(cleaned).replaceAll(""));
+                    }
+                }
+            }
+        }
+
+        return terms;
+    }
+
+    /**
+     * Extract capitalized terms that are likely technical names
+     */
+    public Set<String> extractCapitalizedTerms(String text) {
+        Set<String> terms = new HashSet<>();
+
+        Matcher matcher = CAPITALIZED_TERM.matcher(text);
+        while (matcher.find()) {
+            String term = matcher.group().toLowerCase();
+            if (term.length() > 2 && !isCommonWord(term) && !isGenericTerm(term)) {
+                terms.add(term);
+            }
+        }
+
+        return terms;
+    }
+
+    /**
+     * Extract versioned terms (Java 8, Python 3.x, etc.)
+     */
+    public Set<String> extractVersionedTerms(String text) {
+        Set<String> terms = new HashSet<>();
+
+        Matcher matcher = VERSIONED_TERM.matcher(text);
+        while (matcher.find()) {
+            String tech = matcher.group(1).toLowerCase();
+            String version = matcher.group(2);
+
+            if (tech.length() > 2 && !isCommonWord(tech)) {
+                terms.add(tech); // Add base technology
+                terms.add(tech + version); // Add versioned term
+            }
+        }
+
+        return terms;
+    }
+
+    /**
+     * Extract programming languages and technologies
+     */
+    public Set<String> extractProgrammingLanguages(String text) {
+        Set<String> languages = new HashSet<>();
+
+        Matcher m = PROGRAMMING_LANGUAGE.matcher(text);
+        while (m.find()) {
+            languages.add(m.group().toLowerCase().trim());
+        }
+
+        return languages;
+    }
+
+    /**
+     * Generate alternative forms of a requirement for better matching
+     */
+    public String[] generateAlternatives(String requirement) {
+        Set<String> alternatives = new HashSet<>();
+
+        // Add the original
+        alternatives.add(requirement);
+
+        // Add plural/singular forms
+        if (requirement.endsWith("s") && requirement.length() > 3) {
+            alternatives.add(requirement.substring(0, requirement.length() - 1));
+        } else {
+            alternatives.add(requirement + "s");
+        }
+
+        alternatives.addAll(vocabulary.alternativesOf(requirement));
+
+        return alternatives.toArray(new String[0]);
+    }
+
+    /**
+     * Every vocabulary term, alias and related term occurring in the text, in one pass
+     */
+    public Set<String> findVocabularySurfaces(String text) {
+        return vocabulary.findSurfaceForms(text);
+    }
+
+    /**
+     * Digest of the loaded vocabulary, for invalidating features extracted with an older one
+     */
+    public String vocabularyDigest() {
+        return vocabulary.digest();
+    }
+
+    /**
+     * Check if a string is resolved by the vocabulary scan rather than a substring search
+     */
+    public boolean isVocabularySurface(String text) {
+        return vocabulary.isSurfaceForm(text);
+    }
+
+    /**
+     * Check if a term is a valid technical term (not garbage)
+     */
+    public boolean isValidTechnicalTerm(String term) {
+        // Filter out obviously broken terms
+        return !LONG_NUMBER.matcher(term).find() && // No long numbers
+               !MIXED_CASE.matcher(term).find() && // No mixed case (indicates joined words)
+               !term.contains("html") && // Filter out html fragments
+               !term.contains("file") && // Filter out file paths
+               !LONG_WORD.matcher(term).find(); // No extremely long concatenated words
+    }
+
+    /**
+     * Check if a term is too generic to be useful
+     */
+    public boolean isGenericTerm(String term) {
+        return GENERIC_TERMS.contains(term.toLowerCase());
+    }
+
+    /**
+     * Check if a word is a common word that shouldn't be considered a skill
+     */
+    public boolean isCommonWord(String word) {
+        return COMMON_WORDS.contains(word.toLowerCase());
+    }
+
+    private String collapseWhitespace(String text) {
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+}
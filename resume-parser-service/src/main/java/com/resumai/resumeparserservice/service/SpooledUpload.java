@@ -0,0 +1,88 @@
+package com.resumai.resumeparserservice.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.io.TikaInputStream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An uploaded file copied once from the request into a local file, together with what was learned
+ * while copying it: size, SHA-256 content hash and detected MIME type.
+ * Every later step reads the local file, and closing deletes it unless it was moved into the content store.
+ */
+@Getter
+@Slf4j
+public class SpooledUpload implements Closeable {
+
+    private Path path;
+    private final String originalFilename;
+    private final String contentType;
+    private final long size;
+    private final String contentHash;
+    private final String detectedType;
+    private boolean stored;
+    @Getter(AccessLevel.NONE)
+    private ContentStore contentStore;
+
+    SpooledUpload(Path path, String originalFilename, String contentType, long size,
+                  String contentHash, String detectedType) {
+        this.path = path;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.size = size;
+        this.contentHash = contentHash;
+        this.detectedType = detectedType;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Stream over the local copy that Tika can read as a file, e.g. for random access into PDFs
+     */
+    public TikaInputStream openTikaStream() throws IOException {
+        return TikaInputStream.get(path);
+    }
+
+    /**
+     * Record that the content is now in the content store; it is then read from there and kept on close
+     */
+    void storedIn(ContentStore store, Path blob) {
+        contentStore = store;
+        path = blob;
+        stored = true;
+    }
+
+    /**
+     * Delete the local copy, or release the reference to the stored content when it was stored.
+     * The reference is released once; the stored file itself is only ever deleted by garbage collection.
+     */
+    public void discard() {
+        if (stored) {
+            if (contentStore != null) {
+                contentStore.release(contentHash);
+                contentStore = null;
+            }
+            return;
+        }
+        close();
+    }
+
+    @Override
+    public void close() {
+        if (stored) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.entity.StoredFile;
+import com.resumai.resumeparserservice.repository.JobDescriptionRepository;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import com.resumai.resumeparserservice.repository.StoredFileRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Periodically reconciles the content store with the database: reference counts are recounted
+ * from the resumes and active job descriptions pointing at each file, unreferenced files and
+ * files without a stored_files row are deleted, and a sample of files is re-hashed to catch
+ * corruption. Anything changed within the grace period is left alone, since uploads in flight
+ * hold references that are not in the database yet.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StorageGarbageCollector {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ContentStore contentStore;
+    private final StoredFileRepository storedFileRepository;
+    private final ParsedResumeRepository parsedResumeRepository;
+    private final JobDescriptionRepository jobDescriptionRepository;
+    private final HashingService hashingService;
+    private final MeterRegistry meterRegistry;
+
+    // 0 disables the scheduled runs
+    @Value("${app.storage.gc-interval-minutes:60}")
+    private long intervalMinutes = 60;
+
+    @Value("${app.storage.gc-grace-minutes:60}")
+    private long graceMinutes = 60;
+
+    @Value("${app.storage.verify-per-run:100}")
+    private int verifyPerRun = 100;
+
+    private ScheduledExecutorService scheduler;
+    private final AtomicLong storedFiles = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("storage.files", storedFiles, AtomicLong::get)
+                .description("Files in the content store at the last garbage collection")
+                .register(meterRegistry);
+        Gauge.builder("storage.bytes", storedBytes, AtomicLong::get)
+                .description("Bytes in the content store at the last garbage collection")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        if (intervalMinutes > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "storage-gc");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::collectQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Run one reconciliation pass over the content store
+     */
+    public synchronized void collect() throws IOException {
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+        Map<String, Long> references = countReferences();
+
+        Map<String, StoredFile> rows = new HashMap<>();
+        int recounted = 0;
+        int unreferenced = 0;
+        int missing = 0;
+        for (StoredFile row : storedFileRepository.findAll()) {
+            String contentHash = row.getContentHash();
+            if (!row.getLastStoredAt().isBefore(cutoff)) {
+                rows.put(contentHash, row);
+                continue;
+            }
+            int count = references.getOrDefault(contentHash, 0L).intValue();
+            // Checked again under the lock, so the common case needs no extra query
+            if (row.getRefCount() != count && recount(contentHash, count, cutoff)) {
+                recounted++;
+            }
+            if (count == 0 && deleteUnreferenced(contentHash, cutoff)) {
+                unreferenced++;
+                continue;
+            }
+            if (!Files.exists(contentStore.pathOf(contentHash))) {
+                missing++;
+                log.error("Stored file {} is missing with {} references", contentHash, count);
+            }
+            rows.put(contentHash, row);
+        }
+
+        int orphans = deleteOrphans(rows.keySet(), cutoff);
+        int temps = deleteStaleTemps(cutoff);
+        int corrupt = verifySample(new ArrayList<>(rows.values()));
+
+        meterRegistry.counter("storage.gc.missing").increment(missing);
+        meterRegistry.counter("storage.gc.corrupt").increment(corrupt);
+        log.info("Storage GC in {} ms: {} files, {} bytes; recounted {}, deleted {} unreferenced, {} orphans, "
+                        + "{} temporary; {} missing, {} corrupt",
+                System.currentTimeMillis() - start, storedFiles.get(), storedBytes.get(), recounted, unreferenced,
+                orphans, temps, missing, corrupt);
+    }
+
+    private void collectQuietly() {
+        try {
+            collect();
+        } catch (Exception e) {
+            log.error("Storage garbage collection failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Number of resumes and active job descriptions per stored content hash
+     */
+    private Map<String, Long> countReferences() {
+        Map<String, Long> references = new HashMap<>();
+        List<Object[]> counts = new ArrayList<>(parsedResumeRepository.countByFilePath());
+        counts.addAll(jobDescriptionRepository.countActiveByFilePath());
+        for (Object[] count : counts) {
+            Optional<String> contentHash = contentStore.hashOf(Paths.get((String) count[0]));
+            contentHash.ifPresent(hash -> references.merge(hash, (Long) count[1], Long::sum));
+        }
+        return references;
+    }
+
+    /**
+     * Correct the reference count of a file that has not been stored again since the cutoff
+     */
+    private boolean recount(String contentHash, int count, LocalDateTime cutoff) {
+        synchronized (contentStore.lockFor(contentHash)) {
+            Optional<StoredFile> current = storedFileRepository.findById(contentHash);
+            if (current.isEmpty() || !current.get().getLastStoredAt().isBefore(cutoff)
+                    || current.get().getRefCount() == count) {
+                return false;
+            }
+            log.warn("Stored file {} had {} references, recounted {}", contentHash, current.get().getRefCount(), count);
+            current.get().setRefCount(count);
+            storedFileRepository.save(current.get());
+            return true;
+        }
+    }
+
+    /**
+     * Delete a file and its row if it is still unreferenced and was not stored again since the cutoff
+     */
+    private boolean deleteUnreferenced(String contentHash, LocalDateTime cutoff) throws IOException {
+        synchronized (contentStore.lockFor(contentHash)) {
+            Optional<StoredFile> current = storedFileRepository.findById(contentHash);
+            if (current.isEmpty() || current.get().getRefCount() > 0
+                    || !current.get().getLastStoredAt().isBefore(cutoff)) {
+                return false;
+            }
+            Files.deleteIfExists(contentStore.pathOf(contentHash));
+            storedFileRepository.delete(current.get());
+        }
+        meterRegistry.counter("storage.gc.deleted", "reason", "unreferenced").increment();
+        log.debug("Deleted unreferenced stored file {}", contentHash);
+        return true;
+    }
+
+    /**
+     * Delete stored files without a row, which are left by a store interrupted before its row was written,
+     * and count the files that stay
+     */
+    private int deleteOrphans(Set<String> known, LocalDateTime cutoff) throws IOException {
+        long cutoffMillis = cutoff.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(contentStore.getRoot(), 3)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(path -> !path.startsWith(contentStore.getTempDirectory()))
+                    .toList();
+        }
+
+        int deleted = 0;
+        long fileCount = 0;
+        long byteCount = 0;
+        for (Path file : files) {
+            Optional<String> contentHash = contentStore.hashOf(file);
+            if (contentHash.isEmpty()) {
+                log.warn("Unexpected file in the content store: {}", file);
+                continue;
+            }
+            if (!known.contains(contentHash.get()) && file.toFile().lastModified() < cutoffMillis) {
+                synchronized (contentStore.lockFor(contentHash.get())) {
+                    if (!storedFileRepository.existsById(contentHash.get())) {
+                        Files.deleteIfExists(file);
+                        meterRegistry.counter("storage.gc.deleted", "reason", "orphan").increment();
+                        log.warn("Deleted stored file {} without a stored_files row", file);
+                        deleted++;
+                        continue;
+                    }
+                }
+            }
+            fileCount++;
+            byteCount += file.toFile().length();
+        }
+        storedFiles.set(fileCount);
+        storedBytes.set(byteCount);
+        return deleted;
+    }
+
+    /**
+     * Delete temporary files of writes that never completed
+     */
+    private int deleteStaleTemps(LocalDateTime cutoff) throws IOException {
+        long cutoffMillis = cutoff.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<Path> stale;
+        try (Stream<Path> temps = Files.list(contentStore.getTempDirectory())) {
+            stale = temps.filter(path -> path.toFile().lastModified() < cutoffMillis).toList();
+        }
+        for (Path temp : stale) {
+            Files.deleteIfExists(temp);
+            meterRegistry.counter("storage.gc.deleted", "reason", "temporary").increment();
+        }
+        return stale.size();
+    }
+
+    /**
+     * Re-hash a random sample of stored files
+     * @return number of files whose size or content no longer matches their hash
+     */
+    private int verifySample(List<StoredFile> rows) {
+        Collections.shuffle(rows);
+        int corrupt = 0;
+        for (StoredFile row : rows.subList(0, Math.min(verifyPerRun, rows.size()))) {
+            Path file = contentStore.pathOf(row.getContentHash());
+            try {
+                if (!Files.exists(file)) {
+                    continue;
+                }
+                if (Files.size(file) != row.getSize() || !row.getContentHash().equals(hash(file))) {
+                    corrupt++;
+                    log.error("Stored file {} does not match its content hash", file);
+                }
+            } catch (IOException e) {
+                log.warn("Could not verify stored file {}: {}", file, e.getMessage());
+            }
+        }
+        return corrupt;
+    }
+
+    private String hash(Path file) throws IOException {
+        MessageDigest digest = hashingService.newFileDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return hashingService.bytesToHex(digest.digest());
+    }
+}
@@ -0,0 +1,189 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.TokenizedText;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writer that tokenizes text as it is written, so the similarity features of a large document
+ * are gathered without holding its tokens, or several normalized copies of it, all at once.
+ * Text is buffered up to a segment boundary at the start of a whitespace run and each segment is
+ * normalized exactly like {@link SkillExtractionEngine#enhancedPreprocess}; segments never end
+ * after "spring", "rest" or "machine", so the phrases joined by the normalization stay in one segment.
+ * Closing the writer tokenizes what is left; {@link #result()} is available from then on.
+ */
+public class StreamingTokenizer extends Writer {
+
+    // Segments are cut once this many characters are buffered
+    private static final int SEGMENT_CHARS = 64 * 1024;
+
+    // First words of the phrases enhancedPreprocess joins across whitespace
+    private static final String[] PHRASE_STARTS = {"spring", "rest", "machine"};
+
+    private final SkillExtractionEngine extractionEngine;
+    private final StringBuilder pending = new StringBuilder();
+    // Pending text before this position holds no segment boundary, so it is not scanned again
+    private int scannedTo;
+    private final StringBuilder processedText = new StringBuilder();
+    private final Map<String, Integer> termCounts = new HashMap<>();
+    private final Set<String> processedTokens = new HashSet<>();
+    private final Set<String> keywords = new HashSet<>();
+    private final Set<String> textTokens = new HashSet<>();
+    private int tokenCount;
+    private TokenizedText result;
+
+    public StreamingTokenizer(SkillExtractionEngine extractionEngine) {
+        this.extractionEngine = extractionEngine;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        ensureOpen();
+        for (int end = offset + length; offset < end; ) {
+            int count = Math.min(SEGMENT_CHARS, end - offset);
+            pending.append(chars, offset, count);
+            offset += count;
+            tokenizeCompleteSegments();
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        ensureOpen();
+        // Appended piece by piece; Writer would first copy the whole string into one array
+        for (int end = offset + length; offset < end; ) {
+            int count = Math.min(SEGMENT_CHARS, end - offset);
+            pending.append(text, offset, offset + count);
+            offset += count;
+            tokenizeCompleteSegments();
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+        if (result != null) {
+            return;
+        }
+        tokenize(pending.toString());
+        pending.setLength(0);
+        result = new TokenizedText(processedText.toString(), termCounts, tokenCount,
+                FuzzyTermMatcher.tokensByLength(processedTokens), keywords,
+                FuzzyTermMatcher.tokensByLength(textTokens));
+    }
+
+    /**
+     * Token statistics of everything written
+     * @throws IllegalStateException if the writer is still open
+     */
+    public TokenizedText result() {
+        if (result == null) {
+            throw new IllegalStateException("Tokenizer has not been closed");
+        }
+        return result;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (result != null) {
+            throw new IOException("Tokenizer is closed");
+        }
+    }
+
+    private void tokenizeCompleteSegments() {
+        if (pending.length() < SEGMENT_CHARS) {
+            return;
+        }
+        int cut = lastSegmentBoundary();
+        if (cut > 0) {
+            tokenize(pending.substring(0, cut));
+            pending.delete(0, cut);
+        }
+        // Whether a position is a boundary depends only on the text before it, so what was scanned stays scanned
+        scannedTo = pending.length();
+    }
+
+    /**
+     * Last position starting a whitespace run that does not follow the first word of a joined phrase.
+     * Only boundaries from the scan watermark on are new; the scan goes back further only to find
+     * the start of a word ending there.
+     * @return 0 when there is none yet
+     */
+    private int lastSegmentBoundary() {
+        int wordEnd = -1;
+        for (int i = pending.length() - 1; i > 0; i--) {
+            if (i < scannedTo && wordEnd < 0) {
+                return 0;
+            }
+            boolean space = isSpace(pending.charAt(i));
+            boolean previousSpace = isSpace(pending.charAt(i - 1));
+            if (space && !previousSpace) {
+                wordEnd = i;
+            } else if (!space && previousSpace && wordEnd > 0) {
+                if (!startsPhrase(pending, i, wordEnd)) {
+                    return wordEnd;
+                }
+                wordEnd = -1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Whether the word at [start, end) ends with the first word of a joined phrase, ignoring case
+     */
+    private static boolean startsPhrase(CharSequence text, int start, int end) {
+        for (String phraseStart : PHRASE_STARTS) {
+            int offset = end - phraseStart.length();
+            if (offset < start) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < phraseStart.length() && matches; i++) {
+                matches = Character.toLowerCase(text.charAt(offset + i)) == phraseStart.charAt(i);
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void tokenize(String segment) {
+        for (String token : extractionEngine.splitWords(extractionEngine.enhancedPreprocess(segment))) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (processedText.length() > 0) {
+                processedText.append(' ');
+            }
+            processedText.append(token);
+            tokenCount++;
+            if (token.length() > 2) {
+                termCounts.merge(token, 1, Integer::sum);
+            }
+            if (token.length() > 3 && !extractionEngine.isCommonWord(token)) {
+                keywords.add(token);
+            }
+            processedTokens.add(token);
+        }
+
+        for (String word : extractionEngine.splitWords(segment.toLowerCase())) {
+            textTokens.add(extractionEngine.stripNonAlphanumeric(word));
+        }
+    }
+
+    /**
+     * The characters \s matches in the normalization patterns
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,223 @@
+package com.resumai.resumeparserservice.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Immutable technical vocabulary: canonical terms, their aliases and the looser
+ * related terms accepted when a term is a job requirement. All surface forms are
+ * compiled into one Aho-Corasick automaton so a document is scanned once no matter
+ * how large the vocabulary grows.
+ *
+ * File format, one term per line ('#' starts a comment):
+ * <pre>
+ *   term [= alias, alias ...] [~ related, related ...]
+ * </pre>
+ */
+public final class TechnicalVocabulary {
+
+    private final List<String> terms;
+    private final Map<String, String> canonicalBySurface;
+    private final Map<String, List<String>> alternativesByTerm;
+    private final AhoCorasickMatcher matcher;
+    private final String[] canonicalByPattern;
+    private final String digest;
+
+    private TechnicalVocabulary(List<String> terms, Map<String, String> canonicalBySurface,
+                                Map<String, List<String>> alternativesByTerm) {
+        this.terms = List.copyOf(terms);
+        this.canonicalBySurface = Map.copyOf(canonicalBySurface);
+        this.alternativesByTerm = Map.copyOf(alternativesByTerm);
+
+        // Pattern index -> canonical term, or null for surfaces that are only related terms
+        Set<String> termSet = new HashSet<>(terms);
+        List<String> surfaces = new ArrayList<>(canonicalBySurface.keySet());
+        this.matcher = new AhoCorasickMatcher(surfaces);
+        this.canonicalByPattern = new String[surfaces.size()];
+        for (int i = 0; i < surfaces.size(); i++) {
+            String canonical = canonicalBySurface.get(surfaces.get(i));
+            canonicalByPattern[i] = termSet.contains(canonical) ? canonical : null;
+        }
+        this.digest = computeDigest();
+    }
+
+    /**
+     * Parse a vocabulary file
+     */
+    public static TechnicalVocabulary load(InputStream inputStream) throws IOException {
+        Map<String, String> canonicalBySurface = new LinkedHashMap<>();
+        Map<String, Set<String>> aliasesByTerm = new LinkedHashMap<>();
+        Map<String, Set<String>> relatedByTerm = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                line = line.trim().toLowerCase();
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                String related = "";
+                int tilde = line.indexOf('~');
+                if (tilde >= 0) {
+                    related = line.substring(tilde + 1);
+                    line = line.substring(0, tilde);
+                }
+                String aliases = "";
+                int equals = line.indexOf('=');
+                if (equals >= 0) {
+                    aliases = line.substring(equals + 1);
+                    line = line.substring(0, equals);
+                }
+
+                String term = line.trim();
+                if (term.isEmpty()) {
+                    throw new IllegalArgumentException("Missing term on vocabulary line " + lineNumber);
+                }
+                canonicalBySurface.putIfAbsent(term, term);
+                Set<String> termAliases = aliasesByTerm.computeIfAbsent(term, t -> new LinkedHashSet<>());
+                for (String alias : splitList(aliases)) {
+                    canonicalBySurface.putIfAbsent(alias, term);
+                    termAliases.add(alias);
+                }
+                relatedByTerm.computeIfAbsent(term, t -> new LinkedHashSet<>()).addAll(splitList(related));
+            }
+        }
+
+        // Related terms are scanned too, so requirement checks can read them from the same pass
+        for (Set<String> related : relatedByTerm.values()) {
+            for (String surface : related) {
+                canonicalBySurface.putIfAbsent(surface, null);
+            }
+        }
+
+        // Alternatives of a term: its aliases and related terms; an alias also accepts its term
+        Map<String, List<String>> alternativesByTerm = new HashMap<>();
+        for (String term : aliasesByTerm.keySet()) {
+            Set<String> alternatives = new LinkedHashSet<>(aliasesByTerm.get(term));
+            alternatives.addAll(relatedByTerm.get(term));
+            alternatives.remove(term);
+            if (!alternatives.isEmpty()) {
+                alternativesByTerm.put(term, List.copyOf(alternatives));
+            }
+            for (String alias : aliasesByTerm.get(term)) {
+                Set<String> aliasAlternatives = new LinkedHashSet<>();
+                aliasAlternatives.add(term);
+                aliasAlternatives.addAll(aliasesByTerm.get(term));
+                aliasAlternatives.remove(alias);
+                alternativesByTerm.merge(alias, List.copyOf(aliasAlternatives), TechnicalVocabulary::concat);
+            }
+        }
+
+        List<String> terms = new ArrayList<>(aliasesByTerm.keySet());
+        // Map.copyOf rejects null values, so related-only surfaces map to themselves but stay out of terms
+        canonicalBySurface.replaceAll((surface, canonical) -> canonical == null ? surface : canonical);
+        return new TechnicalVocabulary(terms, canonicalBySurface, alternativesByTerm);
+    }
+
+    /**
+     * Canonical vocabulary terms in file order
+     */
+    public List<String> terms() {
+        return terms;
+    }
+
+    /**
+     * Hash of the parsed vocabulary; changes whenever a term, alias or related term does,
+     * but not for comment or formatting edits
+     */
+    public String digest() {
+        return digest;
+    }
+
+    public int surfaceCount() {
+        return matcher.size();
+    }
+
+    /**
+     * Whether the string is a term, alias or related term known to the automaton
+     */
+    public boolean isSurfaceForm(String text) {
+        return canonicalBySurface.containsKey(text);
+    }
+
+    /**
+     * Canonical terms (not related terms) occurring as whole words, in one pass
+     */
+    public Set<String> findTerms(CharSequence text) {
+        Set<String> found = new HashSet<>();
+        BitSet hits = matcher.findWholeWords(text);
+        for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1)) {
+            if (canonicalByPattern[i] != null) {
+                found.add(canonicalByPattern[i]);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Every surface form (term, alias or related term) occurring as a whole word, in one pass
+     */
+    public Set<String> findSurfaceForms(CharSequence text) {
+        Set<String> found = new HashSet<>();
+        BitSet hits = matcher.findWholeWords(text);
+        for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1)) {
+            found.add(matcher.pattern(i));
+        }
+        return found;
+    }
+
+    /**
+     * Aliases and related terms accepted in place of the given term
+     */
+    public List<String> alternativesOf(String term) {
+        return alternativesByTerm.getOrDefault(term, List.of());
+    }
+
+    private String computeDigest() {
+        StringBuilder canonical = new StringBuilder();
+        canonical.append(String.join("\n", terms)).append("\n\n");
+        for (String surface : new TreeSet<>(canonicalBySurface.keySet())) {
+            canonical.append(surface).append('=').append(canonicalBySurface.get(surface)).append('\n');
+        }
+        canonical.append('\n');
+        for (String term : new TreeSet<>(alternativesByTerm.keySet())) {
+            canonical.append(term).append('~').append(String.join(",", alternativesByTerm.get(term))).append('\n');
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static List<String> splitList(String list) {
+        List<String> items = new ArrayList<>();
+        for (String item : list.split(",")) {
+            String trimmed = item.trim().replaceAll("\\s+", " ");
+            if (!trimmed.isEmpty()) {
+                items.add(trimmed);
+            }
+        }
+        return items;
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        Set<String> merged = new LinkedHashSet<>(first);
+        merged.addAll(second);
+        return List.copyOf(merged);
+    }
+}
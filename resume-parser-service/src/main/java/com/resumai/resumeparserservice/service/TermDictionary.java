@@ -0,0 +1,168 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.entity.TermDictionaryEntry;
+import com.resumai.resumeparserservice.repository.TermDictionaryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps every term seen in resumes and job descriptions to a dense int id.
+ * Ids are stored as they are assigned and never reused, since persisted vectors refer to them;
+ * an id becomes visible only once it is stored.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TermDictionary {
+
+    private final TermDictionaryRepository termDictionaryRepository;
+
+    private final Map<String, Integer> idsByTerm = new ConcurrentHashMap<>();
+    private final Map<Integer, String> termsById = new ConcurrentHashMap<>();
+    private final Object assignLock = new Object();
+    private int nextId;
+
+    // Terms with an id assigned but not stored yet, by the batch storing them; guarded by assignLock
+    private final Map<String, PendingTerms> pendingByTerm = new HashMap<>();
+
+    /**
+     * New terms stored together, completed once they are stored or the store failed
+     */
+    private static final class PendingTerms {
+        private final Map<String, Integer> idsByTerm = new HashMap<>();
+        private final CompletableFuture<Void> stored = new CompletableFuture<>();
+    }
+
+    @PostConstruct
+    void load() {
+        for (TermDictionaryEntry entry : termDictionaryRepository.findAll()) {
+            idsByTerm.put(entry.getTerm(), entry.getTermId());
+            termsById.put(entry.getTermId(), entry.getTerm());
+            nextId = Math.max(nextId, entry.getTermId() + 1);
+        }
+        log.info("Loaded term dictionary with {} terms", idsByTerm.size());
+    }
+
+    public int size() {
+        return idsByTerm.size();
+    }
+
+    /**
+     * Ids of the given terms in the same order, assigning and storing ids for new terms.
+     * New ids are stored outside the lock; callers needing a term another caller is storing wait for it.
+     * @throws RuntimeException the repository's exception if new terms could not be stored;
+     *         their ids are then released and assigned again by the next call
+     */
+    public int[] idsOf(List<String> terms) {
+        int[] ids = new int[terms.size()];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            Integer id = idsByTerm.get(terms.get(i));
+            if (id != null) {
+                ids[i] = id;
+            } else {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        PendingTerms batch = new PendingTerms();
+        List<TermDictionaryEntry> added = new ArrayList<>(missing.size());
+        Map<Integer, PendingTerms> pendingByIndex = new HashMap<>();
+        synchronized (assignLock) {
+            for (int index : missing) {
+                String term = terms.get(index);
+                Integer id = idsByTerm.get(term);
+                if (id != null) {
+                    ids[index] = id;
+                    continue;
+                }
+                PendingTerms pending = pendingByTerm.get(term);
+                if (pending == null) {
+                    pending = batch;
+                    pending.idsByTerm.put(term, nextId);
+                    added.add(new TermDictionaryEntry(nextId++, term));
+                    pendingByTerm.put(term, pending);
+                }
+                pendingByIndex.put(index, pending);
+            }
+        }
+
+        if (!added.isEmpty()) {
+            store(batch, added);
+        }
+        for (Map.Entry<Integer, PendingTerms> pending : pendingByIndex.entrySet()) {
+            if (pending.getValue() != batch) {
+                awaitStored(pending.getValue());
+            }
+            ids[pending.getKey()] = pending.getValue().idsByTerm.get(terms.get(pending.getKey()));
+        }
+        return ids;
+    }
+
+    /**
+     * Store a batch of new terms and make their ids visible, or release them if the store fails
+     */
+    private void store(PendingTerms batch, List<TermDictionaryEntry> added) {
+        try {
+            termDictionaryRepository.saveAll(added);
+        } catch (RuntimeException e) {
+            log.error("Could not store {} new dictionary term(s): {}", added.size(), e.getMessage());
+            synchronized (assignLock) {
+                added.forEach(entry -> pendingByTerm.remove(entry.getTerm()));
+                // Hand the ids out again unless later ones were assigned meanwhile; a gap is harmless
+                int firstId = added.get(0).getTermId();
+                if (nextId == firstId + added.size()) {
+                    nextId = firstId;
+                }
+            }
+            batch.stored.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (assignLock) {
+            for (TermDictionaryEntry entry : added) {
+                termsById.put(entry.getTermId(), entry.getTerm());
+                idsByTerm.put(entry.getTerm(), entry.getTermId());
+                pendingByTerm.remove(entry.getTerm());
+            }
+        }
+        batch.stored.complete(null);
+    }
+
+    private static void awaitStored(PendingTerms pending) {
+        try {
+            pending.stored.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Terms of the given ids in the same order
+     * @throws IllegalArgumentException if an id was never assigned
+     */
+    public String[] termsOf(int[] ids) {
+        String[] terms = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            String term = termsById.get(ids[i]);
+            if (term == null) {
+                throw new IllegalArgumentException("Unknown term id " + ids[i]);
+            }
+            terms[i] = term;
+        }
+        return terms;
+    }
+}
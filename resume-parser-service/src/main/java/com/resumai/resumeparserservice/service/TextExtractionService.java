@@ -1,24 +1,137 @@
 package com.resumai.resumeparserservice.service;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.Tika;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.fork.ForkParser;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.WriteOutContentHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.SAXException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Text extraction with Apache Tika, isolated so one pathological document degrades only its own request.
+ * Documents are parsed on a bounded parser pool under a wall-clock timeout counted from when the parse
+ * starts, with the extracted text written to a buffer capped at a maximum number of characters.
+ * In pooled mode the timeout is best-effort: the request gives up, but a parser stuck in CPU-bound work
+ * ignores the interrupt and keeps its thread. Such runaway parses are counted, and their threads replaced
+ * up to a limit so the pool keeps its capacity. In forked mode each parse runs in a separate JVM with its
+ * own heap limit, which is killed on timeout and also survives parser crashes and runaway memory use.
+ */
 @Service
 @Slf4j
 public class TextExtractionService {
 
     private final Tika tika;
+    private final Parser parser = new AutoDetectParser();
+    private final MeterRegistry meterRegistry;
+    private final ExtractedTextCache extractedTextCache;
 
-    public TextExtractionService() {
+    // "pooled" parses in this JVM, "forked" in child JVMs
+    @Value("${app.extraction.mode:pooled}")
+    private String mode = "pooled";
+
+    // 0 = one per CPU
+    @Value("${app.extraction.parser-threads:0}")
+    private int parserThreads;
+
+    @Value("${app.extraction.queue-capacity:100}")
+    private int queueCapacity = 100;
+
+    @Value("${app.extraction.timeout-ms:30000}")
+    private long timeoutMs = 30_000;
+
+    @Value("${app.extraction.max-chars:10485760}")
+    private int maxChars = 10 * 1024 * 1024;
+
+    @Value("${app.extraction.fork-heap:512m}")
+    private String forkHeap = "512m";
+
+    // Extra threads started to replace threads held by runaway parses; 0 = as many as parser threads
+    @Value("${app.extraction.max-runaway-replacements:0}")
+    private int maxRunawayReplacements;
+
+    private ThreadPoolExecutor parserPool;
+    private ForkParser forkParser;
+    private int threads;
+    private int runawayReplacementLimit;
+
+    // Parses given up after their timeout whose threads are still running them
+    private final AtomicInteger runawayParses = new AtomicInteger();
+
+    public TextExtractionService(MeterRegistry meterRegistry, ExtractedTextCache extractedTextCache) {
         this.tika = new Tika();
-        // Set maximum string length for extraction (10MB)
-        this.tika.setMaxStringLength(10 * 1024 * 1024);
+        this.meterRegistry = meterRegistry;
+        this.extractedTextCache = extractedTextCache;
+    }
+
+    @PostConstruct
+    void init() {
+        threads = parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+        runawayReplacementLimit = maxRunawayReplacements > 0 ? maxRunawayReplacements : threads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        parserPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "text-extraction-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        if ("forked".equalsIgnoreCase(mode)) {
+            forkParser = new ForkParser(TextExtractionService.class.getClassLoader(), new AutoDetectParser());
+            forkParser.setPoolSize(threads);
+            forkParser.setJavaCommand(List.of("java", "-Xmx" + forkHeap, "-Djava.awt.headless=true"));
+            forkParser.setServerParseTimeoutMillis(timeoutMs);
+        }
+
+        Gauge.builder("text.extraction.active", parserPool, ThreadPoolExecutor::getActiveCount)
+                .description("Documents being parsed")
+                .register(meterRegistry);
+        Gauge.builder("text.extraction.queue.depth", parserPool, pool -> pool.getQueue().size())
+                .description("Documents waiting for a parser thread")
+                .register(meterRegistry);
+        Gauge.builder("text.extraction.runaway", runawayParses, AtomicInteger::get)
+                .description("Parses given up after their timeout that still hold a parser thread")
+                .register(meterRegistry);
+        log.info("Text extraction: {} mode, {} parser threads, {} ms timeout, {} max characters",
+                forkParser != null ? "forked" : "pooled", threads, timeoutMs, maxChars);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        parserPool.shutdownNow();
+        if (forkParser != null) {
+            forkParser.close();
+        }
     }
 
     /**
@@ -35,10 +148,7 @@ public class TextExtractionService {
             throw new IllegalArgumentException("File is empty");
         }
 
-        String extractedText;
-        try (InputStream inputStream = file.getInputStream()) {
-            extractedText = tika.parseToString(inputStream);
-        }
+        String extractedText = parse(file::getInputStream, file.getOriginalFilename(), null, null).text();
 
         log.info("Successfully extracted {} characters from file: {}", 
                 extractedText.length(), file.getOriginalFilename());
@@ -46,7 +156,60 @@ public class TextExtractionService {
         return extractedText.trim();
     }
 
+    /**
+     * Extract text content from an upload already spooled to a local file,
+     * reusing the text of an earlier file with the same content
+     * @param upload The spooled upload
+     * @return Extracted text content
+     * @throws IOException If file reading fails
+     * @throws TikaException If text extraction fails
+     */
+    public String extractTextFromFile(SpooledUpload upload) throws IOException, TikaException {
+        return extractTextFromFile(upload, null);
+    }
 
+    /**
+     * Extract text content from a spooled upload, also streaming it to a writer as it is parsed,
+     * such as a {@link StreamingTokenizer}; the writer is closed once all text was written
+     * @param upload The spooled upload
+     * @param textSink Receives the same text as the result, in parse order; may be null
+     * @return Extracted text content
+     * @throws IOException If file reading fails
+     * @throws TikaException If text extraction fails
+     */
+    public String extractTextFromFile(SpooledUpload upload, Writer textSink) throws IOException, TikaException {
+        log.info("Starting text extraction from file: {}", upload.getOriginalFilename());
+
+        if (upload.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+
+        Optional<String> cached = extractedTextCache.get(upload.getContentHash(), upload.getSize());
+        if (cached.isPresent()) {
+            log.info("Reused {} cached characters for file: {}", cached.get().length(), upload.getOriginalFilename());
+            if (textSink != null) {
+                textSink.write(cached.get());
+                textSink.close();
+            }
+            return cached.get();
+        }
+
+        ParsedText parsed = parse(upload::openTikaStream, upload.getOriginalFilename(), upload.getDetectedType(),
+                textSink);
+        String extractedText = parsed.text().trim();
+        if (textSink != null) {
+            textSink.close();
+        }
+        // Cached by content alone, so text cut at the current limit would outlive a higher limit
+        if (!parsed.truncated()) {
+            extractedTextCache.put(upload.getContentHash(), extractedText);
+        }
+
+        log.info("Successfully extracted {} characters from file: {}",
+                extractedText.length(), upload.getOriginalFilename());
+
+        return extractedText;
+    }
 
     /**
      * Get detected MIME type of the file
@@ -60,6 +223,19 @@ public class TextExtractionService {
         }
     }
 
+    /**
+     * Get detected MIME type of a local file from its leading bytes, opening it as a container
+     * only for zip-based formats such as DOCX
+     * @param file Path of the local file
+     * @return Detected MIME type
+     * @throws IOException If file reading fails
+     */
+    public String detectFileType(Path file) throws IOException {
+        try (TikaInputStream inputStream = TikaInputStream.get(file)) {
+            return tika.detect(inputStream);
+        }
+    }
+
     /**
      * Validate if the file type is supported for resume uploads (PDF, DOC, DOCX, RTF, TXT)
      * @param contentType The MIME type of the file
@@ -92,4 +268,252 @@ public class TextExtractionService {
         );
     }
 
-} 
\ No newline at end of file
+    /**
+     * Opens the document to parse on the parser thread
+     */
+    @FunctionalInterface
+    private interface DocumentSource {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Text of a finished parse, and whether it was cut off at the character limit
+     */
+    private record ParsedText(String text, boolean truncated) {
+    }
+
+    /**
+     * Lifecycle of one parse, so exactly one of the parser thread and the waiting request decides its outcome
+     */
+    private static final class ParseState {
+        static final int QUEUED = 0;
+        static final int RUNNING = 1;
+        static final int FINISHED = 2;
+        static final int ABANDONED = 3;
+
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+        final AtomicLong startedAt = new AtomicLong();
+        volatile boolean abandonedQueued;
+    }
+
+    /**
+     * Parse a document on the parser pool, giving up once it has run for the timeout,
+     * or has waited as long for a parser thread
+     * @param typeHint MIME type already detected, used to tag metrics when the parse does not finish
+     * @param textSink also receives the text as the parser emits it, up to the same limit; may be null
+     */
+    private ParsedText parse(DocumentSource source, String fileName, String typeHint, Writer textSink)
+            throws IOException, TikaException {
+        long start = System.nanoTime();
+        Metadata metadata = new Metadata();
+        StringWriter text = new StringWriter();
+        WriteOutContentHandler output = new WriteOutContentHandler(
+                textSink != null ? new TeeWriter(text, textSink) : text, maxChars);
+
+        ParseState parseState = new ParseState();
+        Future<Boolean> parse;
+        try {
+            parse = parserPool.submit(() -> {
+                parseState.startedAt.set(System.nanoTime());
+                if (!parseState.state.compareAndSet(ParseState.QUEUED, ParseState.RUNNING)) {
+                    return false; // Given up while queued
+                }
+                try (InputStream inputStream = source.open()) {
+                    return parseTo(inputStream, output, metadata);
+                } finally {
+                    if (!parseState.state.compareAndSet(ParseState.RUNNING, ParseState.FINISHED)) {
+                        runawayFinished(fileName, parseState.startedAt.get());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            record(typeHint, "rejected", start);
+            throw new TikaException("Text extraction is overloaded, please retry shortly");
+        }
+
+        boolean truncated;
+        try {
+            truncated = await(parse, parseState, start, fileName);
+        } catch (TimeoutException e) {
+            if (parseState.abandonedQueued) {
+                record(typeHint, "queue_timeout", start);
+                log.warn("Text extraction of {} did not start within {} ms", fileName, timeoutMs);
+                throw new TikaException("Text extraction is overloaded, please retry shortly");
+            }
+            record(typeHint, "timeout", start);
+            log.warn("Text extraction of {} timed out after {} ms", fileName, timeoutMs);
+            throw new TikaException("Text extraction timed out after " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            abandon(parse, parseState, fileName);
+            Thread.currentThread().interrupt();
+            throw new TikaException("Text extraction interrupted", e);
+        } catch (ExecutionException e) {
+            record(mimeType(metadata, typeHint), "failure", start);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof TikaException tikaException) {
+                throw tikaException;
+            }
+            throw new TikaException("Text extraction failed: " + cause.getMessage(), cause);
+        }
+
+        record(mimeType(metadata, typeHint), truncated ? "truncated" : "success", start);
+        if (truncated) {
+            log.warn("Text of {} truncated at {} characters", fileName, maxChars);
+        }
+        return new ParsedText(text.toString(), truncated);
+    }
+
+    /**
+     * Wait for a parse: up to the timeout for it to start, then up to the timeout from when it started
+     * @return whether the text was truncated
+     * @throws TimeoutException once the parse has been given up
+     */
+    private boolean await(Future<Boolean> parse, ParseState parseState, long submittedAt, String fileName)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (true) {
+            long startedAt = parseState.startedAt.get();
+            long deadline = (startedAt != 0L ? startedAt : submittedAt) + timeoutNanos;
+            try {
+                return parse.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (parseState.startedAt.get() == startedAt && abandon(parse, parseState, fileName)) {
+                    throw e;
+                }
+                // It started or finished meanwhile; wait again with its own deadline
+            }
+        }
+    }
+
+    /**
+     * Give up a parse that has not finished, counting it as runaway if it already holds a parser thread
+     * @return false if the parse finished first
+     */
+    private boolean abandon(Future<Boolean> parse, ParseState parseState, String fileName) {
+        if (parseState.state.compareAndSet(ParseState.QUEUED, ParseState.ABANDONED)) {
+            parseState.abandonedQueued = true;
+            parse.cancel(false);
+            return true;
+        }
+        if (parseState.state.compareAndSet(ParseState.RUNNING, ParseState.ABANDONED)) {
+            parse.cancel(true);
+            int runaway = runawayParses.incrementAndGet();
+            resizeParserPool();
+            log.warn("Parse of {} is still running after being given up; {} runaway parse(s)", fileName, runaway);
+            return true;
+        }
+        return false;
+    }
+
+    private void runawayFinished(String fileName, long startedAt) {
+        runawayParses.decrementAndGet();
+        resizeParserPool();
+        log.info("Given-up parse of {} finished after {} ms", fileName,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Add a thread for each runaway parse, up to the replacement limit, so stuck parsers do not shrink the pool
+     */
+    private synchronized void resizeParserPool() {
+        int size = threads + Math.min(runawayParses.get(), runawayReplacementLimit);
+        if (size > parserPool.getMaximumPoolSize()) {
+            parserPool.setMaximumPoolSize(size);
+            parserPool.setCorePoolSize(size);
+        } else if (size < parserPool.getCorePoolSize()) {
+            parserPool.setCorePoolSize(size);
+            parserPool.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Parse into the bounded output, stopping quietly once it is full
+     * @return whether the text was truncated
+     */
+    private boolean parseTo(InputStream inputStream, WriteOutContentHandler output, Metadata metadata)
+            throws IOException, TikaException {
+        ParseContext context = new ParseContext();
+        Parser activeParser = parser;
+        if (forkParser != null) {
+            activeParser = forkParser;
+        } else {
+            // Recurse into embedded documents, as the Tika facade does
+            context.set(Parser.class, parser);
+        }
+
+        try {
+            activeParser.parse(inputStream, new BodyContentHandler(output), metadata, context);
+            return false;
+        } catch (SAXException | TikaException e) {
+            if (WriteLimitReachedException.isWriteLimitReached(e)) {
+                return true;
+            }
+            if (e instanceof TikaException tikaException) {
+                throw tikaException;
+            }
+            throw new TikaException("Unexpected SAX processing failure", e);
+        }
+    }
+
+    /**
+     * Writes the extracted text to the result buffer and to a sink at the same time
+     */
+    private static final class TeeWriter extends Writer {
+        private final Writer buffer;
+        private final Writer sink;
+
+        TeeWriter(Writer buffer, Writer sink) {
+            this.buffer = buffer;
+            this.sink = sink;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            buffer.write(chars, offset, length);
+            sink.write(chars, offset, length);
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            buffer.write(text, offset, length);
+            sink.write(text, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            buffer.flush();
+            sink.flush();
+        }
+
+        // The caller closes the sink once the parse is known to have finished
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private void record(String mimeType, String outcome, long start) {
+        meterRegistry.timer("text.extraction.parse",
+                "mime", mimeType != null ? mimeType : "unknown",
+                "outcome", outcome)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Base MIME type found by the parser, without parameters such as charset
+     */
+    private static String mimeType(Metadata metadata, String typeHint) {
+        String contentType = metadata.get(Metadata.CONTENT_TYPE);
+        if (contentType == null) {
+            contentType = typeHint;
+        }
+        if (contentType == null) {
+            return null;
+        }
+        int parameters = contentType.indexOf(';');
+        return (parameters >= 0 ? contentType.substring(0, parameters) : contentType).trim();
+    }
+}
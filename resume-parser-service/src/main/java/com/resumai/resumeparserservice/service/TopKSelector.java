@@ -0,0 +1,102 @@
+package com.resumai.resumeparserservice.service;
+
+/**
+ * Keeps the K best (score, id) pairs seen so far in a bounded binary min-heap of primitives.
+ * Higher scores rank first; equal scores rank the lower id first, matching a stable
+ * descending sort over ids offered in ascending order.
+ */
+public final class TopKSelector {
+
+    private final double[] scores;
+    private final int[] ids;
+    private int size;
+
+    public TopKSelector(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.scores = new double[capacity];
+        this.ids = new int[capacity];
+    }
+
+    /**
+     * Offer a candidate; it is kept only if it beats the current worst survivor
+     */
+    public void offer(int id, double score) {
+        if (size < scores.length) {
+            scores[size] = score;
+            ids[size] = id;
+            siftUp(size++);
+        } else if (isWorse(scores[0], ids[0], score, id)) {
+            scores[0] = score;
+            ids[0] = id;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every survivor and return their ids, best first
+     */
+    public int[] drainBestFirst() {
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = ids[0];
+            size--;
+            scores[0] = scores[size];
+            ids[0] = ids[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    /**
+     * Whether (scoreA, idA) ranks below (scoreB, idB)
+     */
+    private static boolean isWorse(double scoreA, int idA, double scoreB, int idB) {
+        int comparison = Double.compare(scoreA, scoreB);
+        return comparison < 0 || (comparison == 0 && idA > idB);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isWorse(scores[index], ids[index], scores[parent], ids[parent])) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                break;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && isWorse(scores[right], ids[right], scores[left], ids[left])) {
+                worst = right;
+            }
+            if (!isWorse(scores[worst], ids[worst], scores[index], ids[index])) {
+                break;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+    }
+}
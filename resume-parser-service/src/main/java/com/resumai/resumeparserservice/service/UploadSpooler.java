@@ -0,0 +1,99 @@
+package com.resumai.resumeparserservice.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copies an uploaded file out of the request exactly once, hashing it on the way to a local
+ * spool file and then detecting its type from the spooled leading bytes.
+ * The spool directory sits next to the upload directory so storing an upload is a rename.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSpooler {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final HashingService hashingService;
+    private final TextExtractionService textExtractionService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.upload.spool-dir:uploaded-resumes/.spool}")
+    private String spoolDir;
+
+    private Path spoolDirectory;
+    private DistributionSummary bytesRead;
+    private Timer spoolTimer;
+
+    @PostConstruct
+    void init() throws IOException {
+        spoolDirectory = Files.createDirectories(Paths.get(spoolDir));
+        bytesRead = DistributionSummary.builder("upload.bytes.read")
+                .description("Bytes read from the request stream per upload")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        spoolTimer = meterRegistry.timer("upload.spool");
+    }
+
+    /**
+     * Spool an uploaded file; the caller closes the result to delete the local copy
+     */
+    public SpooledUpload spool(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return spool(in, file.getOriginalFilename(), file.getContentType(), Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Spool one file from a stream the caller keeps open, such as the current entry of a zip archive
+     * @throws IllegalArgumentException if the file is larger than maxBytes
+     */
+    public SpooledUpload spool(InputStream in, String fileName, String contentType, long maxBytes) throws IOException {
+        long start = System.nanoTime();
+        Path spoolPath = Files.createTempFile(spoolDirectory, "upload-", ".part");
+        try {
+            MessageDigest digest = hashingService.newFileDigest();
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(spoolPath)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new IllegalArgumentException("File exceeds the maximum size of " + maxBytes + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            String detectedType = size == 0 ? null : textExtractionService.detectFileType(spoolPath);
+            bytesRead.record(size);
+            spoolTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Spooled {} ({} bytes, {}) to {}", fileName, size, detectedType, spoolPath);
+
+            return new SpooledUpload(spoolPath, fileName, contentType, size,
+                    hashingService.bytesToHex(digest.digest()), detectedType);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spoolPath);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.SparseVector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TF-IDF vector space over every stored resume and job description.
+ * Documents are kept as sparse term-frequency vectors; document frequencies are maintained as
+ * documents come and go, and the IDF table is rebuilt from them at most once per refresh interval.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VectorSpaceModel {
+
+    private final TermDictionary termDictionary;
+
+    @Value("${app.vectors.idf-refresh-ms:5000}")
+    private long idfRefreshMs;
+
+    // Guarded by this
+    private final Map<String, int[]> termIdsByDocument = new HashMap<>();
+    private int[] documentFrequencies = new int[1024];
+    private long generation;
+
+    private volatile boolean frequenciesChanged;
+    private volatile IdfTable idfTable = new IdfTable(new float[0], 1.0f, 0L, 0L);
+
+    /**
+     * Inverse document frequencies by term id, with the value used for terms no document contains
+     */
+    private record IdfTable(float[] idf, float missingIdf, long generation, long builtAt) {
+    }
+
+    /**
+     * Term-frequency vector of a document from the counts of its terms
+     */
+    public SparseVector termVector(Map<String, Integer> termCounts, int tokenCount) {
+        if (termCounts.isEmpty() || tokenCount == 0) {
+            return SparseVector.EMPTY;
+        }
+
+        List<String> terms = new ArrayList<>(termCounts.keySet());
+        int[] ids = termDictionary.idsOf(terms);
+
+        // Sort by term id, carrying the position of each term along in the low bits
+        long[] order = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            order[i] = ((long) ids[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] sortedIds = new int[ids.length];
+        float[] weights = new float[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            int position = (int) order[i];
+            sortedIds[i] = ids[position];
+            weights[i] = (float) termCounts.get(terms.get(position)) / tokenCount;
+        }
+        return new SparseVector(sortedIds, weights);
+    }
+
+    /**
+     * Count a document in the corpus statistics, replacing whatever was counted under its key
+     */
+    public synchronized void addDocument(String documentKey, SparseVector termVector) {
+        removeDocumentUnlocked(documentKey);
+        int[] termIds = termVector.getTermIds();
+        termIdsByDocument.put(documentKey, termIds);
+        for (int termId : termIds) {
+            if (termId >= documentFrequencies.length) {
+                documentFrequencies = Arrays.copyOf(documentFrequencies,
+                        Math.max(termId + 1, documentFrequencies.length * 2));
+            }
+            documentFrequencies[termId]++;
+        }
+        frequenciesChanged = true;
+    }
+
+    /**
+     * Drop a deleted or replaced document from the corpus statistics
+     */
+    public synchronized void removeDocument(String documentKey) {
+        removeDocumentUnlocked(documentKey);
+    }
+
+    public synchronized int documentCount() {
+        return termIdsByDocument.size();
+    }
+
+    /**
+     * Cosine similarity of two term-frequency vectors weighted by the corpus IDF.
+     * Each vector is weighted and normalised once per IDF table, so this is a merge-join dot product.
+     */
+    public double cosine(SparseVector a, SparseVector b) {
+        if (a == null || b == null || a.size() == 0 || b.size() == 0) {
+            return 0.0;
+        }
+        IdfTable table = currentIdfTable();
+        SparseVector unitA = a.weightedUnit(table.idf(), table.missingIdf(), table.generation());
+        SparseVector unitB = b.weightedUnit(table.idf(), table.missingIdf(), table.generation());
+        return Math.min(1.0, unitA.dot(unitB));
+    }
+
+    private IdfTable currentIdfTable() {
+        IdfTable table = idfTable;
+        if (frequenciesChanged && System.currentTimeMillis() - table.builtAt() >= idfRefreshMs) {
+            synchronized (this) {
+                if (frequenciesChanged && idfTable == table) {
+                    idfTable = buildIdfTable();
+                    frequenciesChanged = false;
+                }
+                table = idfTable;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Smoothed IDF: log((N + 1) / (df + 1)) + 1
+     */
+    private IdfTable buildIdfTable() {
+        int documents = termIdsByDocument.size();
+        int terms = documentFrequencies.length;
+        float[] idf = new float[terms];
+        for (int termId = 0; termId < terms; termId++) {
+            idf[termId] = (float) (Math.log((documents + 1.0) / (documentFrequencies[termId] + 1.0)) + 1.0);
+        }
+        float missingIdf = (float) (Math.log(documents + 1.0) + 1.0);
+
+        log.debug("Rebuilt IDF table over {} documents and {} terms", documents, termDictionary.size());
+        return new IdfTable(idf, missingIdf, ++generation, System.currentTimeMillis());
+    }
+
+    private void removeDocumentUnlocked(String documentKey) {
+        int[] termIds = termIdsByDocument.remove(documentKey);
+        if (termIds == null) {
+            return;
+        }
+        for (int termId : termIds) {
+            documentFrequencies[termId]--;
+        }
+        frequenciesChanged = true;
+    }
+}
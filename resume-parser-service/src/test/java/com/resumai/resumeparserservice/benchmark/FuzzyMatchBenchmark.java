@@ -0,0 +1,148 @@
+package com.resumai.resumeparserservice.benchmark;
+
+import com.resumai.resumeparserservice.service.FuzzyTermMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the fuzzy fallback of requirement matching for one job against one resume: the previous
+ * full-matrix Levenshtein over every re-split resume word versus the bounded matcher over the
+ * precomputed, deduplicated, length-sorted resume tokens.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.resumai.resumeparserservice.benchmark.FuzzyMatchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FuzzyMatchBenchmark {
+
+    private String lowerResume;
+    private String[] requirements;
+    private String[] resumeTokens;
+
+    @Setup
+    public void setUp() throws IOException {
+        lowerResume = readDoc("high_match_resume.html").toLowerCase();
+
+        // Distinct longer words of a job description stand in for its extracted requirements
+        Set<String> jobWords = new LinkedHashSet<>();
+        for (String word : readDoc("sample_job_description.txt").toLowerCase().split("\\s+")) {
+            String stripped = word.replaceAll("[^a-z0-9]", "");
+            if (stripped.length() > 3) {
+                jobWords.add(stripped);
+            }
+        }
+        requirements = jobWords.toArray(new String[0]);
+        resumeTokens = tokenize(lowerResume);
+    }
+
+    @Benchmark
+    public void legacyFullMatrix(Blackhole bh) {
+        for (String requirement : requirements) {
+            bh.consume(Legacy.matchesAnyWord(requirement, lowerResume));
+        }
+    }
+
+    @Benchmark
+    public void boundedPrecomputedTokens(Blackhole bh) {
+        for (String requirement : requirements) {
+            bh.consume(FuzzyTermMatcher.matchesAny(requirement, resumeTokens));
+        }
+    }
+
+    @Benchmark
+    public void boundedIncludingTokenization(Blackhole bh) {
+        String[] tokens = tokenize(lowerResume);
+        for (String requirement : requirements) {
+            bh.consume(FuzzyTermMatcher.matchesAny(requirement, tokens));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FuzzyMatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static String[] tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String word : text.split("\\s+")) {
+            tokens.add(word.replaceAll("[^a-zA-Z0-9]", ""));
+        }
+        return FuzzyTermMatcher.tokensByLength(tokens);
+    }
+
+    private String readDoc(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/docs/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Copy of the previous fuzzy fallback of SimilarityService.isRequirementInResume, kept only as the baseline
+     */
+    static final class Legacy {
+
+        static boolean matchesAnyWord(String lowerReq, String lowerResume) {
+            String[] resumeWords = lowerResume.split("\\s+");
+            for (String resumeWord : resumeWords) {
+                resumeWord = resumeWord.replaceAll("[^a-zA-Z0-9]", "");
+                if (resumeWord.length() > 2 && calculateLevenshteinSimilarity(lowerReq, resumeWord) > 0.75) {
+                    return true;
+                }
+                if (resumeWord.length() > lowerReq.length() && resumeWord.contains(lowerReq)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        static double calculateLevenshteinSimilarity(String s1, String s2) {
+            int maxLength = Math.max(s1.length(), s2.length());
+            if (maxLength == 0) return 1.0;
+
+            int distance = calculateLevenshteinDistance(s1, s2);
+            return 1.0 - (double) distance / maxLength;
+        }
+
+        static int calculateLevenshteinDistance(String s1, String s2) {
+            int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+
+            for (int i = 0; i <= s1.length(); i++) {
+                for (int j = 0; j <= s2.length(); j++) {
+                    if (i == 0) {
+                        dp[i][j] = j;
+                    } else if (j == 0) {
+                        dp[i][j] = i;
+                    } else {
+                        dp[i][j] = Math.min(
+                            dp[i - 1][j] + 1,
+                            Math.min(
+                                dp[i][j - 1] + 1,
+                                dp[i - 1][j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1)
+                            )
+                        );
+                    }
+                }
+            }
+
+            return dp[s1.length()][s2.length()];
+        }
+    }
+}
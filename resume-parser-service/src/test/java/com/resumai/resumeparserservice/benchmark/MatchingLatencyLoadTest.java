@@ -0,0 +1,144 @@
+package com.resumai.resumeparserservice.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resumai.resumeparserservice.entity.JobDescription;
+import com.resumai.resumeparserservice.repository.JobDescriptionRepository;
+import com.resumai.resumeparserservice.repository.JobSkillProfileRepository;
+import com.resumai.resumeparserservice.repository.TermDictionaryRepository;
+import com.resumai.resumeparserservice.service.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Upload matching latency (p50/p99) against job count, sequential versus parallel fan-out.
+ * The sequential, parallel and top-K paths are checked for equal results in ResumeMatchingServiceTest.
+ *
+ * Run with: mvn test -Dtest=MatchingLatencyLoadTest -Dmatching.loadtest=true
+ */
+@EnabledIfSystemProperty(named = "matching.loadtest", matches = "true")
+class MatchingLatencyLoadTest {
+
+    private static final int[] JOB_COUNTS = {50, 100, 200, 400};
+    private static final int WARMUP_UPLOADS = 5;
+    private static final int MEASURED_UPLOADS = 30;
+
+    private final JobDescriptionRepository jobRepository = mock(JobDescriptionRepository.class);
+    private ExecutorService executor;
+    private ResumeMatchingService matchingService;
+    private String resumeText;
+    private List<String> jobTexts;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.resumai")).setLevel(Level.WARN);
+
+        SkillExtractionEngine engine;
+        try (InputStream in = getClass().getResourceAsStream("/skills/technical-vocabulary.txt")) {
+            engine = new SkillExtractionEngine(TechnicalVocabulary.load(in));
+        }
+        VectorSpaceModel vectorSpaceModel = new VectorSpaceModel(new TermDictionary(mock(TermDictionaryRepository.class)));
+        SimilarityService similarityService = new SimilarityService(engine, vectorSpaceModel);
+        JobSkillProfileService profileService = new JobSkillProfileService(mock(JobSkillProfileRepository.class),
+                similarityService, new HashingService(), new ObjectMapper(), vectorSpaceModel);
+
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        matchingService = new ResumeMatchingService(
+                jobRepository, similarityService, profileService, executor, mock(JobSkillIndex.class));
+        ReflectionTestUtils.setField(matchingService, "jobTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(matchingService, "requestTimeoutMs", 60_000L);
+
+        resumeText = readDoc("high_match_resume.html");
+        jobTexts = List.of(
+                readDoc("sample_job_description.txt"),
+                readDoc("high_match_job_description.txt"),
+                readDoc("test_job_description.txt"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void reportUploadLatencyByJobCount() {
+        System.out.printf("%8s %10s %12s %12s %12s %12s%n",
+                "jobs", "threads", "seq p50 ms", "seq p99 ms", "par p50 ms", "par p99 ms");
+
+        for (int jobCount : JOB_COUNTS) {
+            when(jobRepository.findAll()).thenReturn(createJobs(jobCount));
+
+            double[] sequential = measure(false);
+            double[] parallel = measure(true);
+
+            System.out.printf("%8d %10d %12.1f %12.1f %12.1f %12.1f%n",
+                    jobCount, Runtime.getRuntime().availableProcessors(),
+                    percentile(sequential, 50), percentile(sequential, 99),
+                    percentile(parallel, 50), percentile(parallel, 99));
+        }
+    }
+
+    private double[] measure(boolean parallelEnabled) {
+        ReflectionTestUtils.setField(matchingService, "parallelEnabled", parallelEnabled);
+
+        // Warm-up uploads also build every job profile, as saving the jobs would have
+        for (int i = 0; i < WARMUP_UPLOADS; i++) {
+            matchingService.matchResumeWithAllJobs(resumeText);
+        }
+
+        double[] latenciesMs = new double[MEASURED_UPLOADS];
+        for (int i = 0; i < MEASURED_UPLOADS; i++) {
+            long start = System.nanoTime();
+            matchingService.matchResumeWithAllJobs(resumeText);
+            latenciesMs[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        return latenciesMs;
+    }
+
+    private List<JobDescription> createJobs(int count) {
+        List<JobDescription> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String text = jobTexts.get(i % jobTexts.size());
+            String[] sections = text.split("\n\n");
+
+            JobDescription job = new JobDescription();
+            job.setId((long) i + 1);
+            job.setTitle(sections[0].trim() + " #" + (i + 1));
+            job.setCompany("Company " + (i % 7));
+            job.setDescription(text);
+            job.setRequirements(sections.length > 2 ? sections[2] : null);
+            job.setResponsibilities(sections.length > 3 ? sections[3] : null);
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+    private static double percentile(double[] values, int percentile) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private String readDoc(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/docs/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
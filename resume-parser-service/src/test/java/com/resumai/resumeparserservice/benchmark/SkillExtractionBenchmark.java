@@ -0,0 +1,234 @@
+package com.resumai.resumeparserservice.benchmark;
+
+import com.resumai.resumeparserservice.repository.TermDictionaryRepository;
+import com.resumai.resumeparserservice.service.SimilarityService;
+import com.resumai.resumeparserservice.service.SkillExtractionEngine;
+import com.resumai.resumeparserservice.service.TechnicalVocabulary;
+import com.resumai.resumeparserservice.service.TermDictionary;
+import com.resumai.resumeparserservice.service.VectorSpaceModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Per-call cost of skill extraction with regexes compiled on every call (the
+ * previous SimilarityService implementation) versus the precompiled engine, and
+ * of the per-term contains() scan versus the single-pass vocabulary automaton.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.resumai.resumeparserservice.benchmark.SkillExtractionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SkillExtractionBenchmark {
+
+    private String jobText;
+    private String[] words;
+    private SkillExtractionEngine engine;
+    private SimilarityService similarityService;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/docs/sample_job_description.txt")) {
+            jobText = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        words = jobText.toLowerCase().split("\\s+");
+        try (InputStream in = getClass().getResourceAsStream("/skills/technical-vocabulary.txt")) {
+            engine = new SkillExtractionEngine(TechnicalVocabulary.load(in));
+        }
+        similarityService = new SimilarityService(engine,
+                new VectorSpaceModel(new TermDictionary(mock(TermDictionaryRepository.class))));
+    }
+
+    @Benchmark
+    public void legacyExplicitTechnicalTerms(Blackhole bh) {
+        bh.consume(Legacy.extractExplicitTechnicalTerms(jobText));
+    }
+
+    @Benchmark
+    public void engineExplicitTechnicalTerms(Blackhole bh) {
+        bh.consume(engine.extractExplicitTechnicalTerms(jobText));
+    }
+
+    @Benchmark
+    public void legacyRequirementTerms(Blackhole bh) {
+        bh.consume(Legacy.extractRequirementTerms(jobText));
+    }
+
+    @Benchmark
+    public void engineRequirementTerms(Blackhole bh) {
+        bh.consume(engine.extractRequirementTerms(jobText));
+    }
+
+    @Benchmark
+    public void legacyTechnicalPhrases(Blackhole bh) {
+        bh.consume(Legacy.extractTechnicalPhrases(jobText));
+    }
+
+    @Benchmark
+    public void engineTechnicalPhrases(Blackhole bh) {
+        bh.consume(engine.extractTechnicalPhrases(jobText));
+    }
+
+    @Benchmark
+    public void legacyProgrammingLanguages(Blackhole bh) {
+        bh.consume(Legacy.extractProgrammingLanguages(jobText));
+    }
+
+    @Benchmark
+    public void engineProgrammingLanguages(Blackhole bh) {
+        bh.consume(engine.extractProgrammingLanguages(jobText));
+    }
+
+    @Benchmark
+    public void legacyPotentialTechnicalTerm(Blackhole bh) {
+        for (String word : words) {
+            bh.consume(Legacy.isPotentialTechnicalTerm(word));
+        }
+    }
+
+    @Benchmark
+    public void enginePotentialTechnicalTerm(Blackhole bh) {
+        for (String word : words) {
+            bh.consume(engine.isPotentialTechnicalTerm(word));
+        }
+    }
+
+    @Benchmark
+    public void engineExtractSkills(Blackhole bh) {
+        bh.consume(similarityService.extractSkills(jobText));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SkillExtractionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * Copy of the previous per-call regex implementation, kept only as the baseline
+     */
+    static final class Legacy {
+
+        static final String[] EXPLICIT_TERMS = {
+            "java", "python", "javascript", "typescript", "react", "angular", "vue", "nodejs", "node",
+            "spring", "springboot", "mvc", "security", "hibernate", "jpa", "junit", "mockito", "testng",
+            "maven", "gradle", "swagger", "openapi",
+            "rest", "restful", "api", "apis", "json", "xml", "http", "https",
+            "microservices", "microservice", "distributed", "architecture", "patterns",
+            "docker", "kubernetes", "jenkins", "aws", "azure", "gcp", "ec2", "s3", "lambda",
+            "rds", "cloudformation", "terraform", "cicd", "devops",
+            "mysql", "postgresql", "mongodb", "redis", "elasticsearch", "sql", "nosql",
+            "git", "github", "gitlab", "kafka", "rabbitmq", "prometheus", "grafana",
+            "agile", "scrum", "kanban", "tdd",
+            "newrelic", "appdynamics", "testing", "integration", "automated"
+        };
+
+        static Set<String> extractExplicitTechnicalTerms(String text) {
+            Set<String> terms = new HashSet<>();
+            String lowerText = text.toLowerCase();
+            for (String term : EXPLICIT_TERMS) {
+                if (lowerText.contains(term)) {
+                    terms.add(term);
+                }
+            }
+            return terms;
+        }
+
+        static Set<String> extractRequirementTerms(String text) {
+            Set<String> terms = new HashSet<>();
+            String[] requirementKeywords = {
+                "experience with", "knowledge of", "proficient in", "familiar with",
+                "expertise in", "understanding of", "skills in", "background in",
+                "working with", "using", "developing with", "building with"
+            };
+            for (String keyword : requirementKeywords) {
+                java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
+                    keyword + "\\s+([a-zA-Z0-9\\s,/\\-\\.]+?)(?:\\.|,|;|\\band\\b|\\bor\\b|$)",
+                    java.util.regex.Pattern.CASE_INSENSITIVE
+                );
+                java.util.regex.Matcher matcher = pattern.matcher(text);
+                while (matcher.find()) {
+                    String[] parts = matcher.group(1).split("[,/\\-]|\\sand\\b|\\bor\\b");
+                    for (String part : parts) {
+                        String cleaned = part.trim().toLowerCase().replaceAll("[^a-zA-Z0-9\\s]", "");
+                        if (cleaned.length() > 2) {
+                            terms.add(cleaned.replaceAll("\\s+", ""));
+                        }
+                    }
+                }
+            }
+            return terms;
+        }
+
+        static Set<String> extractTechnicalPhrases(String text) {
+            Set<String> phrases = new HashSet<>();
+            String[] patterns = {
+                "\\b[A-Z][a-z]+\\s+[A-Z][a-z]+\\b",
+                "\\b[a-zA-Z]+\\s*\\d+(\\.\\d+)?\\b",
+                "\\b[A-Z]{2,}\\b",
+                "\\b[a-z]+\\.js\\b",
+                "\\b[a-z]+\\.net\\b",
+                "\\b[A-Z][a-z]+[A-Z][a-z]+\\b"
+            };
+            for (String pattern : patterns) {
+                java.util.regex.Matcher m = java.util.regex.Pattern.compile(pattern).matcher(text);
+                while (m.find()) {
+                    String phrase = m.group().toLowerCase()
+                        .replaceAll("\\s+", "")
+                        .replaceAll("[^a-zA-Z0-9]", "");
+                    if (phrase.length() > 2) {
+                        phrases.add(phrase);
+                    }
+                }
+            }
+            return phrases;
+        }
+
+        static Set<String> extractProgrammingLanguages(String text) {
+            Set<String> languages = new HashSet<>();
+            String[] langPatterns = {
+                "\\bjava\\b", "\\bpython\\b", "\\bjavascript\\b", "\\btypescript\\b", "\\bc\\+\\+\\b", "\\bc#\\b",
+                "\\bruby\\b", "\\bphp\\b", "\\bgo\\b", "\\brust\\b", "\\bkotlin\\b", "\\bscala\\b", "\\bswift\\b",
+                "\\bhtml\\b", "\\bcss\\b", "\\bsql\\b", "\\br\\b", "\\bmatlab\\b", "\\bperl\\b", "\\bshell\\b"
+            };
+            for (String pattern : langPatterns) {
+                java.util.regex.Matcher m = java.util.regex.Pattern.compile(
+                    pattern, java.util.regex.Pattern.CASE_INSENSITIVE).matcher(text);
+                while (m.find()) {
+                    languages.add(m.group().toLowerCase().trim());
+                }
+            }
+            return languages;
+        }
+
+        static boolean isPotentialTechnicalTerm(String word) {
+            String cleanWord = word.toLowerCase().replaceAll("[^a-zA-Z0-9]", "");
+            return cleanWord.length() > 2 && (
+                cleanWord.matches(".*[a-z]+(script|lang|sql|ql).*") ||
+                cleanWord.matches(".*(framework|lib|api|sdk|orm|mvc|boot|spring|react|angular).*") ||
+                cleanWord.matches(".*(tool|engine|server|client|kit|hub|lab).*") ||
+                cleanWord.matches(".*(tech|dev|ops|ci|cd|ml|ai|db|nosql).*") ||
+                cleanWord.matches(".*(cloud|aws|azure|docker|kubernetes|jenkins).*") ||
+                cleanWord.matches(".*\\.(js|py|java|cpp|rb|go|rs|php)$") ||
+                cleanWord.matches(".*\\d+.*") ||
+                cleanWord.matches(".*(xml|json|http|tcp|ssl|tls|jwt|oauth).*")
+            );
+        }
+    }
+}
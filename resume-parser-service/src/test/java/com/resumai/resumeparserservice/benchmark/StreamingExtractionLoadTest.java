@@ -0,0 +1,256 @@
+package com.resumai.resumeparserservice.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.repository.TermDictionaryRepository;
+import com.resumai.resumeparserservice.service.ExtractedTextCache;
+import com.resumai.resumeparserservice.service.FuzzyTermMatcher;
+import com.resumai.resumeparserservice.service.HashingService;
+import com.resumai.resumeparserservice.service.SimilarityService;
+import com.resumai.resumeparserservice.service.SkillExtractionEngine;
+import com.resumai.resumeparserservice.service.SpooledUpload;
+import com.resumai.resumeparserservice.service.StreamingTokenizer;
+import com.resumai.resumeparserservice.service.TechnicalVocabulary;
+import com.resumai.resumeparserservice.service.TermDictionary;
+import com.resumai.resumeparserservice.service.TextExtractionService;
+import com.resumai.resumeparserservice.service.UploadSpooler;
+import com.resumai.resumeparserservice.service.VectorSpaceModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Heap used per resume upload for 1-10 MB of extracted text: the previous pipeline, which
+ * materialized the text, normalized the whole string with a chain of regex replacements and split
+ * it into token arrays twice per feature computation, and computed the features once for matching
+ * and again for the stored profile, versus tokenizing the text segment by segment while Tika
+ * emits it and computing the features once.
+ * Peak heap is the high-water mark of used heap above the post-GC baseline, sampled every millisecond,
+ * so it also counts garbage not yet collected; allocated bytes are summed over all threads.
+ * That streaming tokenization gives the same tokens as whole-text normalization is checked in StreamingTokenizerTest.
+ *
+ * Run with: mvn test -Dtest=StreamingExtractionLoadTest -Dextraction.loadtest=true
+ */
+@EnabledIfSystemProperty(named = "extraction.loadtest", matches = "true")
+class StreamingExtractionLoadTest {
+
+    private static final int[] TEXT_SIZES_MB = {1, 5, 10};
+    private static final int WARMUP_UPLOADS = 2;
+    private static final int MEASURED_UPLOADS = 7;
+
+    @TempDir
+    Path tempDir;
+
+    private SkillExtractionEngine engine;
+    private VectorSpaceModel vectorSpaceModel;
+    private SimilarityService similarityService;
+    private TextExtractionService textExtractionService;
+    private UploadSpooler spooler;
+    private String resumeText;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.resumai")).setLevel(Level.WARN);
+
+        try (InputStream in = getClass().getResourceAsStream("/skills/technical-vocabulary.txt")) {
+            engine = new SkillExtractionEngine(TechnicalVocabulary.load(in));
+        }
+        vectorSpaceModel = new VectorSpaceModel(new TermDictionary(mock(TermDictionaryRepository.class)));
+        similarityService = new SimilarityService(engine, vectorSpaceModel);
+
+        // Every measured upload is the same document, so the text cache would turn them all into hits
+        ExtractedTextCache extractedTextCache = new ExtractedTextCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(extractedTextCache, "enabled", false);
+        ReflectionTestUtils.invokeMethod(extractedTextCache, "init");
+        textExtractionService = new TextExtractionService(new SimpleMeterRegistry(), extractedTextCache);
+        ReflectionTestUtils.setField(textExtractionService, "maxChars", 64 * 1024 * 1024);
+        ReflectionTestUtils.invokeMethod(textExtractionService, "init");
+        spooler = new UploadSpooler(new HashingService(), textExtractionService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(spooler, "spoolDir", tempDir.resolve(".spool").toString());
+        ReflectionTestUtils.invokeMethod(spooler, "init");
+
+        resumeText = readDoc("high_match_resume.html").replaceAll("<[^>]+>", " ");
+    }
+
+    @Test
+    void reportHeapPerUploadBySize() throws Exception {
+        System.out.printf("%8s %14s %14s %14s %14s%n",
+                "text MB", "old peak MB", "new peak MB", "old alloc MB", "new alloc MB");
+
+        for (int sizeMb : TEXT_SIZES_MB) {
+            byte[] document = createDocument(sizeMb * 1024 * 1024);
+            double[] legacy = measure(document, true);
+            double[] streaming = measure(document, false);
+
+            System.out.printf("%8d %14.1f %14.1f %14.1f %14.1f%n",
+                    sizeMb, legacy[0], streaming[0], legacy[1], streaming[1]);
+        }
+    }
+
+    /**
+     * Median peak heap and allocation in MB over the measured uploads
+     */
+    private double[] measure(byte[] document, boolean legacy) throws Exception {
+        for (int i = 0; i < WARMUP_UPLOADS; i++) {
+            upload(document, legacy);
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double[] peaks = new double[MEASURED_UPLOADS];
+        double[] allocations = new double[MEASURED_UPLOADS];
+
+        for (int i = 0; i < MEASURED_UPLOADS; i++) {
+            System.gc();
+            long baseline = memory.getHeapMemoryUsage().getUsed();
+            AtomicLong peak = new AtomicLong(baseline);
+            AtomicBoolean sampling = new AtomicBoolean(true);
+            Thread sampler = new Thread(() -> {
+                while (sampling.get()) {
+                    peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            sampler.setDaemon(true);
+            sampler.start();
+
+            long allocatedBefore = allocatedBytes(threads);
+            upload(document, legacy);
+            long allocatedAfter = allocatedBytes(threads);
+
+            sampling.set(false);
+            sampler.join();
+            peaks[i] = (peak.get() - baseline) / 1048576.0;
+            allocations[i] = (allocatedAfter - allocatedBefore) / 1048576.0;
+        }
+        return new double[] {median(peaks), median(allocations)};
+    }
+
+    /**
+     * One upload's extraction and feature work through either pipeline
+     */
+    private void upload(byte[] document, boolean legacy) throws Exception {
+        try (SpooledUpload upload = spool(document)) {
+            if (legacy) {
+                String text = textExtractionService.extractTextFromFile(upload);
+                similarityService.extractSkills(text);
+                // Once for matching, once for the stored feature profile
+                Legacy.prepareResume(text, engine, vectorSpaceModel, similarityService);
+                Legacy.prepareResume(text, engine, vectorSpaceModel, similarityService);
+            } else {
+                StreamingTokenizer tokenizer = similarityService.newTokenizer();
+                String text = textExtractionService.extractTextFromFile(upload, tokenizer);
+                similarityService.prepareResume(text, tokenizer.result());
+            }
+        }
+    }
+
+    private SpooledUpload spool(byte[] document) throws IOException {
+        return spooler.spool(new ByteArrayInputStream(document), "resume.txt", "text/plain", Long.MAX_VALUE);
+    }
+
+    /**
+     * The sample resume repeated up to the target size as a plain text document
+     */
+    private byte[] createDocument(int targetChars) {
+        StringBuilder text = new StringBuilder(targetChars + resumeText.length());
+        while (text.length() < targetChars) {
+            text.append(resumeText).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private String readDoc(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/docs/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * The previous whole-string feature computation, kept only as the baseline
+     */
+    static final class Legacy {
+
+        private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-zA-Z0-9]");
+
+        static ResumeFeatures prepareResume(String resumeText, SkillExtractionEngine engine,
+                                            VectorSpaceModel vectorSpaceModel, SimilarityService similarityService) {
+            String processed = engine.enhancedPreprocess(resumeText);
+            String[] tokens = engine.splitWords(processed);
+
+            String lowerText = resumeText.toLowerCase();
+
+            Map<String, Integer> counts = new HashMap<>();
+            for (String token : tokens) {
+                if (token.length() > 2) {
+                    counts.merge(token, 1, Integer::sum);
+                }
+            }
+            Set<String> keywords = Arrays.stream(tokens)
+                    .filter(word -> word.length() > 3)
+                    .filter(word -> !engine.isCommonWord(word))
+                    .collect(Collectors.toSet());
+
+            return new ResumeFeatures(
+                    processed,
+                    engine.findVocabularySurfaces(processed),
+                    fuzzyMatchTokens(tokens),
+                    vectorSpaceModel.termVector(counts, tokens.length),
+                    keywords,
+                    lowerText,
+                    engine.findVocabularySurfaces(resumeText),
+                    fuzzyMatchTokens(engine.splitWords(lowerText)),
+                    similarityService.extractSkills(resumeText),
+                    null,
+                    null);
+        }
+
+        private static String[] fuzzyMatchTokens(String[] words) {
+            List<String> tokens = new ArrayList<>(words.length);
+            for (String word : words) {
+                tokens.add(NON_ALPHANUMERIC.matcher(word).replaceAll(""));
+            }
+            return FuzzyTermMatcher.tokensByLength(tokens);
+        }
+    }
+}
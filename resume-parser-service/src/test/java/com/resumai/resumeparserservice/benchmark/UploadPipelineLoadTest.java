@@ -0,0 +1,281 @@
+package com.resumai.resumeparserservice.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.resumai.resumeparserservice.repository.StoredFileRepository;
+import com.resumai.resumeparserservice.service.ContentStore;
+import com.resumai.resumeparserservice.service.ExtractedTextCache;
+import com.resumai.resumeparserservice.service.HashingService;
+import com.resumai.resumeparserservice.service.SpooledUpload;
+import com.resumai.resumeparserservice.service.TextExtractionService;
+import com.resumai.resumeparserservice.service.UploadSpooler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.tika.exception.TikaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Bytes read from the request stream and latency per resume upload for 5-10 MB PDFs: the previous
+ * pipeline, which re-opened the multipart stream for detection, hashing, the disk copy, Tika and
+ * hashing again, versus spooling it once and working from the local copy.
+ *
+ * Run with: mvn test -Dtest=UploadPipelineLoadTest -Dupload.loadtest=true
+ */
+@EnabledIfSystemProperty(named = "upload.loadtest", matches = "true")
+class UploadPipelineLoadTest {
+
+    private static final int[] PDF_SIZES_MB = {5, 7, 9};
+    private static final int WARMUP_UPLOADS = 3;
+    private static final int MEASURED_UPLOADS = 15;
+
+    @TempDir
+    Path tempDir;
+
+    private final HashingService hashingService = new HashingService();
+    private final ExtractedTextCache extractedTextCache = new ExtractedTextCache(new SimpleMeterRegistry());
+    private final TextExtractionService textExtractionService =
+            new TextExtractionService(new SimpleMeterRegistry(), extractedTextCache);
+    private UploadSpooler spooler;
+    private ContentStore contentStore;
+    private Path uploadDir;
+    private List<String> resumeLines;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.resumai")).setLevel(Level.WARN);
+
+        // Every measured upload is the same PDF, so the text cache would turn them all into hits
+        ReflectionTestUtils.setField(extractedTextCache, "enabled", false);
+        ReflectionTestUtils.invokeMethod(extractedTextCache, "init");
+        ReflectionTestUtils.invokeMethod(textExtractionService, "init");
+        spooler = new UploadSpooler(hashingService, textExtractionService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(spooler, "spoolDir", tempDir.resolve(".spool").toString());
+        ReflectionTestUtils.invokeMethod(spooler, "init");
+        uploadDir = Files.createDirectories(tempDir.resolve("uploads"));
+        contentStore = new ContentStore(mock(StoredFileRepository.class), hashingService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(contentStore, "storageDir", tempDir.resolve("content-store").toString());
+        ReflectionTestUtils.invokeMethod(contentStore, "init");
+
+        String resume = readDoc("high_match_resume.html").replaceAll("<[^>]+>", " ");
+        resumeLines = new ArrayList<>();
+        for (String line : resume.split("\n")) {
+            String ascii = line.replaceAll("[^\\x20-\\x7E]", "").trim();
+            if (!ascii.isEmpty() && resumeLines.size() < 45) {
+                resumeLines.add(ascii.length() > 90 ? ascii.substring(0, 90) : ascii);
+            }
+        }
+    }
+
+    @Test
+    void reportBytesReadAndLatencyBySize() throws Exception {
+        System.out.printf("%8s %14s %14s %12s %12s %12s %12s%n",
+                "pdf MB", "old read MB", "new read MB", "old p50 ms", "old p99 ms", "new p50 ms", "new p99 ms");
+
+        for (int sizeMb : PDF_SIZES_MB) {
+            byte[] pdf = createPdf(sizeMb * 1024 * 1024);
+
+            long[] oldBytes = new long[1];
+            long[] newBytes = new long[1];
+            double[] legacy = measure(pdf, true, oldBytes);
+            double[] spooled = measure(pdf, false, newBytes);
+
+            System.out.printf("%8.1f %14.1f %14.1f %12.1f %12.1f %12.1f %12.1f%n",
+                    pdf.length / 1048576.0, oldBytes[0] / 1048576.0, newBytes[0] / 1048576.0,
+                    percentile(legacy, 50), percentile(legacy, 99),
+                    percentile(spooled, 50), percentile(spooled, 99));
+        }
+    }
+
+    @Test
+    void spooledPipelineReadsOnceAndMatchesLegacy() throws Exception {
+        byte[] pdf = createPdf(5 * 1024 * 1024);
+
+        CountingMultipartFile legacyFile = new CountingMultipartFile(pdf);
+        Legacy.Result legacy = Legacy.process(legacyFile, uploadDir, hashingService, textExtractionService);
+
+        CountingMultipartFile spooledFile = new CountingMultipartFile(pdf);
+        try (SpooledUpload upload = spooler.spool(spooledFile)) {
+            contentStore.store(upload);
+            String text = textExtractionService.extractTextFromFile(upload);
+
+            assertEquals(legacy.detectedType, upload.getDetectedType());
+            assertEquals(legacy.contentHash, upload.getContentHash());
+            assertEquals(legacy.text, text);
+        }
+        assertEquals(pdf.length, spooledFile.bytesRead);
+        assertEquals(1, spooledFile.opens);
+    }
+
+    private double[] measure(byte[] pdf, boolean legacy, long[] bytesPerUpload) throws Exception {
+        for (int i = 0; i < WARMUP_UPLOADS; i++) {
+            upload(pdf, legacy);
+        }
+
+        double[] latenciesMs = new double[MEASURED_UPLOADS];
+        for (int i = 0; i < MEASURED_UPLOADS; i++) {
+            long start = System.nanoTime();
+            bytesPerUpload[0] = upload(pdf, legacy);
+            latenciesMs[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        return latenciesMs;
+    }
+
+    /**
+     * One upload through either pipeline, returning the bytes read from the request stream
+     */
+    private long upload(byte[] pdf, boolean legacy) throws IOException, TikaException {
+        CountingMultipartFile file = new CountingMultipartFile(pdf);
+        if (legacy) {
+            Legacy.process(file, uploadDir, hashingService, textExtractionService);
+        } else {
+            try (SpooledUpload upload = spooler.spool(file)) {
+                contentStore.store(upload);
+                textExtractionService.extractTextFromFile(upload);
+            }
+        }
+        return file.bytesRead;
+    }
+
+    /**
+     * A one-page text resume plus an incompressible embedded image sized to reach the target,
+     * standing in for a scanned or image-heavy PDF
+     */
+    private byte[] createPdf(int targetBytes) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+
+            int side = (int) Math.sqrt(targetBytes / 3.0);
+            BufferedImage noise = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+            Random random = new Random(targetBytes);
+            for (int y = 0; y < side; y++) {
+                for (int x = 0; x < side; x++) {
+                    noise.setRGB(x, y, random.nextInt(0x1000000));
+                }
+            }
+            PDImageXObject image = LosslessFactory.createFromImage(document, noise);
+
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 9);
+                content.setLeading(11);
+                content.newLineAtOffset(40, 750);
+                for (String line : resumeLines) {
+                    content.showText(line);
+                    content.newLine();
+                }
+                content.endText();
+                content.drawImage(image, 400, 40, 150, 150);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(targetBytes + 64 * 1024);
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static double percentile(double[] values, int percentile) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private String readDoc(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/docs/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Multipart file counting how often its stream is opened and how many bytes are read from it
+     */
+    private static final class CountingMultipartFile extends MockMultipartFile {
+
+        int opens;
+        long bytesRead;
+
+        CountingMultipartFile(byte[] content) {
+            super("file", "resume.pdf", "application/pdf", content);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            opens++;
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b != -1) {
+                        bytesRead++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        bytesRead += read;
+                    }
+                    return read;
+                }
+            };
+        }
+    }
+
+    /**
+     * The previous upload steps that each re-opened the multipart stream, kept only as the baseline
+     */
+    static final class Legacy {
+
+        record Result(String detectedType, String contentHash, String text) {
+        }
+
+        static Result process(MockMultipartFile file, Path uploadDir, HashingService hashingService,
+                              TextExtractionService textExtractionService) throws IOException, TikaException {
+            // validateUploadedFile
+            String detectedType = textExtractionService.detectFileType(file);
+            String contentHash = hashingService.generateFileHash(file);
+
+            // saveFileToDisk
+            Path filePath = uploadDir.resolve(UUID.randomUUID() + ".pdf");
+            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+
+            // extractAndParseResumeData
+            String text = textExtractionService.extractTextFromFile(file);
+
+            // saveParsedResume
+            hashingService.generateFileHash(file);
+            return new Result(detectedType, contentHash, text);
+        }
+    }
+}
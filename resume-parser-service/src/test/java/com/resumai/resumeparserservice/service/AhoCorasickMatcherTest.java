@@ -0,0 +1,73 @@
+package com.resumai.resumeparserservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AhoCorasickMatcherTest {
+
+    private final AhoCorasickMatcher matcher = new AhoCorasickMatcher(
+            List.of("java", "javascript", "spring boot", "boot", "machine learning", "learning", "c++"));
+
+    @Test
+    void wholeWordsSkipsOccurrencesInsideLongerWords() {
+        BitSet found = matcher.findWholeWords("Senior JavaScript developer, Bootstrap and Springboot");
+
+        assertEquals(bits(1), found);
+    }
+
+    @Test
+    void partialMatchingReportsOccurrencesInsideWords() {
+        List<String> matches = matches("JavaScript", false);
+
+        assertEquals(List.of("java@0-4", "javascript@0-10"), matches);
+    }
+
+    @Test
+    void multiWordPatternsMatchAcrossSpacesIgnoringCase() {
+        List<String> matches = matches("Built with Spring Boot; studied Machine Learning.", true);
+
+        assertEquals(List.of("spring boot@11-22", "boot@18-22", "machine learning@32-48", "learning@40-48"), matches);
+    }
+
+    @Test
+    void patternsEndingInSymbolsMatchAsWholeWords() {
+        assertEquals(bits(6), matcher.findWholeWords("Modern C++, not C#"));
+    }
+
+    @Test
+    void reportsEveryOccurrence() {
+        assertEquals(List.of("java@0-4", "java@5-9", "java@10-14"), matches("java java JAVA", true));
+    }
+
+    @Test
+    void noPatternsMatchesNothing() {
+        assertTrue(new AhoCorasickMatcher(List.of()).findWholeWords("java").isEmpty());
+    }
+
+    @Test
+    void rejectsEmptyPattern() {
+        assertThrows(IllegalArgumentException.class, () -> new AhoCorasickMatcher(List.of("java", "")));
+    }
+
+    private List<String> matches(String text, boolean wholeWords) {
+        List<String> matches = new ArrayList<>();
+        matcher.match(text, wholeWords, (patternIndex, start, end) ->
+                matches.add(matcher.pattern(patternIndex) + "@" + start + "-" + end));
+        return matches;
+    }
+
+    private static BitSet bits(int... indices) {
+        BitSet bits = new BitSet();
+        for (int index : indices) {
+            bits.set(index);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,214 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.service.BulkImportService.BulkImportReport;
+import com.resumai.resumeparserservice.service.BulkImportService.FileStatus;
+import com.resumai.resumeparserservice.service.ParsedResumeService.MatchingResults;
+import com.resumai.resumeparserservice.service.ParsedResumeService.ResumeProcessingData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkImportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final HashingService hashingService = new HashingService();
+    private final ParsedResumeService parsedResumeService = mock(ParsedResumeService.class);
+    private final TextExtractionService textExtractionService = mock(TextExtractionService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ThreadPoolExecutor bulkImportExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(8), new ThreadPoolExecutor.CallerRunsPolicy());
+
+    // Rows by content hash, with the unique constraint a database would enforce
+    private final Map<String, ParsedResume> stored = new ConcurrentHashMap<>();
+    // Content another upload inserts just after this import first looks it up
+    private final Set<String> insertedConcurrently = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicInteger batchInserts = new AtomicInteger();
+    private ResumeIngestionService resumeIngestionService;
+    private BulkImportService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(textExtractionService.detectFileType(any(Path.class))).thenReturn("text/plain");
+        when(textExtractionService.isSupportedResumeFileType(anyString())).thenReturn(true);
+        UploadSpooler uploadSpooler = new UploadSpooler(hashingService, textExtractionService, meterRegistry);
+        ReflectionTestUtils.setField(uploadSpooler, "spoolDir", tempDir.resolve("spool").toString());
+        ReflectionTestUtils.invokeMethod(uploadSpooler, "init");
+
+        when(parsedResumeService.findByContentHash(anyString())).thenAnswer(invocation -> {
+            String contentHash = invocation.getArgument(0);
+            return insertedConcurrently.remove(contentHash) ? Optional.empty() : Optional.ofNullable(stored.get(contentHash));
+        });
+        when(parsedResumeService.extractAndParseResumeData(any()))
+                .thenReturn(new ResumeProcessingData("text", "dev@example.com", Set.of("java"), "5 years"));
+        when(parsedResumeService.scoreResumeAgainstJobs((ResumeFeatures) any(), anyInt()))
+                .thenReturn(new MatchingResults(List.of(), 0.5, null, 0));
+        when(parsedResumeService.saveFileToDisk(any())).thenReturn(tempDir.resolve("stored"));
+        when(parsedResumeService.buildParsedResume(any(), any(), any(), any(), any(), anyDouble(), any()))
+                .thenAnswer(invocation -> {
+                    SpooledUpload upload = invocation.getArgument(0);
+                    ParsedResume resume = new ParsedResume();
+                    resume.setOriginalFileName(upload.getOriginalFilename());
+                    resume.setContentHash(upload.getContentHash());
+                    resume.setScore(invocation.getArgument(5));
+                    return resume;
+                });
+        when(parsedResumeService.saveParsedResumes(anyList(), anyList())).thenAnswer(invocation -> {
+            batchInserts.incrementAndGet();
+            List<ParsedResume> resumes = invocation.getArgument(0);
+            Set<String> hashes = new HashSet<>();
+            for (ParsedResume resume : resumes) {
+                if (stored.containsKey(resume.getContentHash()) || !hashes.add(resume.getContentHash())) {
+                    throw new DataIntegrityViolationException("UNIQUE constraint failed: parsed_resumes.content_hash");
+                }
+            }
+            for (ParsedResume resume : resumes) {
+                resume.setId(nextId.getAndIncrement());
+                stored.put(resume.getContentHash(), resume);
+            }
+            return resumes;
+        });
+
+        resumeIngestionService = new ResumeIngestionService(parsedResumeService, uploadSpooler,
+                mock(ThreadPoolExecutor.class), meterRegistry);
+        service = new BulkImportService(parsedResumeService, textExtractionService, uploadSpooler,
+                resumeIngestionService, bulkImportExecutor, meterRegistry);
+        ReflectionTestUtils.setField(service, "batchSize", 50);
+        ReflectionTestUtils.setField(service, "maxFiles", 100);
+        ReflectionTestUtils.setField(service, "maxFileBytes", 1024 * 1024L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkImportExecutor.shutdownNow();
+    }
+
+    @Test
+    void repeatedFilesInAMultipartBatchAreDuplicates() {
+        BulkImportReport report = service.importFiles(List.of(
+                file("a.txt", "Alice, Java developer"),
+                file("b.txt", "Bob, Go developer"),
+                file("a-copy.txt", "Alice, Java developer")));
+
+        assertStatuses(report, FileStatus.IMPORTED, FileStatus.IMPORTED, FileStatus.DUPLICATE);
+        assertEquals(0, report.failed);
+        assertEquals(1, batchInserts.get());
+        assertEquals(2, stored.size());
+    }
+
+    @Test
+    void repeatedEntriesInAZipAreDuplicates() throws IOException {
+        BulkImportReport report = service.importZip(zip(
+                "resumes/a.txt", "Alice, Java developer",
+                "resumes/b.txt", "Bob, Go developer",
+                "copies/a.txt", "Alice, Java developer",
+                "copies/b.txt", "Bob, Go developer"));
+
+        assertStatuses(report, FileStatus.IMPORTED, FileStatus.IMPORTED, FileStatus.DUPLICATE, FileStatus.DUPLICATE);
+        assertEquals(2, stored.size());
+    }
+
+    @Test
+    void contentAnotherUploadIsProcessingIsADuplicate() {
+        String busy = "Alice, Java developer";
+        assertTrue(resumeIngestionService.claim(hash(busy)));
+
+        BulkImportReport report = service.importFiles(List.of(file("a.txt", busy), file("b.txt", "Bob, Go developer")));
+
+        assertStatuses(report, FileStatus.DUPLICATE, FileStatus.IMPORTED);
+        assertEquals(1, stored.size());
+        // The other upload keeps its claim; the import gave back its own when it finished
+        assertFalse(resumeIngestionService.claim(hash(busy)));
+        assertTrue(resumeIngestionService.claim(hash("Bob, Go developer")));
+    }
+
+    @Test
+    void batchThatHitsTheUniqueConstraintIsRetriedRowByRow() {
+        String racing = "Alice, Java developer";
+        ParsedResume existing = new ParsedResume();
+        existing.setId(99L);
+        existing.setContentHash(hash(racing));
+        stored.put(hash(racing), existing);
+        insertedConcurrently.add(hash(racing));
+
+        BulkImportReport report = service.importFiles(List.of(
+                file("b.txt", "Bob, Go developer"),
+                file("a.txt", racing),
+                file("c.txt", "Carol, Rust developer")));
+
+        assertStatuses(report, FileStatus.IMPORTED, FileStatus.DUPLICATE, FileStatus.IMPORTED);
+        assertEquals(0, report.failed);
+        assertEquals(99L, report.files.get(1).resumeId);
+        assertNull(report.files.get(1).bestMatchScore);
+        // The failed batch, then each of its three rows
+        assertEquals(4, batchInserts.get());
+        assertEquals(3, stored.size());
+    }
+
+    private static void assertStatuses(BulkImportReport report, FileStatus... expected) {
+        assertEquals(List.of(expected), report.files.stream().map(file -> file.status).toList());
+    }
+
+    private String hash(String content) {
+        return hashingService.generateTextHash(content);
+    }
+
+    private static MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("files", name, "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Zip archive of alternating entry names and contents
+     */
+    private static ByteArrayInputStream zip(String... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(entries[i]));
+                zip.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+}
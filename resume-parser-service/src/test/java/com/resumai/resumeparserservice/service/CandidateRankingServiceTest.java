@@ -0,0 +1,114 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.JobFeatures;
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.JobDescription;
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CandidateRankingServiceTest {
+
+    // Four batches: three of 64 resumes and one of 8
+    private static final int RESUMES = 200;
+
+    private final ParsedResumeRepository parsedResumeRepository = mock(ParsedResumeRepository.class);
+    private final ResumeFeatureService resumeFeatureService = mock(ResumeFeatureService.class);
+    private final JobSkillProfileService jobSkillProfileService = mock(JobSkillProfileService.class);
+    private final ResumeMatchingService resumeMatchingService = mock(ResumeMatchingService.class);
+    private final ExecutorService matchingExecutor = Executors.newFixedThreadPool(4);
+    private final Map<ResumeFeatures, Long> resumeIds = new IdentityHashMap<>();
+    private final JobDescription job = new JobDescription();
+    private volatile long slowResumeId = -1;
+    private CandidateRankingService service;
+
+    @BeforeEach
+    void setUp() {
+        job.setId(1L);
+        JobFeatures profile = mock(JobFeatures.class);
+        when(jobSkillProfileService.getProfile(job)).thenReturn(profile);
+        when(parsedResumeRepository.findAllIds()).thenReturn(LongStream.rangeClosed(1, RESUMES).boxed().toList());
+        when(parsedResumeRepository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<ParsedResume> resumes = new ArrayList<>();
+            for (Long id : ids) {
+                ParsedResume resume = new ParsedResume();
+                resume.setId(id);
+                resumes.add(resume);
+            }
+            return resumes;
+        });
+        // Features are created up front, so the map is only read while batches run
+        Map<Long, ResumeFeatures> featuresById = LongStream.rangeClosed(1, RESUMES).boxed()
+                .collect(Collectors.toMap(id -> id, id -> mock(ResumeFeatures.class)));
+        featuresById.forEach((id, features) -> resumeIds.put(features, id));
+        when(resumeFeatureService.getFeatures(anyLong())).thenAnswer(invocation ->
+                featuresById.get((Long) invocation.getArgument(0)));
+        // A higher id scores higher
+        when(resumeMatchingService.score(any(), any())).thenAnswer(invocation -> {
+            long id = resumeIds.get((ResumeFeatures) invocation.getArgument(0));
+            if (id == slowResumeId) {
+                Thread.sleep(10_000);
+            }
+            return new ResumeMatchingService.JobScore(profile, id / 1000.0, 0, 0, 0, 0, 0);
+        });
+
+        service = new CandidateRankingService(parsedResumeRepository, resumeFeatureService, mock(ResumeTermIndex.class),
+                jobSkillProfileService, resumeMatchingService, matchingExecutor);
+        ReflectionTestUtils.setField(service, "parallelEnabled", true);
+        ReflectionTestUtils.setField(service, "prefilterMinSharedSkills", 1);
+        ReflectionTestUtils.setField(service, "budgetMs", 300L);
+        ReflectionTestUtils.setField(service, "maxPageSize", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        matchingExecutor.shutdownNow();
+    }
+
+    @Test
+    void everyBatchIsRankedWithinTheBudget() {
+        CandidateRankingService.CandidateRanking ranking = service.rankCandidates(job, 1, 5);
+
+        assertFalse(ranking.partial);
+        assertEquals(RESUMES, ranking.candidatesScored);
+        assertEquals(List.of(195L, 194L, 193L, 192L, 191L), rankedIds(ranking));
+        assertEquals(6, ranking.candidates.get(0).get("rank"));
+    }
+
+    @Test
+    void batchStillRunningAtTheDeadlineIsLeftOut() {
+        // The last batch, resumes 193 to 200, never finishes
+        slowResumeId = 193;
+
+        CandidateRankingService.CandidateRanking ranking = service.rankCandidates(job, 0, 5);
+
+        assertTrue(ranking.partial);
+        assertEquals(RESUMES - 8, ranking.candidatesScored);
+        assertEquals(List.of(192L, 191L, 190L, 189L, 188L), rankedIds(ranking));
+    }
+
+    private static List<Long> rankedIds(CandidateRankingService.CandidateRanking ranking) {
+        return ranking.candidates.stream().map(candidate -> (Long) candidate.get("resumeId")).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.resumai.resumeparserservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentStoreTest {
+
+    private static final String CONTENT = "Alice, Java developer";
+
+    @TempDir
+    Path tempDir;
+
+    private final HashingService hashingService = new HashingService();
+    private final InMemoryStoredFiles storedFiles = new InMemoryStoredFiles();
+    private ContentStore contentStore;
+
+    @BeforeEach
+    void setUp() {
+        contentStore = new ContentStore(storedFiles.repository, hashingService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(contentStore, "storageDir", tempDir.resolve("store").toString());
+        ReflectionTestUtils.invokeMethod(contentStore, "init");
+    }
+
+    @Test
+    void sameContentIsStoredOnceUnderItsHash() throws IOException {
+        SpooledUpload first = spool("first.txt", CONTENT);
+        SpooledUpload second = spool("second.txt", CONTENT);
+        Path secondSpool = second.getPath();
+
+        Path blob = contentStore.store(first);
+        assertEquals(blob, contentStore.store(second));
+
+        String contentHash = hash(CONTENT);
+        assertEquals(contentStore.getRoot().resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4))
+                .resolve(contentHash), blob);
+        assertEquals(CONTENT, Files.readString(blob));
+        assertFalse(Files.exists(secondSpool));
+        assertEquals(2, storedFiles.refCount(contentHash));
+        // Closing a stored upload keeps the stored file
+        first.close();
+        assertTrue(Files.exists(blob));
+    }
+
+    @Test
+    void releasingDropsOneReferenceAndLeavesTheFileForCollection() throws IOException {
+        Path blob = contentStore.store(spool("first.txt", CONTENT));
+        SpooledUpload second = spool("second.txt", CONTENT);
+        contentStore.store(second);
+        String contentHash = hash(CONTENT);
+
+        second.discard();
+        assertEquals(1, storedFiles.refCount(contentHash));
+        // A second discard of the same upload does not release again
+        second.discard();
+        assertEquals(1, storedFiles.refCount(contentHash));
+
+        assertTrue(contentStore.release(blob));
+        assertEquals(0, storedFiles.refCount(contentHash));
+        // The count never goes below zero
+        contentStore.release(contentHash);
+        assertEquals(0, storedFiles.refCount(contentHash));
+        assertTrue(Files.exists(blob));
+    }
+
+    @Test
+    void streamedContentIsHashedWhileItIsStored() throws IOException {
+        Path blob = contentStore.store(new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(contentStore.pathOf(hash(CONTENT)), blob);
+        assertEquals(1, storedFiles.refCount(hash(CONTENT)));
+        try (var temps = Files.list(contentStore.getTempDirectory())) {
+            assertEquals(0, temps.count());
+        }
+    }
+
+    @Test
+    void onlyPathsOfStoredContentHaveAHash() throws IOException {
+        String contentHash = hash(CONTENT);
+
+        assertEquals(Optional.of(contentHash), contentStore.hashOf(contentStore.pathOf(contentHash)));
+        assertEquals(Optional.empty(), contentStore.hashOf(tempDir.resolve(contentHash)));
+        assertEquals(Optional.empty(), contentStore.hashOf(contentStore.getRoot().resolve(contentHash)));
+        assertEquals(Optional.empty(), contentStore.hashOf(Path.of("uploaded-resumes", "resume.pdf")));
+        assertEquals(Optional.empty(), contentStore.hashOf(null));
+        assertFalse(contentStore.release(tempDir.resolve("resume.pdf")));
+    }
+
+    private SpooledUpload spool(String fileName, String content) throws IOException {
+        Path path = Files.createTempFile(tempDir, "upload-", ".part");
+        Files.writeString(path, content);
+        return new SpooledUpload(path, fileName, "text/plain", Files.size(path), hash(content), "text/plain");
+    }
+
+    private String hash(String content) {
+        return hashingService.generateTextHash(content);
+    }
+}
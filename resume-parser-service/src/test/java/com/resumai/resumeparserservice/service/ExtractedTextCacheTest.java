@@ -0,0 +1,64 @@
+package com.resumai.resumeparserservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExtractedTextCacheTest {
+
+    private static final String TEXT = "Alice, Java developer";
+
+    @TempDir
+    Path tempDir;
+
+    private final HashingService hashingService = new HashingService();
+
+    @Test
+    void cachedTextOutlivesARestart() {
+        String contentHash = hashingService.generateTextHash(TEXT);
+        start().put(contentHash, TEXT);
+
+        ExtractedTextCache restarted = start();
+
+        assertEquals(Optional.of(TEXT), restarted.get(contentHash, 100));
+        assertEquals(Optional.empty(), restarted.get(hashingService.generateTextHash("Bob"), 100));
+    }
+
+    @Test
+    void temporaryFilesOfUnfinishedWritesAreDeletedAtStartup() throws IOException {
+        String contentHash = hashingService.generateTextHash(TEXT);
+        start().put(contentHash, TEXT);
+        // Left by a crash between writing a temporary file and moving it into place
+        Path shard = tempDir.resolve(contentHash.substring(0, 2));
+        Path unfinished = Files.writeString(shard.resolve(contentHash + "123.tmp"), "partial");
+
+        ExtractedTextCache restarted = start();
+
+        assertFalse(Files.exists(unfinished));
+        assertTrue(Files.exists(shard.resolve(contentHash + ".txt.gz")));
+        assertEquals(Optional.of(TEXT), restarted.get(contentHash, 100));
+        try (var files = Files.list(shard)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    /**
+     * A cache over the test directory, as the application starts it
+     */
+    private ExtractedTextCache start() {
+        ExtractedTextCache cache = new ExtractedTextCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "cacheDir", tempDir.toString());
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        return cache;
+    }
+}
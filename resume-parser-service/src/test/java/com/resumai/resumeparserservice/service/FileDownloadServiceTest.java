@@ -0,0 +1,164 @@
+package com.resumai.resumeparserservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileDownloadServiceTest {
+
+    private static final String ETAG = "\"0123abcd\"";
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    private final FileDownloadService service = new FileDownloadService(new SimpleMeterRegistry());
+
+    @Test
+    void parsesSingleRanges() {
+        assertArrayEquals(new long[]{0, 5}, FileDownloadService.parseRange("bytes=0-4", 10));
+        assertArrayEquals(new long[]{5, 5}, FileDownloadService.parseRange("bytes=5-", 10));
+        assertArrayEquals(new long[]{8, 2}, FileDownloadService.parseRange("bytes=8-100", 10));
+        assertArrayEquals(new long[]{9, 1}, FileDownloadService.parseRange(" bytes= 9-9 ", 10));
+    }
+
+    @Test
+    void parsesSuffixRanges() {
+        assertArrayEquals(new long[]{7, 3}, FileDownloadService.parseRange("bytes=-3", 10));
+        assertArrayEquals(new long[]{0, 10}, FileDownloadService.parseRange("bytes=-50", 10));
+    }
+
+    @Test
+    void unsatisfiableRangesAreEmpty() {
+        assertArrayEquals(new long[0], FileDownloadService.parseRange("bytes=10-", 10));
+        assertArrayEquals(new long[0], FileDownloadService.parseRange("bytes=20-30", 10));
+        assertArrayEquals(new long[0], FileDownloadService.parseRange("bytes=-0", 10));
+        assertArrayEquals(new long[0], FileDownloadService.parseRange("bytes=-5", 0));
+        assertArrayEquals(new long[0], FileDownloadService.parseRange("bytes=0-", 0));
+    }
+
+    @Test
+    void malformedAndMultipleRangesSendTheWholeBody() {
+        assertNull(FileDownloadService.parseRange("items=0-4", 10));
+        assertNull(FileDownloadService.parseRange("bytes=0-1,4-5", 10));
+        assertNull(FileDownloadService.parseRange("bytes=5", 10));
+        assertNull(FileDownloadService.parseRange("bytes=5-2", 10));
+        assertNull(FileDownloadService.parseRange("bytes=a-b", 10));
+    }
+
+    @Test
+    void ifNoneMatchComparesWeaklyAndDecidesOverTheDate() {
+        assertTrue(FileDownloadService.notModified(request(HttpHeaders.IF_NONE_MATCH, ETAG), ETAG, LAST_MODIFIED));
+        assertTrue(FileDownloadService.notModified(
+                request(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + ETAG), ETAG, LAST_MODIFIED));
+        assertTrue(FileDownloadService.notModified(request(HttpHeaders.IF_NONE_MATCH, "*"), ETAG, LAST_MODIFIED));
+
+        MockHttpServletRequest request = request(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED);
+        assertFalse(FileDownloadService.notModified(request, ETAG, LAST_MODIFIED));
+    }
+
+    @Test
+    void ifModifiedSinceComparesWholeSeconds() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED);
+
+        assertTrue(FileDownloadService.notModified(request, ETAG, LAST_MODIFIED + 999));
+        assertFalse(FileDownloadService.notModified(request, ETAG, LAST_MODIFIED + 1000));
+        assertFalse(FileDownloadService.notModified(new MockHttpServletRequest(), ETAG, LAST_MODIFIED));
+    }
+
+    @Test
+    void ifRangeNeedsAStrongMatchOrTheExactDate() {
+        assertTrue(FileDownloadService.ifRangeMatches(new MockHttpServletRequest(), ETAG, LAST_MODIFIED));
+        assertTrue(FileDownloadService.ifRangeMatches(request(HttpHeaders.IF_RANGE, ETAG), ETAG, LAST_MODIFIED));
+        assertFalse(FileDownloadService.ifRangeMatches(request(HttpHeaders.IF_RANGE, "W/" + ETAG), ETAG, LAST_MODIFIED));
+        assertFalse(FileDownloadService.ifRangeMatches(
+                request(HttpHeaders.IF_RANGE, "W/" + ETAG), "W/" + ETAG, LAST_MODIFIED));
+        assertFalse(FileDownloadService.ifRangeMatches(request(HttpHeaders.IF_RANGE, "\"other\""), ETAG, LAST_MODIFIED));
+
+        MockHttpServletRequest dated = new MockHttpServletRequest();
+        dated.addHeader(HttpHeaders.IF_RANGE, LAST_MODIFIED);
+        assertTrue(FileDownloadService.ifRangeMatches(dated, ETAG, LAST_MODIFIED + 500));
+        assertFalse(FileDownloadService.ifRangeMatches(dated, ETAG, LAST_MODIFIED + 1000));
+    }
+
+    @Test
+    void rangeRequestGetsPartialContent() throws IOException {
+        MockHttpServletResponse response = sendContent(request(HttpHeaders.RANGE, "bytes=2-5"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(4, response.getContentLengthLong());
+        assertEquals("2345", response.getContentAsString());
+    }
+
+    @Test
+    void unsatisfiableRangeGets416WithTheLength() throws IOException {
+        MockHttpServletResponse response = sendContent(request(HttpHeaders.RANGE, "bytes=10-"));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void staleIfRangeGetsTheWholeBody() throws IOException {
+        MockHttpServletRequest request = request(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        MockHttpServletResponse response = sendContent(request);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void matchingEtagGets304WithoutBody() throws IOException {
+        MockHttpServletResponse response = sendContent(request(HttpHeaders.IF_NONE_MATCH, ETAG));
+
+        assertEquals(304, response.getStatus());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void filesWithoutHashGetAWeakEtagAndRangesStillApply() throws IOException {
+        Path file = Files.write(Files.createTempFile("resume", ".txt"), CONTENT);
+        MockHttpServletRequest request = request(HttpHeaders.RANGE, "bytes=-4");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            service.sendFile(request, response, file, null, "text/plain", "resume.txt");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        assertTrue(response.getHeader(HttpHeaders.ETAG).startsWith("W/\""));
+        assertEquals(206, response.getStatus());
+        assertEquals("6789", response.getContentAsString());
+    }
+
+    private MockHttpServletResponse sendContent(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.sendContent(request, response, CONTENT, "0123abcd", LAST_MODIFIED, "text/plain", "resume.txt");
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String header, Object value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader(header, value);
+        return request;
+    }
+}
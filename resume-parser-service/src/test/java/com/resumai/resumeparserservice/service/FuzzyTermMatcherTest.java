@@ -0,0 +1,150 @@
+package com.resumai.resumeparserservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FuzzyTermMatcherTest {
+
+    private static final String ALPHABET = "abcde";
+
+    @Test
+    void myersMatchesFullMatrixAroundTheWordSize() {
+        Random random = new Random(7);
+        for (int m : new int[]{1, 2, 31, 32, 33, 63, 64}) {
+            for (int round = 0; round < 200; round++) {
+                String pattern = randomString(random, m);
+                String text = mutate(random, pattern);
+                int bound = random.nextInt(m + 2);
+
+                assertBounded(levenshtein(pattern, text), bound,
+                        FuzzyTermMatcher.boundedMyersDistance(FuzzyTermMatcher.patternMasks(pattern), m, text, bound),
+                        pattern, text);
+            }
+        }
+    }
+
+    @Test
+    void twoRowMatchesFullMatrixOnBothSidesOfTheWordSize() {
+        Random random = new Random(11);
+        for (int m : new int[]{1, 63, 64, 65, 100}) {
+            for (int round = 0; round < 200; round++) {
+                String pattern = randomString(random, m);
+                String text = mutate(random, pattern);
+                int bound = random.nextInt(m + 2);
+                int[] previousRow = new int[text.length() + 1];
+                int[] currentRow = new int[text.length() + 1];
+
+                assertBounded(levenshtein(pattern, text), bound,
+                        FuzzyTermMatcher.boundedTwoRowDistance(pattern, text, bound, previousRow, currentRow),
+                        pattern, text);
+            }
+        }
+    }
+
+    @Test
+    void matchesAnyAgreesWithThresholdOnFullMatrixDistance() {
+        Random random = new Random(13);
+        for (int m : new int[]{3, 8, 63, 64, 65, 80}) {
+            for (int round = 0; round < 100; round++) {
+                String term = randomString(random, m);
+                String token = mutate(random, term);
+
+                boolean expected = (token.length() >= 3
+                        && 1.0 - (double) levenshtein(term, token) / Math.max(m, token.length())
+                        > FuzzyTermMatcher.SIMILARITY_THRESHOLD)
+                        || (token.length() > m && token.contains(term));
+                assertEquals(expected, FuzzyTermMatcher.matchesAny(term, new String[]{token}),
+                        () -> term + " / " + token);
+            }
+        }
+    }
+
+    @Test
+    void longerTokensContainingTheTermMatch() {
+        String[] tokens = FuzzyTermMatcher.tokensByLength(List.of("microservices", "go"));
+
+        assertTrue(FuzzyTermMatcher.matchesAny("service", tokens));
+        assertFalse(FuzzyTermMatcher.matchesAny("kubernetes", tokens));
+    }
+
+    @Test
+    void nonAsciiTermsCompareTheirOwnCharacters() {
+        String[] tokens = FuzzyTermMatcher.tokensByLength(List.of("café", "naïve"));
+
+        assertTrue(FuzzyTermMatcher.matchesAny("naïve", tokens));
+        assertFalse(FuzzyTermMatcher.matchesAny("naïf", tokens));
+        assertTrue(FuzzyTermMatcher.matchesAny("cafés", FuzzyTermMatcher.tokensByLength(List.of("caféx"))));
+    }
+
+    @Test
+    void tokensAreDistinctNonEmptyAndSortedByLength() {
+        assertArrayEquals(new String[]{"go", "aws", "java", "spring"},
+                FuzzyTermMatcher.tokensByLength(List.of("spring", "", "java", "go", "aws", "java")));
+    }
+
+    private static void assertBounded(int exact, int bound, int actual, String pattern, String text) {
+        if (exact <= bound) {
+            assertEquals(exact, actual, () -> pattern + " / " + text + " within bound " + bound);
+        } else {
+            assertTrue(actual > bound, () -> pattern + " / " + text + " over bound " + bound + ": " + actual);
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A few random insertions, deletions and substitutions, so distances stay near the bounds
+     */
+    private static String mutate(Random random, String text) {
+        StringBuilder builder = new StringBuilder(text);
+        int edits = random.nextInt(Math.max(2, text.length() / 3));
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(builder.length() + 1);
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(3)) {
+                case 0 -> builder.insert(position, c);
+                case 1 -> {
+                    if (position < builder.length() && builder.length() > 1) {
+                        builder.deleteCharAt(position);
+                    }
+                }
+                default -> {
+                    if (position < builder.length()) {
+                        builder.setCharAt(position, c);
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] dp = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0) {
+                    dp[i][j] = j;
+                } else if (j == 0) {
+                    dp[i][j] = i;
+                } else {
+                    dp[i][j] = Math.min(Math.min(dp[i - 1][j], dp[i][j - 1]) + 1,
+                            dp[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+                }
+            }
+        }
+        return dp[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,68 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.entity.StoredFile;
+import com.resumai.resumeparserservice.repository.StoredFileRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * stored_files rows kept in a map, behind a mock repository that updates them as the queries would
+ */
+class InMemoryStoredFiles {
+
+    final Map<String, StoredFile> rows = new ConcurrentHashMap<>();
+    final StoredFileRepository repository = mock(StoredFileRepository.class);
+
+    InMemoryStoredFiles() {
+        when(repository.addReference(anyString(), any())).thenAnswer(invocation -> {
+            StoredFile row = rows.get((String) invocation.getArgument(0));
+            if (row == null) {
+                return 0;
+            }
+            row.setRefCount(row.getRefCount() + 1);
+            row.setLastStoredAt(invocation.getArgument(1));
+            return 1;
+        });
+        when(repository.removeReference(anyString())).thenAnswer(invocation -> {
+            StoredFile row = rows.get((String) invocation.getArgument(0));
+            if (row == null || row.getRefCount() == 0) {
+                return 0;
+            }
+            row.setRefCount(row.getRefCount() - 1);
+            return 1;
+        });
+        when(repository.save(any())).thenAnswer(invocation -> {
+            StoredFile row = invocation.getArgument(0);
+            rows.put(row.getContentHash(), row);
+            return row;
+        });
+        when(repository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(rows.get((String) invocation.getArgument(0))));
+        when(repository.existsById(anyString())).thenAnswer(invocation ->
+                rows.containsKey((String) invocation.getArgument(0)));
+        when(repository.findAll()).thenAnswer(invocation -> new ArrayList<>(rows.values()));
+        doAnswer(invocation -> rows.remove(((StoredFile) invocation.getArgument(0)).getContentHash()))
+                .when(repository).delete(any());
+    }
+
+    int refCount(String contentHash) {
+        return rows.get(contentHash).getRefCount();
+    }
+
+    /**
+     * Move a row's last store time back, as if it had been stored that long ago
+     */
+    void age(String contentHash, LocalDateTime lastStoredAt) {
+        rows.get(contentHash).setLastStoredAt(lastStoredAt);
+    }
+}
@@ -0,0 +1,81 @@
+package com.resumai.resumeparserservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class InvertedTermIndexTest {
+
+    private final InvertedTermIndex index = new InvertedTermIndex();
+
+    @Test
+    void docsWithAllIntersectsThePostingLists() {
+        index.put(7, List.of("java", "spring", "docker"));
+        index.put(3, List.of("java", "spring"));
+        index.put(5, List.of("java", "kubernetes"));
+        index.put(1, List.of("spring"));
+
+        assertArrayEquals(new int[]{3, 5, 7}, index.docsWithAll(List.of("java")));
+        assertArrayEquals(new int[]{3, 7}, index.docsWithAll(List.of("spring", "java")));
+        assertArrayEquals(new int[]{7}, index.docsWithAll(List.of("java", "docker", "spring", "java")));
+        assertArrayEquals(new int[0], index.docsWithAll(List.of("java", "kubernetes", "docker")));
+        assertArrayEquals(new int[0], index.docsWithAll(List.of("java", "rust")));
+        assertArrayEquals(new int[0], index.docsWithAll(List.of()));
+    }
+
+    @Test
+    void docsWithAtLeastCountsSharedTerms() {
+        index.put(1, List.of("java", "spring", "docker"));
+        index.put(2, List.of("java", "python"));
+        index.put(3, List.of("go"));
+        index.put(4, List.of());
+
+        assertArrayEquals(new int[]{1, 2}, index.docsWithAtLeast(Set.of("java", "docker", "rust"), 1));
+        assertArrayEquals(new int[]{1}, index.docsWithAtLeast(Set.of("java", "docker", "rust"), 2));
+        assertArrayEquals(new int[0], index.docsWithAtLeast(Set.of("java", "docker", "rust"), 3));
+        // Repeated terms are counted once
+        assertArrayEquals(new int[]{1}, index.docsWithAtLeast(List.of("java", "java", "docker"), 2));
+        // Fewer distinct terms than required can never match
+        assertArrayEquals(new int[0], index.docsWithAtLeast(Set.of("java"), 2));
+        // A minimum below one still needs one shared term
+        assertArrayEquals(new int[]{3}, index.docsWithAtLeast(Set.of("go"), 0));
+        assertArrayEquals(new int[]{4}, index.docsWithoutTerms());
+    }
+
+    @Test
+    void removedAndReplacedDocumentsLeaveTheirOldTerms() {
+        index.put(1, List.of("java", "spring"));
+        index.put(2, List.of("java"));
+        index.put(3, List.of());
+
+        index.remove(1);
+        index.put(2, List.of("kotlin"));
+        index.remove(3);
+        index.remove(42);
+
+        assertArrayEquals(new int[0], index.docsWithAll(List.of("java")));
+        assertArrayEquals(new int[0], index.docsWithAtLeast(Set.of("java", "spring"), 1));
+        assertArrayEquals(new int[]{2}, index.docsWithAll(List.of("kotlin")));
+        assertArrayEquals(new int[0], index.docsWithoutTerms());
+        assertFalse(index.contains(1));
+        assertEquals(1, index.docCount());
+        assertEquals(1, index.termCount());
+        assertEquals(1, index.postingCount());
+    }
+
+    @Test
+    void termsMatchWholeTokensOnly() {
+        index.put(1, List.of("java"));
+        index.put(2, List.of("javascript"));
+        index.put(3, List.of("java", "javascript"));
+
+        assertArrayEquals(new int[]{1, 3}, index.docsWithAll(List.of("java")));
+        assertArrayEquals(new int[]{2, 3}, index.docsWithAll(List.of("javascript")));
+        assertArrayEquals(new int[0], index.docsWithAll(List.of("jav")));
+    }
+}
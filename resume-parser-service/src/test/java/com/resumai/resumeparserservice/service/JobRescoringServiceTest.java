@@ -0,0 +1,168 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.JobFeatures;
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.JobDescription;
+import com.resumai.resumeparserservice.entity.JobRescoring;
+import com.resumai.resumeparserservice.repository.JobDescriptionRepository;
+import com.resumai.resumeparserservice.repository.JobRescoringRepository;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobRescoringServiceTest {
+
+    private static final long JOB_ID = 1L;
+    private static final int RESUMES = 10;
+
+    private final JobRescoringRepository rescoringRepository = mock(JobRescoringRepository.class);
+    private final JobDescriptionRepository jobDescriptionRepository = mock(JobDescriptionRepository.class);
+    private final ParsedResumeRepository parsedResumeRepository = mock(ParsedResumeRepository.class);
+    private final ResumeFeatureService resumeFeatureService = mock(ResumeFeatureService.class);
+    private final JobSkillProfileService jobSkillProfileService = mock(JobSkillProfileService.class);
+    private final ResumeMatchingService resumeMatchingService = mock(ResumeMatchingService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    // Stored copies, as a database would hand out
+    private final Map<Long, JobRescoring> stored = new ConcurrentHashMap<>();
+    private final Set<Thread> scoringThreads = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger scoreCalls = new AtomicInteger();
+    private final CountDownLatch firstScore = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final JobDescription job = new JobDescription();
+    private JobRescoringService service;
+
+    @BeforeEach
+    void setUp() {
+        job.setId(JOB_ID);
+        job.setIsActive(true);
+        JobFeatures profile = mock(JobFeatures.class);
+        when(jobDescriptionRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(jobSkillProfileService.getProfile(job)).thenReturn(profile);
+        when(parsedResumeRepository.findAllIds()).thenReturn(LongStream.rangeClosed(1, RESUMES).boxed().toList());
+        when(parsedResumeRepository.raiseScore(anyLong(), anyDouble())).thenReturn(1);
+        when(resumeFeatureService.getFeatures(anyLong())).thenReturn(mock(ResumeFeatures.class));
+        when(resumeMatchingService.score(any(), any())).thenAnswer(invocation -> {
+            scoringThreads.add(Thread.currentThread());
+            scoreCalls.incrementAndGet();
+            firstScore.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return new ResumeMatchingService.JobScore(profile, 0.5, 0, 0, 0, 0, 0);
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(rescoringRepository.save(any())).thenAnswer(invocation -> {
+            JobRescoring rescoring = invocation.getArgument(0);
+            stored.put(rescoring.getJobId(), copy(rescoring));
+            return rescoring;
+        });
+        when(rescoringRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(stored.get((Long) invocation.getArgument(0))).map(JobRescoringServiceTest::copy));
+
+        service = new JobRescoringService(rescoringRepository, jobDescriptionRepository, parsedResumeRepository,
+                resumeFeatureService, mock(ResumeTermIndex.class), jobSkillProfileService, resumeMatchingService,
+                transactionTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "batchesPerCheckpoint", 1);
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    @Test
+    void batchesAreScoredOnLowPriorityThreadsOfTheirOwn() throws Exception {
+        release.countDown();
+
+        service.submit(job);
+        JobRescoring finished = awaitFinished();
+
+        assertEquals(JobRescoring.State.COMPLETED, finished.getState());
+        assertEquals(RESUMES, finished.getScored());
+        assertEquals(RESUMES, finished.getRaised());
+        assertFalse(scoringThreads.isEmpty());
+        for (Thread thread : scoringThreads) {
+            assertTrue(thread.getName().startsWith("job-rescoring-scorer-"), thread.getName());
+            assertEquals(Thread.MIN_PRIORITY, thread.getPriority());
+        }
+    }
+
+    @Test
+    void editingAJobRestartsItsRunFromTheFirstResume() throws Exception {
+        service.submit(job);
+        assertTrue(firstScore.await(5, TimeUnit.SECONDS));
+
+        // The edit is queued while the first run is inside its first round
+        service.submit(job);
+        release.countDown();
+        JobRescoring finished = awaitFinished();
+
+        assertEquals(JobRescoring.State.COMPLETED, finished.getState());
+        assertEquals(RESUMES, finished.getCandidates());
+        assertEquals(RESUMES, finished.getScored());
+        assertEquals(RESUMES, finished.getLastResumeId());
+        // The replaced run stopped after its first round of two resumes
+        assertEquals(RESUMES + 2, scoreCalls.get());
+    }
+
+    @Test
+    void deletingAJobCancelsItsRun() throws Exception {
+        service.submit(job);
+        assertTrue(firstScore.await(5, TimeUnit.SECONDS));
+
+        job.setIsActive(false);
+        service.cancel(JOB_ID);
+        release.countDown();
+        JobRescoring cancelled = awaitFinished();
+        Thread.sleep(100);
+
+        assertEquals(JobRescoring.State.CANCELLED, stored.get(JOB_ID).getState());
+        assertEquals(0, cancelled.getScored());
+        assertEquals(2, scoreCalls.get());
+    }
+
+    private JobRescoring awaitFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            JobRescoring rescoring = stored.get(JOB_ID);
+            if (rescoring != null && rescoring.isFinished()) {
+                return rescoring;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Re-scoring did not finish: " + stored.get(JOB_ID));
+    }
+
+    private static JobRescoring copy(JobRescoring rescoring) {
+        return new JobRescoring(rescoring.getJobId(), rescoring.getState(), rescoring.getLastResumeId(),
+                rescoring.getCandidates(), rescoring.getScored(), rescoring.getRaised(), rescoring.getQueuedAt(),
+                rescoring.getUpdatedAt(), rescoring.getFinishedAt(), rescoring.getError());
+    }
+}
@@ -0,0 +1,128 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.repository.TermDictionaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class ResumeFeatureCodecTest {
+
+    private static final String RESUME_TEXT =
+            "Senior Java developer building Spring Boot microservices on Kubernetes and AWS, with PostgreSQL";
+
+    private SkillExtractionEngine engine;
+    private SimilarityService similarityService;
+    private ResumeFeatureCodec codec;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/skills/technical-vocabulary.txt")) {
+            engine = new SkillExtractionEngine(TechnicalVocabulary.load(in));
+        }
+        TermDictionary termDictionary = new TermDictionary(mock(TermDictionaryRepository.class));
+        similarityService = new SimilarityService(engine, new VectorSpaceModel(termDictionary));
+        codec = new ResumeFeatureCodec(termDictionary, engine);
+    }
+
+    @Test
+    void varintsRoundTripAcrossByteBoundaries() {
+        int[] values = {0, 1, 127, 128, 255, 16_383, 16_384, 2_097_151, 2_097_152, 268_435_455, 268_435_456,
+                Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int value : values) {
+            ResumeFeatureCodec.writeVarint(out, value);
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(out.toByteArray());
+        for (int value : values) {
+            assertEquals(value, ResumeFeatureCodec.readVarint(in));
+        }
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void varintsTakeOneByteForEverySevenBits() {
+        assertEquals(1, varintLength(127));
+        assertEquals(2, varintLength(128));
+        assertEquals(3, varintLength(16_384));
+        assertEquals(5, varintLength(-1));
+    }
+
+    @Test
+    void overlongVarintIsRejected() {
+        ByteBuffer in = ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1});
+
+        assertThrows(IllegalArgumentException.class, () -> ResumeFeatureCodec.readVarint(in));
+    }
+
+    @Test
+    void featuresRoundTrip() {
+        ResumeFeatures features = features();
+
+        ResumeFeatures decoded = codec.decode(codec.encode(features), RESUME_TEXT);
+
+        assertEquals(features.getProcessedText(), decoded.getProcessedText());
+        assertArrayEquals(features.getProcessedTokens(), decoded.getProcessedTokens());
+        assertArrayEquals(features.getTextTokens(), decoded.getTextTokens());
+        assertEquals(features.getSkills(), decoded.getSkills());
+        assertEquals(features.getKeywords(), decoded.getKeywords());
+        assertArrayEquals(features.getTermVector().getTermIds(), decoded.getTermVector().getTermIds());
+        assertArrayEquals(features.getTermVector().getWeights(), decoded.getTermVector().getWeights());
+        assertEquals("dev@example.com", decoded.getEmail());
+        assertEquals(7, decoded.getExperienceYears());
+    }
+
+    @Test
+    void partialReadsMatchTheFullDecode() {
+        ResumeFeatures features = features();
+        byte[] data = codec.encode(features);
+
+        assertArrayEquals(features.getTermVector().getTermIds(), codec.decodeTermVector(data).getTermIds());
+        assertEquals(Arrays.asList(features.getProcessedText().split(" ")).stream().distinct().toList(),
+                codec.decodeProcessedTokens(data).stream().toList());
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        byte[] data = codec.encode(features());
+
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated, RESUME_TEXT),
+                    "truncated to " + length + " of " + data.length + " bytes");
+        }
+    }
+
+    @Test
+    void otherFormatVersionIsRejected() {
+        byte[] data = codec.encode(features());
+        data[0] = (byte) (ResumeFeatureCodec.FORMAT_VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(data, RESUME_TEXT));
+    }
+
+    private ResumeFeatures features() {
+        ResumeFeatures features = similarityService.prepareResume(RESUME_TEXT);
+        features.setEmail("dev@example.com");
+        features.setExperienceYears(7);
+        return features;
+    }
+
+    private static int varintLength(int value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResumeFeatureCodec.writeVarint(out, value);
+        return out.size();
+    }
+}
@@ -0,0 +1,176 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.entity.ResumeFeatureRecord;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import com.resumai.resumeparserservice.repository.ResumeFeatureRecordRepository;
+import com.resumai.resumeparserservice.repository.TermDictionaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResumeFeatureServiceTest {
+
+    private static final String[] TEXTS = {
+            "Java developer with Spring Boot, Docker and PostgreSQL experience",
+            "Python engineer working on machine learning with TensorFlow and Kubernetes",
+            "Frontend developer building React and TypeScript applications on AWS"
+    };
+
+    private final ResumeFeatureRecordRepository recordRepository = mock(ResumeFeatureRecordRepository.class);
+    private final ParsedResumeRepository parsedResumeRepository = mock(ParsedResumeRepository.class);
+    private final Map<Long, ResumeFeatureRecord> records = new HashMap<>();
+    private SkillExtractionEngine engine;
+    private TermDictionary termDictionary;
+    private VectorSpaceModel vectorSpaceModel;
+    private ResumeFeatureService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/skills/technical-vocabulary.txt")) {
+            engine = new SkillExtractionEngine(TechnicalVocabulary.load(in));
+        }
+        termDictionary = new TermDictionary(mock(TermDictionaryRepository.class));
+        startService();
+
+        when(recordRepository.save(any())).thenAnswer(invocation -> {
+            ResumeFeatureRecord record = invocation.getArgument(0);
+            records.put(record.getResumeId(), record);
+            return record;
+        });
+        when(recordRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(records.get((Long) invocation.getArgument(0))));
+        when(recordRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<ResumeFeatureRecord> found = new ArrayList<>();
+            ids.forEach(id -> Optional.ofNullable(records.get(id)).ifPresent(found::add));
+            return found;
+        });
+        for (int i = 0; i < TEXTS.length; i++) {
+            long id = i + 1;
+            String text = TEXTS[i];
+            when(parsedResumeRepository.findRawTextById(id)).thenReturn(Optional.of(text));
+            when(parsedResumeRepository.findById(id)).thenReturn(Optional.of(resume(id, text)));
+        }
+        when(parsedResumeRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void warmUpCountsStoredRecordsWithoutReadingResumeTexts() {
+        storeRecordsAndRestart();
+
+        service.warmUp();
+
+        assertEquals(3, vectorSpaceModel.documentCount());
+        verify(parsedResumeRepository, never()).findRawTextById(anyLong());
+        verify(parsedResumeRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void warmUpRebuildsRecordsOfAnotherVersion() {
+        storeRecordsAndRestart();
+        records.get(2L).setFeatureVersion(ResumeFeatureService.FEATURE_VERSION - 1);
+
+        service.warmUp();
+
+        assertEquals(3, vectorSpaceModel.documentCount());
+        assertEquals(ResumeFeatureService.FEATURE_VERSION, records.get(2L).getFeatureVersion());
+        verify(parsedResumeRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    void warmUpRebuildsRecordsExtractedWithAnotherVocabulary() {
+        storeRecordsAndRestart();
+        records.get(3L).setVocabularyDigest("older vocabulary");
+        records.get(1L).setVocabularyDigest(null);
+
+        service.warmUp();
+
+        assertEquals(3, vectorSpaceModel.documentCount());
+        assertEquals(engine.vocabularyDigest(), records.get(3L).getVocabularyDigest());
+        assertEquals(engine.vocabularyDigest(), records.get(1L).getVocabularyDigest());
+        verify(parsedResumeRepository, times(1)).findById(1L);
+        verify(parsedResumeRepository, never()).findById(2L);
+        verify(parsedResumeRepository, times(1)).findById(3L);
+    }
+
+    @Test
+    void featuresOverTheCacheSizeAreDecodedAgainFromTheirRecord() {
+        storeRecordsAndRestart();
+        long oneResume = ResumeFeatureService.weightOf(service.getFeatures(1L));
+        ReflectionTestUtils.setField(service, "cacheMaxBytes", oneResume);
+
+        ResumeFeatures first = service.getFeatures(1L);
+        assertSame(first, service.getFeatures(1L));
+        service.getFeatures(2L);
+        ResumeFeatures decodedAgain = service.getFeatures(1L);
+
+        assertNotSame(first, decodedAgain);
+        assertEquals(first.getSkills(), decodedAgain.getSkills());
+        assertArrayEquals(first.getProcessedTokens(), decodedAgain.getProcessedTokens());
+        assertArrayEquals(first.getTermVector().getTermIds(), decodedAgain.getTermVector().getTermIds());
+        verify(parsedResumeRepository, times(2)).findRawTextById(1L);
+    }
+
+    @Test
+    void processedTokensComeFromTheRecordsWithoutResumeTexts() {
+        storeRecordsAndRestart();
+
+        Map<Long, Set<String>> tokens = service.getProcessedTokens(List.of(1L, 2L, 3L, 4L));
+
+        assertEquals(Set.of(1L, 2L, 3L), tokens.keySet());
+        assertEquals(Set.of(service.getFeatures(3L).getProcessedTokens()), tokens.get(3L));
+        verify(parsedResumeRepository, times(1)).findRawTextById(anyLong());
+    }
+
+    private void startService() {
+        vectorSpaceModel = new VectorSpaceModel(termDictionary);
+        service = new ResumeFeatureService(recordRepository, parsedResumeRepository,
+                new SimilarityService(engine, vectorSpaceModel), new ResumeFeatureCodec(termDictionary, engine),
+                vectorSpaceModel);
+    }
+
+    /**
+     * Build and store every resume's record, then start over with an empty cache and corpus
+     */
+    private void storeRecordsAndRestart() {
+        for (int i = 0; i < TEXTS.length; i++) {
+            service.buildFeatures(resume(i + 1, TEXTS[i]));
+        }
+        startService();
+        clearInvocations(parsedResumeRepository);
+    }
+
+    private static ParsedResume resume(long id, String text) {
+        ParsedResume resume = new ParsedResume();
+        resume.setId(id);
+        resume.setRawText(text);
+        resume.setEmail("candidate" + id + "@example.com");
+        resume.setExperience(id + " years of experience");
+        return resume;
+    }
+}
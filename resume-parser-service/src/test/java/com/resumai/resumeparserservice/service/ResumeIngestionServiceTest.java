@@ -0,0 +1,184 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.controller.FileUploadController;
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.service.ParsedResumeService.MatchingResults;
+import com.resumai.resumeparserservice.service.ParsedResumeService.ResumeProcessingData;
+import com.resumai.resumeparserservice.service.ResumeIngestionService.Ingestion;
+import com.resumai.resumeparserservice.service.ResumeIngestionService.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResumeIngestionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final HashingService hashingService = new HashingService();
+    private final ParsedResumeService parsedResumeService = mock(ParsedResumeService.class);
+    private final TextExtractionService textExtractionService = mock(TextExtractionService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // One worker and one queue slot, so a third upload finds the queue full
+    private final ThreadPoolExecutor ingestionExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1));
+    // Holds the worker inside text extraction until released
+    private final CountDownLatch extraction = new CountDownLatch(1);
+    private ResumeIngestionService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(textExtractionService.detectFileType(any(Path.class))).thenReturn("text/plain");
+        UploadSpooler uploadSpooler = new UploadSpooler(hashingService, textExtractionService, meterRegistry);
+        ReflectionTestUtils.setField(uploadSpooler, "spoolDir", tempDir.toString());
+        ReflectionTestUtils.invokeMethod(uploadSpooler, "init");
+
+        when(parsedResumeService.saveFileToDisk(any())).thenReturn(tempDir.resolve("stored"));
+        when(parsedResumeService.extractAndParseResumeData(any())).thenAnswer(invocation -> {
+            extraction.await(5, TimeUnit.SECONDS);
+            SpooledUpload upload = invocation.getArgument(0);
+            String text = Files.readString(upload.getPath());
+            if (text.contains("corrupt")) {
+                throw new IOException("Unreadable document");
+            }
+            return new ResumeProcessingData(text, "dev@example.com", Set.of("java"), "5 years");
+        });
+        when(parsedResumeService.scoreResumeAgainstJobs((ResumeFeatures) any(), anyInt()))
+                .thenReturn(new MatchingResults(List.of(), 0.5, null, 0));
+        when(parsedResumeService.saveProcessedResumeToDatabase(any(), any(), any(), any())).thenAnswer(invocation -> {
+            ParsedResume resume = new ParsedResume();
+            resume.setId(1L);
+            return resume;
+        });
+
+        service = new ResumeIngestionService(parsedResumeService, uploadSpooler, ingestionExecutor, meterRegistry);
+        ReflectionTestUtils.setField(service, "statusRetentionMinutes", 60L);
+        ReflectionTestUtils.invokeMethod(service, "registerMetrics");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        // Let queued uploads finish rather than interrupting them
+        extraction.countDown();
+        ingestionExecutor.shutdown();
+        ingestionExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void uploadFindingTheQueueFullIsRejectedWithRetryAfter() throws Exception {
+        service.submit(file("a.txt", "Alice, Java developer"), null);
+        service.submit(file("b.txt", "Bob, Go developer"), null);
+        FileUploadController controller = new FileUploadController(parsedResumeService, null, service, null, null,
+                meterRegistry);
+
+        ResponseEntity<Map<String, Object>> response =
+                controller.uploadResumeAsync(file("c.txt", "Carol, Rust developer"), null);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("5", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(false, response.getBody().get("success"));
+        assertEquals(1.0, meterRegistry.get("resume.ingestion.rejected").counter().count());
+        // The rejected upload gave back its claim and its spooled file
+        assertTrue(service.claim(hash("Carol, Rust developer")));
+        try (var spooled = Files.list(tempDir)) {
+            assertEquals(2, spooled.count());
+        }
+    }
+
+    @Test
+    void contentBeingProcessedIsTurnedAwayUntilItFinishes() throws Exception {
+        Ingestion first = service.submit(file("a.txt", "Alice, Java developer"), null);
+        Ingestion corrupt = service.submit(file("b.txt", "corrupt document"), null);
+
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class,
+                () -> service.submit(file("a-copy.txt", "Alice, Java developer"), null));
+        assertTrue(duplicate.getMessage().contains("already being processed"));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(file("b-copy.txt", "corrupt document"), null));
+
+        extraction.countDown();
+        awaitFinished(first);
+        awaitFinished(corrupt);
+
+        // Both hashes are released, whether the ingestion completed or failed
+        assertEquals(State.COMPLETED, first.getState());
+        assertEquals(State.FAILED, corrupt.getState());
+        assertEquals("Unreadable document", corrupt.toMap().get("error"));
+        assertTrue(service.claim(hash("Alice, Java developer")));
+        assertTrue(service.claim(hash("corrupt document")));
+    }
+
+    @Test
+    void finishedStatusIsKeptForTheRetentionPeriod() throws Exception {
+        extraction.countDown();
+        Ingestion expired = service.submit(file("a.txt", "Alice, Java developer"), null);
+        Ingestion recent = service.submit(file("b.txt", "corrupt document"), null);
+        awaitFinished(expired);
+        awaitFinished(recent);
+        ReflectionTestUtils.setField(expired, "updatedAt", LocalDateTime.now().minusMinutes(61));
+        ReflectionTestUtils.setField(recent, "updatedAt", LocalDateTime.now().minusMinutes(59));
+
+        // Finished statuses are pruned when the next upload is submitted
+        Ingestion next = service.submit(file("c.txt", "Carol, Rust developer"), null);
+
+        assertFalse(service.findIngestion(expired.id).isPresent());
+        assertTrue(service.findIngestion(recent.id).isPresent());
+        assertTrue(service.findIngestion(next.id).isPresent());
+    }
+
+    @Test
+    void unfinishedStatusIsNeverPruned() throws Exception {
+        Ingestion processing = service.submit(file("a.txt", "Alice, Java developer"), null);
+        ReflectionTestUtils.setField(processing, "updatedAt", LocalDateTime.now().minusHours(2));
+
+        service.submit(file("b.txt", "Bob, Go developer"), null);
+
+        assertTrue(service.findIngestion(processing.id).isPresent());
+    }
+
+    private static void awaitFinished(Ingestion ingestion) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!ingestion.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(ingestion.isFinished(), ingestion.id + " is still " + ingestion.getState());
+    }
+
+    private String hash(String content) {
+        return hashingService.generateTextHash(content);
+    }
+
+    private static MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("file", name, "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,181 @@
+package com.resumai.resumeparserservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resumai.resumeparserservice.entity.JobDescription;
+import com.resumai.resumeparserservice.repository.JobDescriptionRepository;
+import com.resumai.resumeparserservice.repository.JobSkillProfileRepository;
+import com.resumai.resumeparserservice.repository.TermDictionaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResumeMatchingServiceTest {
+
+    private final JobDescriptionRepository jobRepository = mock(JobDescriptionRepository.class);
+    private final JobSkillProfileService slowProfileService = mock(JobSkillProfileService.class);
+    private JobSkillProfileService profileService;
+    private SimilarityService similarityService;
+    private ExecutorService executor;
+    private String resumeText;
+    private List<String> jobTexts;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        SkillExtractionEngine engine;
+        try (InputStream in = getClass().getResourceAsStream("/skills/technical-vocabulary.txt")) {
+            engine = new SkillExtractionEngine(TechnicalVocabulary.load(in));
+        }
+        VectorSpaceModel vectorSpaceModel = new VectorSpaceModel(new TermDictionary(mock(TermDictionaryRepository.class)));
+        similarityService = new SimilarityService(engine, vectorSpaceModel);
+        profileService = new JobSkillProfileService(mock(JobSkillProfileRepository.class),
+                similarityService, new HashingService(), new ObjectMapper(), vectorSpaceModel);
+
+        resumeText = readDoc("high_match_resume.html");
+        jobTexts = List.of(
+                readDoc("sample_job_description.txt"),
+                readDoc("high_match_job_description.txt"),
+                readDoc("test_job_description.txt"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void parallelMatchingProducesSequentialOrder() {
+        ResumeMatchingService matchingService = matchingService(profileService, 4, 30_000, 30_000);
+        when(jobRepository.findByIsActiveTrue()).thenReturn(createJobs(12));
+        // Build every job profile up front, so both runs weigh terms with the same corpus IDF
+        matchingService.matchResumeWithAllJobs(resumeText);
+
+        ReflectionTestUtils.setField(matchingService, "parallelEnabled", false);
+        List<Map<String, Object>> sequential = matchingService.matchResumeWithAllJobs(resumeText);
+        ReflectionTestUtils.setField(matchingService, "parallelEnabled", true);
+        List<Map<String, Object>> parallel = matchingService.matchResumeWithAllJobs(resumeText);
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void topMatchesArePrefixOfFullRanking() {
+        ResumeMatchingService matchingService = matchingService(profileService, 4, 30_000, 30_000);
+        when(jobRepository.findByIsActiveTrue()).thenReturn(createJobs(12));
+        matchingService.matchResumeWithAllJobs(resumeText);
+
+        List<Map<String, Object>> all = matchingService.matchResumeWithAllJobs(resumeText);
+        ResumeMatchingService.TopMatches top = matchingService.matchResumeWithTopJobs(resumeText, 5);
+
+        assertEquals(all.subList(0, 5), top.matches);
+        assertEquals(12, top.jobsScored);
+    }
+
+    @Test
+    void queueTimeDoesNotCountAgainstTheJobTimeout() {
+        // One thread, so each job waits behind the others for longer than its own budget
+        ResumeMatchingService matchingService = matchingService(slowProfileService, 1, 200, 5_000);
+        List<JobDescription> jobs = createJobs(5);
+        when(jobRepository.findByIsActiveTrue()).thenReturn(jobs);
+        jobs.forEach(profileService::getProfile);
+        when(slowProfileService.getProfile(any())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return profileService.getProfile(invocation.getArgument(0));
+        });
+
+        ResumeMatchingService.TopMatches top = matchingService.matchResumeWithTopJobs(resumeText, 10);
+
+        assertEquals(5, top.jobsScored);
+    }
+
+    @Test
+    void slowJobsCostOneRequestDeadlineNotOneTimeoutEach() {
+        ResumeMatchingService matchingService = matchingService(slowProfileService, 4, 300, 600);
+        List<JobDescription> jobs = createJobs(4);
+        when(jobRepository.findByIsActiveTrue()).thenReturn(jobs);
+        when(slowProfileService.getProfile(any())).thenAnswer(invocation -> {
+            JobDescription job = invocation.getArgument(0);
+            if (job.getId() > 1) {
+                Thread.sleep(10_000);
+            }
+            return profileService.getProfile(job);
+        });
+
+        long start = System.nanoTime();
+        ResumeMatchingService.TopMatches top = matchingService.matchResumeWithTopJobs(resumeText, 10);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(1, top.jobsScored);
+        assertEquals(List.of(1L), top.matches.stream().map(match -> match.get("jobId")).collect(Collectors.toList()));
+        assertTrue(elapsedMs < 900, "waited " + elapsedMs + " ms for three timed-out jobs");
+    }
+
+    @Test
+    void softDeletedJobsAreNotScoredBeforeTheSkillIndexIsReady() {
+        ResumeMatchingService matchingService = matchingService(profileService, 2, 30_000, 30_000);
+        List<JobDescription> jobs = createJobs(3);
+        jobs.get(1).setIsActive(false);
+        when(jobRepository.findAll()).thenReturn(jobs);
+        when(jobRepository.findByIsActiveTrue()).thenReturn(List.of(jobs.get(0), jobs.get(2)));
+
+        ResumeMatchingService.TopMatches top = matchingService.matchResumeWithTopJobs(resumeText, 10);
+
+        assertEquals(2, top.jobsScored);
+        assertFalse(top.matches.stream().anyMatch(match -> match.get("jobId").equals(2L)));
+    }
+
+    private ResumeMatchingService matchingService(JobSkillProfileService profiles, int threads,
+                                                  long jobTimeoutMs, long requestTimeoutMs) {
+        executor = Executors.newFixedThreadPool(threads);
+        ResumeMatchingService matchingService = new ResumeMatchingService(
+                jobRepository, similarityService, profiles, executor, mock(JobSkillIndex.class));
+        ReflectionTestUtils.setField(matchingService, "parallelEnabled", true);
+        ReflectionTestUtils.setField(matchingService, "jobTimeoutMs", jobTimeoutMs);
+        ReflectionTestUtils.setField(matchingService, "requestTimeoutMs", requestTimeoutMs);
+        return matchingService;
+    }
+
+    private List<JobDescription> createJobs(int count) {
+        List<JobDescription> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String text = jobTexts.get(i % jobTexts.size());
+            String[] sections = text.split("\n\n");
+
+            JobDescription job = new JobDescription();
+            job.setId((long) i + 1);
+            job.setTitle(sections[0].trim() + " #" + (i + 1));
+            job.setCompany("Company " + (i % 7));
+            job.setDescription(text);
+            job.setRequirements(sections.length > 2 ? sections[2] : null);
+            job.setResponsibilities(sections.length > 3 ? sections[3] : null);
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+    private String readDoc(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/docs/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.ResumeFeatures;
+import com.resumai.resumeparserservice.entity.ParsedResume;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResumeTermIndexTest {
+
+    private final ParsedResumeRepository parsedResumeRepository = mock(ParsedResumeRepository.class);
+    private final ResumeFeatureService resumeFeatureService = mock(ResumeFeatureService.class);
+    // Id, skills and text of the stored resumes
+    private final List<Object[]> stored = new ArrayList<>();
+    private SkillExtractionEngine engine;
+    private ResumeTermIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/skills/technical-vocabulary.txt")) {
+            engine = new SkillExtractionEngine(TechnicalVocabulary.load(in));
+        }
+        stored.add(new Object[]{1L, "Java, Spring Boot, Docker", "Java developer building Spring Boot services"});
+        stored.add(new Object[]{2L, "JavaScript, React", "JavaScript developer building React applications"});
+        stored.add(new Object[]{3L, "Java, Kubernetes", "Java and JavaScript engineer running Kubernetes"});
+        stored.add(new Object[]{4L, null, "Recent graduate"});
+
+        // Id and skills of every resume after the given id, in one page shorter than a full batch
+        when(parsedResumeRepository.findIdsAndSkillsAfter(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            return stored.stream().filter(row -> (Long) row[0] > afterId)
+                    .map(row -> new Object[]{row[0], row[1]}).toList();
+        });
+        when(resumeFeatureService.getProcessedTokens(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            Map<Long, Set<String>> tokens = new HashMap<>();
+            for (Object[] row : stored) {
+                if (ids.contains((Long) row[0])) {
+                    tokens.put((Long) row[0], tokens((String) row[2]));
+                }
+            }
+            return tokens;
+        });
+
+        index = new ResumeTermIndex(parsedResumeRepository, engine, resumeFeatureService, new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(index, "registerMetrics");
+        index.rebuild();
+    }
+
+    @Test
+    void javaDoesNotMatchJavaScript() {
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L, 3L), index.findBySkill("java"));
+        assertEquals(List.of(2L), index.findBySkill("JavaScript"));
+        assertEquals(List.of(1L, 3L), index.findByText("Java"));
+        assertEquals(List.of(2L, 3L), index.findByText("javascript"));
+        assertEquals(List.of(), index.findBySkill("jav"));
+    }
+
+    @Test
+    void everyTermOfAKeywordMustMatch() {
+        assertEquals(List.of(1L), index.findBySkill("spring boot"));
+        assertEquals(List.of(1L, 2L), index.findByText("developer building"));
+        assertEquals(List.of(3L), index.findByText("java kubernetes"));
+        assertEquals(List.of(), index.findByText("java react"));
+        assertEquals(List.of(), index.findByText("  "));
+    }
+
+    @Test
+    void candidatesShareEnoughSkillsOrListNone() {
+        assertEquals(List.of(1L, 3L, 4L), index.findCandidateResumeIds(List.of("Java", "Docker", "Go"), 1));
+        assertEquals(List.of(1L, 4L), index.findCandidateResumeIds(List.of("Java", "Docker", "Go"), 2));
+        assertEquals(List.of(4L), index.findCandidateResumeIds(List.of("Rust"), 1));
+    }
+
+    @Test
+    void savedAndDeletedResumesUpdateTheIndex() {
+        ParsedResume saved = new ParsedResume();
+        saved.setId(5L);
+        saved.setSkills("Java, Go");
+        ResumeFeatures features = new ResumeFeatures();
+        features.setProcessedTokens(tokens("Go and Java backend developer").toArray(new String[0]));
+        index.index(saved, features);
+        index.remove(1L);
+        index.remove(4L);
+
+        assertEquals(List.of(3L, 5L), index.findBySkill("java"));
+        assertEquals(List.of(5L), index.findByText("backend"));
+        assertEquals(List.of(), index.findBySkill("docker"));
+        assertEquals(List.of(), index.findByText("services"));
+        assertEquals(List.of(3L, 5L), index.findCandidateResumeIds(List.of("Java"), 1));
+    }
+
+    private Set<String> tokens(String text) {
+        return new LinkedHashSet<>(List.of(engine.splitWords(engine.enhancedPreprocess(text))));
+    }
+}
@@ -0,0 +1,177 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.repository.JobDescriptionRepository;
+import com.resumai.resumeparserservice.repository.ParsedResumeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StorageGarbageCollectorTest {
+
+    private static final LocalDateTime TWO_HOURS_AGO = LocalDateTime.now().minusHours(2);
+
+    @TempDir
+    Path tempDir;
+
+    private final HashingService hashingService = new HashingService();
+    private final InMemoryStoredFiles storedFiles = new InMemoryStoredFiles();
+    private final ParsedResumeRepository parsedResumeRepository = mock(ParsedResumeRepository.class);
+    private final JobDescriptionRepository jobDescriptionRepository = mock(JobDescriptionRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // File path and count rows, as countByFilePath returns them
+    private final List<Object[]> resumeReferences = new ArrayList<>();
+    private ContentStore contentStore;
+    private StorageGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        contentStore = new ContentStore(storedFiles.repository, hashingService, meterRegistry);
+        ReflectionTestUtils.setField(contentStore, "storageDir", tempDir.resolve("store").toString());
+        ReflectionTestUtils.invokeMethod(contentStore, "init");
+
+        when(parsedResumeRepository.countByFilePath()).thenReturn(resumeReferences);
+        when(jobDescriptionRepository.countActiveByFilePath()).thenReturn(List.of());
+        collector = new StorageGarbageCollector(contentStore, storedFiles.repository, parsedResumeRepository,
+                jobDescriptionRepository, hashingService, meterRegistry);
+        ReflectionTestUtils.setField(collector, "intervalMinutes", 0L);
+        ReflectionTestUtils.setField(collector, "graceMinutes", 60L);
+        ReflectionTestUtils.invokeMethod(collector, "init");
+    }
+
+    @Test
+    void releasedFileIsDeletedOnceTheGracePeriodHasPassed() throws IOException {
+        SpooledUpload upload = spool("Alice, Java developer");
+        Path blob = contentStore.store(upload);
+        String contentHash = upload.getContentHash();
+        upload.discard();
+        age(blob);
+
+        collector.collect();
+
+        assertFalse(Files.exists(blob));
+        assertFalse(storedFiles.rows.containsKey(contentHash));
+        assertEquals(1.0, deleted("unreferenced"));
+    }
+
+    @Test
+    void filesStoredWithinTheGracePeriodAreKept() throws IOException {
+        // Unreferenced, but stored moments ago: an upload in flight may be about to refer to it
+        SpooledUpload upload = spool("Alice, Java developer");
+        Path released = contentStore.store(upload);
+        upload.discard();
+        // No row yet, as while a store is between its rename and its insert
+        Path orphan = writeBlob("Bob, Go developer");
+
+        collector.collect();
+
+        assertTrue(Files.exists(released));
+        assertTrue(Files.exists(orphan));
+        assertEquals(0, storedFiles.refCount(upload.getContentHash()));
+    }
+
+    @Test
+    void storingAgainRestartsTheGracePeriod() throws IOException {
+        SpooledUpload first = spool("Alice, Java developer");
+        Path blob = contentStore.store(first);
+        first.discard();
+        age(blob);
+        // Stored again after aging, then released before its row reached the database
+        SpooledUpload second = spool("Alice, Java developer");
+        contentStore.store(second);
+        second.discard();
+
+        collector.collect();
+
+        assertTrue(Files.exists(blob));
+        assertTrue(storedFiles.rows.containsKey(first.getContentHash()));
+    }
+
+    @Test
+    void oldFilesWithoutARowAndStaleTemporaryFilesAreSwept() throws IOException {
+        Path orphan = writeBlob("Bob, Go developer");
+        Path temp = Files.writeString(contentStore.getTempDirectory().resolve("store-1.part"), "partial");
+        Path unexpected = Files.writeString(contentStore.getRoot().resolve("notes.txt"), "not stored content");
+        setLastModified(orphan);
+        setLastModified(temp);
+        setLastModified(unexpected);
+        SpooledUpload kept = spool("Alice, Java developer");
+        Path referenced = contentStore.store(kept);
+        age(referenced);
+        resumeReferences.add(new Object[]{referenced.toString(), 1L});
+
+        collector.collect();
+
+        assertFalse(Files.exists(orphan));
+        assertFalse(Files.exists(temp));
+        assertTrue(Files.exists(unexpected));
+        assertTrue(Files.exists(referenced));
+        assertEquals(1.0, deleted("orphan"));
+        assertEquals(1.0, deleted("temporary"));
+        assertEquals(1.0, meterRegistry.get("storage.files").gauge().value());
+    }
+
+    @Test
+    void referenceCountsAreRecountedFromTheDatabase() throws IOException {
+        SpooledUpload lost = spool("Alice, Java developer");
+        Path referenced = contentStore.store(lost);
+        // A release that should not have happened: two resumes still point at the file
+        lost.discard();
+        age(referenced);
+        resumeReferences.add(new Object[]{referenced.toString(), 2L});
+
+        collector.collect();
+
+        assertTrue(Files.exists(referenced));
+        assertEquals(2, storedFiles.refCount(lost.getContentHash()));
+    }
+
+    private SpooledUpload spool(String content) throws IOException {
+        Path path = Files.createTempFile(tempDir, "upload-", ".part");
+        Files.writeString(path, content);
+        return new SpooledUpload(path, "resume.txt", "text/plain", Files.size(path),
+                hashingService.generateTextHash(content), "text/plain");
+    }
+
+    /**
+     * Write content to its place in the store without a stored_files row
+     */
+    private Path writeBlob(String content) throws IOException {
+        Path blob = contentStore.pathOf(hashingService.generateTextHash(content));
+        Files.createDirectories(blob.getParent());
+        return Files.writeString(blob, content);
+    }
+
+    /**
+     * Move a stored file and its row past the grace period
+     */
+    private void age(Path blob) throws IOException {
+        storedFiles.age(contentStore.hashOf(blob).orElseThrow(), TWO_HOURS_AGO);
+        setLastModified(blob);
+    }
+
+    private static void setLastModified(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS)));
+    }
+
+    private double deleted(String reason) {
+        return meterRegistry.get("storage.gc.deleted").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,122 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.dto.TokenizedText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class StreamingTokenizerTest {
+
+    private SkillExtractionEngine engine;
+    private String resumeText;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/skills/technical-vocabulary.txt")) {
+            engine = new SkillExtractionEngine(TechnicalVocabulary.load(in));
+        }
+        try (InputStream in = getClass().getResourceAsStream("/docs/high_match_resume.html")) {
+            resumeText = new String(in.readAllBytes(), StandardCharsets.UTF_8).replaceAll("<[^>]+>", " ");
+        }
+    }
+
+    @Test
+    void smallChunksMatchWholeTextNormalization() throws IOException {
+        // Several segments long, with joined phrases on both sides of chunk and segment cuts
+        String text = repeat(resumeText + "\nSpring\n\tBoot, REST  API and Machine   Learning\n", 300_000);
+
+        for (int chunk : new int[]{1, 7, 4096, 100_000}) {
+            assertMatchesWholeText(text, chunk);
+        }
+    }
+
+    @Test
+    void longRunsWithoutWhitespaceMatchWholeTextNormalization() throws IOException {
+        String text = "java " + "x".repeat(200_000) + " spring " + "y".repeat(70_000) + " boot docker";
+
+        assertMatchesWholeText(text, 1000);
+    }
+
+    @Test
+    void bufferWithoutBoundaryIsNotRescannedOnEveryWrite() {
+        // Rescanning the whole buffer per write would take minutes here
+        String word = "z".repeat(4 * 1024 * 1024);
+
+        TokenizedText result = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> tokenize(word, 64));
+
+        assertEquals(1, result.getTokenCount());
+    }
+
+    @Test
+    void writingAfterCloseFails() {
+        StreamingTokenizer tokenizer = new StreamingTokenizer(engine);
+        tokenizer.close();
+
+        assertThrows(IOException.class, () -> tokenizer.write("more"));
+        assertThrows(IllegalStateException.class, () -> new StreamingTokenizer(engine).result());
+    }
+
+    private void assertMatchesWholeText(String text, int chunk) throws IOException {
+        TokenizedText streamed = tokenize(text, chunk);
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : engine.splitWords(engine.enhancedPreprocess(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        Map<String, Integer> termCounts = new HashMap<>();
+        Set<String> keywords = new HashSet<>();
+        for (String token : tokens) {
+            if (token.length() > 2) {
+                termCounts.merge(token, 1, Integer::sum);
+            }
+            if (token.length() > 3 && !engine.isCommonWord(token)) {
+                keywords.add(token);
+            }
+        }
+        List<String> textTokens = new ArrayList<>();
+        for (String word : engine.splitWords(text.toLowerCase())) {
+            textTokens.add(engine.stripNonAlphanumeric(word));
+        }
+
+        assertEquals(String.join(" ", tokens), streamed.getProcessedText(), "chunk " + chunk);
+        assertEquals(tokens.size(), streamed.getTokenCount());
+        assertEquals(termCounts, streamed.getTermCounts());
+        assertEquals(keywords, streamed.getKeywords());
+        assertArrayEquals(FuzzyTermMatcher.tokensByLength(tokens), streamed.getProcessedTokens());
+        assertArrayEquals(FuzzyTermMatcher.tokensByLength(textTokens), streamed.getTextTokens());
+    }
+
+    private TokenizedText tokenize(String text, int chunk) throws IOException {
+        StreamingTokenizer tokenizer = new StreamingTokenizer(engine);
+        for (int offset = 0; offset < text.length(); offset += chunk) {
+            tokenizer.write(text, offset, Math.min(chunk, text.length() - offset));
+        }
+        tokenizer.close();
+        return tokenizer.result();
+    }
+
+    private static String repeat(String text, int targetChars) {
+        StringBuilder builder = new StringBuilder(targetChars + text.length());
+        while (builder.length() < targetChars) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.resumai.resumeparserservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class TechnicalVocabularyTest {
+
+    @Test
+    void digestIgnoresCommentsAndFormatting() throws IOException {
+        String digest = load("java = jdk ~ jvm\nspring boot\n").digest();
+
+        assertEquals(digest, load("# languages\n  Java =jdk~ jvm  \n\nspring boot # framework\n").digest());
+    }
+
+    @Test
+    void digestChangesWithTermsAliasesAndRelatedTerms() throws IOException {
+        String digest = load("java = jdk ~ jvm\nspring boot\n").digest();
+
+        assertNotEquals(digest, load("java = jdk ~ jvm\nspring boot\nkotlin\n").digest());
+        assertNotEquals(digest, load("java = jdk, j2ee ~ jvm\nspring boot\n").digest());
+        assertNotEquals(digest, load("java = jdk ~ jvm, graalvm\nspring boot\n").digest());
+    }
+
+    private static TechnicalVocabulary load(String text) throws IOException {
+        return TechnicalVocabulary.load(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
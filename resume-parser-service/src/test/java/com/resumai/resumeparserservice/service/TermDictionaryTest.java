@@ -0,0 +1,92 @@
+package com.resumai.resumeparserservice.service;
+
+import com.resumai.resumeparserservice.entity.TermDictionaryEntry;
+import com.resumai.resumeparserservice.repository.TermDictionaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TermDictionaryTest {
+
+    private final TermDictionaryRepository repository = mock(TermDictionaryRepository.class);
+    private final TermDictionary dictionary = new TermDictionary(repository);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void assignsDenseIdsInOrderOfFirstAppearance() {
+        assertArrayEquals(new int[]{0, 1, 0}, dictionary.idsOf(List.of("java", "spring", "java")));
+        assertArrayEquals(new int[]{1, 2}, dictionary.idsOf(List.of("spring", "docker")));
+        assertArrayEquals(new String[]{"docker", "java"}, dictionary.termsOf(new int[]{2, 0}));
+        assertEquals(3, dictionary.size());
+    }
+
+    @Test
+    void failedStoreReleasesTheIdsAndRethrows() {
+        dictionary.idsOf(List.of("java"));
+        when(repository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("database down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> dictionary.idsOf(List.of("spring", "docker")));
+        assertEquals(1, dictionary.size());
+        assertThrows(IllegalArgumentException.class, () -> dictionary.termsOf(new int[]{1}));
+
+        doReturn(List.of()).when(repository).saveAll(anyList());
+        assertArrayEquals(new int[]{1, 2}, dictionary.idsOf(List.of("spring", "docker")));
+    }
+
+    @Test
+    void storingDoesNotBlockCallersWithOtherTermsAndSharesIdsOfPendingTerms() throws Exception {
+        CountDownLatch storing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<TermDictionaryEntry>> stored = new ArrayList<>();
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<TermDictionaryEntry> entries = invocation.getArgument(0);
+            synchronized (stored) {
+                stored.add(List.copyOf(entries));
+            }
+            if (entries.get(0).getTerm().equals("java")) {
+                storing.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            return entries;
+        });
+
+        Future<int[]> slow = executor.submit(() -> dictionary.idsOf(List.of("java")));
+        assertTrue(storing.await(5, TimeUnit.SECONDS));
+
+        // A new term is stored while the first store is still running
+        assertArrayEquals(new int[]{1}, dictionary.idsOf(List.of("kotlin")));
+
+        // The pending term is not visible yet; a caller needing it waits for its store
+        Future<int[]> waiting = executor.submit(() -> dictionary.idsOf(List.of("kotlin", "java")));
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+
+        release.countDown();
+        assertArrayEquals(new int[]{0}, slow.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new int[]{1, 0}, waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(2, stored.size());
+    }
+}
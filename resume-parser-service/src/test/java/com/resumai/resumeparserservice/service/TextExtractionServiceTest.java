@@ -0,0 +1,184 @@
+package com.resumai.resumeparserservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.XHTMLContentHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TextExtractionServiceTest {
+
+    private static final long TIMEOUT_MS = 300;
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HashingService hashingService = new HashingService();
+    private final ExtractedTextCache extractedTextCache = mock(ExtractedTextCache.class);
+    private final ExecutorService requests = Executors.newFixedThreadPool(2);
+    private final StubParser parser = new StubParser();
+    private TextExtractionService service;
+
+    @BeforeEach
+    void setUp() {
+        when(extractedTextCache.get(anyString(), anyLong())).thenReturn(Optional.empty());
+        service = new TextExtractionService(meterRegistry, extractedTextCache);
+        ReflectionTestUtils.setField(service, "parser", parser);
+        ReflectionTestUtils.setField(service, "parserThreads", 1);
+        ReflectionTestUtils.setField(service, "timeoutMs", TIMEOUT_MS);
+        ReflectionTestUtils.setField(service, "maxRunawayReplacements", 1);
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        parser.spinning = false;
+        requests.shutdownNow();
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    @Test
+    void timeoutCountsFromWhenTheParseStarts() throws Exception {
+        service.extractTextFromFile(file("warm up"));
+
+        // One parser thread: the second parse waits 200 ms for it, then runs 200 ms, within its own 300 ms
+        Future<String> first = requests.submit(() -> service.extractTextFromFile(file("sleep 200")));
+        Future<String> second = requests.submit(() -> service.extractTextFromFile(file("sleep 200")));
+
+        assertEquals("slept 200", first.get(5, TimeUnit.SECONDS));
+        assertEquals("slept 200", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void runawayParseIsCountedAndItsThreadReplaced() throws Exception {
+        TikaException timeout = assertThrows(TikaException.class, () -> service.extractTextFromFile(file("spin")));
+        assertTrue(timeout.getMessage().contains("timed out"));
+        assertEquals(1.0, runawayParses());
+
+        // The stuck thread is replaced, so the next document is parsed at once
+        assertEquals("plain text", service.extractTextFromFile(file("plain text")));
+
+        parser.spinning = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (runawayParses() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0.0, runawayParses());
+    }
+
+    @Test
+    void parsesWaitingForAThreadGiveUpOnceReplacementsRunOut() throws Exception {
+        assertThrows(TikaException.class, () -> service.extractTextFromFile(file("spin")));
+        assertThrows(TikaException.class, () -> service.extractTextFromFile(file("spin")));
+        assertEquals(2.0, runawayParses());
+
+        long start = System.nanoTime();
+        TikaException overloaded = assertThrows(TikaException.class,
+                () -> service.extractTextFromFile(file("plain text")));
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(overloaded.getMessage().contains("overloaded"), overloaded.getMessage());
+        assertTrue(waitedMs >= TIMEOUT_MS && waitedMs < 3 * TIMEOUT_MS, "waited " + waitedMs + " ms");
+    }
+
+    @Test
+    void onlyTextParsedInFullIsCached() throws Exception {
+        ReflectionTestUtils.setField(service, "maxChars", 20);
+
+        assertEquals("Alice, Java develope", service.extractTextFromFile(spool("Alice, Java developer and mentor")));
+        verify(extractedTextCache, never()).put(anyString(), any());
+
+        SpooledUpload complete = spool("Bob, Go developer");
+        assertEquals("Bob, Go developer", service.extractTextFromFile(complete));
+        verify(extractedTextCache).put(complete.getContentHash(), "Bob, Go developer");
+    }
+
+    private double runawayParses() {
+        return meterRegistry.get("text.extraction.runaway").gauge().value();
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "resume.txt", "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private SpooledUpload spool(String content) throws IOException {
+        Path path = Files.createTempFile(tempDir, "upload-", ".part");
+        Files.writeString(path, content);
+        return new SpooledUpload(path, "resume.txt", "text/plain", Files.size(path),
+                hashingService.generateTextHash(content), "text/plain");
+    }
+
+    /**
+     * Emits the document's text, or sleeps for "sleep N", or spins ignoring interrupts for "spin"
+     */
+    private static final class StubParser implements Parser {
+        volatile boolean spinning = true;
+
+        @Override
+        public Set<MediaType> getSupportedTypes(ParseContext context) {
+            return Set.of(MediaType.TEXT_PLAIN);
+        }
+
+        @Override
+        public void parse(InputStream stream, ContentHandler handler, Metadata metadata, ParseContext context)
+                throws IOException, SAXException, TikaException {
+            String content = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+            String text = content;
+            if (content.equals("spin")) {
+                long counter = 0;
+                while (spinning) {
+                    counter++;
+                }
+                text = "spun " + counter;
+            } else if (content.startsWith("sleep ")) {
+                long millis = Long.parseLong(content.substring(6));
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TikaException("interrupted", e);
+                }
+                text = "slept " + millis;
+            }
+
+            XHTMLContentHandler xhtml = new XHTMLContentHandler(handler, metadata);
+            xhtml.startDocument();
+            xhtml.element("p", text);
+            xhtml.endDocument();
+        }
+    }
+}
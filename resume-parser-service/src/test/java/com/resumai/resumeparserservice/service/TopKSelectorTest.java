@@ -0,0 +1,93 @@
+package com.resumai.resumeparserservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TopKSelectorTest {
+
+    @Test
+    void keepsHighestScoresBestFirst() {
+        TopKSelector selector = new TopKSelector(3);
+        double[] scores = {0.2, 0.9, 0.5, 0.1, 0.7, 0.3};
+        for (int id = 0; id < scores.length; id++) {
+            selector.offer(id, scores[id]);
+        }
+
+        assertEquals(3, selector.size());
+        assertArrayEquals(new int[]{1, 4, 2}, selector.drainBestFirst());
+        assertEquals(0, selector.size());
+    }
+
+    @Test
+    void equalScoresRankLowerIdFirst() {
+        TopKSelector selector = new TopKSelector(3);
+        for (int id = 0; id < 6; id++) {
+            selector.offer(id, 0.5);
+        }
+
+        assertArrayEquals(new int[]{0, 1, 2}, selector.drainBestFirst());
+    }
+
+    @Test
+    void tiesAtTheCutoffKeepTheEarlierId() {
+        TopKSelector selector = new TopKSelector(2);
+        selector.offer(0, 0.4);
+        selector.offer(1, 0.8);
+        selector.offer(2, 0.4);
+        selector.offer(3, 0.4);
+
+        assertArrayEquals(new int[]{1, 0}, selector.drainBestFirst());
+    }
+
+    @Test
+    void capacityLargerThanCandidatesReturnsEveryCandidate() {
+        TopKSelector selector = new TopKSelector(10);
+        selector.offer(0, 0.3);
+        selector.offer(1, 0.6);
+        selector.offer(2, 0.3);
+
+        assertEquals(3, selector.size());
+        assertArrayEquals(new int[]{1, 0, 2}, selector.drainBestFirst());
+    }
+
+    @Test
+    void emptySelectorDrainsToNothing() {
+        assertArrayEquals(new int[0], new TopKSelector(5).drainBestFirst());
+    }
+
+    @Test
+    void matchesStableDescendingSort() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            int count = 1 + random.nextInt(200);
+            int k = 1 + random.nextInt(30);
+            // Few distinct scores so ties are common
+            double[] scores = random.doubles(count).map(s -> Math.floor(s * 8) / 8).toArray();
+
+            TopKSelector selector = new TopKSelector(k);
+            for (int id = 0; id < count; id++) {
+                selector.offer(id, scores[id]);
+            }
+
+            List<Integer> expected = IntStream.range(0, count).boxed()
+                    .sorted(Comparator.comparingDouble((Integer id) -> scores[id]).reversed())
+                    .limit(k)
+                    .collect(Collectors.toList());
+            assertEquals(expected, IntStream.of(selector.drainBestFirst()).boxed().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void rejectsCapacityBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new TopKSelector(0));
+    }
+}